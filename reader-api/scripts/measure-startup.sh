@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# 启动耗时测量：分别以普通方式和 AOT+CDS 方式启动 reader-api，输出端口就绪耗时、首个请求延迟和 Spring 报告的启动耗时
+# 由 mvn -Pfast-startup verify 调用，也可单独执行：
+#   scripts/measure-startup.sh target/reader-api-0.0.1-SNAPSHOT.jar target/fast-startup [轮数]
+#
+# 快速启动方式的运行命令（在 target/fast-startup 目录下）：
+#   java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar reader-api-0.0.1-SNAPSHOT.jar
+set -euo pipefail
+
+JAR=$(realpath "$1")
+FAST_DIR=$(realpath "$2")
+RUNS=${3:-3}
+JAVA_BIN=${JAVA_BIN:-java}
+PORT=${MEASURE_PORT:-18080}
+LOG_DIR=$(dirname "$JAR")/startup-logs
+mkdir -p "$LOG_DIR"
+
+# 测量时不启动后台写库任务，避免数据库不可达时的重试干扰结果
+APP_ARGS=(--server.port="$PORT" --reader.audit.enabled=false --reader.archive.enabled=false
+          --reader.outbox.enabled=false --reader.login-history.enabled=false)
+
+# 输出：端口就绪毫秒 首个请求毫秒 Spring报告秒数
+measure_once() {
+    local name=$1 dir=$2 log=$LOG_DIR/$1-$3.log
+    shift 3
+    local start pid
+    start=$(date +%s%N)
+    (cd "$dir" && exec "$JAVA_BIN" "$@" "${APP_ARGS[@]}" >"$log" 2>&1) &
+    pid=$!
+    # 只探测端口，不发 HTTP 请求，首个请求留给下面计时
+    until (exec 3<>"/dev/tcp/127.0.0.1/$PORT") 2>/dev/null; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$name 启动失败，日志：$log" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    local ready_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+    local first_ms
+    first_ms=$(curl -s -o /dev/null -w '%{time_total}' "http://127.0.0.1:$PORT/api/hello" | awk '{printf "%d", $1 * 1000}')
+    curl -sf -o /dev/null "http://127.0.0.1:$PORT/actuator/health/readiness" || echo "$name 就绪探针未通过" >&2
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    local started
+    started=$(grep -o 'Started ReaderApiApplication in [0-9.]* seconds' "$log" | grep -o '[0-9.]\+' | head -1)
+    echo "$ready_ms $first_ms ${started:--}"
+}
+
+measure() {
+    local name=$1 dir=$2
+    shift 2
+    local results=()
+    for run in $(seq 1 "$RUNS"); do
+        results+=("$(measure_once "$name" "$dir" "$run" "$@")")
+    done
+    printf '%s\n' "${results[@]}" | awk -v name="$name" '
+        { ready += $1; first += $2; spring += $3; n++ }
+        END { printf "%-10s %14.0f %14.0f %16.2f\n", name, ready / n, first / n, spring / n }'
+}
+
+echo "reader-api 启动耗时（${RUNS} 轮平均，日志：$LOG_DIR）"
+printf '%-10s %14s %14s %16s\n' "模式" "端口就绪(ms)" "首个请求(ms)" "Spring启动(s)"
+measure "普通" "$(dirname "$JAR")" -jar "$JAR"
+measure "AOT+CDS" "$FAST_DIR" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$(basename "$JAR")"
@@ -0,0 +1,49 @@
+package com.example.readerapi.audit;
+
+/**
+ * 安全审计事件类型
+ * code 写入审计记录，只能追加新值，不能修改已有编码
+ */
+public enum AuditEventType {
+    
+    LOGIN_SUCCESS(1),
+    LOGIN_FAILURE(2),
+    USER_ENABLED(3),
+    USER_DISABLED(4),
+    USER_LOCKED(5),
+    PASSWORD_CHANGED(6),
+    PASSWORD_RESET(7),
+    PASSWORD_CHANGE_FAILURE(8);
+    
+    private static final AuditEventType[] BY_CODE;
+    
+    static {
+        int maxCode = 0;
+        for (AuditEventType type : values()) {
+            maxCode = Math.max(maxCode, type.code);
+        }
+        BY_CODE = new AuditEventType[maxCode + 1];
+        for (AuditEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+    
+    private final int code;
+    
+    AuditEventType(int code) {
+        this.code = code;
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    /**
+     * 根据编码查找事件类型
+     * @param code 编码
+     * @return 事件类型，未知编码返回null
+     */
+    public static AuditEventType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
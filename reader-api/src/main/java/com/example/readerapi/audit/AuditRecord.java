@@ -0,0 +1,13 @@
+package com.example.readerapi.audit;
+
+/**
+ * 审计记录
+ * @param timestamp 发生时间（epoch毫秒）
+ * @param userId 用户ID，未知用户（如用户名不存在的登录失败）为0
+ * @param type 事件类型
+ * @param ip 客户端IP
+ * @param subject 操作对象，如登录时输入的用户名
+ * @param detail 补充说明，如失败原因
+ */
+public record AuditRecord(long timestamp, long userId, AuditEventType type, String ip, String subject, String detail) {
+}
@@ -0,0 +1,83 @@
+package com.example.readerapi.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界无锁环形队列（多生产者、单消费者）
+ *
+ * 每个槽位带一个序号：序号等于生产位置时槽位空闲，等于生产位置+1时已写入可读。
+ * 生产者 CAS 抢占位置后写入元素并发布序号；消费者只读写自己的 head，不需要 CAS。
+ * 队列满时 offer 立即返回 false，业务线程永远不会因审计而阻塞。
+ */
+public final class AuditRingBuffer {
+    
+    private final AuditRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    
+    /**
+     * 只由消费者线程访问
+     */
+    private long head;
+    
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("容量必须是2的幂: " + capacity);
+        }
+        this.slots = new AuditRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    /**
+     * 放入一条记录（任意线程）
+     * @return 队列已满时返回false
+     */
+    public boolean offer(AuditRecord record) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.getAcquire(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = record;
+                    sequences.setRelease(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+    
+    /**
+     * 取出一条记录（仅消费者线程）
+     * @return 队列为空时返回null
+     */
+    public AuditRecord poll() {
+        int index = (int) (head & mask);
+        if (sequences.getAcquire(index) != head + 1) {
+            return null;
+        }
+        AuditRecord record = slots[index];
+        slots[index] = null;
+        sequences.setRelease(index, head + slots.length);
+        head++;
+        return record;
+    }
+    
+    /**
+     * 当前积压的记录数（近似值）
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
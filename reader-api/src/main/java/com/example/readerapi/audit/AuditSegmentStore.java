@@ -0,0 +1,301 @@
+package com.example.readerapi.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * 审计日志段文件存储
+ *
+ * 目录下是一组定长、内存映射的段文件 audit-000001.seg、audit-000002.seg ...，写满后切换到下一个，
+ * 超过保留个数时删除最旧的段。
+ *
+ * 段头（32字节）：magic(int) version(short) reserved(short) minTs(long) maxTs(long) end(int) reserved(int)
+ * 记录：length(int) timestamp(long) userId(long) type(byte) ip(short+UTF-8) subject(short+UTF-8) detail(short+UTF-8)
+ *
+ * 写入只在单个线程中进行：先写记录体，再更新段头的 end，异常退出时未写完的记录不会被读到。
+ * 读取可以在任意线程并发进行，以段头的时间范围跳过无关段，只扫描到已发布的 end。
+ */
+@Slf4j
+public class AuditSegmentStore implements Closeable {
+    
+    static final int MAGIC = 0x41554454;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    
+    private static final int MIN_TS_OFFSET = 8;
+    private static final int MAX_TS_OFFSET = 16;
+    private static final int END_OFFSET = 24;
+    
+    private static final int MAX_IP_CHARS = 45;
+    private static final int MAX_SUBJECT_CHARS = 64;
+    private static final int MAX_DETAIL_CHARS = 128;
+    
+    /**
+     * 单条记录的最大字节数（UTF-8 每字符最多3字节）
+     */
+    static final int MAX_RECORD_SIZE = 4 + 8 + 8 + 1 + 3 * 2 + 3 * (MAX_IP_CHARS + MAX_SUBJECT_CHARS + MAX_DETAIL_CHARS);
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    
+    private Segment active;
+    private boolean dirty;
+    
+    public AuditSegmentStore(Path directory, int segmentSize, int maxSegments) {
+        if (segmentSize < HEADER_SIZE + MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("段文件过小: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+        open();
+    }
+    
+    /**
+     * 追加一条记录（仅写入线程）
+     */
+    public void append(AuditRecord record) {
+        byte[] ip = encode(record.ip(), MAX_IP_CHARS);
+        byte[] subject = encode(record.subject(), MAX_SUBJECT_CHARS);
+        byte[] detail = encode(record.detail(), MAX_DETAIL_CHARS);
+        int length = 4 + 8 + 8 + 1 + 2 + ip.length + 2 + subject.length + 2 + detail.length;
+        
+        if (active.end + length > segmentSize) {
+            rotate();
+        }
+        
+        MappedByteBuffer buffer = active.buffer;
+        int pos = active.end;
+        buffer.putInt(pos, length);
+        buffer.putLong(pos + 4, record.timestamp());
+        buffer.putLong(pos + 12, record.userId());
+        buffer.put(pos + 20, (byte) record.type().getCode());
+        int p = pos + 21;
+        p = putString(buffer, p, ip);
+        p = putString(buffer, p, subject);
+        putString(buffer, p, detail);
+        
+        if (active.minTs == Long.MAX_VALUE) {
+            active.minTs = record.timestamp();
+            buffer.putLong(MIN_TS_OFFSET, record.timestamp());
+        }
+        if (record.timestamp() > active.maxTs) {
+            active.maxTs = record.timestamp();
+            buffer.putLong(MAX_TS_OFFSET, record.timestamp());
+        }
+        buffer.putInt(END_OFFSET, pos + length);
+        // volatile 写，读线程看到新的 end 时也能看到记录内容
+        active.end = pos + length;
+        dirty = true;
+    }
+    
+    /**
+     * 把当前段的脏页刷到磁盘（仅写入线程）
+     */
+    public void force() {
+        if (dirty) {
+            active.buffer.force();
+            dirty = false;
+        }
+    }
+    
+    /**
+     * 按用户和时间范围查询，按时间倒序返回
+     * @param userId 用户ID，为null时不按用户过滤
+     * @param fromMillis 起始时间（含）
+     * @param toMillis 结束时间（不含）
+     * @param limit 最多返回条数
+     * @return 审计记录
+     */
+    public List<AuditRecord> scan(Long userId, long fromMillis, long toMillis, int limit) {
+        List<AuditRecord> result = new ArrayList<>();
+        List<Segment> snapshot = List.copyOf(segments);
+        for (int i = snapshot.size() - 1; i >= 0 && result.size() < limit; i--) {
+            Segment segment = snapshot.get(i);
+            if (segment.minTs == Long.MAX_VALUE || segment.maxTs < fromMillis || segment.minTs >= toMillis) {
+                continue;
+            }
+            List<AuditRecord> matches = scanSegment(segment, userId, fromMillis, toMillis);
+            for (int j = matches.size() - 1; j >= 0 && result.size() < limit; j--) {
+                result.add(matches.get(j));
+            }
+        }
+        return result;
+    }
+    
+    private List<AuditRecord> scanSegment(Segment segment, Long userId, long fromMillis, long toMillis) {
+        int end = segment.end;
+        ByteBuffer buffer = segment.buffer.duplicate();
+        List<AuditRecord> matches = new ArrayList<>();
+        int pos = HEADER_SIZE;
+        while (pos < end) {
+            int length = buffer.getInt(pos);
+            long timestamp = buffer.getLong(pos + 4);
+            long recordUserId = buffer.getLong(pos + 12);
+            // 先用定长字段过滤，命中后才解码字符串
+            if (timestamp >= fromMillis && timestamp < toMillis && (userId == null || userId == recordUserId)) {
+                AuditEventType type = AuditEventType.fromCode(buffer.get(pos + 20));
+                int p = pos + 21;
+                String ip = getString(buffer, p);
+                p += 2 + Short.toUnsignedInt(buffer.getShort(p));
+                String subject = getString(buffer, p);
+                p += 2 + Short.toUnsignedInt(buffer.getShort(p));
+                String detail = getString(buffer, p);
+                matches.add(new AuditRecord(timestamp, recordUserId, type, ip, subject, detail));
+            }
+            pos += length;
+        }
+        return matches;
+    }
+    
+    /**
+     * 段文件个数
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+    
+    @Override
+    public void close() {
+        force();
+    }
+    
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(path -> path.getFileName().toString().matches("audit-\\d+\\.seg"))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                Segment segment = mapExisting(file);
+                if (segment != null) {
+                    segments.add(segment);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开审计日志目录失败: " + directory, e);
+        }
+        
+        if (segments.isEmpty()) {
+            active = createSegment(1);
+            segments.add(active);
+        } else {
+            active = segments.get(segments.size() - 1);
+        }
+    }
+    
+    private void rotate() {
+        active.buffer.force();
+        dirty = false;
+        Segment next = createSegment(active.id + 1);
+        segments.add(next);
+        active = next;
+        
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.remove(0);
+            try {
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                log.warn("删除过期审计日志段失败: {}", oldest.path, e);
+            }
+        }
+    }
+    
+    private Segment createSegment(long id) {
+        Path path = directory.resolve(String.format("audit-%06d.seg", id));
+        MappedByteBuffer buffer = map(path);
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putLong(MIN_TS_OFFSET, Long.MAX_VALUE);
+        buffer.putLong(MAX_TS_OFFSET, Long.MIN_VALUE);
+        buffer.putInt(END_OFFSET, HEADER_SIZE);
+        return new Segment(id, path, buffer, Long.MAX_VALUE, Long.MIN_VALUE, HEADER_SIZE);
+    }
+    
+    private Segment mapExisting(Path path) throws IOException {
+        if (Files.size(path) != segmentSize) {
+            log.warn("审计日志段大小与配置不一致，已跳过: {}", path);
+            return null;
+        }
+        MappedByteBuffer buffer = map(path);
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            log.warn("无法识别的审计日志段，已跳过: {}", path);
+            return null;
+        }
+        String name = path.getFileName().toString();
+        long id = Long.parseLong(name.substring("audit-".length(), name.length() - ".seg".length()));
+        return new Segment(id, path, buffer, buffer.getLong(MIN_TS_OFFSET), buffer.getLong(MAX_TS_OFFSET), buffer.getInt(END_OFFSET));
+    }
+    
+    private MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("映射审计日志段失败: " + path, e);
+        }
+    }
+    
+    private static byte[] encode(String value, int maxChars) {
+        if (value == null || value.isEmpty()) {
+            return new byte[0];
+        }
+        String truncated = value.length() > maxChars ? value.substring(0, maxChars) : value;
+        return truncated.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static int putString(MappedByteBuffer buffer, int pos, byte[] bytes) {
+        buffer.putShort(pos, (short) bytes.length);
+        buffer.put(pos + 2, bytes);
+        return pos + 2 + bytes.length;
+    }
+    
+    private static String getString(ByteBuffer buffer, int pos) {
+        int length = Short.toUnsignedInt(buffer.getShort(pos));
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(pos + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 段文件，end/minTs/maxTs 由写入线程更新、读线程读取
+     */
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private volatile long minTs;
+        private volatile long maxTs;
+        private volatile int end;
+        
+        private Segment(long id, Path path, MappedByteBuffer buffer, long minTs, long maxTs, int end) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+            this.minTs = minTs;
+            this.maxTs = maxTs;
+            this.end = end;
+        }
+    }
+}
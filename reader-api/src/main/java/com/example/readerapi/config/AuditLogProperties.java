@@ -0,0 +1,48 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 安全审计日志配置
+ * 对应 application.yml 中的 reader.audit
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.audit")
+public class AuditLogProperties {
+    
+    /**
+     * 是否记录审计日志
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 段文件目录
+     */
+    private String directory = "data/audit";
+    
+    /**
+     * 单个段文件大小
+     */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    
+    /**
+     * 最多保留的段文件个数，超过后删除最旧的段
+     */
+    private int maxSegments = 32;
+    
+    /**
+     * 内存环形队列容量（2的幂），写满后新记录被丢弃并计数
+     */
+    private int bufferCapacity = 65536;
+    
+    /**
+     * 脏页刷盘间隔
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+}
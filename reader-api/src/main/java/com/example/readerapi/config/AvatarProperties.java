@@ -0,0 +1,54 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 用户头像存储配置
+ * 对应 application.yml 中的 reader.avatar
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.avatar")
+public class AvatarProperties {
+    
+    /**
+     * 头像文件目录
+     */
+    private String directory = "data/avatars";
+    
+    /**
+     * 上传时生成的缩略图边长（像素），只生成一次
+     */
+    private List<Integer> sizes = List.of(64, 128, 256);
+    
+    /**
+     * 写入用户 avatarUrl 的缩略图边长，须在 sizes 中
+     */
+    private int defaultSize = 256;
+    
+    /**
+     * 原图文件大小上限（multipart 全局上限按图书文件设置，头像单独限制）
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(5);
+    
+    /**
+     * 原图最大像素数，超过则拒绝，防止解码超大图片耗尽内存
+     */
+    private long maxPixels = 25_000_000;
+    
+    /**
+     * 内存中缓存的缩略图总大小
+     */
+    private DataSize cacheSize = DataSize.ofMegabytes(32);
+    
+    /**
+     * 浏览器缓存时间，文件名即内容哈希，内容不会变化
+     */
+    private Duration maxAge = Duration.ofDays(365);
+}
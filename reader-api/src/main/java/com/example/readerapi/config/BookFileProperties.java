@@ -0,0 +1,43 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 图书文件（EPUB/PDF/TXT）存储与下载配置
+ * 对应 application.yml 中的 reader.book-file
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.book-file")
+public class BookFileProperties {
+    
+    /**
+     * 图书文件目录
+     */
+    private String directory = "data/books";
+    
+    /**
+     * 单个图书文件大小上限，spring.servlet.multipart.max-file-size 须不小于该值
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(200);
+    
+    /**
+     * 每个客户端IP同时进行的下载数上限
+     */
+    private int maxConcurrentPerClient = 2;
+    
+    /**
+     * 全局同时进行的下载数上限，每个下载占用一个请求线程直到传输结束
+     */
+    private int maxConcurrentTotal = 64;
+    
+    /**
+     * 超过并发上限时返回的 Retry-After
+     */
+    private Duration retryAfter = Duration.ofSeconds(5);
+}
@@ -0,0 +1,56 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 图书全文检索配置
+ * 对应 application.yml 中的 reader.search
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.search")
+public class BookSearchProperties {
+    
+    /**
+     * 是否建立全文索引
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 索引段文件目录
+     */
+    private String directory = "data/search";
+    
+    /**
+     * 每次写入新段最多包含的图书数
+     */
+    private int batchSize = 20;
+    
+    /**
+     * 单本书最多索引的正文字符数，超出部分不可检索
+     */
+    private int maxTextLength = 20_000_000;
+    
+    /**
+     * 段数超过该值时触发后台合并
+     */
+    private int maxSegments = 8;
+    
+    /**
+     * 一次最多合并的段数
+     */
+    private int mergeFactor = 4;
+    
+    /**
+     * 合并后段文件大小上限（不超过2GB）
+     */
+    private DataSize maxSegmentSize = DataSize.ofMegabytes(1024);
+    
+    /**
+     * 摘要字符数
+     */
+    private int snippetLength = 80;
+}
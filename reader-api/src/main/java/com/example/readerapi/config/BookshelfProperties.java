@@ -0,0 +1,32 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 书架配置
+ * 对应 application.yml 中的 reader.bookshelf
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.bookshelf")
+public class BookshelfProperties {
+    
+    /**
+     * 每个用户书架上最多的图书数
+     */
+    private int maxBooks = 2000;
+    
+    /**
+     * 内存中缓存书架的用户数
+     */
+    private long cacheSize = 10_000;
+    
+    /**
+     * 书架缓存在最后一次访问后保留的时间
+     */
+    private Duration cacheExpiry = Duration.ofMinutes(30);
+}
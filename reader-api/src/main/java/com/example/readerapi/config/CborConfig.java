@@ -0,0 +1,85 @@
+package com.example.readerapi.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * CBOR 响应编码配置
+ *
+ * 请求头为 Accept: application/cbor 时，接口返回与 JSON 结构相同的 CBOR（字段名、嵌套和 null 一致），
+ * 供内部服务调用，省去 JSON 文本的解析开销；未指定或接受 JSON 时仍返回 JSON。
+ * 与 JSON 唯一的区别是 LocalDateTime 编码为固定7个整数的数组 [年, 月, 日, 时, 分, 秒, 纳秒]，不是 ISO 字符串。
+ */
+@Configuration
+@RequiredArgsConstructor
+public class CborConfig implements WebMvcConfigurer {
+    
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    
+    /**
+     * 用应用的 Jackson 配置替换默认的 CBOR 转换器，位置不变：排在 JSON 之后，Accept 为通配符时仍返回 JSON
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2CborHttpMessageConverter cbor =
+                new MappingJackson2CborHttpMessageConverter(cborObjectMapper(objectMapperBuilder));
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                converters.set(i, cbor);
+                return;
+            }
+        }
+        converters.add(cbor);
+    }
+    
+    /**
+     * 创建 CBOR 编码的 ObjectMapper，模块和特性与 JSON 相同，只替换 LocalDateTime 的编码
+     * @param builder 应用的 Jackson 配置
+     * @return CBOR ObjectMapper
+     */
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.factory(new CBORFactory()).build();
+        // 后注册的序列化器优先于 JavaTimeModule；反序列化仍由 JavaTimeModule 处理，它同时接受数组和 ISO 字符串
+        mapper.registerModule(new SimpleModule("CborDateTime")
+                .addSerializer(LocalDateTime.class, new LocalDateTimeArraySerializer()));
+        return mapper;
+    }
+    
+    /**
+     * 将 LocalDateTime 写为定长整数数组
+     * JavaTimeModule 的时间戳格式会省略为0的秒和纳秒，数组长度不固定，不便于其他语言的客户端按位置解码
+     */
+    private static class LocalDateTimeArraySerializer extends StdSerializer<LocalDateTime> {
+        
+        LocalDateTimeArraySerializer() {
+            super(LocalDateTime.class);
+        }
+        
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray(value, 7);
+            generator.writeNumber(value.getYear());
+            generator.writeNumber(value.getMonthValue());
+            generator.writeNumber(value.getDayOfMonth());
+            generator.writeNumber(value.getHour());
+            generator.writeNumber(value.getMinute());
+            generator.writeNumber(value.getSecond());
+            generator.writeNumber(value.getNano());
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 数据库连接池自适应调整配置
+ * 对应 application.yml 中的 reader.pool
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.pool")
+public class ConnectionPoolProperties {
+    
+    /**
+     * 是否根据等待时间自动调整连接池上限（关闭后保持 spring.datasource.hikari.maximum-pool-size）
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 连接池上限的下界
+     */
+    private int minSize = 2;
+    
+    /**
+     * 连接池上限的上界，应小于数据库允许本应用使用的连接数
+     */
+    private int maxSize = 20;
+    
+    /**
+     * 平均获取连接等待时间超过该值时扩容
+     */
+    private Duration targetWait = Duration.ofMillis(20);
+    
+    /**
+     * 连接平均占用时间（近似数据库延迟）超过该值时认为数据库已饱和，不再扩容而是收缩
+     */
+    private Duration latencyCeiling = Duration.ofMillis(500);
+    
+    /**
+     * 连续多少个周期空闲连接富余时收缩一个连接
+     */
+    private int shrinkAfterIdlePeriods = 6;
+}
@@ -0,0 +1,60 @@
+package com.example.readerapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * JSON 响应配置
+ *
+ * 默认的 Jackson 转换器边序列化边写出，响应没有 Content-Length，内嵌 Tomcat 会把长度未知的响应一律压缩，
+ * server.compression.min-response-size 不生效，几百字节的单个用户也要付出压缩开销。
+ * 这里先序列化到内存再写出并设置 Content-Length，只有超过阈值的 JSON 响应才压缩；
+ * 接口返回的对象本来就完整在内存中，多一份字节缓冲的代价很小。流式 NDJSON 不经过此转换器，仍总是压缩。
+ */
+@Configuration
+public class JsonResponseConfig {
+    
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new SizedJsonHttpMessageConverter(objectMapper);
+    }
+    
+    /**
+     * 写出前设置 Content-Length 的 JSON 转换器
+     */
+    static class SizedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+        
+        SizedJsonHttpMessageConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+        
+        @Override
+        protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            super.writeInternal(object, type, new HttpOutputMessage() {
+                
+                @Override
+                public OutputStream getBody() {
+                    return buffer;
+                }
+                
+                @Override
+                public HttpHeaders getHeaders() {
+                    return outputMessage.getHeaders();
+                }
+            });
+            outputMessage.getHeaders().setContentLength(buffer.size());
+            buffer.writeTo(outputMessage.getBody());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录计数配置
+ * 对应 application.yml 中的 reader.login-counter
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.login-counter")
+public class LoginCounterProperties {
+    
+    /**
+     * 每个JDBC批次的行数
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,40 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录历史配置
+ * 对应 application.yml 中的 reader.login-history
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.login-history")
+public class LoginHistoryProperties {
+    
+    /**
+     * 是否记录登录历史
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 待写入队列容量，写满后新记录被丢弃并计数
+     */
+    private int queueCapacity = 10000;
+    
+    /**
+     * 每个JDBC批次的行数
+     */
+    private int batchSize = 500;
+    
+    /**
+     * 保留的月份数，更早的月分区整体删除
+     */
+    private int retentionMonths = 12;
+    
+    /**
+     * 提前创建的未来月分区个数
+     */
+    private int premakeMonths = 3;
+}
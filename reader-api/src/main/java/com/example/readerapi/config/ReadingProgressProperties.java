@@ -0,0 +1,48 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 阅读进度配置
+ * 对应 application.yml 中的 reader.reading-progress
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.reading-progress")
+public class ReadingProgressProperties {
+    
+    /**
+     * 每个JDBC批次的行数
+     */
+    private int batchSize = 500;
+    
+    /**
+     * 内存中缓存的已持久化进度条数（不含待写入的进度）
+     */
+    private long cacheSize = 100_000;
+    
+    /**
+     * 内存中待写入进度的上限（不同的用户、图书对数），达到后新的上报先在调用线程提前写入，
+     * 写入失败时拒绝新的用户、图书对，已有条目的更新不受影响
+     */
+    private int maxPending = 200_000;
+    
+    /**
+     * 用户、图书存在性检查结果的缓存时间，用户变更事件会立即使对应用户的结果失效
+     */
+    private Duration existenceCacheTtl = Duration.ofMinutes(5);
+    
+    /**
+     * 用户、图书存在性检查结果各自的缓存条数
+     */
+    private long existenceCacheSize = 100_000;
+    
+    /**
+     * 停机时未能写入数据库的进度保存到该文件，下次启动时读回
+     */
+    private String spillFile = "data/reading-progress/pending.tsv";
+}
@@ -0,0 +1,15 @@
+package com.example.readerapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置类
+ * 启用@Scheduled后台任务（用户归档等），以及@Async异步任务（启动后的索引构建等，不阻塞就绪）
+ */
+@Configuration
+@EnableScheduling
+@EnableAsync(proxyTargetClass = true)
+public class SchedulingConfig {
+}
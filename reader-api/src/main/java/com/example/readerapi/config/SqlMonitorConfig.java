@@ -0,0 +1,43 @@
+package com.example.readerapi.config;
+
+import com.example.readerapi.jdbc.MonitoredDataSource;
+import com.example.readerapi.service.QueryStatisticsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL执行统计配置类
+ * 用 MonitoredDataSource 包装应用数据源，替代 show-sql 逐条打印
+ */
+@Configuration
+public class SqlMonitorConfig {
+    
+    /**
+     * 数据源包装器
+     * 后置处理器需要尽早注册，声明为static且延迟获取统计服务，避免提前初始化其他Bean
+     * @param statisticsService SQL执行统计服务
+     * @param environment 环境配置，读取 reader.sql.enabled
+     * @return BeanPostProcessor实例
+     */
+    @Bean
+    public static BeanPostProcessor monitoredDataSourcePostProcessor(ObjectProvider<QueryStatisticsService> statisticsService,
+                                                                     Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MonitoredDataSource)
+                        && environment.getProperty("reader.sql.enabled", Boolean.class, true)) {
+                    SingletonSupplier<QueryStatisticsService> service = SingletonSupplier.of(statisticsService::getObject);
+                    return new MonitoredDataSource(dataSource, (sql, nanos) -> service.obtain().record(sql, nanos));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * SQL执行统计与慢查询日志配置
+ * 对应 application.yml 中的 reader.sql
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.sql")
+public class SqlMonitorProperties {
+    
+    /**
+     * 是否包装数据源统计语句耗时（启动时生效）
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 耗时超过该值的语句以WARN级别记录
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+    
+    /**
+     * 未超过阈值的语句按该比例抽样以INFO级别记录，0表示不抽样
+     */
+    private double sampleRate = 0.001;
+    
+    /**
+     * 最多统计的指纹数，超出后新指纹计入 "其他"，防止拼接SQL造成内存无限增长
+     */
+    private int maxFingerprints = 1000;
+}
@@ -0,0 +1,42 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 用户归档配置
+ * 对应 application.yml 中的 reader.archive
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.archive")
+public class UserArchiveProperties {
+    
+    /**
+     * 是否启用后台归档任务
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 软删除后保留在用户表中的天数，超过后迁移到归档表
+     */
+    private int retentionDays = 30;
+    
+    /**
+     * 每批迁移的用户数，保持较小以缩短单个事务的行锁持有时间
+     */
+    private int batchSize = 200;
+    
+    /**
+     * 单次任务最多执行的批次数
+     */
+    private int maxBatchesPerRun = 50;
+    
+    /**
+     * 批次之间的停顿，给在线事务让出资源
+     */
+    private Duration batchPause = Duration.ofMillis(200);
+}
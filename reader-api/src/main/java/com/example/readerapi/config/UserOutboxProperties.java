@@ -0,0 +1,67 @@
+package com.example.readerapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 用户变更发件箱配置
+ * 对应 application.yml 中的 reader.outbox
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "reader.outbox")
+public class UserOutboxProperties {
+    
+    /**
+     * 是否启用后台投递任务（关闭后事件仍会写入发件箱，启用后补投）
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 每批读取并投递的事件数
+     */
+    private int batchSize = 100;
+    
+    /**
+     * 单次任务最多投递的批次数，避免积压时长时间占用调度线程
+     */
+    private int maxBatchesPerRun = 20;
+    
+    /**
+     * 外部投递租约时长，持有者每批续期；须明显大于单批投递耗时和实例间的时钟偏差
+     */
+    private Duration leaseDuration = Duration.ofSeconds(30);
+    
+    /**
+     * 单个事件的最大投递次数，达到后搁置（parked_at），不再阻塞后续事件
+     */
+    private int maxAttempts = 10;
+    
+    /**
+     * 投递失败后的首次重试间隔，之后按失败次数指数增长
+     */
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    
+    /**
+     * 重试间隔上限
+     */
+    private Duration maxRetryBackoff = Duration.ofMinutes(5);
+    
+    /**
+     * 进程内发布游标跳过的事件ID等待补发的时间，超过后视为事务已回滚
+     */
+    private Duration gapTimeout = Duration.ofSeconds(10);
+    
+    /**
+     * 已投递事件的保留时间，超过后清理
+     */
+    private Duration retention = Duration.ofDays(7);
+    
+    /**
+     * 每批清理的事件数
+     */
+    private int purgeBatchSize = 1000;
+}
@@ -0,0 +1,101 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.service.ConnectionPoolService;
+import com.example.readerapi.service.QueryStatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运维管理控制器
+ * 提供连接池、SQL执行统计等运行时状态查询，完整的时序指标见 /actuator/metrics
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    
+    /**
+     * SQL统计单次最多返回条数
+     */
+    private static final int MAX_QUERY_LIMIT = 200;
+    
+    private final ConnectionPoolService connectionPoolService;
+    private final QueryStatisticsService queryStatisticsService;
+    
+    /**
+     * 获取数据库连接池状态
+     * @return 活跃/空闲/等待数、当前上限、获取连接超时次数以及最近一个调整周期的平均等待和占用时间
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Object>> getPoolStatus() {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("success", true);
+            response.put("data", connectionPoolService.snapshot());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("获取连接池状态失败", e);
+            response.put("success", false);
+            response.put("message", "获取连接池状态失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    /**
+     * 获取SQL执行统计，按指纹（字面量替换为 ?）汇总
+     * @param sort 排序字段：total（总耗时，默认）、count、p99、max
+     * @param limit 返回条数，上限200
+     * @return 每个指纹的次数、总耗时、平均、p50/p95/p99、最大耗时（毫秒）
+     */
+    @GetMapping("/queries")
+    public ResponseEntity<Map<String, Object>> getQueryStatistics(@RequestParam(defaultValue = "total") String sort,
+                                                                  @RequestParam(defaultValue = "20") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            List<Map<String, Object>> queries = queryStatisticsService.topQueries(sort, Math.min(limit, MAX_QUERY_LIMIT));
+            
+            response.put("success", true);
+            response.put("data", queries);
+            response.put("total", queries.size());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("获取SQL执行统计失败", e);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * 清空SQL执行统计
+     * @return 操作结果
+     */
+    @DeleteMapping("/queries")
+    public ResponseEntity<Map<String, Object>> resetQueryStatistics() {
+        Map<String, Object> response = new HashMap<>();
+        
+        queryStatisticsService.reset();
+        response.put("success", true);
+        response.put("message", "SQL执行统计已清空");
+        
+        return ResponseEntity.ok(response);
+    }
+}
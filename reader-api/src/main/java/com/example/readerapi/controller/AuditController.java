@@ -0,0 +1,69 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.audit.AuditRecord;
+import com.example.readerapi.service.AuditLogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 安全审计日志控制器
+ * 查询直接扫描本地审计段文件，不访问数据库
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+public class AuditController {
+    
+    /**
+     * 单次查询最多返回条数
+     */
+    private static final int MAX_LIMIT = 1000;
+    
+    private final AuditLogService auditLogService;
+    
+    /**
+     * 查询审计记录，按时间倒序
+     * @param userId 用户ID（可选）
+     * @param from 起始时间（可选，含），如 2025-01-01T00:00:00
+     * @param to 结束时间（可选，不含）
+     * @param limit 最多返回条数，上限1000
+     * @return 审计记录，timestamp 为 epoch 毫秒
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> query(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            List<AuditRecord> records = auditLogService.query(userId, from, to, Math.min(limit, MAX_LIMIT));
+            
+            response.put("success", true);
+            response.put("data", records);
+            response.put("total", records.size());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("查询审计日志失败", e);
+            response.put("success", false);
+            response.put("message", "查询审计日志失败");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
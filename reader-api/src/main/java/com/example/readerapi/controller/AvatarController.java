@@ -0,0 +1,63 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.config.AvatarProperties;
+import com.example.readerapi.dto.AvatarFile;
+import com.example.readerapi.service.AvatarService;
+import com.example.readerapi.util.FileRangeSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * 用户头像控制器
+ * 头像文件名即内容哈希，响应可被浏览器和CDN长期缓存
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/avatars")
+@RequiredArgsConstructor
+public class AvatarController {
+    
+    private final AvatarService avatarService;
+    private final AvatarProperties avatarProperties;
+    
+    /**
+     * 获取头像或缩略图，支持 Range 与 If-None-Match
+     * @param name 文件名，如 {hash}_256.jpg
+     * @param request HTTP请求
+     * @param response HTTP响应
+     * @throws IOException 写出失败
+     */
+    @GetMapping("/{name:.+}")
+    public void getAvatar(@PathVariable String name, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        Optional<AvatarFile> avatar = avatarService.load(name);
+        if (avatar.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        AvatarFile file = avatar.get();
+        String etag = "\"" + file.getName() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(avatarProperties.getMaxAge()).cachePublic().immutable().getHeaderValue());
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        response.setContentType(file.getContentType());
+        FileRangeSender.send(request, response, file.getPath(), file.getLength(), file.getContent());
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.config.BookFileProperties;
+import com.example.readerapi.dto.BookFile;
+import com.example.readerapi.dto.BookSearchHit;
+import com.example.readerapi.dto.BookSummary;
+import com.example.readerapi.entity.Book;
+import com.example.readerapi.logging.LogEvents;
+import com.example.readerapi.service.BookFileService;
+import com.example.readerapi.service.BookSearchService;
+import com.example.readerapi.service.BookService;
+import com.example.readerapi.util.DatabaseErrorUtils;
+import com.example.readerapi.util.FileRangeSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 图书目录控制器
+ * 列表接口只返回摘要字段并使用游标分页，简介等大字段只在详情接口返回；
+ * 图书文件下载支持 Range 断点续传，按用户限制并发下载数
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/books")
+@RequiredArgsConstructor
+public class BookController {
+    
+    /**
+     * 图书列表单页最多条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    /**
+     * 全文检索最多返回的图书数
+     */
+    private static final int MAX_SEARCH_LIMIT = 50;
+    
+    private final BookService bookService;
+    private final BookFileService bookFileService;
+    private final BookSearchService bookSearchService;
+    private final BookFileProperties bookFileProperties;
+    
+    /**
+     * 浏览上架图书（按出版日期倒序，游标分页）
+     * @param category 分类，与 author 二选一，都不传时浏览全部
+     * @param author 作者
+     * @param cursor 上一页返回的 nextCursor，首页不传
+     * @param size 每页条数，上限100
+     * @return 图书列表，nextCursor 为空表示没有更多数据
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> browseBooks(@RequestParam(required = false) String category,
+                                                           @RequestParam(required = false) String author,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            List<BookSummary> books = bookService.browse(category, author, cursor, pageSize);
+            
+            response.put("success", true);
+            response.put("data", books);
+            response.put("total", books.size());
+            response.put("nextCursor", books.size() < pageSize ? null : bookService.cursorOf(books.get(books.size() - 1)));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("浏览图书失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 检索图书正文
+     * @param q 查询串，中文按相邻二字匹配，所有词都须出现
+     * @param limit 最多返回的图书数，上限50
+     * @return 命中的图书、正文位置与摘要，按相关度排序
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchContents(@RequestParam String q,
+                                                              @RequestParam(defaultValue = "20") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            List<BookSearchHit> hits = bookSearchService.search(q, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
+            
+            response.put("success", true);
+            response.put("data", hits);
+            response.put("total", hits.size());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("检索图书正文失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "检索图书正文失败");
+        }
+    }
+    
+    /**
+     * 获取图书详情
+     * @param bookId 图书ID
+     * @return 图书信息
+     */
+    @GetMapping("/{bookId}")
+    public ResponseEntity<Map<String, Object>> getBook(@PathVariable Long bookId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<Book> bookOpt = bookService.findById(bookId);
+            
+            if (bookOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            response.put("success", true);
+            response.put("data", bookOpt.get());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("获取图书信息失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "获取图书信息失败");
+        }
+    }
+    
+    /**
+     * 新增图书
+     * @param book 图书信息
+     * @return 新增结果
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> createBook(@RequestBody Book book) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Book savedBook = bookService.createBook(book);
+            
+            response.put("success", true);
+            response.put("message", "图书新增成功");
+            response.put("data", savedBook);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("新增图书失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 更新图书信息
+     * @param bookId 图书ID
+     * @param book 图书信息
+     * @return 更新结果
+     */
+    @PutMapping("/{bookId}")
+    public ResponseEntity<Map<String, Object>> updateBook(@PathVariable Long bookId, @RequestBody Book book) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            book.setBookId(bookId);
+            Book updatedBook = bookService.updateBook(book);
+            
+            response.put("success", true);
+            response.put("message", "图书信息更新成功");
+            response.put("data", updatedBook);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("更新图书信息失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 上架或下架图书
+     * @param bookId 图书ID
+     * @param status 0-下架，1-上架
+     * @return 操作结果
+     */
+    @PutMapping("/{bookId}/status")
+    public ResponseEntity<Map<String, Object>> updateStatus(@PathVariable Long bookId, @RequestParam Integer status) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            boolean success = bookService.updateStatus(bookId, status);
+            
+            response.put("success", success);
+            response.put("message", success ? "图书状态更新成功" : "图书不存在");
+            
+            return success ? ResponseEntity.ok(response) : ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            
+        } catch (Exception e) {
+            return errorResponse("更新图书状态失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 上传图书文件（EPUB / PDF / TXT），替换该书原有文件
+     * @param bookId 图书ID
+     * @param file 图书文件
+     * @return 文件哈希、格式与大小
+     */
+    @PostMapping(value = "/{bookId}/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadFile(@PathVariable Long bookId,
+                                                          @RequestParam("file") MultipartFile file) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            BookFile bookFile = bookFileService.upload(bookId, file);
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("hash", bookFile.getHash());
+            data.put("format", bookFile.getFormat());
+            data.put("size", bookFile.getLength());
+            response.put("success", true);
+            response.put("message", "图书文件上传成功");
+            response.put("data", data);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("上传图书文件失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 下载图书文件，支持 Range / If-Range 断点续传与 If-None-Match
+     * 同一客户端IP同时进行的下载数超过上限时返回429
+     * @param bookId 图书ID
+     * @param request HTTP请求
+     * @param response HTTP响应
+     * @throws IOException 写出失败
+     */
+    @GetMapping("/{bookId}/file")
+    public void downloadFile(@PathVariable Long bookId, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Optional<BookFile> bookFile = bookFileService.load(bookId);
+        if (bookFile.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        BookFile file = bookFile.get();
+        String etag = "\"" + file.getHash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // 重新上传后同一地址内容会变化，缓存须按 ETag 重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        // 并发名额按连接的对端地址计算，不取客户端可以任意填写的请求参数或 X-Forwarded-For；
+        // 经可信反向代理转发时，remoteAddr 已由容器（server.forward-headers-strategy）替换为真实客户端IP
+        String clientKey = "ip:" + request.getRemoteAddr();
+        if (!bookFileService.tryAcquireDownload(clientKey)) {
+            log.info(LogEvents.REQUEST_REJECTED, "下载图书文件失败 status=429 bookId={} client={}", bookId, clientKey);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bookFileProperties.getRetryAfter().toSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        try {
+            response.setContentType(file.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(file.getTitle() + "." + file.getFormat(), StandardCharsets.UTF_8)
+                    .build().toString());
+            // 在当前线程传输完毕后才释放名额，因此不使用容器的 sendfile
+            FileRangeSender.sendMapped(request, response, file.getPath(), file.getLength());
+        } finally {
+            bookFileService.releaseDownload(clientKey);
+        }
+    }
+    
+    /**
+     * 构造失败响应并记录日志，处理方式与 UserController 一致：
+     * 连接不可用返回503，4xx 只记一行，5xx 记录完整堆栈
+     * @param operation 失败的操作描述
+     */
+    private ResponseEntity<Map<String, Object>> errorResponse(String operation, Exception e,
+                                                              HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        if (DatabaseErrorUtils.isConnectionUnavailable(e)) {
+            log.warn(LogEvents.REQUEST_UNAVAILABLE, "{} status=503 error={}", operation, e.getMessage());
+            response.put("message", "服务繁忙，请稍后重试");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
+        }
+        if (status.is4xxClientError()) {
+            log.info(LogEvents.REQUEST_REJECTED, "{} status={} error={}", operation, status.value(), e.getMessage());
+        } else {
+            log.error("{} status={}", operation, status.value(), e);
+        }
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
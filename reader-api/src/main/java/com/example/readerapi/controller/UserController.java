@@ -1,19 +1,44 @@
 package com.example.readerapi.controller;
 
+import com.example.readerapi.dto.BookshelfItem;
+import com.example.readerapi.dto.LoginHistoryDTO;
+import com.example.readerapi.dto.UserFieldSet;
+import com.example.readerapi.dto.UserSuggestion;
+import com.example.readerapi.entity.ReadingProgress;
 import com.example.readerapi.entity.User;
+import com.example.readerapi.logging.LogEvents;
+import com.example.readerapi.service.AvatarService;
+import com.example.readerapi.service.BookshelfService;
+import com.example.readerapi.service.LoginHistoryService;
+import com.example.readerapi.service.ReadingProgressService;
+import com.example.readerapi.service.UserArchiveService;
+import com.example.readerapi.service.UserAutocompleteService;
 import com.example.readerapi.service.UserService;
+import com.example.readerapi.util.DatabaseErrorUtils;
+import com.example.readerapi.util.WebRequestUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 用户管理控制器
@@ -25,7 +50,34 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UserController {
     
+    /**
+     * NDJSON流式输出时每写出多少条记录刷新一次缓冲区
+     */
+    private static final int NDJSON_FLUSH_INTERVAL = 100;
+    
+    /**
+     * 自动补全单次最多返回条数
+     */
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    
+    /**
+     * 批量查询单次最多的用户ID数
+     */
+    private static final int MAX_BATCH_GET_SIZE = 100;
+    
+    /**
+     * 登录历史单页最多条数
+     */
+    private static final int MAX_LOGIN_HISTORY_PAGE_SIZE = 100;
+    
     private final UserService userService;
+    private final AvatarService avatarService;
+    private final UserArchiveService userArchiveService;
+    private final UserAutocompleteService userAutocompleteService;
+    private final LoginHistoryService loginHistoryService;
+    private final ReadingProgressService readingProgressService;
+    private final BookshelfService bookshelfService;
+    private final ObjectMapper objectMapper;
     
     /**
      * 用户注册
@@ -68,10 +120,7 @@ public class UserController {
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
-            log.error("用户注册失败", e);
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return errorResponse("用户注册失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
     
@@ -111,7 +160,7 @@ public class UserController {
             }
             
             // 更新登录信息
-            String clientIp = getClientIpAddress(request);
+            String clientIp = WebRequestUtils.getClientIpAddress(request);
             userService.updateLastLogin(user.getUserId(), clientIp);
             
             // 不返回密码信息
@@ -124,23 +173,71 @@ public class UserController {
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
-            log.error("用户登录失败", e);
-            response.put("success", false);
-            response.put("message", "登录失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("用户登录失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "登录失败");
+        }
+    }
+    
+    /**
+     * 按ID批量获取用户信息
+     * 命中二级缓存的用户不访问数据库，其余用 IN 查询读取
+     * @param batchRequest userIds：用户ID列表，最多100个
+     * @param fields 只返回这些字段（逗号分隔），为空时返回全部字段
+     * @return data 与 userIds 按顺序一一对应，不存在的为 null；missing 为不存在的用户ID
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getUsersByIds(@RequestBody Map<String, List<Long>> batchRequest,
+                                                             @RequestParam(required = false) String fields) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            UserFieldSet fieldSet = UserFieldSet.parse(fields);
+            List<Long> userIds = batchRequest.get("userIds");
+            if (userIds == null || userIds.isEmpty() || userIds.size() > MAX_BATCH_GET_SIZE || userIds.contains(null)) {
+                response.put("success", false);
+                response.put("message", "用户ID列表不能为空，且最多" + MAX_BATCH_GET_SIZE + "个");
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            List<User> users = userService.findAllById(userIds);
+            List<Long> missing = new ArrayList<>();
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                if (user == null) {
+                    missing.add(userIds.get(i));
+                } else {
+                    // 不返回密码信息
+                    user.setPassword(null);
+                }
+            }
+            
+            response.put("success", true);
+            response.put("data", fieldSet == null ? users
+                    : users.stream().map(user -> user == null ? null : fieldSet.extract(user)).toList());
+            response.put("missing", missing);
+            response.put("total", users.size() - missing.size());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            return errorResponse("批量获取用户信息失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return errorResponse("批量获取用户信息失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "批量获取用户信息失败");
         }
     }
     
     /**
      * 根据ID获取用户信息
      * @param userId 用户ID
+     * @param fields 只返回这些字段（逗号分隔），为空时返回全部字段
      * @return 用户信息
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<Map<String, Object>> getUserById(@PathVariable Long userId) {
+    public ResponseEntity<Map<String, Object>> getUserById(@PathVariable Long userId,
+                                                           @RequestParam(required = false) String fields) {
         Map<String, Object> response = new HashMap<>();
         
         try {
+            UserFieldSet fieldSet = UserFieldSet.parse(fields);
             Optional<User> userOpt = userService.findById(userId);
             
             if (userOpt.isEmpty()) {
@@ -154,15 +251,14 @@ public class UserController {
             user.setPassword(null);
             
             response.put("success", true);
-            response.put("data", user);
+            response.put("data", fieldSet == null ? user : fieldSet.extract(user));
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return errorResponse("获取用户信息失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (Exception e) {
-            log.error("获取用户信息失败", e);
-            response.put("success", false);
-            response.put("message", "获取用户信息失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("获取用户信息失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "获取用户信息失败");
         }
     }
     
@@ -190,10 +286,7 @@ public class UserController {
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
-            log.error("更新用户信息失败", e);
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(response);
+            return errorResponse("更新用户信息失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
     
@@ -237,22 +330,56 @@ public class UserController {
             }
             
         } catch (Exception e) {
-            log.error("修改密码失败", e);
-            response.put("success", false);
-            response.put("message", "密码修改失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("修改密码失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "密码修改失败");
+        }
+    }
+    
+    /**
+     * 上传用户头像
+     * 生成固定尺寸的缩略图，用户的 avatarUrl 更新为默认尺寸缩略图地址
+     * @param userId 用户ID
+     * @param file 图片文件（JPEG / PNG / GIF）
+     * @return 新的头像地址
+     */
+    @PostMapping(value = "/{userId}/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadAvatar(@PathVariable Long userId,
+                                                            @RequestParam("file") MultipartFile file) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            String avatarUrl = avatarService.upload(userId, file);
+            
+            response.put("success", true);
+            response.put("message", "头像上传成功");
+            response.put("data", avatarUrl);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("上传头像失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
     
     /**
      * 获取所有用户列表
+     * 指定 fields 时只查询这些列，不加载完整实体
+     * @param fields 只返回这些字段（逗号分隔），为空时返回全部字段
      * @return 用户列表
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllUsers() {
+    public ResponseEntity<Map<String, Object>> getAllUsers(@RequestParam(required = false) String fields) {
         Map<String, Object> response = new HashMap<>();
         
         try {
+            UserFieldSet fieldSet = UserFieldSet.parse(fields);
+            if (fieldSet != null) {
+                List<Map<String, Object>> users = userService.getAllUsers(fieldSet);
+                response.put("success", true);
+                response.put("data", users);
+                response.put("total", users.size());
+                return ResponseEntity.ok(response);
+            }
+            
             List<User> users = userService.getAllUsers();
             
             // 不返回密码信息
@@ -264,24 +391,35 @@ public class UserController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return errorResponse("获取用户列表失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (Exception e) {
-            log.error("获取用户列表失败", e);
-            response.put("success", false);
-            response.put("message", "获取用户列表失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("获取用户列表失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "获取用户列表失败");
         }
     }
     
     /**
      * 搜索用户
+     * 指定 fields 时只查询这些列，不加载完整实体
      * @param keyword 搜索关键词
+     * @param fields 只返回这些字段（逗号分隔），为空时返回全部字段
      * @return 搜索结果
      */
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchUsers(@RequestParam String keyword) {
+    public ResponseEntity<Map<String, Object>> searchUsers(@RequestParam String keyword,
+                                                           @RequestParam(required = false) String fields) {
         Map<String, Object> response = new HashMap<>();
         
         try {
+            UserFieldSet fieldSet = UserFieldSet.parse(fields);
+            if (fieldSet != null) {
+                List<Map<String, Object>> users = userService.searchUsers(keyword, fieldSet);
+                response.put("success", true);
+                response.put("data", users);
+                response.put("total", users.size());
+                return ResponseEntity.ok(response);
+            }
+            
             List<User> users = userService.searchUsers(keyword);
             
             // 不返回密码信息
@@ -293,11 +431,266 @@ public class UserController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return errorResponse("搜索用户失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return errorResponse("搜索用户失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "搜索用户失败");
+        }
+    }
+    
+    /**
+     * 用户名/昵称/真实姓名前缀自动补全
+     * @param prefix 输入前缀（忽略大小写）
+     * @param limit 最多返回条数，上限50
+     * @return 候选用户列表
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<Map<String, Object>> autocomplete(@RequestParam String prefix,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            List<UserSuggestion> suggestions = userAutocompleteService.suggest(prefix, Math.min(limit, MAX_AUTOCOMPLETE_LIMIT));
+            
+            response.put("success", true);
+            response.put("data", suggestions);
+            response.put("total", suggestions.size());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("用户自动补全失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "用户自动补全失败");
+        }
+    }
+    
+    /**
+     * 流式获取所有用户（Accept: application/x-ndjson）
+     * 每行一个用户JSON，边查询边输出，客户端无需等待完整列表
+     * @return 用户流
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ndjsonResponse(userService::streamAllUsers);
+    }
+    
+    /**
+     * 流式搜索用户（Accept: application/x-ndjson）
+     * @param keyword 搜索关键词
+     * @return 用户流
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearchUsers(@RequestParam String keyword) {
+        return ndjsonResponse(action -> userService.streamSearchUsers(keyword, action));
+    }
+    
+    /**
+     * 分页查询用户登录历史（按登录时间倒序，游标分页）
+     * @param userId 用户ID
+     * @param cursor 上一页返回的 nextCursor，首页不传
+     * @param size 每页条数，上限100
+     * @return 登录历史，nextCursor 为空表示没有更多数据
+     */
+    @GetMapping("/{userId}/logins")
+    public ResponseEntity<Map<String, Object>> getLoginHistory(@PathVariable Long userId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            int pageSize = Math.max(1, Math.min(size, MAX_LOGIN_HISTORY_PAGE_SIZE));
+            List<LoginHistoryDTO> logins = loginHistoryService.findRecentLogins(userId, cursor, pageSize);
+            
+            response.put("success", true);
+            response.put("data", logins);
+            response.put("total", logins.size());
+            response.put("nextCursor", logins.size() < pageSize ? null : loginHistoryService.cursorOf(logins.get(logins.size() - 1)));
+            
+            return ResponseEntity.ok(response);
+            
         } catch (Exception e) {
-            log.error("搜索用户失败", e);
-            response.put("success", false);
-            response.put("message", "搜索用户失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("查询登录历史失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 上报阅读进度（只写内存，定期合并写入数据库）
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @param progressRequest position：阅读位置，percent：阅读百分比（0-100）
+     * @return 当前进度
+     */
+    @PutMapping("/{userId}/progress/{bookId}")
+    public ResponseEntity<Map<String, Object>> reportProgress(@PathVariable Long userId, @PathVariable Long bookId,
+                                                              @RequestBody Map<String, Number> progressRequest) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Number position = progressRequest.get("position");
+            Number percent = progressRequest.get("percent");
+            if (position == null || percent == null) {
+                response.put("success", false);
+                response.put("message", "阅读位置和百分比不能为空");
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            response.put("success", true);
+            response.put("data", readingProgressService.report(userId, bookId, position.longValue(), percent.doubleValue()));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("上报阅读进度失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询阅读进度
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @return 阅读进度
+     */
+    @GetMapping("/{userId}/progress/{bookId}")
+    public ResponseEntity<Map<String, Object>> getProgress(@PathVariable Long userId, @PathVariable Long bookId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<ReadingProgress> progress = readingProgressService.find(userId, bookId);
+            if (progress.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            response.put("success", true);
+            response.put("data", progress.get());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("查询阅读进度失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "查询阅读进度失败");
+        }
+    }
+    
+    /**
+     * 获取书架（按最近打开时间倒序，含阅读进度）
+     * @param userId 用户ID
+     * @return 书架列表
+     */
+    @GetMapping("/{userId}/shelf")
+    public ResponseEntity<Map<String, Object>> getShelf(@PathVariable Long userId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            List<BookshelfItem> shelf = bookshelfService.getShelf(userId);
+            
+            response.put("success", true);
+            response.put("data", shelf);
+            response.put("total", shelf.size());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("获取书架失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "获取书架失败");
+        }
+    }
+    
+    /**
+     * 把图书加入书架
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @param status 阅读状态：0-想读，1-在读，2-读完，默认想读
+     * @return 书架条目
+     */
+    @PostMapping("/{userId}/shelf/{bookId}")
+    public ResponseEntity<Map<String, Object>> addToShelf(@PathVariable Long userId, @PathVariable Long bookId,
+                                                          @RequestParam(required = false) Integer status) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("success", true);
+            response.put("message", "已加入书架");
+            response.put("data", bookshelfService.add(userId, bookId, status));
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("加入书架失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 修改书架上图书的阅读状态或评分
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @param shelfRequest status：阅读状态，rating：评分（1-5），不传的字段不修改
+     * @return 修改后的条目
+     */
+    @PutMapping("/{userId}/shelf/{bookId}")
+    public ResponseEntity<Map<String, Object>> updateShelfItem(@PathVariable Long userId, @PathVariable Long bookId,
+                                                               @RequestBody Map<String, Integer> shelfRequest) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            Optional<BookshelfItem> item = bookshelfService.update(userId, bookId,
+                    shelfRequest.get("status"), shelfRequest.get("rating"));
+            if (item.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            response.put("success", true);
+            response.put("data", item.get());
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("修改书架失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 记录打开图书（移到书架最前）
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @return 操作结果
+     */
+    @PostMapping("/{userId}/shelf/{bookId}/open")
+    public ResponseEntity<Map<String, Object>> openShelfItem(@PathVariable Long userId, @PathVariable Long bookId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (!bookshelfService.open(userId, bookId)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            response.put("success", true);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("记录打开图书失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "记录打开图书失败");
+        }
+    }
+    
+    /**
+     * 从书架移除图书（阅读进度保留）
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @return 操作结果
+     */
+    @DeleteMapping("/{userId}/shelf/{bookId}")
+    public ResponseEntity<Map<String, Object>> removeFromShelf(@PathVariable Long userId, @PathVariable Long bookId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (!bookshelfService.remove(userId, bookId)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            response.put("success", true);
+            response.put("message", "已移出书架");
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("移出书架失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "移出书架失败");
         }
     }
     
@@ -354,10 +747,56 @@ public class UserController {
             }
             
         } catch (Exception e) {
-            log.error("删除用户失败", e);
-            response.put("success", false);
-            response.put("message", "用户删除失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("删除用户失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "用户删除失败");
+        }
+    }
+    
+    /**
+     * 恢复已删除的用户（包括已归档的用户）
+     * @param userId 用户ID
+     * @return 恢复结果
+     */
+    @PutMapping("/{userId}/restore")
+    public ResponseEntity<Map<String, Object>> restoreUser(@PathVariable Long userId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            boolean success = userArchiveService.restoreUser(userId);
+            
+            if (success) {
+                response.put("success", true);
+                response.put("message", "用户恢复成功");
+                return ResponseEntity.ok(response);
+            } else {
+                response.put("success", false);
+                response.put("message", "用户恢复失败，用户不存在或未被删除");
+                return ResponseEntity.notFound().build();
+            }
+            
+        } catch (Exception e) {
+            return errorResponse("恢复用户失败", e, HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * 立即执行一次软删除用户归档（正常情况下由后台任务定时执行）
+     * @return 归档结果
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<Map<String, Object>> archiveDeletedUsers() {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            int archived = userArchiveService.archiveDeletedUsers();
+            
+            response.put("success", true);
+            response.put("message", "归档完成");
+            response.put("data", archived);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            return errorResponse("归档软删除用户失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "归档失败");
         }
     }
     
@@ -381,10 +820,7 @@ public class UserController {
             return ResponseEntity.ok(response);
             
         } catch (Exception e) {
-            log.error("获取用户统计信息失败", e);
-            response.put("success", false);
-            response.put("message", "获取统计信息失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("获取用户统计信息失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "获取统计信息失败");
         }
     }
     
@@ -420,27 +856,65 @@ public class UserController {
             }
             
         } catch (Exception e) {
-            log.error("用户{}失败", actionName, e);
-            response.put("success", false);
-            response.put("message", "用户" + actionName + "失败");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return errorResponse("用户" + actionName + "失败", e, HttpStatus.INTERNAL_SERVER_ERROR, "用户" + actionName + "失败");
         }
     }
     
     /**
-     * 获取客户端IP地址
+     * 构造失败响应并记录日志
+     * 获取数据库连接超时（连接池耗尽或数据库不可达）时统一返回503并提示稍后重试，不把底层异常信息暴露给客户端。
+     * 只有服务端异常记录完整堆栈；参数或业务校验失败、连接不可用属于预期内的失败，只记一行事件日志
+     * @param operation 失败的操作描述，如"用户注册失败"
      */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
+    private ResponseEntity<Map<String, Object>> errorResponse(String operation, Exception e,
+                                                              HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        if (DatabaseErrorUtils.isConnectionUnavailable(e)) {
+            log.warn(LogEvents.REQUEST_UNAVAILABLE, "{} status=503 error={}", operation, e.getMessage());
+            response.put("message", "服务繁忙，请稍后重试");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
         }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
+        if (status.is4xxClientError()) {
+            log.info(LogEvents.REQUEST_REJECTED, "{} status={} error={}", operation, status.value(), e.getMessage());
+        } else {
+            log.error("{} status={}", operation, status.value(), e);
         }
-        
-        return request.getRemoteAddr();
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+    
+    /**
+     * 构造NDJSON流式响应
+     * 在异步线程中按页查询并逐条写出，写出时不占用数据库连接；中途出错时只能截断输出
+     */
+    private ResponseEntity<StreamingResponseBody> ndjsonResponse(Consumer<Consumer<User>> source) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                // 不在根值之间插入默认的空格分隔符，每条记录以换行结尾
+                generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+                int[] written = {0};
+                source.accept(user -> {
+                    // 不返回密码信息
+                    user.setPassword(null);
+                    try {
+                        generator.writeObject(user);
+                        generator.writeRaw('\n');
+                        if (++written[0] % NDJSON_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.warn("用户流式输出中断: {}", e.getMessage());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
-}
\ No newline at end of file
+}
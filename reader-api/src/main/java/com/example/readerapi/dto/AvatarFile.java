@@ -0,0 +1,41 @@
+package com.example.readerapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+/**
+ * 头像文件
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvatarFile {
+    
+    /**
+     * 文件名（内容哈希 + 尺寸 + 扩展名）
+     */
+    private String name;
+    
+    /**
+     * 磁盘路径
+     */
+    private Path path;
+    
+    /**
+     * 文件大小（字节）
+     */
+    private long length;
+    
+    /**
+     * 内容类型
+     */
+    private String contentType;
+    
+    /**
+     * 缓存在内存中的文件内容，未缓存时为null
+     */
+    private byte[] content;
+}
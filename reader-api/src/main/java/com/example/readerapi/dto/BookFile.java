@@ -0,0 +1,62 @@
+package com.example.readerapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+/**
+ * 图书文件
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFile {
+    
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+    
+    /**
+     * 书名，用作下载文件名
+     */
+    private String title;
+    
+    /**
+     * 文件内容的 SHA-256（十六进制），同时用作 ETag
+     */
+    private String hash;
+    
+    /**
+     * 文件格式：epub、pdf、txt
+     */
+    private String format;
+    
+    /**
+     * 文件大小（字节）
+     */
+    private long length;
+    
+    /**
+     * 磁盘路径
+     */
+    private Path path;
+    
+    /**
+     * 内容类型
+     */
+    private String contentType;
+    
+    /**
+     * 查询投影构造，路径与内容类型由服务层补全
+     */
+    public BookFile(Long bookId, String title, String hash, String format, Long length) {
+        this.bookId = bookId;
+        this.title = title;
+        this.hash = hash;
+        this.format = format;
+        this.length = length;
+    }
+}
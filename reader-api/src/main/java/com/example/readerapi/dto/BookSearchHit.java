@@ -0,0 +1,44 @@
+package com.example.readerapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 全文检索命中
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchHit {
+    
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+    
+    /**
+     * 书名
+     */
+    private String title;
+    
+    /**
+     * 作者
+     */
+    private String author;
+    
+    /**
+     * 相关度得分，越大越相关
+     */
+    private double score;
+    
+    /**
+     * 命中位置：提取出的正文中的字符偏移
+     */
+    private int offset;
+    
+    /**
+     * 命中位置附近的正文
+     */
+    private String snippet;
+}
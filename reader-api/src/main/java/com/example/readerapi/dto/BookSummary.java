@@ -0,0 +1,47 @@
+package com.example.readerapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 图书列表项
+ * 只包含浏览列表展示所需的字段，全部字段都在浏览覆盖索引中
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSummary {
+    
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+    
+    /**
+     * ISBN
+     */
+    private String isbn;
+    
+    /**
+     * 书名
+     */
+    private String title;
+    
+    /**
+     * 作者
+     */
+    private String author;
+    
+    /**
+     * 分类
+     */
+    private String category;
+    
+    /**
+     * 出版日期
+     */
+    private LocalDate publicationDate;
+}
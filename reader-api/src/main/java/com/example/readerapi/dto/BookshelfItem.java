@@ -0,0 +1,72 @@
+package com.example.readerapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 书架列表项
+ * 书架条目、图书摘要与阅读进度合在一起，由一条查询读出
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookshelfItem {
+    
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+    
+    /**
+     * 书名
+     */
+    private String title;
+    
+    /**
+     * 作者
+     */
+    private String author;
+    
+    /**
+     * 封面URL
+     */
+    private String coverUrl;
+    
+    /**
+     * 阅读状态：0-想读，1-在读，2-读完
+     */
+    private Integer status;
+    
+    /**
+     * 评分（1-5）
+     */
+    private Integer rating;
+    
+    /**
+     * 加入书架时间
+     */
+    private LocalDateTime addedAt;
+    
+    /**
+     * 最近打开时间
+     */
+    private LocalDateTime lastOpenedAt;
+    
+    /**
+     * 阅读位置，没有进度时为空
+     */
+    private Long position;
+    
+    /**
+     * 阅读百分比（0-100），没有进度时为空
+     */
+    private Double percent;
+    
+    /**
+     * 进度上报时间
+     */
+    private LocalDateTime progressUpdatedAt;
+}
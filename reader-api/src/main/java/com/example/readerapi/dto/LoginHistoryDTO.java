@@ -0,0 +1,41 @@
+package com.example.readerapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 登录历史数据传输对象
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginHistoryDTO {
+    
+    /**
+     * 记录ID
+     */
+    private Long historyId;
+    
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 登录时间
+     */
+    private LocalDateTime loginAt;
+    
+    /**
+     * 登录IP
+     */
+    private String loginIp;
+    
+    /**
+     * 用户代理信息
+     */
+    private String userAgent;
+}
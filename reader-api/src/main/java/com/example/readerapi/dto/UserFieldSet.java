@@ -0,0 +1,130 @@
+package com.example.readerapi.dto;
+
+import com.example.readerapi.entity.User;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * 用户字段子集（稀疏字段集）
+ *
+ * 由请求参数 fields=username,nickname 解析而来，只允许下面白名单中的字段（不含 password、deleted），userId 总是返回。
+ * 字段按白名单顺序排列，不论请求中的书写顺序和是否重复，同一组字段得到相同的 key 和相同的投影查询语句，
+ * 查询语句因此可以按字段集缓存，也能命中 Hibernate 的查询计划缓存。
+ */
+public final class UserFieldSet {
+    
+    /**
+     * 允许返回的字段 -> 从实体读取该字段，名称同时是 JPQL 中的属性名
+     */
+    private static final Map<String, Function<User, Object>> FIELDS = new LinkedHashMap<>();
+    
+    static {
+        FIELDS.put("userId", User::getUserId);
+        FIELDS.put("username", User::getUsername);
+        FIELDS.put("email", User::getEmail);
+        FIELDS.put("phone", User::getPhone);
+        FIELDS.put("realName", User::getRealName);
+        FIELDS.put("nickname", User::getNickname);
+        FIELDS.put("avatarUrl", User::getAvatarUrl);
+        FIELDS.put("status", User::getStatus);
+        FIELDS.put("role", User::getRole);
+        FIELDS.put("createdAt", User::getCreatedAt);
+        FIELDS.put("updatedAt", User::getUpdatedAt);
+        FIELDS.put("lastLoginAt", User::getLastLoginAt);
+        FIELDS.put("lastLoginIp", User::getLastLoginIp);
+        FIELDS.put("loginCount", User::getLoginCount);
+        FIELDS.put("emailVerified", User::getEmailVerified);
+        FIELDS.put("phoneVerified", User::getPhoneVerified);
+        FIELDS.put("remark", User::getRemark);
+    }
+    
+    private static final String ID_FIELD = "userId";
+    
+    private final List<String> names;
+    
+    private final String key;
+    
+    private UserFieldSet(List<String> names) {
+        this.names = List.copyOf(names);
+        this.key = String.join(",", names);
+    }
+    
+    /**
+     * 解析 fields 参数
+     * @param fields 逗号分隔的字段名
+     * @return 字段集；参数为空时返回 null，表示返回全部字段
+     * @throws IllegalArgumentException 包含白名单以外的字段
+     */
+    public static UserFieldSet parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return null;
+        }
+        Set<String> requested = new TreeSet<>();
+        requested.add(ID_FIELD);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!FIELDS.containsKey(name)) {
+                throw new IllegalArgumentException("不支持的字段: " + name);
+            }
+            requested.add(name);
+        }
+        
+        List<String> names = new ArrayList<>(requested.size());
+        for (String name : FIELDS.keySet()) {
+            if (requested.contains(name)) {
+                names.add(name);
+            }
+        }
+        return new UserFieldSet(names);
+    }
+    
+    /**
+     * 字段名，按白名单顺序排列，第一个总是 userId
+     */
+    public List<String> getNames() {
+        return names;
+    }
+    
+    /**
+     * 字段集的规范表示，相同字段集的 key 相同，用作查询缓存的键
+     */
+    public String getKey() {
+        return key;
+    }
+    
+    /**
+     * 从实体中取出字段子集
+     * @param user 用户
+     * @return 字段名 -> 字段值，按字段顺序排列
+     */
+    public Map<String, Object> extract(User user) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String name : names) {
+            values.put(name, FIELDS.get(name).apply(user));
+        }
+        return values;
+    }
+    
+    /**
+     * 将投影查询的一行结果转换为字段名 -> 字段值
+     * @param row 按 getNames() 顺序选出的列
+     * @return 字段名 -> 字段值，按字段顺序排列
+     */
+    public Map<String, Object> toMap(Object[] row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            values.put(names.get(i), row[i]);
+        }
+        return values;
+    }
+}
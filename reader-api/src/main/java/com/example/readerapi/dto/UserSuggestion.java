@@ -0,0 +1,35 @@
+package com.example.readerapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户自动补全候选项
+ * 只包含输入提示所需的展示字段
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestion {
+    
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 用户名
+     */
+    private String username;
+    
+    /**
+     * 昵称
+     */
+    private String nickname;
+    
+    /**
+     * 真实姓名
+     */
+    private String realName;
+}
@@ -0,0 +1,131 @@
+package com.example.readerapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 图书实体类
+ *
+ * 按分类、作者、出版日期浏览的列表都使用 BookSummary 投影和键集分页，每种浏览顺序对应一个覆盖索引：
+ * 索引列依次为等值条件、排序列（publication_date, book_id）和投影中的其余列，
+ * 列表查询只扫描索引，不回表，也不读取 description。
+ */
+@Entity
+@Table(name = "books", indexes = {
+    @Index(name = "uk_isbn", columnList = "isbn", unique = true),
+    @Index(name = "idx_category_browse", columnList = "category, status, publication_date, book_id, title, author, isbn"),
+    @Index(name = "idx_author_browse", columnList = "author, status, publication_date, book_id, title, category, isbn"),
+    @Index(name = "idx_published_browse", columnList = "status, publication_date, book_id, title, author, category, isbn")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Book {
+    
+    /**
+     * 图书ID - 主键，自增
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "book_id")
+    private Long bookId;
+    
+    /**
+     * ISBN - 唯一，可为空
+     */
+    @Column(name = "isbn", unique = true, length = 20)
+    private String isbn;
+    
+    /**
+     * 书名 - 不能为空
+     */
+    @Column(name = "title", nullable = false, length = 200)
+    private String title;
+    
+    /**
+     * 作者 - 不能为空
+     */
+    @Column(name = "author", nullable = false, length = 100)
+    private String author;
+    
+    /**
+     * 出版社 - 可为空
+     */
+    @Column(name = "publisher", length = 100)
+    private String publisher;
+    
+    /**
+     * 分类 - 不能为空
+     */
+    @Column(name = "category", nullable = false, length = 50)
+    private String category;
+    
+    /**
+     * 出版日期 - 不能为空（键集分页的排序列）
+     */
+    @Column(name = "publication_date", nullable = false)
+    private LocalDate publicationDate;
+    
+    /**
+     * 页数 - 可为空
+     */
+    @Column(name = "page_count")
+    private Integer pageCount;
+    
+    /**
+     * 封面URL - 可为空
+     */
+    @Column(name = "cover_url", length = 500)
+    private String coverUrl;
+    
+    /**
+     * 简介 - 可为空，只在图书详情中返回
+     */
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+    
+    /**
+     * 图书文件内容的 SHA-256 - 未上传文件时为空，只能通过文件上传接口修改
+     */
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+    
+    /**
+     * 图书文件格式：epub、pdf、txt
+     */
+    @Column(name = "file_format", length = 10)
+    private String fileFormat;
+    
+    /**
+     * 图书文件大小（字节）
+     */
+    @Column(name = "file_size")
+    private Long fileSize;
+    
+    /**
+     * 图书状态：0-下架，1-上架
+     */
+    @Column(name = "status", nullable = false)
+    private Integer status = 1;
+    
+    /**
+     * 创建时间 - 自动设置
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    /**
+     * 更新时间 - 自动更新
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
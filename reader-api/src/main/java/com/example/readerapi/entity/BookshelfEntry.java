@@ -0,0 +1,77 @@
+package com.example.readerapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 书架条目实体类
+ *
+ * 每个用户每本书一行。书架列表按 (user_id, last_opened_at, book_id) 索引倒序扫描，
+ * 排序由索引顺序给出，不需要额外排序（EXPLAIN 中没有 Using filesort）。
+ */
+@Entity
+@IdClass(BookshelfEntry.Key.class)
+@Table(name = "bookshelf", indexes = {
+    @Index(name = "idx_user_last_opened", columnList = "user_id, last_opened_at, book_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookshelfEntry {
+    
+    /**
+     * 用户ID
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    /**
+     * 图书ID
+     */
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+    
+    /**
+     * 阅读状态：0-想读，1-在读，2-读完
+     */
+    @Column(name = "status", nullable = false)
+    private Integer status;
+    
+    /**
+     * 评分（1-5），未评分为空
+     */
+    @Column(name = "rating")
+    private Integer rating;
+    
+    /**
+     * 加入书架时间
+     */
+    @Column(name = "added_at", nullable = false)
+    private LocalDateTime addedAt;
+    
+    /**
+     * 最近打开时间，加入书架时等于加入时间
+     */
+    @Column(name = "last_opened_at", nullable = false)
+    private LocalDateTime lastOpenedAt;
+    
+    /**
+     * 书架条目主键（用户ID + 图书ID）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        private Long userId;
+        
+        private Long bookId;
+    }
+}
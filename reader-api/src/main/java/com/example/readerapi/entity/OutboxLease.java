@@ -0,0 +1,40 @@
+package com.example.readerapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱投递租约实体类
+ * 每个发件箱一行，持有未过期租约的实例才能向外部投递目标投递并标记 dispatched_at，
+ * 多实例部署时同一时刻只有一个投递者，不会并发重复投递，也不打乱事件顺序
+ */
+@Entity
+@Table(name = "outbox_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxLease {
+    
+    /**
+     * 租约名称 - 主键，如 user_outbox_events
+     */
+    @Id
+    @Column(name = "lease_name", length = 64)
+    private String leaseName;
+    
+    /**
+     * 当前持有者（实例标识）
+     */
+    @Column(name = "owner", nullable = false, length = 128)
+    private String owner;
+    
+    /**
+     * 租约到期时间，过期后其他实例可以接管
+     */
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,69 @@
+package com.example.readerapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 阅读进度实体类
+ * 每个用户每本书一行，由 ReadingProgressService 在内存中合并后定期批量写入，不逐次更新
+ */
+@Entity
+@IdClass(ReadingProgress.Key.class)
+@Table(name = "reading_progress", indexes = {
+    @Index(name = "idx_user_updated_at", columnList = "user_id, updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingProgress {
+    
+    /**
+     * 用户ID
+     */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    /**
+     * 图书ID
+     */
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+    
+    /**
+     * 阅读位置（客户端定义的偏移量，如字符偏移）
+     */
+    @Column(name = "position", nullable = false)
+    private Long position;
+    
+    /**
+     * 阅读百分比（0-100）
+     */
+    @Column(name = "percent", nullable = false)
+    private Double percent;
+    
+    /**
+     * 上报时间（服务端接收时间）
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    /**
+     * 阅读进度主键（用户ID + 图书ID）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        
+        private Long userId;
+        
+        private Long bookId;
+    }
+}
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -12,12 +16,19 @@ import java.time.LocalDateTime;
 /**
  * 用户实体类
  * 包含用户的基本信息和系统管理字段
+ * 启用Hibernate二级缓存（region: user），用户名作为自然主键缓存（region: user-natural-id）
+ * 用户名、邮箱、手机号的唯一性由唯一键保证，注册时按冲突的唯一键名返回提示，唯一键名须与 init_users_table.sql 一致
+ * loginCount、lastLoginAt、lastLoginIp 为 updatable = false：只由 LoginCounterService 增量写入，
+ * 通过 setter 修改后保存实体不会报错，但这三列不会写入数据库
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Table(name = "users", indexes = {
-    @Index(name = "idx_username", columnList = "username", unique = true),
-    @Index(name = "idx_email", columnList = "email", unique = true),
-    @Index(name = "idx_phone", columnList = "phone"),
+    @Index(name = "uk_username", columnList = "username", unique = true),
+    @Index(name = "uk_email", columnList = "email", unique = true),
+    @Index(name = "uk_phone", columnList = "phone", unique = true),
     @Index(name = "idx_status", columnList = "status"),
     @Index(name = "idx_created_at", columnList = "created_at")
 })
@@ -35,9 +46,10 @@ public class User {
     private Long userId;
     
     /**
-     * 用户名 - 唯一，不能为空
+     * 用户名 - 唯一，不能为空，注册后不可修改（自然主键）
      */
-    @Column(name = "username", nullable = false, unique = true, length = 50)
+    @NaturalId
+    @Column(name = "username", nullable = false, length = 50)
     private String username;
     
     /**
@@ -49,11 +61,11 @@ public class User {
     /**
      * 邮箱 - 唯一，不能为空
      */
-    @Column(name = "email", nullable = false, unique = true, length = 100)
+    @Column(name = "email", nullable = false, length = 100)
     private String email;
     
     /**
-     * 手机号 - 可为空
+     * 手机号 - 唯一，可为空
      */
     @Column(name = "phone", length = 20)
     private String phone;
@@ -103,21 +115,21 @@ public class User {
     private LocalDateTime updatedAt;
     
     /**
-     * 最后登录时间 - 可为空
+     * 最后登录时间 - 可为空，只由 LoginCounterService 以增量 UPDATE 写入
      */
-    @Column(name = "last_login_at")
+    @Column(name = "last_login_at", updatable = false)
     private LocalDateTime lastLoginAt;
     
     /**
-     * 最后登录IP - 可为空
+     * 最后登录IP - 可为空，只由 LoginCounterService 以增量 UPDATE 写入
      */
-    @Column(name = "last_login_ip", length = 45)
+    @Column(name = "last_login_ip", length = 45, updatable = false)
     private String lastLoginIp;
     
     /**
-     * 登录次数 - 默认0
+     * 登录次数 - 默认0，只由 LoginCounterService 以增量 UPDATE 写入（保存实体时不写回，避免覆盖并发累加的次数）
      */
-    @Column(name = "login_count", nullable = false)
+    @Column(name = "login_count", nullable = false, updatable = false)
     private Integer loginCount = 0;
     
     /**
@@ -143,4 +155,10 @@ public class User {
      */
     @Column(name = "deleted", nullable = false)
     private Integer deleted = 0;
+    
+    /**
+     * 软删除时间 - 未删除时为空，归档任务按此计算保留期（updated_at 会被删除后的写入刷新）
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
 }
\ No newline at end of file
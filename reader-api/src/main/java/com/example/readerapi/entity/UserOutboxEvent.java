@@ -0,0 +1,81 @@
+package com.example.readerapi.entity;
+
+import com.example.readerapi.event.UserEventType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户变更发件箱实体类
+ * 与用户表的修改在同一事务中写入，由持有投递租约的实例投递给外部目标后标记 dispatched_at，
+ * 连续失败达到上限的事件标记 parked_at 后不再投递
+ */
+@Entity
+@Table(name = "user_outbox_events", indexes = {
+    @Index(name = "idx_dispatched_parked_event_id", columnList = "dispatched_at, parked_at, event_id")
+})
+@Data
+@NoArgsConstructor
+public class UserOutboxEvent {
+    
+    /**
+     * 事件ID - 主键，自增，决定投递顺序
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+    
+    /**
+     * 用户ID
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    /**
+     * 事件类型
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private UserEventType eventType;
+    
+    /**
+     * 用户快照（UserDTO 的JSON）
+     */
+    @Column(name = "payload", length = 4000)
+    private String payload;
+    
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    /**
+     * 投递完成时间，为空表示待投递
+     */
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+    
+    /**
+     * 搁置时间，失败次数达到上限后设置，为空表示仍会投递
+     */
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt;
+    
+    /**
+     * 投递失败次数
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+    
+    /**
+     * 最近一次投递失败原因
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
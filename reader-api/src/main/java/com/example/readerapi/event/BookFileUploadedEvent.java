@@ -0,0 +1,25 @@
+package com.example.readerapi.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 图书文件上传事件
+ * 文件写入磁盘并记录到图书后发布，全文索引据此把图书加入待索引队列
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFileUploadedEvent {
+    
+    /**
+     * 图书ID
+     */
+    private Long bookId;
+    
+    /**
+     * 文件内容的 SHA-256
+     */
+    private String hash;
+}
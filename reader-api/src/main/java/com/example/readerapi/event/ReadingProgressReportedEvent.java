@@ -0,0 +1,21 @@
+package com.example.readerapi.event;
+
+import com.example.readerapi.entity.ReadingProgress;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 阅读进度上报事件
+ * 每次上报后同步发布（此时进度尚未写入数据库），书架缓存据此更新进度
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingProgressReportedEvent {
+    
+    /**
+     * 上报的进度
+     */
+    private ReadingProgress progress;
+}
@@ -0,0 +1,43 @@
+package com.example.readerapi.event;
+
+import com.example.readerapi.dto.UserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户变更事件
+ * 由发件箱分发器按 eventId 顺序投递，至少投递一次，订阅方需按 eventId 幂等处理
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeEvent {
+    
+    /**
+     * 事件ID（发件箱主键），同一用户的事件按提交顺序递增
+     */
+    private Long eventId;
+    
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 事件类型
+     */
+    private UserEventType type;
+    
+    /**
+     * 变更后的用户快照（不含密码）
+     */
+    private UserDTO user;
+    
+    /**
+     * 事件发生时间
+     */
+    private LocalDateTime occurredAt;
+}
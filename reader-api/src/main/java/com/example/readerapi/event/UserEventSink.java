@@ -0,0 +1,17 @@
+package com.example.readerapi.event;
+
+import java.util.List;
+
+/**
+ * 用户变更事件的外部投递目标（消息队列、Webhook 等）
+ * 注册为 Spring Bean 即可被发件箱分发器发现
+ */
+public interface UserEventSink {
+    
+    /**
+     * 投递一批按 eventId 升序排列的事件
+     * 抛出异常表示整批投递失败，分发器会在下一轮从第一条未确认事件开始重试
+     * @param events 事件列表
+     */
+    void deliver(List<UserChangeEvent> events) throws Exception;
+}
@@ -0,0 +1,62 @@
+package com.example.readerapi.event;
+
+/**
+ * 用户变更事件类型
+ */
+public enum UserEventType {
+    
+    /**
+     * 注册
+     */
+    REGISTERED,
+    
+    /**
+     * 资料更新
+     */
+    UPDATED,
+    
+    /**
+     * 启用
+     */
+    ENABLED,
+    
+    /**
+     * 禁用
+     */
+    DISABLED,
+    
+    /**
+     * 锁定
+     */
+    LOCKED,
+    
+    /**
+     * 邮箱验证通过
+     */
+    EMAIL_VERIFIED,
+    
+    /**
+     * 手机验证通过
+     */
+    PHONE_VERIFIED,
+    
+    /**
+     * 用户修改密码
+     */
+    PASSWORD_CHANGED,
+    
+    /**
+     * 管理员重置密码
+     */
+    PASSWORD_RESET,
+    
+    /**
+     * 软删除
+     */
+    DELETED,
+    
+    /**
+     * 从删除（或归档）状态恢复
+     */
+    RESTORED
+}
@@ -0,0 +1,148 @@
+package com.example.readerapi.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 记录语句执行耗时的数据源
+ *
+ * 用JDK动态代理包装 Connection 与 Statement，在 execute* / executeBatch 前后计时并回调监听器，
+ * Hibernate、JdbcTemplate 以及原生SQL都经过这里。executeQuery 只计到结果集返回为止，
+ * 服务端游标分批拉取的后续耗时不计入。
+ * unwrap / isWrapperFor 委托给目标数据源，仍可取到 HikariDataSource。
+ */
+public class MonitoredDataSource extends DelegatingDataSource {
+    
+    /**
+     * 语句执行监听器
+     */
+    @FunctionalInterface
+    public interface StatementListener {
+        
+        /**
+         * 语句执行完成（包括抛出异常）后回调
+         * @param sql 执行的SQL，批量执行时为最后加入批次的语句
+         * @param nanos 耗时（纳秒）
+         */
+        void afterExecute(String sql, long nanos);
+    }
+    
+    private static final ClassLoader CLASS_LOADER = MonitoredDataSource.class.getClassLoader();
+    
+    private final StatementListener listener;
+    
+    public MonitoredDataSource(DataSource targetDataSource, StatementListener listener) {
+        super(targetDataSource);
+        this.listener = listener;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+    
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+    
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+    
+    private class ConnectionHandler implements InvocationHandler {
+        
+        private final Connection target;
+        
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{type},
+                        new StatementHandler(statement, (Connection) proxy, sql));
+            }
+            return result;
+        }
+    }
+    
+    private class StatementHandler implements InvocationHandler {
+        
+        private final Statement target;
+        private final Connection connection;
+        private String sql;
+        
+        StatementHandler(Statement target, Connection connection, String sql) {
+            this.target = target;
+            this.connection = connection;
+            this.sql = sql;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connection;
+                case "addBatch":
+                    if (args != null && args.length > 0) {
+                        sql = (String) args[0];
+                    }
+                    return invokeTarget(target, method, args);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+            
+            String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            long start = System.nanoTime();
+            try {
+                return invokeTarget(target, method, args);
+            } finally {
+                if (executed != null) {
+                    listener.afterExecute(executed, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.readerapi.jdbc;
+
+/**
+ * SQL指纹
+ * 把单引号字符串、数字字面量替换为 ?，合并空白，并把 IN (?, ?, ...) 折叠为 IN (?)，
+ * 使只有参数不同的语句归为同一类；指纹不含字面量值，可以直接写日志
+ */
+public final class SqlFingerprint {
+    
+    private SqlFingerprint() {
+    }
+    
+    /**
+     * 计算SQL指纹
+     * @param sql 原始SQL
+     * @return 规范化后的SQL
+     */
+    public static String of(String sql) {
+        int length = sql.length();
+        StringBuilder out = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i);
+                out.append('?');
+            } else if (Character.isDigit(c) && !isIdentifierPart(out)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!out.isEmpty() && out.charAt(out.length() - 1) != '(') {
+                    out.append(' ');
+                }
+            } else if (c == ')' && !out.isEmpty() && out.charAt(out.length() - 1) == ' ') {
+                out.setCharAt(out.length() - 1, ')');
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ' ' || out.charAt(end - 1) == ';')) {
+            end--;
+        }
+        out.setLength(end);
+        return collapseLists(out);
+    }
+    
+    /**
+     * 把 (?, ?, ?) 折叠为 (?)，IN 列表长度不同的语句归为同一类
+     */
+    private static String collapseLists(StringBuilder sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            out.append(c);
+            i++;
+            if (c == '(' && i < sql.length() && sql.charAt(i) == '?') {
+                int j = i + 1;
+                while (true) {
+                    int k = j;
+                    if (k < sql.length() && sql.charAt(k) == ',') {
+                        k++;
+                        if (k < sql.length() && sql.charAt(k) == ' ') {
+                            k++;
+                        }
+                        if (k < sql.length() && sql.charAt(k) == '?') {
+                            j = k + 1;
+                            continue;
+                        }
+                    }
+                    break;
+                }
+                if (j < sql.length() && sql.charAt(j) == ')') {
+                    out.append('?');
+                    i = j;
+                }
+            }
+        }
+        return out.toString();
+    }
+    
+    /**
+     * 跳过单引号字符串，支持 '' 与反斜杠转义
+     */
+    private static int skipQuoted(String sql, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+    
+    /**
+     * 前一个字符是标识符的一部分时数字属于标识符（如 Hibernate 别名 u1_0）
+     */
+    private static boolean isIdentifierPart(StringBuilder out) {
+        if (out.isEmpty()) {
+            return false;
+        }
+        char previous = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$' || previous == '`';
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.readerapi.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计丢弃条数的异步日志追加器
+ *
+ * 业务线程只把事件放入有界队列，格式化和输出由后台线程完成。丢弃策略沿用 AsyncAppender：
+ * 队列剩余容量低于 discardingThreshold 时丢弃 INFO 及以下级别，队列满且 neverBlock 时丢弃所有级别，
+ * 这里在丢弃前计数，通过 reader.logging.dropped 指标暴露。
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    
+    /**
+     * 丢弃计数在 LoggerContext 中的键
+     */
+    public static final String DROPPED_KEY = "reader.logging.dropped";
+    
+    private final LongAdder dropped = new LongAdder();
+    
+    @Override
+    public void start() {
+        getContext().putObject(DROPPED_KEY, dropped);
+        super.start();
+    }
+    
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 && isNeverBlock()
+                || remaining < getDiscardingThreshold() && isDiscardable(event)) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.readerapi.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * 业务日志事件类型
+ * 以 Marker 标记日志所属事件，SamplingTurboFilter 按事件类型抽样；
+ * 事件日志的消息统一写成 "描述 key=value ..." 的形式，便于日志平台按字段解析
+ */
+public final class LogEvents {
+    
+    /**
+     * 用户注册
+     */
+    public static final Marker USER_REGISTER = MarkerFactory.getMarker("user.register");
+    
+    /**
+     * 登录成功（高频）
+     */
+    public static final Marker USER_LOGIN = MarkerFactory.getMarker("user.login");
+    
+    /**
+     * 登录失败（撞库时高频），每一条都是排查撞库的依据，不配置抽样
+     */
+    public static final Marker USER_LOGIN_FAILURE = MarkerFactory.getMarker("user.login.failure");
+    
+    /**
+     * 用户资料、头像、状态、密码等变更
+     */
+    public static final Marker USER_CHANGE = MarkerFactory.getMarker("user.change");
+    
+    /**
+     * 接口请求失败（参数错误、业务校验失败等，不含服务端异常）
+     */
+    public static final Marker REQUEST_REJECTED = MarkerFactory.getMarker("request.rejected");
+    
+    /**
+     * 接口因数据库连接不可用返回503（故障期间高频）
+     */
+    public static final Marker REQUEST_UNAVAILABLE = MarkerFactory.getMarker("request.unavailable");
+    
+    private LogEvents() {
+    }
+}
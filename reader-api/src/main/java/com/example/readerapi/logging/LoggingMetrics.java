@@ -0,0 +1,41 @@
+package com.example.readerapi.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 日志管道指标
+ * reader.logging.dropped: 异步队列满被丢弃的日志条数
+ * reader.logging.sampled_out: 按事件抽样丢弃的日志条数
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        FunctionCounter.builder("reader.logging.dropped", context,
+                        c -> count(c, CountingAsyncAppender.DROPPED_KEY))
+                .description("异步日志队列满时丢弃的日志条数")
+                .register(registry);
+        FunctionCounter.builder("reader.logging.sampled_out", context,
+                        c -> count(c, SamplingTurboFilter.SAMPLED_OUT_KEY))
+                .description("按事件类型抽样丢弃的日志条数")
+                .register(registry);
+    }
+    
+    /**
+     * 日志配置重新加载后计数器会被替换，每次读取时重新查找
+     */
+    private static double count(LoggerContext context, String key) {
+        return context.getObject(key) instanceof LongAdder counter ? counter.sum() : 0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.readerapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按事件类型抽样的日志过滤器
+ *
+ * TurboFilter 在创建日志事件之前执行，被抽样丢弃的日志不做参数格式化，也不进入异步队列。
+ * 只对带 Marker 且配置了比例的日志生效，WARN 及以上级别不抽样。
+ * 比例在 logback-spring.xml 中通过 rates 配置，格式为 "user.login:0.01,request.rejected:0.1"。
+ * 安全相关事件（如 user.login.failure）不应配置比例。
+ * 日志框架不支持 SLF4J 流式API（atInfo()...log()）的 Marker 过滤，事件日志须使用 log.info(marker, ...) 形式。
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    
+    /**
+     * 丢弃计数在 LoggerContext 中的键，计数器放在日志上下文而不是静态字段，
+     * 避免 devtools 重启类加载器下指标读到另一份类的计数
+     */
+    public static final String SAMPLED_OUT_KEY = "reader.logging.sampledOut";
+    
+    private final LongAdder sampledOut = new LongAdder();
+    
+    private volatile Map<String, Double> rates = Map.of();
+    
+    /**
+     * 设置各事件类型的抽样比例
+     * @param rates 形如 "user.login:0.01,request.rejected:0.1"，比例为保留的比例
+     */
+    public void setRates(String rates) {
+        Map<String, Double> parsed = new HashMap<>();
+        if (rates != null) {
+            for (String entry : rates.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length != 2) {
+                    continue;
+                }
+                try {
+                    parsed.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+                } catch (NumberFormatException e) {
+                    addWarn("忽略无效的日志抽样比例: " + entry);
+                }
+            }
+        }
+        this.rates = Map.copyOf(parsed);
+    }
+    
+    @Override
+    public void start() {
+        getContext().putObject(SAMPLED_OUT_KEY, sampledOut);
+        super.start();
+    }
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        Double rate = rates.get(marker.getName());
+        if (rate == null || rate >= 1.0) {
+            return FilterReply.NEUTRAL;
+        }
+        if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.readerapi.repository;
+
+import com.example.readerapi.dto.BookFile;
+import com.example.readerapi.dto.BookSummary;
+import com.example.readerapi.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * 图书数据访问接口
+ *
+ * 浏览查询按 (publication_date DESC, book_id DESC) 键集分页：条件从上一页最后一条记录之后开始，
+ * 翻到第几页都只扫描 limit 条索引记录，不使用 OFFSET。
+ * 首页传入 BookRepository.FIRST_PAGE_DATE / FIRST_PAGE_ID 作为起点。
+ */
+@Repository
+public interface BookRepository extends JpaRepository<Book, Long> {
+    
+    /**
+     * 首页游标：出版日期上界
+     */
+    LocalDate FIRST_PAGE_DATE = LocalDate.of(9999, 12, 31);
+    
+    /**
+     * 首页游标：图书ID上界
+     */
+    long FIRST_PAGE_ID = Long.MAX_VALUE;
+    
+    /**
+     * 列表投影，列均在浏览覆盖索引中
+     */
+    String SUMMARY_SELECT = "SELECT new com.example.readerapi.dto.BookSummary(" +
+            "b.bookId, b.isbn, b.title, b.author, b.category, b.publicationDate) FROM Book b ";
+    
+    /**
+     * 键集条件与排序（展开写法，MySQL 可据此在索引上生成两段范围扫描）
+     */
+    String KEYSET_ORDER = " AND (b.publicationDate < :publicationDate " +
+            "OR (b.publicationDate = :publicationDate AND b.bookId < :bookId)) " +
+            "ORDER BY b.publicationDate DESC, b.bookId DESC";
+    
+    /**
+     * 检查ISBN是否存在
+     * @param isbn ISBN
+     * @return 是否存在
+     */
+    boolean existsByIsbn(String isbn);
+    
+    /**
+     * 按分类浏览上架图书（走 idx_category_browse）
+     * @param category 分类
+     * @param publicationDate 上一页最后一条的出版日期
+     * @param bookId 上一页最后一条的图书ID
+     * @param limit 条数
+     * @return 图书列表
+     */
+    @Query(SUMMARY_SELECT + "WHERE b.category = :category AND b.status = 1" + KEYSET_ORDER)
+    List<BookSummary> browseByCategory(@Param("category") String category,
+                                       @Param("publicationDate") LocalDate publicationDate,
+                                       @Param("bookId") Long bookId, Limit limit);
+    
+    /**
+     * 按作者浏览上架图书（走 idx_author_browse）
+     * @param author 作者
+     * @param publicationDate 上一页最后一条的出版日期
+     * @param bookId 上一页最后一条的图书ID
+     * @param limit 条数
+     * @return 图书列表
+     */
+    @Query(SUMMARY_SELECT + "WHERE b.author = :author AND b.status = 1" + KEYSET_ORDER)
+    List<BookSummary> browseByAuthor(@Param("author") String author,
+                                     @Param("publicationDate") LocalDate publicationDate,
+                                     @Param("bookId") Long bookId, Limit limit);
+    
+    /**
+     * 按出版日期浏览全部上架图书（走 idx_published_browse）
+     * @param publicationDate 上一页最后一条的出版日期
+     * @param bookId 上一页最后一条的图书ID
+     * @param limit 条数
+     * @return 图书列表
+     */
+    @Query(SUMMARY_SELECT + "WHERE b.status = 1" + KEYSET_ORDER)
+    List<BookSummary> browseLatest(@Param("publicationDate") LocalDate publicationDate,
+                                   @Param("bookId") Long bookId, Limit limit);
+    
+    /**
+     * 查询上架图书的文件信息，下载时使用，不读取简介
+     * @param bookId 图书ID
+     * @return 文件信息，图书不存在、已下架或未上传文件时为空
+     */
+    @Query("SELECT new com.example.readerapi.dto.BookFile(b.bookId, b.title, b.fileHash, b.fileFormat, b.fileSize) " +
+            "FROM Book b WHERE b.bookId = :bookId AND b.status = 1 AND b.fileHash IS NOT NULL")
+    Optional<BookFile> findFileById(@Param("bookId") Long bookId);
+    
+    /**
+     * 查询图书的文件信息，不论上下架，建立全文索引时使用
+     * @param bookId 图书ID
+     * @return 文件信息，图书不存在或未上传文件时为空
+     */
+    @Query("SELECT new com.example.readerapi.dto.BookFile(b.bookId, b.title, b.fileHash, b.fileFormat, b.fileSize) " +
+            "FROM Book b WHERE b.bookId = :bookId AND b.fileHash IS NOT NULL")
+    Optional<BookFile> findStoredFileById(@Param("bookId") Long bookId);
+    
+    /**
+     * 流式读取所有已上传文件的图书，启动时与全文索引比对
+     * @return 文件信息流
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.readerapi.dto.BookFile(b.bookId, b.title, b.fileHash, b.fileFormat, b.fileSize) " +
+            "FROM Book b WHERE b.fileHash IS NOT NULL")
+    Stream<BookFile> streamStoredFiles();
+    
+    /**
+     * 按ID批量查询上架图书的摘要，用于补全检索结果
+     * @param bookIds 图书ID
+     * @return 图书摘要，已下架或不存在的图书不返回
+     */
+    @Query(SUMMARY_SELECT + "WHERE b.bookId IN :bookIds AND b.status = 1")
+    List<BookSummary> findSummariesByIds(@Param("bookIds") Collection<Long> bookIds);
+}
@@ -0,0 +1,57 @@
+package com.example.readerapi.repository;
+
+import com.example.readerapi.dto.BookshelfItem;
+import com.example.readerapi.entity.BookshelfEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 书架数据访问接口
+ */
+@Repository
+public interface BookshelfRepository extends JpaRepository<BookshelfEntry, BookshelfEntry.Key> {
+    
+    /**
+     * 读取用户的整个书架（按最近打开时间倒序）
+     * 驱动表为 bookshelf，按 idx_user_last_opened 倒序扫描，图书与阅读进度按主键逐行关联，
+     * 一条查询取回全部列表数据，不需要排序
+     * @param userId 用户ID
+     * @param limit 最多条数
+     * @return 书架列表
+     */
+    @Query("SELECT new com.example.readerapi.dto.BookshelfItem(s.bookId, b.title, b.author, b.coverUrl, " +
+           "s.status, s.rating, s.addedAt, s.lastOpenedAt, p.position, p.percent, p.updatedAt) " +
+           "FROM BookshelfEntry s JOIN Book b ON b.bookId = s.bookId " +
+           "LEFT JOIN ReadingProgress p ON p.userId = s.userId AND p.bookId = s.bookId " +
+           "WHERE s.userId = :userId " +
+           "ORDER BY s.lastOpenedAt DESC, s.bookId DESC")
+    List<BookshelfItem> findShelf(@Param("userId") Long userId, Limit limit);
+    
+    /**
+     * 统计用户书架上的图书数
+     * @param userId 用户ID
+     * @return 图书数
+     */
+    long countByUserId(Long userId);
+    
+    /**
+     * 更新最近打开时间
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @param openedAt 打开时间
+     * @return 更新的行数
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BookshelfEntry s SET s.lastOpenedAt = :openedAt WHERE s.userId = :userId AND s.bookId = :bookId")
+    int updateLastOpenedAt(@Param("userId") Long userId, @Param("bookId") Long bookId,
+                           @Param("openedAt") LocalDateTime openedAt);
+}
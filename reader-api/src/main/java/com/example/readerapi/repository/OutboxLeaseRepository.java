@@ -0,0 +1,33 @@
+package com.example.readerapi.repository;
+
+import com.example.readerapi.entity.OutboxLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱投递租约数据访问接口
+ */
+@Repository
+public interface OutboxLeaseRepository extends JpaRepository<OutboxLease, String> {
+    
+    /**
+     * 续期自己持有的租约，或接管已过期的租约（单条条件UPDATE，由行锁保证只有一个实例成功）
+     * @param leaseName 租约名称
+     * @param owner 实例标识
+     * @param now 当前时间
+     * @param leaseUntil 新的到期时间
+     * @return 更新行数，1 表示持有租约
+     */
+    @Modifying
+    @Query("UPDATE OutboxLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil " +
+           "WHERE l.leaseName = :leaseName AND (l.owner = :owner OR l.leaseUntil < :now)")
+    int tryAcquire(@Param("leaseName") String leaseName,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -0,0 +1,13 @@
+package com.example.readerapi.repository;
+
+import com.example.readerapi.entity.ReadingProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 阅读进度数据访问接口
+ * 只用于内存中没有时按主键读取，写入由 ReadingProgressServiceImpl 以 JDBC 批量 upsert 完成
+ */
+@Repository
+public interface ReadingProgressRepository extends JpaRepository<ReadingProgress, ReadingProgress.Key> {
+}
@@ -0,0 +1,91 @@
+package com.example.readerapi.repository;
+
+import com.example.readerapi.entity.UserOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 用户变更发件箱数据访问接口
+ */
+@Repository
+public interface UserOutboxEventRepository extends JpaRepository<UserOutboxEvent, Long> {
+    
+    /**
+     * 按事件ID顺序读取一批待投递且未搁置的事件（走 idx_dispatched_parked_event_id）
+     * @param limit 批大小
+     * @return 待投递事件
+     */
+    List<UserOutboxEvent> findByDispatchedAtIsNullAndParkedAtIsNullOrderByEventIdAsc(Limit limit);
+    
+    /**
+     * 按事件ID顺序读取某个ID之后的事件，不论是否已投递，用于实例各自的进程内发布游标
+     * @param eventId 起始事件ID（不含）
+     * @param limit 批大小
+     * @return 事件列表
+     */
+    List<UserOutboxEvent> findByEventIdGreaterThanOrderByEventIdAsc(Long eventId, Limit limit);
+    
+    /**
+     * 按ID读取事件，用于补发游标跳过的ID（当时所在事务尚未提交）
+     * @param eventIds 事件ID集合
+     * @return 已存在的事件
+     */
+    List<UserOutboxEvent> findByEventIdInOrderByEventIdAsc(Collection<Long> eventIds);
+    
+    /**
+     * 创建时间早于指定时间的最后一个事件（按主键倒序扫描，只越过之后新写入的事件）
+     * @param createdAt 创建时间上界（不含）
+     * @return 事件
+     */
+    Optional<UserOutboxEvent> findFirstByCreatedAtBeforeOrderByEventIdDesc(LocalDateTime createdAt);
+    
+    /**
+     * 标记事件已投递
+     * @param eventIds 事件ID列表
+     * @param dispatchedAt 投递时间
+     * @return 更新行数
+     */
+    @Modifying
+    @Query("UPDATE UserOutboxEvent e SET e.dispatchedAt = :dispatchedAt WHERE e.eventId IN :eventIds")
+    int markDispatched(@Param("eventIds") List<Long> eventIds, @Param("dispatchedAt") LocalDateTime dispatchedAt);
+    
+    /**
+     * 记录一次投递失败
+     * @param eventId 事件ID
+     * @param error 失败原因
+     * @param parkedAt 达到失败上限时的搁置时间，未达到时为null
+     * @return 更新行数
+     */
+    @Modifying
+    @Query("UPDATE UserOutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, e.parkedAt = :parkedAt " +
+           "WHERE e.eventId = :eventId")
+    int recordFailure(@Param("eventId") Long eventId, @Param("error") String error,
+                      @Param("parkedAt") LocalDateTime parkedAt);
+    
+    /**
+     * 查找投递完成且早于截止时间的事件ID
+     * @param cutoff 截止时间
+     * @param limit 批大小
+     * @return 事件ID列表
+     */
+    @Query("SELECT e.eventId FROM UserOutboxEvent e WHERE e.dispatchedAt < :cutoff ORDER BY e.eventId")
+    List<Long> findDispatchedIdsBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+    
+    /**
+     * 按ID批量删除已投递事件
+     * @param eventIds 事件ID列表
+     * @return 删除行数
+     */
+    @Modifying
+    @Query("DELETE FROM UserOutboxEvent e WHERE e.eventId IN :eventIds")
+    int deleteByEventIds(@Param("eventIds") List<Long> eventIds);
+}
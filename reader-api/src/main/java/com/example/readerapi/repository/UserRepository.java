@@ -1,21 +1,55 @@
 package com.example.readerapi.repository;
 
+import com.example.readerapi.dto.UserSuggestion;
 import com.example.readerapi.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * 用户数据访问接口
  * 提供用户相关的数据库操作方法
+ * 标注了HINT_CACHEABLE的查询走Hibernate查询缓存，users表任何写入都会使其失效
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    
+    /**
+     * users 与 users_archive 共有的列（不含 deleted、deleted_at）
+     */
+    String ARCHIVE_COLUMNS = "user_id, username, password, email, phone, real_name, nickname, avatar_url, status, role, " +
+            "created_at, updated_at, last_login_at, last_login_ip, login_count, email_verified, phone_verified, remark";
+    
+    /**
+     * 流式输出首页游标：注册时间上界
+     */
+    LocalDateTime STREAM_FIRST_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    /**
+     * 流式输出首页游标：用户ID上界
+     */
+    long STREAM_FIRST_USER_ID = Long.MAX_VALUE;
+    
+    /**
+     * 流式输出的键集条件与排序，从上一页最后一条记录之后开始（走 idx_created_at，二级索引隐含主键列）
+     */
+    String STREAM_KEYSET_ORDER = " AND (u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.userId < :userId)) " +
+            "ORDER BY u.createdAt DESC, u.userId DESC";
     
     /**
      * 根据用户名查找用户（未删除）
@@ -29,6 +63,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @param email 邮箱
      * @return 用户信息
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmailAndDeleted(String email, Integer deleted);
     
     /**
@@ -59,11 +94,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByPhoneAndDeleted(String phone, Integer deleted);
     
+    /**
+     * 检查用户是否存在（未删除）
+     * @param userId 用户ID
+     * @return 是否存在
+     */
+    boolean existsByUserIdAndDeleted(Long userId, Integer deleted);
+    
     /**
      * 根据状态查找用户列表（未删除）
      * @param status 用户状态
      * @return 用户列表
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<User> findByStatusAndDeletedOrderByCreatedAtDesc(Integer status, Integer deleted);
     
     /**
@@ -105,10 +148,50 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE (u.username LIKE %:keyword% OR u.email LIKE %:keyword% OR u.realName LIKE %:keyword% OR u.nickname LIKE %:keyword%) AND u.deleted = 0 ORDER BY u.createdAt DESC")
     List<User> searchUsers(@Param("keyword") String keyword);
     
+    /**
+     * 按页读取未删除的用户，按 (created_at DESC, user_id DESC) 键集分页，供流式输出使用
+     * 只读加载且不写入二级缓存，避免大列表挤占缓存
+     * @param createdAt 上一页最后一条的注册时间，首页传 STREAM_FIRST_CREATED_AT
+     * @param userId 上一页最后一条的用户ID，首页传 STREAM_FIRST_USER_ID
+     * @param limit 每页条数
+     * @return 用户列表
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "GET")
+    })
+    @Query("SELECT u FROM User u WHERE u.deleted = 0" + STREAM_KEYSET_ORDER)
+    List<User> findActivePage(@Param("createdAt") LocalDateTime createdAt, @Param("userId") Long userId, Limit limit);
+    
+    /**
+     * 按页模糊搜索未删除的用户，分页方式同 findActivePage
+     * @param keyword 搜索关键词
+     * @param createdAt 上一页最后一条的注册时间
+     * @param userId 上一页最后一条的用户ID
+     * @param limit 每页条数
+     * @return 用户列表
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "GET")
+    })
+    @Query("SELECT u FROM User u WHERE (u.username LIKE %:keyword% OR u.email LIKE %:keyword% OR u.realName LIKE %:keyword% OR u.nickname LIKE %:keyword%) AND u.deleted = 0" + STREAM_KEYSET_ORDER)
+    List<User> searchPage(@Param("keyword") String keyword, @Param("createdAt") LocalDateTime createdAt,
+                          @Param("userId") Long userId, Limit limit);
+    
+    /**
+     * 流式读取自动补全索引所需的字段（构造器投影，不加载实体）
+     * @return 候选项流
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.readerapi.dto.UserSuggestion(u.userId, u.username, u.nickname, u.realName) FROM User u WHERE u.deleted = 0")
+    Stream<UserSuggestion> streamUserSuggestions();
+    
     /**
      * 统计用户总数（未删除）
      * @return 用户总数
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(u) FROM User u WHERE u.deleted = 0")
     long countActiveUsers();
     
@@ -117,6 +200,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @param status 用户状态
      * @return 用户数量
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(u) FROM User u WHERE u.status = :status AND u.deleted = 0")
     long countByStatus(@Param("status") Integer status);
     
@@ -126,6 +210,62 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @param endOfDay 今日结束时间
      * @return 今日注册用户数
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt BETWEEN :startOfDay AND :endOfDay AND u.deleted = 0")
     long countTodayRegistrations(@Param("startOfDay") LocalDateTime startOfDay, @Param("endOfDay") LocalDateTime endOfDay);
+    
+    /**
+     * 查找超过保留期的软删除用户ID（按删除时间升序，走 idx_deleted_deleted_at 索引）
+     * @param cutoff 删除时间早于该时间的用户才会被归档
+     * @param limit 单批数量
+     * @return 用户ID列表
+     */
+    @Query(value = "SELECT user_id FROM users WHERE deleted = 1 AND deleted_at < :cutoff ORDER BY deleted_at LIMIT :limit", nativeQuery = true)
+    List<Long> findArchivableUserIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    /**
+     * 将指定的软删除用户复制到归档表
+     * @param userIds 用户ID列表
+     * @return 复制的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO users_archive (" + ARCHIVE_COLUMNS + ", deleted_at, archived_at) " +
+            "SELECT " + ARCHIVE_COLUMNS + ", deleted_at, NOW() FROM users WHERE user_id IN (:userIds) AND deleted = 1", nativeQuery = true)
+    int copyToArchive(@Param("userIds") List<Long> userIds);
+    
+    /**
+     * 从用户表物理删除已归档的软删除用户
+     * @param userIds 用户ID列表
+     * @return 删除的行数
+     */
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE user_id IN (:userIds) AND deleted = 1", nativeQuery = true)
+    int deleteArchivedUsers(@Param("userIds") List<Long> userIds);
+    
+    /**
+     * 检查用户是否在归档表中
+     * @param userId 用户ID
+     * @return 归档记录数（0或1）
+     */
+    @Query(value = "SELECT COUNT(*) FROM users_archive WHERE user_id = :userId", nativeQuery = true)
+    long countArchivedById(@Param("userId") Long userId);
+    
+    /**
+     * 将归档用户恢复到用户表（恢复为未删除状态，deleted_at 为空）
+     * @param userId 用户ID
+     * @return 恢复的行数
+     */
+    @Modifying
+    @Query(value = "INSERT INTO users (" + ARCHIVE_COLUMNS + ", deleted) " +
+            "SELECT " + ARCHIVE_COLUMNS + ", 0 FROM users_archive WHERE user_id = :userId", nativeQuery = true)
+    int restoreFromArchive(@Param("userId") Long userId);
+    
+    /**
+     * 删除归档记录
+     * @param userId 用户ID
+     * @return 删除的行数
+     */
+    @Modifying
+    @Query(value = "DELETE FROM users_archive WHERE user_id = :userId", nativeQuery = true)
+    int deleteFromArchive(@Param("userId") Long userId);
 }
\ No newline at end of file
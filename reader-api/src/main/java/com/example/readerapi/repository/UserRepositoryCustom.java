@@ -0,0 +1,45 @@
+package com.example.readerapi.repository;
+
+import com.example.readerapi.dto.UserFieldSet;
+import com.example.readerapi.entity.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 用户数据访问自定义扩展接口
+ * 提供Spring Data派生查询无法表达的Hibernate原生能力
+ */
+public interface UserRepositoryCustom {
+    
+    /**
+     * 根据用户名（自然主键）查找用户，优先命中自然主键缓存和二级缓存
+     * @param username 用户名
+     * @return 用户信息（可能已被软删除，由调用方过滤）
+     */
+    Optional<User> findByNaturalUsername(String username);
+    
+    /**
+     * 按ID批量查找用户，优先命中二级缓存，未命中的ID每 batchSize 个用一条 IN 查询读取
+     * @param userIds 用户ID（不含重复）
+     * @param batchSize 每条查询最多包含的ID数
+     * @return 与 userIds 一一对应的用户，不存在的为 null（可能已被软删除，由调用方过滤）
+     */
+    List<User> findAllByIdInOrder(List<Long> userIds, int batchSize);
+    
+    /**
+     * 查询所有未删除的用户，只选出指定字段，按注册时间倒序
+     * @param fields 字段集
+     * @return 每个用户的字段名 -> 字段值
+     */
+    List<Map<String, Object>> findActiveProjected(UserFieldSet fields);
+    
+    /**
+     * 按关键词搜索未删除的用户（用户名、邮箱、真实姓名、昵称模糊匹配），只选出指定字段，按注册时间倒序
+     * @param keyword 搜索关键词
+     * @param fields 字段集
+     * @return 每个用户的字段名 -> 字段值
+     */
+    List<Map<String, Object>> searchProjected(String keyword, UserFieldSet fields);
+}
@@ -0,0 +1,95 @@
+package com.example.readerapi.repository;
+
+import com.example.readerapi.dto.UserFieldSet;
+import com.example.readerapi.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 用户数据访问自定义扩展实现
+ *
+ * 字段子集投影的 JPQL 按（查询, 字段集）缓存：字段集已规范化，同一组字段总是生成同一条语句，
+ * Hibernate 按语句文本缓存解析结果，重复请求不再解析 JPQL。
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    
+    /**
+     * 缓存的投影查询语句数上限（白名单字段的组合有限，实际使用的更少）
+     */
+    private static final int PROJECTION_QUERY_CACHE_SIZE = 256;
+    
+    private static final String ACTIVE_USERS_QUERY =
+            "SELECT %s FROM User u WHERE u.deleted = 0 ORDER BY u.createdAt DESC";
+    
+    private static final String SEARCH_USERS_QUERY =
+            "SELECT %s FROM User u WHERE (u.username LIKE :keyword OR u.email LIKE :keyword"
+                    + " OR u.realName LIKE :keyword OR u.nickname LIKE :keyword) AND u.deleted = 0 ORDER BY u.createdAt DESC";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final Cache<String, String> projectionQueries = Caffeine.newBuilder()
+            .maximumSize(PROJECTION_QUERY_CACHE_SIZE)
+            .build();
+    
+    @Override
+    public Optional<User> findByNaturalUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+    
+    @Override
+    public List<User> findAllByIdInOrder(List<Long> userIds, int batchSize) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                .enableOrderedReturn(true)
+                // 先查当前会话和二级缓存（须显式指定 CacheMode），只为未命中的ID发出查询
+                .enableSessionCheck(true)
+                .with(CacheMode.NORMAL)
+                .withBatchSize(batchSize)
+                .multiLoad(userIds);
+    }
+    
+    @Override
+    public List<Map<String, Object>> findActiveProjected(UserFieldSet fields) {
+        return entityManager.createQuery(projectionQuery(ACTIVE_USERS_QUERY, fields), Tuple.class)
+                .getResultList().stream()
+                .map(row -> fields.toMap(row.toArray()))
+                .toList();
+    }
+    
+    @Override
+    public List<Map<String, Object>> searchProjected(String keyword, UserFieldSet fields) {
+        return entityManager.createQuery(projectionQuery(SEARCH_USERS_QUERY, fields), Tuple.class)
+                .setParameter("keyword", "%" + keyword + "%")
+                .getResultList().stream()
+                .map(row -> fields.toMap(row.toArray()))
+                .toList();
+    }
+    
+    /**
+     * 用字段集填充查询模板的 SELECT 子句
+     */
+    private String projectionQuery(String template, UserFieldSet fields) {
+        return projectionQueries.get(template + '|' + fields.getKey(), key -> {
+            StringBuilder select = new StringBuilder();
+            for (String name : fields.getNames()) {
+                if (!select.isEmpty()) {
+                    select.append(", ");
+                }
+                select.append("u.").append(name);
+            }
+            return template.formatted(select);
+        });
+    }
+}
@@ -0,0 +1,786 @@
+package com.example.readerapi.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 图书正文倒排索引
+ *
+ * 目录下是一组不可变的段文件 seg-000001.idx、seg-000002.idx ...（格式见 IndexSegment），序号越大越新。
+ * 新上传的图书按批写成一个新段；段数超过上限时，后台把最小的若干段的倒排表按词归并成一个新段，
+ * 只复制仍有效的文档，合并不需要重新提取和分词。
+ * 同一本书重新上传后会出现在更新的段中，live 记录每本书当前有效的 (段, 文档)，旧段中的副本在查询时跳过，
+ * 在下次合并时清除。启动时按段序号依次加载即可恢复 live（合并产生的段序号总是大于所有源段）。
+ * 移除一本书（如重新上传为无法索引的格式）时在 tombstones 文件中记下当时的最大段序号，
+ * 启动时不恢复不晚于该段的副本；这些副本都被合并清除后，墓碑随之删除。
+ *
+ * 查询的 BM25 统计（文档数、平均长度、文档频率）只计 live 中的文档，不含尚未合并清除的失效副本。
+ *
+ * 写入（add、merge）串行执行；查询读取段列表快照，不加锁，可与写入并发。
+ */
+@Slf4j
+public class BookIndex {
+    
+    private static final Pattern SEGMENT_NAME = Pattern.compile("seg-(\\d+)\\.idx");
+    
+    private static final String TOMBSTONES = "tombstones.tsv";
+    
+    /**
+     * BM25 参数
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    /**
+     * 多个词在正文中按查询顺序相邻出现（短语命中）时的得分倍数
+     */
+    private static final double PHRASE_BOOST = 2.0;
+    
+    /**
+     * 单个文档内每个查询词最多收集的出现次数，只影响短语定位，不影响词频
+     */
+    private static final int MAX_OCCURRENCES = 1024;
+    
+    /**
+     * 待索引的图书
+     * @param bookId 图书ID
+     * @param hash 图书文件内容的 SHA-256（十六进制）
+     * @param text 正文
+     */
+    public record IndexedBook(long bookId, String hash, String text) {
+    }
+    
+    /**
+     * 查询命中
+     * @param bookId 图书ID
+     * @param score 相关度得分
+     * @param offset 命中位置（正文字符偏移）
+     * @param snippet 命中位置附近的正文
+     */
+    public record Hit(long bookId, double score, int offset, String snippet) {
+    }
+    
+    /**
+     * 图书当前有效的索引位置
+     */
+    private record DocRef(long segment, int doc, String hash, int tokenCount) {
+    }
+    
+    private final Path directory;
+    private final Map<Long, DocRef> live = new ConcurrentHashMap<>();
+    
+    /**
+     * live 中文档的词数之和，用于计算平均文档长度
+     */
+    private final AtomicLong liveTokens = new AtomicLong();
+    
+    /**
+     * 已移除的图书 -> 移除时的最大段序号，不晚于该段的副本不再有效；只在写入线程中访问
+     */
+    private final Map<Long, Long> tombstones = new HashMap<>();
+    private volatile List<IndexSegment> segments = List.of();
+    private long nextSegmentId = 1;
+    
+    public BookIndex(Path directory) {
+        this.directory = directory;
+        open();
+    }
+    
+    /**
+     * 已索引的文件哈希
+     * @param bookId 图书ID
+     * @return 文件哈希，未索引时为null
+     */
+    public String indexedHash(long bookId) {
+        DocRef ref = live.get(bookId);
+        return ref == null ? null : ref.hash();
+    }
+    
+    /**
+     * 已索引的图书数
+     */
+    public int documentCount() {
+        return live.size();
+    }
+    
+    /**
+     * 段文件个数
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+    
+    /**
+     * 把一批图书写成一个新段，同一本书已有的索引随之失效
+     * @param books 待索引的图书
+     * @throws IOException 写入段文件失败
+     */
+    public synchronized void add(List<IndexedBook> books) throws IOException {
+        Map<Long, IndexedBook> unique = new LinkedHashMap<>();
+        books.forEach(book -> unique.put(book.bookId(), book));
+        if (unique.isEmpty()) {
+            return;
+        }
+        
+        List<IndexedBook> batch = new ArrayList<>(unique.values());
+        List<IndexSegment.DocEntry> docs = new ArrayList<>(batch.size());
+        Map<String, PostingsBuffer> postings = new HashMap<>();
+        long totalTokens = 0;
+        for (int doc = 0; doc < batch.size(); doc++) {
+            IndexedBook book = batch.get(doc);
+            int docOrd = doc;
+            int tokenCount = BookTokenizer.tokenize(book.text(), (term, position, offset) ->
+                    postings.computeIfAbsent(term, key -> new PostingsBuffer()).add(docOrd, position, offset));
+            docs.add(new IndexSegment.DocEntry(book.bookId(), HexFormat.of().parseHex(book.hash()),
+                    book.text().length(), tokenCount));
+            totalTokens += tokenCount;
+        }
+        
+        List<Map.Entry<byte[], PostingsBuffer>> terms = new ArrayList<>(postings.size());
+        postings.forEach((term, buffer) -> terms.add(Map.entry(term.getBytes(StandardCharsets.UTF_8), buffer)));
+        terms.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+        
+        long id = nextSegmentId++;
+        Path temp = directory.resolve(segmentName(id) + ".tmp");
+        try {
+            try (SegmentWriter writer = new SegmentWriter(temp, docs)) {
+                for (Map.Entry<byte[], PostingsBuffer> term : terms) {
+                    writer.startTerm(term.getKey());
+                    term.getValue().writeTo(writer);
+                    writer.endTerm();
+                }
+                for (IndexedBook book : batch) {
+                    writer.writeText(book.text());
+                }
+                writer.finish(totalTokens);
+            }
+            publish(install(temp, id), List.of());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        // 重新加入的图书以新段中的副本为准，墓碑不再需要
+        if (tombstones.keySet().removeAll(unique.keySet())) {
+            writeTombstones();
+        }
+        log.info("索引段写入完成 segment={} books={} terms={}", id, batch.size(), terms.size());
+    }
+    
+    /**
+     * 移除图书的索引，之后查询不再返回这些图书；段文件中的副本在合并时清除
+     * @param bookIds 图书ID
+     * @return 实际移除的图书数
+     * @throws IOException 写入墓碑文件失败
+     */
+    public synchronized int remove(Collection<Long> bookIds) throws IOException {
+        int removed = 0;
+        for (Long bookId : bookIds) {
+            DocRef ref = live.remove(bookId);
+            if (ref != null) {
+                liveTokens.addAndGet(-ref.tokenCount());
+                tombstones.put(bookId, nextSegmentId - 1);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            writeTombstones();
+            log.info("移除全文索引 books={}", removed);
+        }
+        return removed;
+    }
+    
+    /**
+     * 段数超过上限时，把最小的若干段合并为一个新段，并丢弃失效的文档
+     * @param maxSegments 段数上限
+     * @param mergeFactor 一次最多合并的段数
+     * @param maxSegmentBytes 合并后段文件大小上限
+     * @return 是否进行了合并
+     * @throws IOException 写入段文件失败
+     */
+    public synchronized boolean merge(int maxSegments, int mergeFactor, long maxSegmentBytes) throws IOException {
+        List<IndexSegment> current = segments;
+        if (current.size() <= maxSegments) {
+            return false;
+        }
+        List<IndexSegment> sources = new ArrayList<>();
+        long total = 0;
+        for (IndexSegment segment : current.stream().sorted(Comparator.comparingLong(IndexSegment::size)).toList()) {
+            if (sources.size() == mergeFactor || total + segment.size() > maxSegmentBytes) {
+                break;
+            }
+            sources.add(segment);
+            total += segment.size();
+        }
+        if (sources.size() < 2) {
+            return false;
+        }
+        sources.sort(Comparator.comparingLong(IndexSegment::id));
+        
+        // 源段文档到新段文档序号的映射，失效文档为-1
+        int[][] docMaps = new int[sources.size()][];
+        List<IndexSegment.DocEntry> docs = new ArrayList<>();
+        long totalTokens = 0;
+        for (int s = 0; s < sources.size(); s++) {
+            IndexSegment segment = sources.get(s);
+            docMaps[s] = new int[segment.docCount()];
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                DocRef ref = live.get(segment.bookId(doc));
+                if (ref != null && ref.segment() == segment.id() && ref.doc() == doc) {
+                    docMaps[s][doc] = docs.size();
+                    docs.add(new IndexSegment.DocEntry(segment.bookId(doc), segment.hash(doc),
+                            segment.textLength(doc), segment.tokenCount(doc)));
+                    totalTokens += segment.tokenCount(doc);
+                } else {
+                    docMaps[s][doc] = -1;
+                }
+            }
+        }
+        
+        if (docs.isEmpty()) {
+            publish(null, sources);
+            pruneTombstones();
+            log.info("删除只含失效文档的索引段 {} 个", sources.size());
+            return true;
+        }
+        
+        long id = nextSegmentId++;
+        Path temp = directory.resolve(segmentName(id) + ".tmp");
+        try {
+            try (SegmentWriter writer = new SegmentWriter(temp, docs)) {
+                mergePostings(sources, docMaps, writer);
+                byte[] chunk = new byte[64 * 1024];
+                for (int s = 0; s < sources.size(); s++) {
+                    IndexSegment segment = sources.get(s);
+                    for (int doc = 0; doc < segment.docCount(); doc++) {
+                        if (docMaps[s][doc] < 0) {
+                            continue;
+                        }
+                        int length = 2 * segment.textLength(doc);
+                        for (int from = 0; from < length; ) {
+                            int read = segment.textBytes(doc, from, chunk);
+                            writer.writeTextBytes(chunk, read);
+                            from += read;
+                        }
+                    }
+                }
+                writer.finish(totalTokens);
+            }
+            publish(install(temp, id), sources);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        pruneTombstones();
+        log.info("索引段合并完成 segment={} sources={} books={}", id, sources.size(), docs.size());
+        return true;
+    }
+    
+    /**
+     * 按词的字节序多路归并各源段的倒排表，文档序号按映射改写
+     */
+    private static void mergePostings(List<IndexSegment> sources, int[][] docMaps, SegmentWriter writer) throws IOException {
+        PriorityQueue<TermCursor> queue = new PriorityQueue<>((a, b) -> {
+            int c = Arrays.compareUnsigned(a.term, b.term);
+            return c != 0 ? c : Integer.compare(a.source, b.source);
+        });
+        for (int s = 0; s < sources.size(); s++) {
+            if (sources.get(s).termCount() > 0) {
+                queue.add(new TermCursor(s, sources.get(s)));
+            }
+        }
+        List<TermCursor> same = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            same.clear();
+            same.add(queue.poll());
+            byte[] term = same.get(0).term;
+            while (!queue.isEmpty() && Arrays.equals(queue.peek().term, term)) {
+                same.add(queue.poll());
+            }
+            
+            // 同一个词按源段顺序写出，新文档序号保持递增
+            writer.startTerm(term);
+            for (TermCursor cursor : same) {
+                int[] docMap = docMaps[cursor.source];
+                IndexSegment.Postings postings = cursor.segment.postings(cursor.index);
+                while (postings.next()) {
+                    int doc = docMap[postings.doc()];
+                    if (doc < 0) {
+                        continue;
+                    }
+                    writer.addDoc(doc, postings.freq());
+                    for (int i = 0; i < postings.freq(); i++) {
+                        writer.addOccurrence(postings.position(i), postings.offset(i));
+                    }
+                }
+            }
+            writer.endTerm();
+            
+            for (TermCursor cursor : same) {
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 查询：所有查询词都出现的图书按 BM25 排序，短语命中加权
+     * @param query 查询串
+     * @param limit 最多返回的图书数
+     * @param snippetLength 摘要字符数
+     * @return 命中，每本书一条，按得分从高到低
+     */
+    public List<Hit> search(String query, int limit, int snippetLength) {
+        List<BookTokenizer.Token> tokens = BookTokenizer.tokenizeQuery(query);
+        List<IndexSegment> snapshot = segments;
+        if (tokens.isEmpty() || snapshot.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        
+        // 各段分别解析查询词对应的词序号（单字查询展开为前缀匹配的所有词），任一词在所有段中都不存在时直接返回
+        int[][][] termIds = new int[snapshot.size()][tokens.size()][];
+        boolean[] present = new boolean[tokens.size()];
+        for (int s = 0; s < snapshot.size(); s++) {
+            IndexSegment segment = snapshot.get(s);
+            for (int i = 0; i < tokens.size(); i++) {
+                termIds[s][i] = resolve(segment, tokens.get(i).term());
+                present[i] |= termIds[s][i].length > 0;
+            }
+        }
+        for (boolean found : present) {
+            if (!found) {
+                return List.of();
+            }
+        }
+        
+        // 收集各段中有效文档的出现，文档频率只计有效文档，失效副本不影响 idf
+        List<List<Map<Integer, Occurrences>>> perSegment = new ArrayList<>(snapshot.size());
+        long[] docFreqs = new long[tokens.size()];
+        for (int s = 0; s < snapshot.size(); s++) {
+            IndexSegment segment = snapshot.get(s);
+            List<Map<Integer, Occurrences>> perToken = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                Map<Integer, Occurrences> byDoc = collect(segment, termIds[s][i]);
+                byDoc.keySet().removeIf(doc -> !isLive(segment, doc));
+                docFreqs[i] += byDoc.size();
+                perToken.add(byDoc);
+            }
+            perSegment.add(perToken);
+        }
+        long docCount = live.size();
+        double averageLength = Math.max(1.0, (double) liveTokens.get() / Math.max(1, docCount));
+        double[] idf = new double[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            if (docFreqs[i] == 0) {
+                return List.of();
+            }
+            // 与写入并发时 live 可能已变化，文档频率按文档总数封顶
+            long docFreq = Math.min(docFreqs[i], docCount);
+            idf[i] = Math.log(1 + (docCount - docFreq + 0.5) / (docFreq + 0.5));
+        }
+        int rarest = 0;
+        for (int i = 1; i < tokens.size(); i++) {
+            if (docFreqs[i] < docFreqs[rarest]) {
+                rarest = i;
+            }
+        }
+        
+        List<Hit> hits = new ArrayList<>();
+        for (int s = 0; s < snapshot.size(); s++) {
+            IndexSegment segment = snapshot.get(s);
+            List<Map<Integer, Occurrences>> perToken = perSegment.get(s);
+            for (Map.Entry<Integer, Occurrences> candidate : perToken.get(rarest).entrySet()) {
+                int doc = candidate.getKey();
+                Occurrences[] occurrences = new Occurrences[tokens.size()];
+                boolean all = true;
+                for (int i = 0; i < tokens.size() && all; i++) {
+                    occurrences[i] = perToken.get(i).get(doc);
+                    all = occurrences[i] != null;
+                }
+                if (!all) {
+                    continue;
+                }
+                
+                double norm = K1 * (1 - B + B * segment.tokenCount(doc) / averageLength);
+                double score = 0;
+                for (int i = 0; i < tokens.size(); i++) {
+                    int tf = occurrences[i].freq;
+                    score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                }
+                int offset = phraseOffset(tokens, occurrences);
+                if (offset >= 0 && tokens.size() > 1) {
+                    score *= PHRASE_BOOST;
+                } else {
+                    offset = occurrences[rarest].firstOffset();
+                }
+                hits.add(new Hit(segment.bookId(doc), score, offset, snippet(segment, doc, offset, snippetLength)));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+    
+    /**
+     * 段中的文档是否为该书当前有效的副本
+     */
+    private boolean isLive(IndexSegment segment, int doc) {
+        DocRef ref = live.get(segment.bookId(doc));
+        return ref != null && ref.segment() == segment.id() && ref.doc() == doc;
+    }
+    
+    /**
+     * 查询词对应的词序号：单个中日韩文字按前缀匹配，其余精确匹配
+     */
+    private static int[] resolve(IndexSegment segment, String term) {
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        if (term.codePointCount(0, term.length()) != 1 || !BookTokenizer.isCjk(term.codePointAt(0))) {
+            int t = segment.findTerm(bytes);
+            return t < 0 ? new int[0] : new int[]{t};
+        }
+        int from = segment.lowerBound(bytes);
+        int to = from;
+        while (to < segment.termCount() && startsWith(segment.term(to), bytes)) {
+            to++;
+        }
+        int[] ids = new int[to - from];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = from + i;
+        }
+        return ids;
+    }
+    
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        return bytes.length >= prefix.length && Arrays.equals(bytes, 0, prefix.length, prefix, 0, prefix.length);
+    }
+    
+    /**
+     * 汇总若干个词在各文档中的出现
+     */
+    private static Map<Integer, Occurrences> collect(IndexSegment segment, int[] terms) {
+        Map<Integer, Occurrences> byDoc = new HashMap<>();
+        for (int t : terms) {
+            IndexSegment.Postings postings = segment.postings(t);
+            while (postings.next()) {
+                Occurrences occurrences = byDoc.computeIfAbsent(postings.doc(), doc -> new Occurrences());
+                occurrences.freq += postings.freq();
+                for (int i = 0; i < postings.freq() && occurrences.size < MAX_OCCURRENCES; i++) {
+                    occurrences.add(postings.position(i), postings.offset(i));
+                }
+            }
+        }
+        byDoc.values().forEach(Occurrences::sort);
+        return byDoc;
+    }
+    
+    /**
+     * 查找各查询词按查询中的相对位置依次出现的位置
+     * @return 短语起始的正文偏移，没有时为-1
+     */
+    private static int phraseOffset(List<BookTokenizer.Token> tokens, Occurrences[] occurrences) {
+        Occurrences first = occurrences[0];
+        for (int k = 0; k < first.size; k++) {
+            int start = Occurrences.position(first.pairs[k]) - tokens.get(0).position();
+            boolean matched = true;
+            for (int i = 1; i < tokens.size() && matched; i++) {
+                matched = occurrences[i].containsPosition(start + tokens.get(i).position());
+            }
+            if (matched) {
+                return Occurrences.offset(first.pairs[k]);
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 命中位置前取约1/3、后取约2/3；起点落在西文单词中间时移到下一个词的开头
+     */
+    private static String snippet(IndexSegment segment, int doc, int offset, int length) {
+        int from = Math.max(0, offset - length / 3);
+        String text = segment.text(doc, from - 1, from + length);
+        int start = from > 0 ? 1 : 0;
+        if (from > 0 && Character.isLetterOrDigit(text.charAt(0)) && !BookTokenizer.isCjk(text.charAt(0))) {
+            while (start < offset - from && Character.isLetterOrDigit(text.charAt(start))) {
+                start++;
+            }
+        }
+        return text.substring(start).replaceAll("\\s+", " ").trim();
+    }
+    
+    /**
+     * 把新段加入段列表并更新 live，再移除被合并的源段
+     * 新段先可见、源段后移除，查询在任何时刻都能通过 live 找到每本书恰好一个有效副本
+     */
+    private void publish(IndexSegment created, List<IndexSegment> removed) {
+        List<IndexSegment> next = new ArrayList<>(segments);
+        if (created != null) {
+            next.add(created);
+            segments = List.copyOf(next);
+            for (int doc = 0; doc < created.docCount(); doc++) {
+                long bookId = created.bookId(doc);
+                DocRef ref = new DocRef(created.id(), doc, created.hashHex(doc), created.tokenCount(doc));
+                if (removed.isEmpty()) {
+                    putLive(bookId, ref);
+                } else {
+                    // 合并只搬移仍指向源段的文档
+                    live.computeIfPresent(bookId, (key, current) -> isIn(current, removed) ? ref : current);
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            next.removeAll(removed);
+            segments = List.copyOf(next);
+            for (IndexSegment segment : removed) {
+                try {
+                    // 文件删除后，已映射的内存在进行中的查询结束、被回收前仍然有效
+                    Files.deleteIfExists(segment.path());
+                } catch (IOException e) {
+                    log.warn("删除已合并的索引段失败: {}", segment.path(), e);
+                }
+            }
+        }
+    }
+    
+    private void putLive(long bookId, DocRef ref) {
+        DocRef previous = live.put(bookId, ref);
+        liveTokens.addAndGet(ref.tokenCount() - (previous == null ? 0 : previous.tokenCount()));
+    }
+    
+    /**
+     * 删除不再需要的墓碑：不晚于墓碑段序号的段中已没有该书的副本
+     */
+    private void pruneTombstones() throws IOException {
+        if (tombstones.isEmpty()) {
+            return;
+        }
+        long maxSegment = tombstones.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        Map<Long, Long> oldestCopy = new HashMap<>();
+        for (IndexSegment segment : segments) {
+            if (segment.id() > maxSegment) {
+                continue;
+            }
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                oldestCopy.merge(segment.bookId(doc), segment.id(), Math::min);
+            }
+        }
+        boolean changed = tombstones.entrySet().removeIf(tombstone -> {
+            Long copy = oldestCopy.get(tombstone.getKey());
+            return copy == null || copy > tombstone.getValue();
+        });
+        if (changed) {
+            writeTombstones();
+        }
+    }
+    
+    private void writeTombstones() throws IOException {
+        Path file = directory.resolve(TOMBSTONES);
+        if (tombstones.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Path temp = directory.resolve(TOMBSTONES + ".tmp");
+        List<String> lines = new ArrayList<>(tombstones.size());
+        tombstones.forEach((bookId, segment) -> lines.add(bookId + "\t" + segment));
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static boolean isIn(DocRef ref, List<IndexSegment> segments) {
+        return segments.stream().anyMatch(segment -> segment.id() == ref.segment());
+    }
+    
+    private IndexSegment install(Path temp, long id) throws IOException {
+        Path target = directory.resolve(segmentName(id));
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        return IndexSegment.open(id, target);
+    }
+    
+    private void open() {
+        List<IndexSegment> loaded = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.toList();
+            }
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // 写入中途退出留下的临时文件
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                Matcher matcher = SEGMENT_NAME.matcher(name);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                try {
+                    loaded.add(IndexSegment.open(Long.parseLong(matcher.group(1)), file));
+                } catch (IOException e) {
+                    log.warn("无法打开索引段，已跳过: {}", file, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开全文索引目录失败: " + directory, e);
+        }
+        
+        loaded.sort(Comparator.comparingLong(IndexSegment::id));
+        for (IndexSegment segment : loaded) {
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                putLive(segment.bookId(doc), new DocRef(segment.id(), doc, segment.hashHex(doc), segment.tokenCount(doc)));
+            }
+            nextSegmentId = segment.id() + 1;
+        }
+        segments = List.copyOf(loaded);
+        loadTombstones();
+    }
+    
+    /**
+     * 读取墓碑，移除时已存在的副本不再有效
+     */
+    private void loadTombstones() {
+        Path file = directory.resolve(TOMBSTONES);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if (fields.length != 2) {
+                    continue;
+                }
+                long bookId = Long.parseLong(fields[0]);
+                long segment = Long.parseLong(fields[1]);
+                tombstones.put(bookId, segment);
+                DocRef ref = live.get(bookId);
+                if (ref != null && ref.segment() <= segment) {
+                    live.remove(bookId);
+                    liveTokens.addAndGet(-ref.tokenCount());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取全文索引墓碑文件失败: " + file, e);
+        }
+    }
+    
+    private static String segmentName(long id) {
+        return String.format("seg-%06d.idx", id);
+    }
+    
+    /**
+     * 构建新段时一个词的倒排表：依次为 doc、freq 和 freq 对 (position, offset)
+     */
+    private static final class PostingsBuffer {
+        private int[] data = new int[8];
+        private int size;
+        private int lastDoc = -1;
+        private int freqIndex;
+        
+        void add(int doc, int position, int offset) {
+            if (size + 4 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            if (doc != lastDoc) {
+                lastDoc = doc;
+                data[size++] = doc;
+                freqIndex = size;
+                data[size++] = 0;
+            }
+            data[freqIndex]++;
+            data[size++] = position;
+            data[size++] = offset;
+        }
+        
+        void writeTo(SegmentWriter writer) throws IOException {
+            int i = 0;
+            while (i < size) {
+                int doc = data[i++];
+                int freq = data[i++];
+                writer.addDoc(doc, freq);
+                for (int k = 0; k < freq; k++) {
+                    writer.addOccurrence(data[i++], data[i++]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 合并时某个源段的词游标
+     */
+    private static final class TermCursor {
+        private final int source;
+        private final IndexSegment segment;
+        private int index;
+        private byte[] term;
+        
+        private TermCursor(int source, IndexSegment segment) {
+            this.source = source;
+            this.segment = segment;
+            this.term = segment.term(0);
+        }
+        
+        private boolean advance() {
+            if (++index >= segment.termCount()) {
+                return false;
+            }
+            term = segment.term(index);
+            return true;
+        }
+    }
+    
+    /**
+     * 查询词在一个文档中的出现，(position, offset) 打包为 long 按位置排序
+     */
+    private static final class Occurrences {
+        private long[] pairs = new long[4];
+        private int size;
+        private int freq;
+        
+        void add(int position, int offset) {
+            if (size == pairs.length) {
+                pairs = Arrays.copyOf(pairs, size * 2);
+            }
+            pairs[size++] = ((long) position << 32) | (offset & 0xFFFFFFFFL);
+        }
+        
+        void sort() {
+            Arrays.sort(pairs, 0, size);
+        }
+        
+        boolean containsPosition(int position) {
+            int i = Arrays.binarySearch(pairs, 0, size, (long) position << 32);
+            int insertion = i >= 0 ? i : -i - 1;
+            return insertion < size && position(pairs[insertion]) == position;
+        }
+        
+        int firstOffset() {
+            return offset(pairs[0]);
+        }
+        
+        static int position(long pair) {
+            return (int) (pair >>> 32);
+        }
+        
+        static int offset(long pair) {
+            return (int) pair;
+        }
+    }
+}
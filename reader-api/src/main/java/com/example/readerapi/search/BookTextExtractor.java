@@ -0,0 +1,205 @@
+package com.example.readerapi.search;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URLDecoder;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 图书正文提取
+ *
+ * TXT 先按 UTF-8 严格解码，失败时按 GB18030 解码（国内 TXT 电子书多为 GBK）；
+ * EPUB 按 OPF 的 spine 顺序读取各章节 XHTML，去掉标签并还原实体。
+ * PDF 需要完整的 PDF 解析库（字体编码、压缩内容流），暂不支持，返回null。
+ * 超过 maxChars 的部分截断，限制单本书的索引大小。
+ */
+public final class BookTextExtractor {
+    
+    private static final Charset GB18030 = Charset.forName("GB18030");
+    
+    private static final Pattern ROOTFILE = Pattern.compile("full-path\\s*=\\s*\"([^\"]+)\"");
+    private static final Pattern INVISIBLE = Pattern.compile("(?is)<(script|style|head)\\b.*?</\\1\\s*>");
+    private static final Pattern BLOCK_TAG = Pattern.compile("(?i)</?(p|div|br|h[1-6]|li|tr|section|blockquote)\\b[^>]*>");
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern ENTITY = Pattern.compile("&(#[0-9]+|#[xX][0-9a-fA-F]+|[a-zA-Z]+);");
+    private static final Map<String, String> NAMED_ENTITIES = Map.of(
+            "amp", "&", "lt", "<", "gt", ">", "quot", "\"", "apos", "'", "nbsp", " ",
+            "ldquo", "\u201C", "rdquo", "\u201D", "hellip", "\u2026", "mdash", "\u2014");
+    
+    private BookTextExtractor() {
+    }
+    
+    /**
+     * 提取正文
+     * @param file 图书文件
+     * @param format 文件格式：epub、pdf、txt
+     * @param maxChars 最多提取的字符数
+     * @return 正文，格式不支持时为null
+     * @throws IOException 读取失败或文件损坏
+     */
+    public static String extract(Path file, String format, int maxChars) throws IOException {
+        return switch (format) {
+            case "txt" -> extractText(file, maxChars);
+            case "epub" -> extractEpub(file, maxChars);
+            default -> null;
+        };
+    }
+    
+    private static String extractText(Path file, int maxChars) throws IOException {
+        try {
+            return readText(file, StandardCharsets.UTF_8, maxChars);
+        } catch (CharacterCodingException e) {
+            return readText(file, GB18030, maxChars);
+        }
+    }
+    
+    private static String readText(Path file, Charset charset, int maxChars) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file),
+                charset.newDecoder().onMalformedInput(CodingErrorAction.REPORT)))) {
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while (text.length() < maxChars && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - text.length()))) > 0) {
+                text.append(buffer, 0, read);
+            }
+            if (!text.isEmpty() && text.charAt(0) == '\uFEFF') {
+                text.deleteCharAt(0);
+            }
+            return text.toString();
+        }
+    }
+    
+    private static String extractEpub(Path file, int maxChars) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile(), StandardCharsets.UTF_8)) {
+            String container = readEntry(zip, "META-INF/container.xml");
+            Matcher rootfile = ROOTFILE.matcher(container);
+            if (!rootfile.find()) {
+                throw new IOException("EPUB 缺少 rootfile");
+            }
+            String opfPath = rootfile.group(1);
+            String baseDir = opfPath.contains("/") ? opfPath.substring(0, opfPath.lastIndexOf('/') + 1) : "";
+            
+            Document opf = parseXml(zip, opfPath);
+            Map<String, String> manifest = new HashMap<>();
+            NodeList items = opf.getElementsByTagNameNS("*", "item");
+            for (int i = 0; i < items.getLength(); i++) {
+                Element item = (Element) items.item(i);
+                manifest.put(item.getAttribute("id"), item.getAttribute("href"));
+            }
+            
+            StringBuilder text = new StringBuilder();
+            NodeList spine = opf.getElementsByTagNameNS("*", "itemref");
+            for (int i = 0; i < spine.getLength() && text.length() < maxChars; i++) {
+                String href = manifest.get(((Element) spine.item(i)).getAttribute("idref"));
+                if (href == null) {
+                    continue;
+                }
+                String entry = resolve(baseDir, URLDecoder.decode(href, StandardCharsets.UTF_8));
+                if (zip.getEntry(entry) == null) {
+                    continue;
+                }
+                text.append(htmlToText(readEntry(zip, entry))).append('\n');
+            }
+            return text.length() > maxChars ? text.substring(0, maxChars) : text.toString();
+        }
+    }
+    
+    /**
+     * 去掉标签，段落类标签换成换行，还原字符实体
+     */
+    static String htmlToText(String html) {
+        String text = INVISIBLE.matcher(html).replaceAll(" ");
+        text = BLOCK_TAG.matcher(text).replaceAll("\n");
+        text = TAG.matcher(text).replaceAll("");
+        return ENTITY.matcher(text).replaceAll(match -> Matcher.quoteReplacement(decodeEntity(match.group(1))));
+    }
+    
+    private static String decodeEntity(String entity) {
+        try {
+            if (entity.startsWith("#x") || entity.startsWith("#X")) {
+                return Character.toString(Integer.parseInt(entity.substring(2), 16));
+            }
+            if (entity.startsWith("#")) {
+                return Character.toString(Integer.parseInt(entity.substring(1)));
+            }
+        } catch (IllegalArgumentException e) {
+            return " ";
+        }
+        return NAMED_ENTITIES.getOrDefault(entity, " ");
+    }
+    
+    /**
+     * 解析章节相对 OPF 所在目录的路径，处理 ./ 与 ../
+     */
+    private static String resolve(String baseDir, String href) {
+        String[] parts = (baseDir + href).split("/");
+        Deque<String> stack = new ArrayDeque<>();
+        for (String part : parts) {
+            if (part.isEmpty() || part.equals(".")) {
+                continue;
+            }
+            if (part.equals("..")) {
+                stack.pollLast();
+            } else {
+                stack.addLast(part);
+            }
+        }
+        String path = String.join("/", stack);
+        int fragment = path.indexOf("#");
+        return fragment >= 0 ? path.substring(0, fragment) : path;
+    }
+    
+    private static String readEntry(ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IOException("EPUB 缺少条目: " + name);
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static Document parseXml(ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IOException("EPUB 缺少条目: " + name);
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            // 上传的文件不可信，禁止 DTD 与外部实体
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setExpandEntityReferences(false);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(in);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("无法解析 EPUB 的 OPF: " + name, e);
+        }
+    }
+}
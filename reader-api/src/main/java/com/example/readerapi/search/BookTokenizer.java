@@ -0,0 +1,122 @@
+package com.example.readerapi.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全文检索分词器
+ *
+ * 字母数字连续段切为一个词（转小写）；中日韩文字不做词典分词，连续段切为重叠的二元组：
+ * "红楼梦" 切为 "红楼"、"楼梦"，查询 "红楼梦" 时要求二者位置相邻。
+ * 建索引时每个长度不小于2的中日韩连续段末尾再补一个单字词，与下一个词共用位置，
+ * 这样单字查询可以用前缀匹配（以该字开头的二元组 + 段尾单字）命中所有出现位置。
+ * 词的 position 是词序号，用于短语匹配；offset 是原文中的字符偏移，用于定位和摘要。
+ */
+public final class BookTokenizer {
+    
+    /**
+     * 超过该长度的字母数字串（如编码后的数据）不建索引
+     */
+    static final int MAX_WORD_LENGTH = 64;
+    
+    private BookTokenizer() {
+    }
+    
+    /**
+     * 分词结果
+     * @param term 词
+     * @param position 词序号
+     * @param offset 原文字符偏移
+     */
+    public record Token(String term, int position, int offset) {
+    }
+    
+    /**
+     * 逐个接收分词结果
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+        void accept(String term, int position, int offset);
+    }
+    
+    /**
+     * 切分待建索引的正文
+     * @param text 正文
+     * @param consumer 分词结果
+     * @return 词序号总数（文档长度）
+     */
+    public static int tokenize(CharSequence text, TokenConsumer consumer) {
+        return tokenize(text, consumer, false);
+    }
+    
+    /**
+     * 切分查询串：中日韩连续段末尾不补单字，只有单字的段保留为单字词
+     * @param query 查询串
+     * @return 分词结果
+     */
+    public static List<Token> tokenizeQuery(String query) {
+        List<Token> tokens = new ArrayList<>();
+        tokenize(query, (term, position, offset) -> tokens.add(new Token(term, position, offset)), true);
+        return tokens;
+    }
+    
+    /**
+     * 是否为中日韩文字，按二元组切分
+     */
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+    
+    private static int tokenize(CharSequence text, TokenConsumer consumer, boolean query) {
+        int position = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = Character.codePointAt(text, i);
+            if (isCjk(codePoint)) {
+                int runStart = i;
+                int previousStart = i;
+                int runLength = 0;
+                while (i < length) {
+                    codePoint = Character.codePointAt(text, i);
+                    if (!isCjk(codePoint)) {
+                        break;
+                    }
+                    int next = i + Character.charCount(codePoint);
+                    if (runLength > 0) {
+                        consumer.accept(text.subSequence(previousStart, next).toString(), position++, previousStart);
+                    }
+                    previousStart = i;
+                    runLength++;
+                    i = next;
+                }
+                if (runLength == 1) {
+                    consumer.accept(text.subSequence(runStart, i).toString(), position++, runStart);
+                } else if (!query) {
+                    // 段尾单字不占用新的位置，不影响跨段的短语匹配
+                    consumer.accept(text.subSequence(previousStart, i).toString(), position, previousStart);
+                }
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length) {
+                    codePoint = Character.codePointAt(text, i);
+                    if (!Character.isLetterOrDigit(codePoint) || isCjk(codePoint)) {
+                        break;
+                    }
+                    i += Character.charCount(codePoint);
+                }
+                if (i - start <= MAX_WORD_LENGTH) {
+                    consumer.accept(text.subSequence(start, i).toString().toLowerCase(Locale.ROOT), position++, start);
+                }
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.readerapi.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * 只读、内存映射的倒排索引段
+ *
+ * 段头（64字节）：magic(int) version(short) reserved(short) docCount(int) termCount(int)
+ *   postingsOffset(int) textOffset(int) termTableOffset(int) termBytesOffset(int) totalTokens(long)
+ * 文档表（每项56字节）：bookId(long) hash(32字节SHA-256) textStart(int) textLength(int) tokenCount(int) reserved(int)
+ * 倒排表：每个词依次为 doc(int) freq(int) 及 freq 个 position(int) offset(int)
+ * 正文：各文档的正文（UTF-16），textStart/textLength 以字符计
+ * 词表（每项16字节）：bytesStart(int) bytesLength(int) postingsStart(int) docFreq(int)，按词的 UTF-8 字节序排列
+ * 词字节：各词的 UTF-8 编码
+ *
+ * 段写完后不再修改，读取只使用绝对位置的 get，可以在任意线程并发进行。
+ */
+final class IndexSegment {
+    
+    static final int MAGIC = 0x42494458;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int HASH_SIZE = 32;
+    
+    private static final int DOC_ENTRY_SIZE = 56;
+    private static final int TERM_ENTRY_SIZE = 16;
+    
+    /**
+     * 文档表项
+     * @param bookId 图书ID
+     * @param hash 图书文件内容的 SHA-256
+     * @param textLength 正文字符数
+     * @param tokenCount 词序号总数
+     */
+    record DocEntry(long bookId, byte[] hash, int textLength, int tokenCount) {
+    }
+    
+    private final long id;
+    private final Path path;
+    private final long size;
+    private final ByteBuffer buffer;
+    private final int docCount;
+    private final int termCount;
+    private final int postingsOffset;
+    private final int textOffset;
+    private final int termTableOffset;
+    private final int termBytesOffset;
+    private final long totalTokens;
+    
+    private IndexSegment(long id, Path path, long size, ByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.size = size;
+        this.buffer = buffer;
+        this.docCount = buffer.getInt(8);
+        this.termCount = buffer.getInt(12);
+        this.postingsOffset = buffer.getInt(16);
+        this.textOffset = buffer.getInt(20);
+        this.termTableOffset = buffer.getInt(24);
+        this.termBytesOffset = buffer.getInt(28);
+        this.totalTokens = buffer.getLong(32);
+    }
+    
+    /**
+     * 映射段文件
+     * @param id 段序号，越大越新
+     * @param path 段文件
+     * @return 索引段
+     * @throws IOException 文件无法读取或格式不符
+     */
+    static IndexSegment open(long id, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("索引段大小异常: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+                throw new IOException("无法识别的索引段: " + path);
+            }
+            return new IndexSegment(id, path, size, buffer);
+        }
+    }
+    
+    long id() {
+        return id;
+    }
+    
+    Path path() {
+        return path;
+    }
+    
+    long size() {
+        return size;
+    }
+    
+    int docCount() {
+        return docCount;
+    }
+    
+    int termCount() {
+        return termCount;
+    }
+    
+    long totalTokens() {
+        return totalTokens;
+    }
+    
+    long bookId(int doc) {
+        return buffer.getLong(HEADER_SIZE + doc * DOC_ENTRY_SIZE);
+    }
+    
+    byte[] hash(int doc) {
+        byte[] hash = new byte[HASH_SIZE];
+        buffer.get(HEADER_SIZE + doc * DOC_ENTRY_SIZE + 8, hash);
+        return hash;
+    }
+    
+    String hashHex(int doc) {
+        return HexFormat.of().formatHex(hash(doc));
+    }
+    
+    int textLength(int doc) {
+        return buffer.getInt(HEADER_SIZE + doc * DOC_ENTRY_SIZE + 44);
+    }
+    
+    int tokenCount(int doc) {
+        return buffer.getInt(HEADER_SIZE + doc * DOC_ENTRY_SIZE + 48);
+    }
+    
+    /**
+     * 读取正文片段，范围超出时截断
+     */
+    String text(int doc, int from, int to) {
+        int length = textLength(doc);
+        from = Math.max(0, from);
+        to = Math.min(length, to);
+        if (from >= to) {
+            return "";
+        }
+        int start = textOffset + 2 * (buffer.getInt(HEADER_SIZE + doc * DOC_ENTRY_SIZE + 40) + from);
+        char[] chars = new char[to - from];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar(start + 2 * i);
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * 读取文档正文的原始字节（UTF-16），合并时原样复制
+     * @param doc 文档序号
+     * @param fromByte 正文内的字节偏移
+     * @param target 目标数组
+     * @return 读取的字节数
+     */
+    int textBytes(int doc, int fromByte, byte[] target) {
+        int length = 2 * textLength(doc) - fromByte;
+        int count = Math.min(length, target.length);
+        int start = textOffset + 2 * buffer.getInt(HEADER_SIZE + doc * DOC_ENTRY_SIZE + 40) + fromByte;
+        buffer.get(start, target, 0, count);
+        return count;
+    }
+    
+    byte[] term(int t) {
+        int entry = termTableOffset + t * TERM_ENTRY_SIZE;
+        byte[] term = new byte[buffer.getInt(entry + 4)];
+        buffer.get(termBytesOffset + buffer.getInt(entry), term);
+        return term;
+    }
+    
+    int docFreq(int t) {
+        return buffer.getInt(termTableOffset + t * TERM_ENTRY_SIZE + 12);
+    }
+    
+    /**
+     * 精确查找词
+     * @return 词序号，不存在时为-1
+     */
+    int findTerm(byte[] term) {
+        int t = lowerBound(term);
+        return t < termCount && Arrays.equals(term(t), term) ? t : -1;
+    }
+    
+    /**
+     * 第一个不小于 key 的词序号
+     */
+    int lowerBound(byte[] key) {
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Arrays.compareUnsigned(term(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * 词 t 的倒排表游标
+     */
+    Postings postings(int t) {
+        int entry = termTableOffset + t * TERM_ENTRY_SIZE;
+        return new Postings(postingsOffset + buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+    }
+    
+    /**
+     * 倒排表游标：next() 移到下一个文档，随后可读取该文档内的各次出现
+     */
+    final class Postings {
+        private int pointer;
+        private int remaining;
+        private int doc = -1;
+        private int freq;
+        private int occurrences;
+        
+        private Postings(int pointer, int docFreq) {
+            this.pointer = pointer;
+            this.remaining = docFreq;
+        }
+        
+        boolean next() {
+            if (doc >= 0) {
+                pointer = occurrences + 8 * freq;
+            }
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            doc = buffer.getInt(pointer);
+            freq = buffer.getInt(pointer + 4);
+            occurrences = pointer + 8;
+            return true;
+        }
+        
+        int doc() {
+            return doc;
+        }
+        
+        int freq() {
+            return freq;
+        }
+        
+        int position(int i) {
+            return buffer.getInt(occurrences + 8 * i);
+        }
+        
+        int offset(int i) {
+            return buffer.getInt(occurrences + 8 * i + 4);
+        }
+    }
+}
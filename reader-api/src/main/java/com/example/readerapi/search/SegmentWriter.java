@@ -0,0 +1,171 @@
+package com.example.readerapi.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 索引段文件顺序写入器，文件格式见 IndexSegment
+ *
+ * 写入顺序：段头占位、文档表、倒排表（按词的字节序逐个写入）、正文、词表、词字节，最后回填段头。
+ * 倒排表和正文可以边生成边写出，刷新和合并都不需要把整个段放在内存中。
+ */
+final class SegmentWriter implements Closeable {
+    
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final int docCount;
+    private final int postingsOffset;
+    
+    private final ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+    private int[] termTable = new int[4 * 1024];
+    private int termCount;
+    
+    private byte[] currentTerm;
+    private int currentPostingsStart;
+    private int currentDocFreq;
+    private int lastDoc;
+    private int textOffset = -1;
+    
+    /**
+     * 创建段文件并写入文档表
+     * @param path 段文件路径（临时文件，写完后由调用方改名）
+     * @param docs 文档，正文须按相同顺序通过 writeText 写入
+     */
+    SegmentWriter(Path path, List<IndexSegment.DocEntry> docs) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        this.docCount = docs.size();
+        
+        out.write(new byte[IndexSegment.HEADER_SIZE]);
+        int textStart = 0;
+        for (IndexSegment.DocEntry doc : docs) {
+            out.writeLong(doc.bookId());
+            out.write(doc.hash(), 0, IndexSegment.HASH_SIZE);
+            out.writeInt(textStart);
+            out.writeInt(doc.textLength());
+            out.writeInt(doc.tokenCount());
+            out.writeInt(0);
+            textStart += doc.textLength();
+        }
+        this.postingsOffset = out.size();
+    }
+    
+    /**
+     * 开始写入一个词的倒排表，词须按 UTF-8 字节的无符号字典序递增
+     */
+    void startTerm(byte[] term) {
+        currentTerm = term;
+        currentPostingsStart = out.size() - postingsOffset;
+        currentDocFreq = 0;
+        lastDoc = -1;
+    }
+    
+    /**
+     * 写入一个文档的命中，文档序号须递增，随后写入 freq 次 addOccurrence
+     */
+    void addDoc(int doc, int freq) throws IOException {
+        if (doc <= lastDoc) {
+            throw new IllegalStateException("文档序号须递增: " + doc);
+        }
+        lastDoc = doc;
+        out.writeInt(doc);
+        out.writeInt(freq);
+        currentDocFreq++;
+    }
+    
+    void addOccurrence(int position, int offset) throws IOException {
+        out.writeInt(position);
+        out.writeInt(offset);
+    }
+    
+    /**
+     * 结束当前词，没有任何文档的词（合并时全部被删除）不写入词表
+     */
+    void endTerm() {
+        if (currentDocFreq == 0) {
+            return;
+        }
+        if (4 * (termCount + 1) > termTable.length) {
+            termTable = Arrays.copyOf(termTable, termTable.length * 2);
+        }
+        int i = 4 * termCount++;
+        termTable[i] = termBytes.size();
+        termTable[i + 1] = currentTerm.length;
+        termTable[i + 2] = currentPostingsStart;
+        termTable[i + 3] = currentDocFreq;
+        termBytes.writeBytes(currentTerm);
+    }
+    
+    /**
+     * 追加正文（UTF-16）
+     */
+    void writeText(CharSequence text) throws IOException {
+        markText();
+        for (int i = 0; i < text.length(); i++) {
+            out.writeChar(text.charAt(i));
+        }
+    }
+    
+    /**
+     * 追加已编码的正文（合并时从源段原样复制）
+     */
+    void writeTextBytes(byte[] bytes, int length) throws IOException {
+        markText();
+        out.write(bytes, 0, length);
+    }
+    
+    private void markText() {
+        if (textOffset < 0) {
+            textOffset = out.size();
+        }
+    }
+    
+    /**
+     * 写入词表并回填段头
+     * @param totalTokens 全部文档的词序号总数
+     */
+    void finish(long totalTokens) throws IOException {
+        markText();
+        int termTableOffset = out.size();
+        for (int i = 0; i < 4 * termCount; i++) {
+            out.writeInt(termTable[i]);
+        }
+        int termBytesOffset = out.size();
+        termBytes.writeTo(out);
+        out.flush();
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IOException("索引段超过2GB");
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(IndexSegment.HEADER_SIZE);
+        header.putInt(IndexSegment.MAGIC);
+        header.putShort(IndexSegment.VERSION);
+        header.putShort((short) 0);
+        header.putInt(docCount);
+        header.putInt(termCount);
+        header.putInt(postingsOffset);
+        header.putInt(textOffset);
+        header.putInt(termTableOffset);
+        header.putInt(termBytesOffset);
+        header.putLong(totalTokens);
+        header.flip();
+        channel.write(header, 0);
+        channel.force(true);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
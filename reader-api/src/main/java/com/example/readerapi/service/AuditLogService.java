@@ -0,0 +1,34 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.audit.AuditEventType;
+import com.example.readerapi.audit.AuditRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 安全审计日志服务接口
+ * 记录登录、账号状态变更、密码修改等安全事件，不经过数据库
+ */
+public interface AuditLogService {
+    
+    /**
+     * 记录审计事件，只放入内存队列，不阻塞调用线程
+     * 客户端IP从当前请求中获取
+     * @param type 事件类型
+     * @param userId 用户ID，未知时传null
+     * @param subject 操作对象，如登录时输入的用户名
+     * @param detail 补充说明，如失败原因
+     */
+    void record(AuditEventType type, Long userId, String subject, String detail);
+    
+    /**
+     * 按用户和时间范围查询审计记录，按时间倒序返回
+     * @param userId 用户ID，为null时查询所有用户
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     * @param limit 最多返回条数
+     * @return 审计记录
+     */
+    List<AuditRecord> query(Long userId, LocalDateTime from, LocalDateTime to, int limit);
+}
@@ -0,0 +1,28 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.dto.AvatarFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+/**
+ * 用户头像服务接口
+ * 头像以内容哈希命名存储在本地磁盘，上传时一次性生成固定尺寸的缩略图
+ */
+public interface AvatarService {
+    
+    /**
+     * 上传头像并更新用户的 avatarUrl
+     * @param userId 用户ID
+     * @param file 图片文件（JPEG / PNG / GIF）
+     * @return 新的头像地址
+     */
+    String upload(Long userId, MultipartFile file);
+    
+    /**
+     * 按文件名查找头像文件，热点缩略图直接返回内存中的内容
+     * @param name 文件名
+     * @return 头像文件，文件名非法或不存在时为空
+     */
+    Optional<AvatarFile> load(String name);
+}
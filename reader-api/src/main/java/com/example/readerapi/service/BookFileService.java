@@ -0,0 +1,48 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.dto.BookFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+/**
+ * 图书文件服务接口
+ * 图书文件（EPUB/PDF/TXT）以内容哈希命名存储在本地磁盘，下载按用户限制并发数
+ */
+public interface BookFileService {
+    
+    /**
+     * 上传图书文件并记录到图书，相同内容只存一份
+     * @param bookId 图书ID
+     * @param file 图书文件（EPUB / PDF / TXT）
+     * @return 文件信息
+     */
+    BookFile upload(Long bookId, MultipartFile file);
+    
+    /**
+     * 查找上架图书的文件
+     * @param bookId 图书ID
+     * @return 图书文件，图书不存在、已下架、未上传文件或磁盘上缺失时为空
+     */
+    Optional<BookFile> load(Long bookId);
+    
+    /**
+     * 查找图书的文件，不论上下架（建立全文索引时使用）
+     * @param bookId 图书ID
+     * @return 图书文件，未上传文件或磁盘上缺失时为空
+     */
+    Optional<BookFile> loadStored(Long bookId);
+    
+    /**
+     * 占用一个下载名额，成功后须在传输结束时调用 releaseDownload
+     * @param clientKey 下载方标识（客户端IP）
+     * @return 是否成功，超过单个下载方或全局并发上限时返回false
+     */
+    boolean tryAcquireDownload(String clientKey);
+    
+    /**
+     * 释放下载名额
+     * @param clientKey 下载方标识
+     */
+    void releaseDownload(String clientKey);
+}
@@ -0,0 +1,38 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.dto.BookSearchHit;
+import com.example.readerapi.event.BookFileUploadedEvent;
+
+import java.util.List;
+
+/**
+ * 图书全文检索服务接口
+ * 上传的图书文件异步提取正文、分词并写入磁盘上的倒排索引段，后台定期合并
+ */
+public interface BookSearchService {
+    
+    /**
+     * 检索图书正文，所有查询词都须出现
+     * @param query 查询串
+     * @param limit 最多返回的图书数
+     * @return 命中的上架图书，按相关度从高到低，每本书一条
+     */
+    List<BookSearchHit> search(String query, int limit);
+    
+    /**
+     * 图书文件上传后加入待索引队列
+     * @param event 上传事件
+     */
+    void onBookFileUploaded(BookFileUploadedEvent event);
+    
+    /**
+     * 为待索引队列中的图书建立索引
+     * @return 写入索引的图书数
+     */
+    int indexPending();
+    
+    /**
+     * 启动后比对数据库与索引，把未索引或文件已变化的图书加入待索引队列
+     */
+    void catchUp();
+}
@@ -0,0 +1,71 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.dto.BookSummary;
+import com.example.readerapi.entity.Book;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 图书服务接口
+ * 图书详情按ID加载完整实体，列表浏览只返回 BookSummary 投影并使用游标分页
+ */
+public interface BookService {
+    
+    /**
+     * 新增图书
+     * @param book 图书信息
+     * @return 保存后的图书
+     */
+    Book createBook(Book book);
+    
+    /**
+     * 更新图书信息（只更新非空字段）
+     * @param book 图书信息，bookId 必填
+     * @return 更新后的图书
+     */
+    Book updateBook(Book book);
+    
+    /**
+     * 根据ID查找图书（含简介）
+     * @param bookId 图书ID
+     * @return 图书信息
+     */
+    Optional<Book> findById(Long bookId);
+    
+    /**
+     * 上架或下架图书
+     * @param bookId 图书ID
+     * @param status 0-下架，1-上架
+     * @return 是否成功
+     */
+    boolean updateStatus(Long bookId, Integer status);
+    
+    /**
+     * 记录图书文件信息，文件须已写入磁盘
+     * @param bookId 图书ID
+     * @param hash 文件内容的 SHA-256
+     * @param format 文件格式
+     * @param size 文件大小（字节）
+     * @return 是否成功，图书不存在时返回false
+     */
+    boolean updateFile(Long bookId, String hash, String format, long size);
+    
+    /**
+     * 浏览上架图书，按出版日期倒序
+     * 指定分类时按分类浏览，指定作者时按作者浏览，都不指定时浏览全部；分类与作者不能同时指定
+     * @param category 分类，可为null
+     * @param author 作者，可为null
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数
+     * @return 图书列表
+     */
+    List<BookSummary> browse(String category, String author, String cursor, int size);
+    
+    /**
+     * 生成指向某条记录之后的游标
+     * @param last 当前页最后一条记录
+     * @return 游标
+     */
+    String cursorOf(BookSummary last);
+}
@@ -0,0 +1,55 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.dto.BookshelfItem;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 书架服务接口
+ * 书架列表按用户缓存，加入、移除、打开、修改与阅读进度上报直接更新缓存，不重新查询
+ */
+public interface BookshelfService {
+    
+    /**
+     * 获取用户书架（按最近打开时间倒序）
+     * @param userId 用户ID
+     * @return 书架列表，不可修改
+     */
+    List<BookshelfItem> getShelf(Long userId);
+    
+    /**
+     * 把图书加入书架，已在书架上时返回现有条目
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @param status 阅读状态，为空时为想读
+     * @return 书架条目
+     */
+    BookshelfItem add(Long userId, Long bookId, Integer status);
+    
+    /**
+     * 修改阅读状态或评分
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @param status 阅读状态，为空时不修改
+     * @param rating 评分（1-5），为空时不修改
+     * @return 修改后的条目，不在书架上时为空
+     */
+    Optional<BookshelfItem> update(Long userId, Long bookId, Integer status, Integer rating);
+    
+    /**
+     * 记录打开图书，移到书架最前
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @return 是否在书架上
+     */
+    boolean open(Long userId, Long bookId);
+    
+    /**
+     * 从书架移除图书，阅读进度保留
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @return 是否在书架上
+     */
+    boolean remove(Long userId, Long bookId);
+}
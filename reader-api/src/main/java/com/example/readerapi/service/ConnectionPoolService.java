@@ -0,0 +1,22 @@
+package com.example.readerapi.service;
+
+import java.util.Map;
+
+/**
+ * 数据库连接池服务接口
+ * 提供连接池状态查询，并根据获取连接的等待时间和数据库延迟在配置范围内调整连接池上限
+ */
+public interface ConnectionPoolService {
+    
+    /**
+     * 获取连接池当前状态
+     * @return 活跃、空闲、等待线程数，当前上限以及最近一个周期的平均等待时间和占用时间
+     */
+    Map<String, Object> snapshot();
+    
+    /**
+     * 根据最近一个周期的指标调整一次连接池上限
+     * @return 调整后的上限，连接池尚未启动时返回-1
+     */
+    int adjust();
+}
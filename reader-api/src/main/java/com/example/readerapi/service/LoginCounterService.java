@@ -0,0 +1,22 @@
+package com.example.readerapi.service;
+
+/**
+ * 登录计数服务接口
+ * 登录次数与最后登录时间、IP在内存中按用户累加，定期以增量 UPDATE 写入 users 表，
+ * 登录请求不读取也不锁定用户行
+ */
+public interface LoginCounterService {
+    
+    /**
+     * 记录一次成功登录，不访问数据库
+     * @param userId 用户ID
+     * @param loginIp 登录IP
+     */
+    void record(Long userId, String loginIp);
+    
+    /**
+     * 把累加的登录次数写入数据库
+     * @return 更新的用户数
+     */
+    int flush();
+}
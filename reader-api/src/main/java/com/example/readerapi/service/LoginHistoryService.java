@@ -0,0 +1,47 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.dto.LoginHistoryDTO;
+
+import java.util.List;
+
+/**
+ * 登录历史服务接口
+ * 登录记录先进入内存队列，由后台任务分批写入按月分区的 user_login_history 表
+ */
+public interface LoginHistoryService {
+    
+    /**
+     * 记录一次登录，只放入队列，不访问数据库
+     * @param userId 用户ID
+     * @param loginIp 登录IP
+     * @param userAgent 用户代理信息
+     */
+    void record(Long userId, String loginIp, String userAgent);
+    
+    /**
+     * 按时间倒序分页查询用户的登录历史（游标分页）
+     * @param userId 用户ID
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数
+     * @return 登录历史
+     */
+    List<LoginHistoryDTO> findRecentLogins(Long userId, String cursor, int size);
+    
+    /**
+     * 生成指向某条记录之后的游标
+     * @param last 当前页最后一条记录
+     * @return 游标
+     */
+    String cursorOf(LoginHistoryDTO last);
+    
+    /**
+     * 把队列中的记录全部写入数据库
+     * @return 写入的行数
+     */
+    int flush();
+    
+    /**
+     * 创建未来的月分区并删除超过保留期的月分区
+     */
+    void maintainPartitions();
+}
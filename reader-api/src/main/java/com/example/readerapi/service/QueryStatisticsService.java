@@ -0,0 +1,31 @@
+package com.example.readerapi.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL执行统计服务接口
+ * 按SQL指纹汇总执行次数与耗时分位数，并记录慢查询和抽样语句
+ */
+public interface QueryStatisticsService {
+    
+    /**
+     * 记录一次语句执行
+     * @param sql 执行的SQL
+     * @param nanos 耗时（纳秒）
+     */
+    void record(String sql, long nanos);
+    
+    /**
+     * 获取耗时排名靠前的SQL指纹
+     * @param sort 排序字段：total（总耗时）、count（次数）、p99、max
+     * @param limit 返回条数
+     * @return 每个指纹的次数、总耗时、平均、p50/p95/p99、最大耗时（毫秒）
+     */
+    List<Map<String, Object>> topQueries(String sort, int limit);
+    
+    /**
+     * 清空统计
+     */
+    void reset();
+}
@@ -0,0 +1,45 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.entity.ReadingProgress;
+
+import java.util.Optional;
+
+/**
+ * 阅读进度服务接口
+ * 上报只更新内存，同一用户同一本书在一个写入周期内的多次上报合并为一次写入；
+ * 每次上报发布 ReadingProgressReportedEvent
+ */
+public interface ReadingProgressService {
+    
+    /**
+     * 上报阅读进度，用户和图书的存在性检查走缓存；只有待写入条目达到上限时才在调用线程写入数据库
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @param position 阅读位置
+     * @param percent 阅读百分比（0-100）
+     * @return 当前进度
+     */
+    ReadingProgress report(Long userId, Long bookId, long position, double percent);
+    
+    /**
+     * 查询阅读进度，优先从内存读取
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @return 阅读进度
+     */
+    Optional<ReadingProgress> find(Long userId, Long bookId);
+    
+    /**
+     * 查询尚未写入数据库的进度，只读内存
+     * @param userId 用户ID
+     * @param bookId 图书ID
+     * @return 待写入的进度
+     */
+    Optional<ReadingProgress> findPending(Long userId, Long bookId);
+    
+    /**
+     * 把有变化的进度批量写入数据库
+     * @return 写入的行数
+     */
+    int flush();
+}
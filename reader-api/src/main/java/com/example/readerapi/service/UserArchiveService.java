@@ -0,0 +1,21 @@
+package com.example.readerapi.service;
+
+/**
+ * 用户归档服务接口
+ * 负责将过期的软删除用户迁移到归档表，以及从归档中恢复用户
+ */
+public interface UserArchiveService {
+    
+    /**
+     * 分批归档超过保留期的软删除用户
+     * @return 本次归档的用户数
+     */
+    int archiveDeletedUsers();
+    
+    /**
+     * 恢复已删除的用户（无论是否已归档）
+     * @param userId 用户ID
+     * @return 是否恢复成功，用户不存在或未被删除时返回false
+     */
+    boolean restoreUser(Long userId);
+}
@@ -0,0 +1,32 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.dto.UserSuggestion;
+import com.example.readerapi.event.UserChangeEvent;
+
+import java.util.List;
+
+/**
+ * 用户自动补全服务接口
+ * 在内存中维护用户名、昵称、真实姓名的前缀索引，用于"输入即查找"
+ */
+public interface UserAutocompleteService {
+    
+    /**
+     * 按前缀查找用户（忽略大小写）
+     * @param prefix 输入前缀
+     * @param limit 最多返回条数
+     * @return 候选用户列表，按匹配字段的字典序排列
+     */
+    List<UserSuggestion> suggest(String prefix, int limit);
+    
+    /**
+     * 根据用户变更事件更新索引（删除事件移除用户，其余事件以快照覆盖）
+     * @param event 用户变更事件
+     */
+    void onUserChange(UserChangeEvent event);
+    
+    /**
+     * 从数据库流式读取全部用户，重建索引
+     */
+    void rebuild();
+}
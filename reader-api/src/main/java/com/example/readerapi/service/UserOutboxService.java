@@ -0,0 +1,37 @@
+package com.example.readerapi.service;
+
+import com.example.readerapi.entity.User;
+import com.example.readerapi.event.UserEventType;
+
+/**
+ * 用户变更发件箱服务接口
+ * 修改用户的事务中写入事件，后台按顺序发布给每个实例的进程内订阅者（@EventListener），
+ * 并由持有投递租约的一个实例投递给 UserEventSink
+ */
+public interface UserOutboxService {
+    
+    /**
+     * 在当前事务中记录用户变更事件，必须在事务内调用
+     * @param user 变更后的用户
+     * @param type 事件类型
+     */
+    void record(User user, UserEventType type);
+    
+    /**
+     * 把本实例游标之后的事件发布给进程内订阅者，不修改事件的投递状态
+     * @return 本次发布的事件数
+     */
+    int publishLocal();
+    
+    /**
+     * 持有投递租约时，把待处理事件投递给 UserEventSink 并标记已投递；未持有租约时不做任何事
+     * @return 本次投递的事件数
+     */
+    int dispatchPending();
+    
+    /**
+     * 清理超过保留期的已投递事件
+     * @return 本次清理的事件数
+     */
+    int purgeDispatched();
+}
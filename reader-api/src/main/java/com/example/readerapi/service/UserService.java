@@ -1,10 +1,13 @@
 package com.example.readerapi.service;
 
+import com.example.readerapi.dto.UserFieldSet;
 import com.example.readerapi.entity.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 用户服务接口
@@ -34,6 +37,13 @@ public interface UserService {
      */
     Optional<User> findById(Long userId);
     
+    /**
+     * 按ID批量查找用户，命中二级缓存的不访问数据库，其余用 IN 查询分批读取
+     * @param userIds 用户ID，可以重复
+     * @return 与 userIds 按顺序一一对应的用户，不存在或已删除的为 null
+     */
+    List<User> findAllById(List<Long> userIds);
+    
     /**
      * 根据用户名查找用户
      * @param username 用户名
@@ -55,6 +65,14 @@ public interface UserService {
      */
     User updateUser(User user);
     
+    /**
+     * 更新用户头像地址
+     * @param userId 用户ID
+     * @param avatarUrl 头像地址
+     * @return 是否更新成功，用户不存在时返回false
+     */
+    boolean updateAvatar(Long userId, String avatarUrl);
+    
     /**
      * 修改密码
      * @param userId 用户ID
@@ -73,7 +91,7 @@ public interface UserService {
     boolean resetPassword(Long userId, String newPassword);
     
     /**
-     * 更新最后登录信息
+     * 更新最后登录信息（登录次数累加在内存中，定期写入，不访问数据库）
      * @param userId 用户ID
      * @param loginIp 登录IP
      */
@@ -148,6 +166,29 @@ public interface UserService {
      */
     List<User> getAllUsers();
     
+    /**
+     * 获取所有用户列表，只查询并返回指定字段
+     * @param fields 字段集
+     * @return 每个用户的字段名 -> 字段值
+     */
+    List<Map<String, Object>> getAllUsers(UserFieldSet fields);
+    
+    /**
+     * 流式遍历所有用户，逐个回调，不在内存中保留完整列表
+     * 按页读取，每页一个短的只读事务，回调期间不占用数据库连接；不要在外层事务中调用，否则连接会一直被占用。
+     * 遍历不是快照：期间新注册的用户可能不出现，但已输出的用户不会重复。
+     * 回调收到的用户已脱离持久化上下文，修改不会写回数据库
+     * @param action 对每个用户执行的操作
+     */
+    void streamAllUsers(Consumer<User> action);
+    
+    /**
+     * 流式遍历搜索结果，逐个回调，读取方式同 streamAllUsers
+     * @param keyword 搜索关键词
+     * @param action 对每个用户执行的操作
+     */
+    void streamSearchUsers(String keyword, Consumer<User> action);
+    
     /**
      * 根据状态获取用户列表
      * @param status 用户状态
@@ -169,6 +210,14 @@ public interface UserService {
      */
     List<User> searchUsers(String keyword);
     
+    /**
+     * 搜索用户，只查询并返回指定字段
+     * @param keyword 搜索关键词
+     * @param fields 字段集
+     * @return 每个用户的字段名 -> 字段值
+     */
+    List<Map<String, Object>> searchUsers(String keyword, UserFieldSet fields);
+    
     /**
      * 根据注册时间范围查找用户
      * @param startTime 开始时间
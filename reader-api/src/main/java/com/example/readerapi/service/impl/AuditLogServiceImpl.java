@@ -0,0 +1,152 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.audit.AuditEventType;
+import com.example.readerapi.audit.AuditRecord;
+import com.example.readerapi.audit.AuditRingBuffer;
+import com.example.readerapi.audit.AuditSegmentStore;
+import com.example.readerapi.config.AuditLogProperties;
+import com.example.readerapi.service.AuditLogService;
+import com.example.readerapi.util.WebRequestUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 安全审计日志服务实现类
+ * 业务线程把记录放入无锁环形队列后立即返回，由单个后台线程顺序写入内存映射段文件。
+ * 队列为空时后台线程休眠到下次刷盘（没有待刷盘的写入时一直休眠），业务线程放入记录时发现它在休眠才唤醒
+ */
+@Slf4j
+@Service
+public class AuditLogServiceImpl implements AuditLogService {
+    
+    private final AuditLogProperties properties;
+    private final Counter droppedCounter;
+    private final AuditRingBuffer buffer;
+    
+    private AuditSegmentStore store;
+    private Thread writerThread;
+    private volatile boolean running;
+    
+    /**
+     * 后台线程即将休眠或正在休眠
+     */
+    private volatile boolean writerParked;
+    
+    public AuditLogServiceImpl(AuditLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buffer = new AuditRingBuffer(properties.getBufferCapacity());
+        this.droppedCounter = Counter.builder("reader.audit.dropped")
+                .description("审计队列已满而被丢弃的记录数")
+                .register(meterRegistry);
+        Gauge.builder("reader.audit.backlog", buffer, AuditRingBuffer::size)
+                .description("等待写入段文件的审计记录数")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        store = new AuditSegmentStore(Path.of(properties.getDirectory()),
+                (int) properties.getSegmentSize().toBytes(), properties.getMaxSegments());
+        running = true;
+        writerThread = Thread.ofPlatform().name("audit-writer").daemon().start(this::drainLoop);
+        log.info("安全审计日志已启动: {}", Path.of(properties.getDirectory()).toAbsolutePath());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void record(AuditEventType type, Long userId, String subject, String detail) {
+        if (!running) {
+            return;
+        }
+        AuditRecord record = new AuditRecord(System.currentTimeMillis(), userId == null ? 0 : userId, type,
+                WebRequestUtils.currentClientIpAddress(), subject, detail);
+        if (!buffer.offer(record)) {
+            droppedCounter.increment();
+            return;
+        }
+        if (writerParked) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+    
+    @Override
+    public List<AuditRecord> query(Long userId, LocalDateTime from, LocalDateTime to, int limit) {
+        if (store == null) {
+            return List.of();
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        long fromMillis = from == null ? 0 : from.atZone(zone).toInstant().toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.atZone(zone).toInstant().toEpochMilli();
+        return store.scan(userId, fromMillis, toMillis, limit);
+    }
+    
+    /**
+     * 后台写入循环：有记录就写，空闲时按间隔刷盘；停止时先写完队列中剩余的记录
+     */
+    private void drainLoop() {
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        long lastFlush = System.nanoTime();
+        boolean dirty = false;
+        while (true) {
+            AuditRecord record = buffer.poll();
+            if (record != null) {
+                try {
+                    store.append(record);
+                    dirty = true;
+                } catch (RuntimeException e) {
+                    log.error("写入审计日志失败: {}", record, e);
+                }
+                continue;
+            }
+            if (!running) {
+                break;
+            }
+            long untilFlush = flushIntervalNanos - (System.nanoTime() - lastFlush);
+            if (dirty && untilFlush <= 0) {
+                store.force();
+                lastFlush = System.nanoTime();
+                dirty = false;
+            }
+            // 先登记休眠再检查队列：writerParked 与 tail 都是 volatile，
+            // 生产者要么在这里被看到，要么在放入后看到登记并唤醒，不会错过唤醒
+            writerParked = true;
+            if (buffer.size() == 0 && running) {
+                if (dirty) {
+                    LockSupport.parkNanos(untilFlush);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            writerParked = false;
+        }
+        store.close();
+    }
+}
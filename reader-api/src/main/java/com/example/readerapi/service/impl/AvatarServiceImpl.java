@@ -0,0 +1,255 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.AvatarProperties;
+import com.example.readerapi.dto.AvatarFile;
+import com.example.readerapi.service.AvatarService;
+import com.example.readerapi.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 用户头像服务实现类
+ *
+ * 文件名取原图 SHA-256 的前32位十六进制：同一张图片只存一份，缩略图只生成一次，
+ * 文件内容永不变化，可以长期缓存。文件按哈希前两位分目录存放，写入先落临时文件再原子改名，
+ * 并发上传同一张图片也不会读到半个文件。
+ * 缩略图统一输出为JPEG（透明区域填白），热点缩略图按总字节数缓存在内存中。
+ */
+@Slf4j
+@Service
+public class AvatarServiceImpl implements AvatarService {
+    
+    private static final String URL_PREFIX = "/api/avatars/";
+    private static final String THUMBNAIL_FORMAT = "jpg";
+    private static final float THUMBNAIL_QUALITY = 0.85f;
+    private static final int HASH_LENGTH = 32;
+    private static final Pattern NAME_PATTERN = Pattern.compile("[0-9a-f]{32}(_\\d{1,4})?\\.(jpg|png|gif)");
+    private static final Map<String, String> EXTENSIONS = Map.of("jpeg", "jpg", "png", "png", "gif", "gif");
+    private static final Map<String, String> CONTENT_TYPES = Map.of("jpg", "image/jpeg", "png", "image/png", "gif", "image/gif");
+    
+    private final AvatarProperties properties;
+    private final UserService userService;
+    private final Path directory;
+    private final Cache<String, byte[]> thumbnailCache;
+    
+    public AvatarServiceImpl(AvatarProperties properties, UserService userService, MeterRegistry meterRegistry) {
+        if (!properties.getSizes().contains(properties.getDefaultSize())) {
+            throw new IllegalStateException("reader.avatar.default-size 必须在 reader.avatar.sizes 中");
+        }
+        this.properties = properties;
+        this.userService = userService;
+        this.directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        this.thumbnailCache = Caffeine.newBuilder()
+                .maximumWeight(properties.getCacheSize().toBytes())
+                .weigher((String name, byte[] content) -> content.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, thumbnailCache, "avatarThumbnails");
+    }
+    
+    @Override
+    public String upload(Long userId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("头像文件不能为空");
+        }
+        if (file.getSize() > properties.getMaxFileSize().toBytes()) {
+            throw new RuntimeException("头像文件不能超过 " + properties.getMaxFileSize().toMegabytes() + "MB");
+        }
+        if (userService.findById(userId).isEmpty()) {
+            throw new RuntimeException("用户不存在");
+        }
+        
+        try {
+            byte[] bytes = file.getBytes();
+            String extension = detectExtension(bytes);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (image == null) {
+                throw new RuntimeException("无法解析的图片");
+            }
+            
+            String hash = sha256(bytes).substring(0, HASH_LENGTH);
+            Path original = pathOf(hash + "." + extension);
+            if (Files.notExists(original)) {
+                writeAtomically(original, out -> out.write(bytes));
+            }
+            for (int size : properties.getSizes()) {
+                Path thumbnail = pathOf(thumbnailName(hash, size));
+                if (Files.notExists(thumbnail)) {
+                    BufferedImage scaled = thumbnail(image, size);
+                    writeAtomically(thumbnail, out -> writeJpeg(scaled, out));
+                }
+            }
+            
+            String avatarUrl = URL_PREFIX + thumbnailName(hash, properties.getDefaultSize());
+            if (!userService.updateAvatar(userId, avatarUrl)) {
+                throw new RuntimeException("用户不存在");
+            }
+            log.info("用户头像上传成功: {}, {}", userId, hash);
+            return avatarUrl;
+            
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存头像失败", e);
+        }
+    }
+    
+    @Override
+    public Optional<AvatarFile> load(String name) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(name);
+        try {
+            long length = Files.size(path);
+            String contentType = CONTENT_TYPES.get(name.substring(name.lastIndexOf('.') + 1));
+            byte[] content = null;
+            if (isThumbnail(name)) {
+                content = thumbnailCache.get(name, key -> {
+                    try {
+                        return Files.readAllBytes(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            return Optional.of(new AvatarFile(name, path, length, contentType, content));
+        } catch (IOException | UncheckedIOException e) {
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * 只读取图片头部判断格式和尺寸，超过像素上限时在解码前拒绝
+     */
+    private String detectExtension(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new RuntimeException("不支持的图片格式");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String extension = EXTENSIONS.get(reader.getFormatName().toLowerCase());
+                if (extension == null) {
+                    throw new RuntimeException("不支持的图片格式: " + reader.getFormatName());
+                }
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > properties.getMaxPixels()) {
+                    throw new RuntimeException("图片尺寸过大");
+                }
+                return extension;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * 居中裁剪为正方形后缩放；缩小倍数较大时逐次减半，避免一次双线性插值丢失细节
+     */
+    private static BufferedImage thumbnail(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage current = copy(source, (source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side, side);
+        while (current.getWidth() / 2 >= size) {
+            current = copy(current, 0, 0, current.getWidth(), current.getHeight(), current.getWidth() / 2);
+        }
+        return current.getWidth() == size ? current : copy(current, 0, 0, current.getWidth(), current.getHeight(), size);
+    }
+    
+    private static BufferedImage copy(BufferedImage source, int x, int y, int width, int height, int size) {
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, size, size);
+            graphics.drawImage(source, 0, 0, size, size, x, y, x + width, y + height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+    
+    private static void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(THUMBNAIL_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+    
+    private interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+    
+    private static void writeAtomically(Path target, ContentWriter writer) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                writer.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private Path pathOf(String name) {
+        return directory.resolve(name.substring(0, 2)).resolve(name);
+    }
+    
+    private static String thumbnailName(String hash, int size) {
+        return hash + "_" + size + "." + THUMBNAIL_FORMAT;
+    }
+    
+    private static boolean isThumbnail(String name) {
+        return name.indexOf('_') > 0;
+    }
+    
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
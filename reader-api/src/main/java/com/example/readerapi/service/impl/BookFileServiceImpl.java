@@ -0,0 +1,233 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.BookFileProperties;
+import com.example.readerapi.dto.BookFile;
+import com.example.readerapi.event.BookFileUploadedEvent;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.service.BookFileService;
+import com.example.readerapi.service.BookService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图书文件服务实现类
+ *
+ * 上传时边读边计算 SHA-256 写入临时文件，完成后原子改名为 {hash}.{format}（按哈希前两位分目录），
+ * 不把整个文件读入堆内存；同一内容只存一份。哈希同时作为下载的 ETag。
+ * 下载名额按下载方和全局两级计数：每个下载在传输期间占用一个请求线程，
+ * 限制并发可以防止个别客户端开大量连接拖住线程池和磁盘带宽。
+ * 上传成功后发布 BookFileUploadedEvent，由全文索引异步建立索引。
+ */
+@Slf4j
+@Service
+public class BookFileServiceImpl implements BookFileService {
+    
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "epub", "application/epub+zip",
+            "pdf", "application/pdf",
+            "txt", "text/plain;charset=UTF-8");
+    
+    /**
+     * EPUB 是第一个条目为未压缩 mimetype 文件的 ZIP，内容从偏移30开始
+     */
+    private static final byte[] EPUB_MAGIC = "PK\u0003\u0004".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] EPUB_MIMETYPE = "mimetypeapplication/epub+zip".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int EPUB_MIMETYPE_OFFSET = 30;
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.ISO_8859_1);
+    
+    /**
+     * 判断格式时读取的文件头长度
+     */
+    private static final int HEADER_LENGTH = 4096;
+    
+    private final BookFileProperties properties;
+    private final BookService bookService;
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path directory;
+    
+    private final Map<String, Integer> activeByClient = new ConcurrentHashMap<>();
+    private final AtomicInteger activeTotal = new AtomicInteger();
+    private final Counter rejectedCounter;
+    
+    public BookFileServiceImpl(BookFileProperties properties, BookService bookService,
+                               BookRepository bookRepository, ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.bookService = bookService;
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.directory = Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+        Gauge.builder("reader.book_file.downloads.active", activeTotal, AtomicInteger::get)
+                .description("正在进行的图书文件下载数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("reader.book_file.downloads.rejected")
+                .description("超过并发上限被拒绝的图书文件下载次数")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public BookFile upload(Long bookId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("图书文件不能为空");
+        }
+        if (file.getSize() > properties.getMaxFileSize().toBytes()) {
+            throw new RuntimeException("图书文件不能超过 " + properties.getMaxFileSize().toMegabytes() + "MB");
+        }
+        if (bookService.findById(bookId).isEmpty()) {
+            throw new RuntimeException("图书不存在");
+        }
+        
+        try {
+            String format = detectFormat(file);
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "upload", ".tmp");
+            try {
+                MessageDigest digest = sha256();
+                long size;
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String hash = HexFormat.of().formatHex(digest.digest());
+                Path target = pathOf(hash, format);
+                if (Files.notExists(target)) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+                
+                if (!bookService.updateFile(bookId, hash, format, size)) {
+                    throw new RuntimeException("图书不存在");
+                }
+                eventPublisher.publishEvent(new BookFileUploadedEvent(bookId, hash));
+                return new BookFile(bookId, null, hash, format, size, target, CONTENT_TYPES.get(format));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存图书文件失败", e);
+        }
+    }
+    
+    @Override
+    public Optional<BookFile> load(Long bookId) {
+        return withPath(bookRepository.findFileById(bookId));
+    }
+    
+    @Override
+    public Optional<BookFile> loadStored(Long bookId) {
+        return withPath(bookRepository.findStoredFileById(bookId));
+    }
+    
+    /**
+     * 补全磁盘路径与内容类型，文件缺失时为空
+     */
+    private Optional<BookFile> withPath(Optional<BookFile> found) {
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        BookFile file = found.get();
+        Path path = pathOf(file.getHash(), file.getFormat());
+        if (!Files.isReadable(path)) {
+            log.warn("图书文件缺失 bookId={} path={}", file.getBookId(), path);
+            return Optional.empty();
+        }
+        file.setPath(path);
+        file.setContentType(CONTENT_TYPES.get(file.getFormat()));
+        return Optional.of(file);
+    }
+    
+    @Override
+    public boolean tryAcquireDownload(String clientKey) {
+        if (activeTotal.incrementAndGet() > properties.getMaxConcurrentTotal()) {
+            activeTotal.decrementAndGet();
+            rejectedCounter.increment();
+            return false;
+        }
+        boolean[] acquired = new boolean[1];
+        activeByClient.compute(clientKey, (key, active) -> {
+            int count = active == null ? 0 : active;
+            if (count >= properties.getMaxConcurrentPerClient()) {
+                return active;
+            }
+            acquired[0] = true;
+            return count + 1;
+        });
+        if (!acquired[0]) {
+            activeTotal.decrementAndGet();
+            rejectedCounter.increment();
+        }
+        return acquired[0];
+    }
+    
+    @Override
+    public void releaseDownload(String clientKey) {
+        // 计数归零时移除，map 大小只与正在下载的客户端数有关
+        activeByClient.computeIfPresent(clientKey, (key, active) -> active <= 1 ? null : active - 1);
+        activeTotal.decrementAndGet();
+    }
+    
+    /**
+     * 根据文件头判断格式：PDF、EPUB 按魔数识别，其余只接受扩展名为 .txt 且不含 NUL 字节的文本
+     */
+    private static String detectFormat(MultipartFile file) throws IOException {
+        byte[] header;
+        try (InputStream in = file.getInputStream()) {
+            header = in.readNBytes(HEADER_LENGTH);
+        }
+        if (startsWith(header, 0, PDF_MAGIC)) {
+            return "pdf";
+        }
+        if (startsWith(header, 0, EPUB_MAGIC) && startsWith(header, EPUB_MIMETYPE_OFFSET, EPUB_MIMETYPE)) {
+            return "epub";
+        }
+        String filename = file.getOriginalFilename();
+        boolean binary = false;
+        for (byte b : header) {
+            binary |= b == 0;
+        }
+        if (filename != null && filename.toLowerCase().endsWith(".txt") && !binary) {
+            return "txt";
+        }
+        throw new RuntimeException("不支持的图书文件格式，仅支持 EPUB、PDF、TXT");
+    }
+    
+    private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+        return bytes.length >= offset + prefix.length
+                && Arrays.equals(bytes, offset, offset + prefix.length, prefix, 0, prefix.length);
+    }
+    
+    private Path pathOf(String hash, String format) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + "." + format);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
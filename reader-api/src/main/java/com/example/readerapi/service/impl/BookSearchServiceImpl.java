@@ -0,0 +1,254 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.BookSearchProperties;
+import com.example.readerapi.dto.BookFile;
+import com.example.readerapi.dto.BookSearchHit;
+import com.example.readerapi.dto.BookSummary;
+import com.example.readerapi.event.BookFileUploadedEvent;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.search.BookIndex;
+import com.example.readerapi.search.BookTextExtractor;
+import com.example.readerapi.service.BookFileService;
+import com.example.readerapi.service.BookSearchService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 图书全文检索服务实现类
+ *
+ * 上传事件只把图书ID放入待索引集合；定时任务按批提取正文、分词，每批写成一个新的索引段。
+ * 待索引集合不持久化：启动后 catchUp 按文件哈希比对数据库与索引，补上停机前未完成的部分，
+ * 因此索引目录丢失时也会自动全量重建。
+ * 查询结果按图书状态过滤（下架图书仍保留在索引中，重新上架后无需重建索引）。
+ * 当前文件无法索引（重新上传为不支持的格式、文件损坏或提取失败）时，移除该书已有的索引，
+ * 不再按旧文件的正文返回命中。
+ */
+@Slf4j
+@Service
+public class BookSearchServiceImpl implements BookSearchService {
+    
+    private static final Set<String> INDEXABLE_FORMATS = Set.of("epub", "txt");
+    
+    private final BookSearchProperties properties;
+    private final BookFileService bookFileService;
+    private final BookRepository bookRepository;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Counter indexedCounter;
+    private final Counter skippedCounter;
+    
+    private volatile BookIndex index;
+    
+    public BookSearchServiceImpl(BookSearchProperties properties, BookFileService bookFileService,
+                                 BookRepository bookRepository, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.bookFileService = bookFileService;
+        this.bookRepository = bookRepository;
+        this.indexedCounter = Counter.builder("reader.search.indexed")
+                .description("写入全文索引的图书数")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("reader.search.skipped")
+                .description("无法提取正文（格式不支持或文件损坏）而未索引的图书数")
+                .register(meterRegistry);
+        Gauge.builder("reader.search.pending", pending, Set::size)
+                .description("等待建立全文索引的图书数")
+                .register(meterRegistry);
+        Gauge.builder("reader.search.segments", this, service -> service.index == null ? 0 : service.index.segmentCount())
+                .description("全文索引段文件个数")
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        index = new BookIndex(Path.of(properties.getDirectory()));
+        log.info("全文索引已打开: {}, {} 本书, {} 个段", Path.of(properties.getDirectory()).toAbsolutePath(),
+                index.documentCount(), index.segmentCount());
+    }
+    
+    @Override
+    public List<BookSearchHit> search(String query, int limit) {
+        BookIndex current = index;
+        if (current == null || !StringUtils.hasText(query) || limit <= 0) {
+            return List.of();
+        }
+        // 多取一些，抵消下架图书被过滤掉的部分
+        List<BookIndex.Hit> hits = current.search(query, limit * 2, properties.getSnippetLength());
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookSummary> summaries = bookRepository.findSummariesByIds(hits.stream().map(BookIndex.Hit::bookId).toList())
+                .stream()
+                .collect(Collectors.toMap(BookSummary::getBookId, Function.identity()));
+        List<BookSearchHit> result = new ArrayList<>(limit);
+        for (BookIndex.Hit hit : hits) {
+            BookSummary summary = summaries.get(hit.bookId());
+            if (summary == null) {
+                continue;
+            }
+            result.add(new BookSearchHit(hit.bookId(), summary.getTitle(), summary.getAuthor(),
+                    hit.score(), hit.offset(), hit.snippet()));
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    @EventListener
+    public void onBookFileUploaded(BookFileUploadedEvent event) {
+        if (index != null) {
+            pending.add(event.getBookId());
+        }
+    }
+    
+    @Override
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void catchUp() {
+        BookIndex current = index;
+        if (current == null) {
+            return;
+        }
+        int queued = 0;
+        try (Stream<BookFile> files = bookRepository.streamStoredFiles()) {
+            Iterator<BookFile> it = files.iterator();
+            while (it.hasNext()) {
+                BookFile file = it.next();
+                String indexedHash = current.indexedHash(file.getBookId());
+                // 可索引但与索引中的版本不同，或已不可索引但索引中还有旧版本
+                if (INDEXABLE_FORMATS.contains(file.getFormat())
+                        ? !file.getHash().equals(indexedHash)
+                        : indexedHash != null) {
+                    pending.add(file.getBookId());
+                    queued++;
+                }
+            }
+        }
+        if (queued > 0) {
+            log.info("全文索引待补建: {} 本书", queued);
+        }
+    }
+    
+    /**
+     * 定时为新上传的图书建立索引
+     */
+    @Scheduled(initialDelayString = "${reader.search.index-interval:PT10S}",
+               fixedDelayString = "${reader.search.index-interval:PT10S}")
+    public void scheduledIndex() {
+        try {
+            indexPending();
+        } catch (Exception e) {
+            log.error("建立全文索引失败，保留到下个周期重试", e);
+        }
+    }
+    
+    @Override
+    public synchronized int indexPending() {
+        BookIndex current = index;
+        if (current == null) {
+            return 0;
+        }
+        int total = 0;
+        while (!pending.isEmpty()) {
+            List<Long> bookIds = new ArrayList<>(properties.getBatchSize());
+            Iterator<Long> it = pending.iterator();
+            while (it.hasNext() && bookIds.size() < properties.getBatchSize()) {
+                bookIds.add(it.next());
+                it.remove();
+            }
+            
+            List<BookIndex.IndexedBook> batch = new ArrayList<>(bookIds.size());
+            List<Long> unindexable = new ArrayList<>();
+            for (Long bookId : bookIds) {
+                Optional<BookIndex.IndexedBook> book = extract(bookId);
+                if (book.isPresent()) {
+                    batch.add(book.get());
+                } else if (current.indexedHash(bookId) != null) {
+                    unindexable.add(bookId);
+                }
+            }
+            try {
+                current.add(batch);
+                current.remove(unindexable);
+            } catch (IOException e) {
+                pending.addAll(bookIds);
+                throw new UncheckedIOException("写入全文索引段失败", e);
+            }
+            indexedCounter.increment(batch.size());
+            total += batch.size();
+        }
+        return total;
+    }
+    
+    /**
+     * 定时合并索引段
+     */
+    @Scheduled(initialDelayString = "${reader.search.merge-interval:PT1M}",
+               fixedDelayString = "${reader.search.merge-interval:PT1M}")
+    public void scheduledMerge() {
+        BookIndex current = index;
+        if (current == null) {
+            return;
+        }
+        try {
+            while (current.merge(properties.getMaxSegments(), properties.getMergeFactor(),
+                    properties.getMaxSegmentSize().toBytes())) {
+                log.debug("全文索引段数: {}", current.segmentCount());
+            }
+        } catch (Exception e) {
+            log.error("合并全文索引段失败", e);
+        }
+    }
+    
+    /**
+     * 提取一本书的正文，格式不支持或文件损坏时跳过
+     */
+    private Optional<BookIndex.IndexedBook> extract(Long bookId) {
+        Optional<BookFile> stored = bookFileService.loadStored(bookId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        BookFile file = stored.get();
+        try {
+            String text = BookTextExtractor.extract(file.getPath(), file.getFormat(), properties.getMaxTextLength());
+            if (text == null) {
+                skippedCounter.increment();
+                log.info("图书文件格式暂不支持全文索引 bookId={} format={}", bookId, file.getFormat());
+                return Optional.empty();
+            }
+            return Optional.of(new BookIndex.IndexedBook(bookId, file.getHash(), text));
+        } catch (IOException | RuntimeException e) {
+            skippedCounter.increment();
+            log.warn("提取图书正文失败 bookId={} format={} error={}", bookId, file.getFormat(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
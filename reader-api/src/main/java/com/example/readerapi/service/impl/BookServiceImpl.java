@@ -0,0 +1,182 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.dto.BookSummary;
+import com.example.readerapi.entity.Book;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.service.BookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 图书服务实现类
+ *
+ * 游标格式为 {publicationDate}_{bookId}，即上一页最后一条记录的排序键。
+ * 分页查询只读索引，不随页码变深而变慢；代价是只能顺序翻页，不能直接跳到第N页。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookServiceImpl implements BookService {
+    
+    private final BookRepository bookRepository;
+    
+    // 图书状态常量
+    private static final Integer STATUS_OFF_SHELF = 0;
+    private static final Integer STATUS_ON_SHELF = 1;
+    
+    @Override
+    @Transactional
+    public Book createBook(Book book) {
+        if (!StringUtils.hasText(book.getTitle())) {
+            throw new RuntimeException("书名不能为空");
+        }
+        if (!StringUtils.hasText(book.getAuthor())) {
+            throw new RuntimeException("作者不能为空");
+        }
+        if (!StringUtils.hasText(book.getCategory())) {
+            throw new RuntimeException("分类不能为空");
+        }
+        if (book.getPublicationDate() == null) {
+            throw new RuntimeException("出版日期不能为空");
+        }
+        if (StringUtils.hasText(book.getIsbn()) && bookRepository.existsByIsbn(book.getIsbn())) {
+            throw new RuntimeException("ISBN已存在");
+        }
+        
+        book.setBookId(null);
+        book.setStatus(STATUS_ON_SHELF);
+        // 文件字段只能由文件上传接口写入
+        book.setFileHash(null);
+        book.setFileFormat(null);
+        book.setFileSize(null);
+        Book savedBook = bookRepository.save(book);
+        log.info("新增图书 bookId={} isbn={}", savedBook.getBookId(), savedBook.getIsbn());
+        return savedBook;
+    }
+    
+    @Override
+    @Transactional
+    public Book updateBook(Book book) {
+        Book existingBook = bookRepository.findById(book.getBookId())
+                .orElseThrow(() -> new RuntimeException("图书不存在"));
+        
+        // 更新允许修改的字段
+        if (StringUtils.hasText(book.getTitle())) {
+            existingBook.setTitle(book.getTitle());
+        }
+        if (StringUtils.hasText(book.getAuthor())) {
+            existingBook.setAuthor(book.getAuthor());
+        }
+        if (StringUtils.hasText(book.getPublisher())) {
+            existingBook.setPublisher(book.getPublisher());
+        }
+        if (StringUtils.hasText(book.getCategory())) {
+            existingBook.setCategory(book.getCategory());
+        }
+        if (book.getPublicationDate() != null) {
+            existingBook.setPublicationDate(book.getPublicationDate());
+        }
+        if (book.getPageCount() != null) {
+            existingBook.setPageCount(book.getPageCount());
+        }
+        if (StringUtils.hasText(book.getCoverUrl())) {
+            existingBook.setCoverUrl(book.getCoverUrl());
+        }
+        if (StringUtils.hasText(book.getDescription())) {
+            existingBook.setDescription(book.getDescription());
+        }
+        if (StringUtils.hasText(book.getIsbn()) && !book.getIsbn().equals(existingBook.getIsbn())) {
+            if (bookRepository.existsByIsbn(book.getIsbn())) {
+                throw new RuntimeException("ISBN已存在");
+            }
+            existingBook.setIsbn(book.getIsbn());
+        }
+        
+        Book updatedBook = bookRepository.save(existingBook);
+        log.info("图书信息更新成功 bookId={}", updatedBook.getBookId());
+        return updatedBook;
+    }
+    
+    @Override
+    public Optional<Book> findById(Long bookId) {
+        return bookRepository.findById(bookId);
+    }
+    
+    @Override
+    @Transactional
+    public boolean updateStatus(Long bookId, Integer status) {
+        if (!STATUS_OFF_SHELF.equals(status) && !STATUS_ON_SHELF.equals(status)) {
+            throw new RuntimeException("无效的图书状态: " + status);
+        }
+        Optional<Book> bookOpt = bookRepository.findById(bookId);
+        if (bookOpt.isEmpty()) {
+            return false;
+        }
+        
+        Book book = bookOpt.get();
+        book.setStatus(status);
+        bookRepository.save(book);
+        log.info("图书状态更新成功 bookId={} status={}", bookId, status);
+        return true;
+    }
+    
+    @Override
+    @Transactional
+    public boolean updateFile(Long bookId, String hash, String format, long size) {
+        Optional<Book> bookOpt = bookRepository.findById(bookId);
+        if (bookOpt.isEmpty()) {
+            return false;
+        }
+        
+        Book book = bookOpt.get();
+        book.setFileHash(hash);
+        book.setFileFormat(format);
+        book.setFileSize(size);
+        bookRepository.save(book);
+        log.info("图书文件更新成功 bookId={} hash={} format={} size={}", bookId, hash, format, size);
+        return true;
+    }
+    
+    @Override
+    public List<BookSummary> browse(String category, String author, String cursor, int size) {
+        if (StringUtils.hasText(category) && StringUtils.hasText(author)) {
+            throw new RuntimeException("分类与作者不能同时指定");
+        }
+        
+        LocalDate publicationDate = BookRepository.FIRST_PAGE_DATE;
+        long bookId = BookRepository.FIRST_PAGE_ID;
+        if (StringUtils.hasText(cursor)) {
+            // 游标格式：{publicationDate}_{bookId}
+            int separator = cursor.lastIndexOf('_');
+            try {
+                publicationDate = LocalDate.parse(cursor.substring(0, separator));
+                bookId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+                throw new RuntimeException("无效的分页游标");
+            }
+        }
+        
+        Limit limit = Limit.of(size);
+        if (StringUtils.hasText(category)) {
+            return bookRepository.browseByCategory(category, publicationDate, bookId, limit);
+        }
+        if (StringUtils.hasText(author)) {
+            return bookRepository.browseByAuthor(author, publicationDate, bookId, limit);
+        }
+        return bookRepository.browseLatest(publicationDate, bookId, limit);
+    }
+    
+    @Override
+    public String cursorOf(BookSummary last) {
+        return last.getPublicationDate() + "_" + last.getBookId();
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.BookshelfProperties;
+import com.example.readerapi.dto.BookshelfItem;
+import com.example.readerapi.entity.Book;
+import com.example.readerapi.entity.BookshelfEntry;
+import com.example.readerapi.entity.ReadingProgress;
+import com.example.readerapi.event.ReadingProgressReportedEvent;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.repository.BookshelfRepository;
+import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.service.BookshelfService;
+import com.example.readerapi.service.ReadingProgressService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 书架服务实现类
+ *
+ * 每个用户的书架列表是一份按最近打开时间排好序的不可变列表，缓存在 Caffeine 中。
+ * 未命中时用一条关联查询读出整个书架，再叠加内存中尚未写入数据库的阅读进度。
+ * 写操作先写数据库（每次一个短事务），提交后用 computeIfPresent 生成新列表替换缓存；
+ * 同一用户的加载与更新在 Caffeine 中按键串行，更新按图书ID替换，重复应用结果不变。
+ * 进度上报只改缓存中的列表，持久化由 ReadingProgressService 负责。
+ */
+@Slf4j
+@Service
+public class BookshelfServiceImpl implements BookshelfService {
+    
+    // 阅读状态常量
+    private static final int STATUS_WANT_TO_READ = 0;
+    private static final int STATUS_FINISHED = 2;
+    
+    private static final Integer BOOK_ON_SHELF = 1;
+    private static final Integer NOT_DELETED = 0;
+    
+    private static final Comparator<BookshelfItem> RECENTLY_OPENED =
+            Comparator.comparing(BookshelfItem::getLastOpenedAt).thenComparing(BookshelfItem::getBookId).reversed();
+    
+    private final BookshelfRepository bookshelfRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final ReadingProgressService readingProgressService;
+    private final BookshelfProperties properties;
+    
+    /**
+     * 用户ID -> 书架列表
+     */
+    private final Cache<Long, List<BookshelfItem>> shelves;
+    
+    private final Counter loadCounter;
+    
+    public BookshelfServiceImpl(BookshelfRepository bookshelfRepository,
+                                BookRepository bookRepository,
+                                UserRepository userRepository,
+                                ReadingProgressService readingProgressService,
+                                BookshelfProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.bookshelfRepository = bookshelfRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.readingProgressService = readingProgressService;
+        this.properties = properties;
+        this.shelves = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterAccess(properties.getCacheExpiry())
+                .build();
+        this.loadCounter = Counter.builder("reader.bookshelf.loads")
+                .description("缓存未命中时从数据库读取书架的次数")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public List<BookshelfItem> getShelf(Long userId) {
+        return shelves.get(userId, this::load);
+    }
+    
+    @Override
+    public BookshelfItem add(Long userId, Long bookId, Integer status) {
+        int newStatus = status == null ? STATUS_WANT_TO_READ : checkStatus(status);
+        Optional<BookshelfEntry> existing = bookshelfRepository.findById(new BookshelfEntry.Key(userId, bookId));
+        if (existing.isPresent()) {
+            return find(getShelf(userId), bookId).orElseThrow(() -> new RuntimeException("图书不存在"));
+        }
+        if (!userRepository.existsByUserIdAndDeleted(userId, NOT_DELETED)) {
+            throw new RuntimeException("用户不存在");
+        }
+        Book book = bookRepository.findById(bookId)
+                .filter(value -> BOOK_ON_SHELF.equals(value.getStatus()))
+                .orElseThrow(() -> new RuntimeException("图书不存在"));
+        if (bookshelfRepository.countByUserId(userId) >= properties.getMaxBooks()) {
+            throw new RuntimeException("书架已满，最多" + properties.getMaxBooks() + "本");
+        }
+        
+        LocalDateTime now = now();
+        bookshelfRepository.save(new BookshelfEntry(userId, bookId, newStatus, null, now, now));
+        BookshelfItem item = new BookshelfItem(bookId, book.getTitle(), book.getAuthor(), book.getCoverUrl(),
+                newStatus, null, now, now, null, null, null);
+        readingProgressService.find(userId, bookId).ifPresent(progress -> applyProgress(item, progress));
+        updateCached(userId, items -> {
+            List<BookshelfItem> updated = new ArrayList<>(items);
+            updated.removeIf(value -> value.getBookId().equals(bookId));
+            updated.add(item);
+            return updated;
+        });
+        log.info("加入书架 userId={} bookId={}", userId, bookId);
+        return item;
+    }
+    
+    @Override
+    public Optional<BookshelfItem> update(Long userId, Long bookId, Integer status, Integer rating) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new RuntimeException("评分必须在1到5之间");
+        }
+        Optional<BookshelfEntry> entryOpt = bookshelfRepository.findById(new BookshelfEntry.Key(userId, bookId));
+        if (entryOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        BookshelfEntry entry = entryOpt.get();
+        if (status != null) {
+            entry.setStatus(checkStatus(status));
+        }
+        if (rating != null) {
+            entry.setRating(rating);
+        }
+        bookshelfRepository.save(entry);
+        updateCached(userId, items -> replace(items, bookId, item -> {
+            item.setStatus(entry.getStatus());
+            item.setRating(entry.getRating());
+        }));
+        return find(getShelf(userId), bookId);
+    }
+    
+    @Override
+    public boolean open(Long userId, Long bookId) {
+        LocalDateTime now = now();
+        if (bookshelfRepository.updateLastOpenedAt(userId, bookId, now) == 0) {
+            return false;
+        }
+        updateCached(userId, items -> replace(items, bookId, item -> item.setLastOpenedAt(now)));
+        return true;
+    }
+    
+    @Override
+    public boolean remove(Long userId, Long bookId) {
+        BookshelfEntry.Key key = new BookshelfEntry.Key(userId, bookId);
+        if (!bookshelfRepository.existsById(key)) {
+            return false;
+        }
+        bookshelfRepository.deleteById(key);
+        updateCached(userId, items -> {
+            List<BookshelfItem> updated = new ArrayList<>(items);
+            updated.removeIf(value -> value.getBookId().equals(bookId));
+            return updated;
+        });
+        log.info("移出书架 userId={} bookId={}", userId, bookId);
+        return true;
+    }
+    
+    /**
+     * 阅读进度上报后更新缓存中的书架，未缓存或不在书架上的图书忽略
+     */
+    @EventListener
+    public void onProgressReported(ReadingProgressReportedEvent event) {
+        ReadingProgress progress = event.getProgress();
+        updateCached(progress.getUserId(), items -> find(items, progress.getBookId()).isEmpty()
+                ? items
+                : replace(items, progress.getBookId(), item -> applyProgress(item, progress)));
+    }
+    
+    private List<BookshelfItem> load(Long userId) {
+        loadCounter.increment();
+        List<BookshelfItem> items = bookshelfRepository.findShelf(userId, Limit.of(properties.getMaxBooks()));
+        // 数据库中的进度最多落后一个写入周期，用内存中待写入的进度补齐
+        for (BookshelfItem item : items) {
+            readingProgressService.findPending(userId, item.getBookId()).ifPresent(progress -> applyProgress(item, progress));
+        }
+        return List.copyOf(items);
+    }
+    
+    /**
+     * 用户的书架已缓存时，在其副本上应用修改并重新排序后替换；未缓存时不加载，下次读取时从数据库读出
+     */
+    private void updateCached(Long userId, UnaryOperator<List<BookshelfItem>> change) {
+        shelves.asMap().computeIfPresent(userId, (id, items) -> {
+            List<BookshelfItem> updated = new ArrayList<>(change.apply(items));
+            updated.sort(RECENTLY_OPENED);
+            return List.copyOf(updated);
+        });
+    }
+    
+    /**
+     * 复制指定图书的条目并修改，其余条目原样保留（缓存中的条目不可修改）
+     */
+    private static List<BookshelfItem> replace(List<BookshelfItem> items, Long bookId,
+                                               Consumer<BookshelfItem> change) {
+        List<BookshelfItem> updated = new ArrayList<>(items.size());
+        for (BookshelfItem item : items) {
+            if (item.getBookId().equals(bookId)) {
+                BookshelfItem copy = copyOf(item);
+                change.accept(copy);
+                updated.add(copy);
+            } else {
+                updated.add(item);
+            }
+        }
+        return updated;
+    }
+    
+    private static Optional<BookshelfItem> find(List<BookshelfItem> items, Long bookId) {
+        return items.stream().filter(item -> item.getBookId().equals(bookId)).findFirst();
+    }
+    
+    private static void applyProgress(BookshelfItem item, ReadingProgress progress) {
+        // 乱序到达的旧进度不覆盖新进度
+        if (item.getProgressUpdatedAt() != null && progress.getUpdatedAt().isBefore(item.getProgressUpdatedAt())) {
+            return;
+        }
+        item.setPosition(progress.getPosition());
+        item.setPercent(progress.getPercent());
+        item.setProgressUpdatedAt(progress.getUpdatedAt());
+    }
+    
+    private static BookshelfItem copyOf(BookshelfItem item) {
+        return new BookshelfItem(item.getBookId(), item.getTitle(), item.getAuthor(), item.getCoverUrl(),
+                item.getStatus(), item.getRating(), item.getAddedAt(), item.getLastOpenedAt(),
+                item.getPosition(), item.getPercent(), item.getProgressUpdatedAt());
+    }
+    
+    private static int checkStatus(Integer status) {
+        if (status < STATUS_WANT_TO_READ || status > STATUS_FINISHED) {
+            throw new RuntimeException("无效的阅读状态: " + status);
+        }
+        return status;
+    }
+    
+    /**
+     * 当前时间截断到毫秒，与 DATETIME(3) 列一致，缓存与数据库中的排序相同
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.ConnectionPoolProperties;
+import com.example.readerapi.service.ConnectionPoolService;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库连接池服务实现类
+ *
+ * 每个周期从 HikariCP 的 Micrometer 指标中取获取连接耗时（hikaricp.connections.acquire）
+ * 和连接占用时长（hikaricp.connections.usage）的增量，得到本周期的平均等待时间和平均占用时间：
+ * - 平均占用时间超过上限：数据库本身已经变慢，再加连接只会加剧争用，上限减一
+ * - 有线程在排队，或平均等待时间超过目标值且连接大多处于占用中：连接不够用，上限按当前值的1/4扩大
+ * - 连续多个周期无等待且平均并发占用（占用总时长/周期长度）不到上限的一半：上限减一
+ * 上限始终保持在 reader.pool.min-size 与 reader.pool.max-size 之间。
+ * 判断逻辑集中在 decide 中，只依赖本周期的指标增量、等待线程数和当前上限。
+ */
+@Slf4j
+@Service
+public class ConnectionPoolServiceImpl implements ConnectionPoolService {
+    
+    private static final String ACQUIRE_METRIC = "hikaricp.connections.acquire";
+    private static final String USAGE_METRIC = "hikaricp.connections.usage";
+    private static final String TIMEOUT_METRIC = "hikaricp.connections.timeout";
+    
+    private final HikariDataSource dataSource;
+    private final ConnectionPoolProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Counter growCounter;
+    private final Counter shrinkCounter;
+    
+    private long lastTickNanos = System.nanoTime();
+    private long lastAcquireCount;
+    private double lastAcquireMillis;
+    private long lastUsageCount;
+    private double lastUsageMillis;
+    private int idlePeriods;
+    private volatile double meanWaitMillis;
+    private volatile double meanUsageMillis;
+    
+    public ConnectionPoolServiceImpl(DataSource dataSource,
+                                     ConnectionPoolProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.dataSource = unwrapHikari(dataSource);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.growCounter = Counter.builder("reader.pool.resizes")
+                .tag("direction", "grow")
+                .description("连接池上限调整次数")
+                .register(meterRegistry);
+        this.shrinkCounter = Counter.builder("reader.pool.resizes")
+                .tag("direction", "shrink")
+                .description("连接池上限调整次数")
+                .register(meterRegistry);
+        Gauge.builder("reader.pool.wait.mean", this, service -> service.meanWaitMillis)
+                .description("最近一个调整周期的平均获取连接等待时间（毫秒）")
+                .register(meterRegistry);
+        Gauge.builder("reader.pool.usage.mean", this, service -> service.meanUsageMillis)
+                .description("最近一个调整周期的平均连接占用时间（毫秒）")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 定时调整连接池上限
+     */
+    @Scheduled(initialDelayString = "${reader.pool.interval:PT10S}",
+               fixedDelayString = "${reader.pool.interval:PT10S}")
+    public void scheduledAdjust() {
+        if (!properties.isEnabled() || dataSource == null) {
+            return;
+        }
+        try {
+            adjust();
+        } catch (Exception e) {
+            log.error("调整数据库连接池失败", e);
+        }
+    }
+    
+    @Override
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        if (dataSource == null) {
+            return snapshot;
+        }
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        snapshot.put("poolName", dataSource.getPoolName());
+        snapshot.put("maximumPoolSize", config.getMaximumPoolSize());
+        snapshot.put("minimumIdle", config.getMinimumIdle());
+        snapshot.put("connectionTimeoutMs", config.getConnectionTimeout());
+        
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            snapshot.put("active", pool.getActiveConnections());
+            snapshot.put("idle", pool.getIdleConnections());
+            snapshot.put("total", pool.getTotalConnections());
+            snapshot.put("waiting", pool.getThreadsAwaitingConnection());
+        }
+        Counter timeouts = meterRegistry.find(TIMEOUT_METRIC).tag("pool", dataSource.getPoolName()).counter();
+        snapshot.put("timeouts", timeouts != null ? (long) timeouts.count() : 0L);
+        snapshot.put("meanWaitMs", meanWaitMillis);
+        snapshot.put("meanUsageMs", meanUsageMillis);
+        return snapshot;
+    }
+    
+    @Override
+    public synchronized int adjust() {
+        if (dataSource == null) {
+            return -1;
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        Timer acquire = meterRegistry.find(ACQUIRE_METRIC).tag("pool", dataSource.getPoolName()).timer();
+        Timer usage = meterRegistry.find(USAGE_METRIC).tag("pool", dataSource.getPoolName()).timer();
+        if (pool == null || acquire == null || usage == null) {
+            // 连接池延迟到第一次取连接时才启动
+            return -1;
+        }
+        
+        long now = System.nanoTime();
+        double periodMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - lastTickNanos));
+        long acquireCount = acquire.count();
+        double acquireMillis = acquire.totalTime(TimeUnit.MILLISECONDS);
+        long usageCount = usage.count();
+        double usageMillis = usage.totalTime(TimeUnit.MILLISECONDS);
+        
+        Period period = new Period(periodMillis,
+                acquireCount - lastAcquireCount, acquireMillis - lastAcquireMillis,
+                usageCount - lastUsageCount, usageMillis - lastUsageMillis);
+        meanWaitMillis = period.meanWaitMillis();
+        meanUsageMillis = period.meanUsageMillis();
+        
+        lastTickNanos = now;
+        lastAcquireCount = acquireCount;
+        lastAcquireMillis = acquireMillis;
+        lastUsageCount = usageCount;
+        lastUsageMillis = usageMillis;
+        
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        int current = config.getMaximumPoolSize();
+        int waiting = pool.getThreadsAwaitingConnection();
+        Decision decision = decide(period, waiting, current, idlePeriods, properties);
+        idlePeriods = decision.idlePeriods();
+        int target = decision.target();
+        
+        if (target != current) {
+            config.setMaximumPoolSize(target);
+            if (config.getMinimumIdle() > target) {
+                config.setMinimumIdle(target);
+            }
+            (target > current ? growCounter : shrinkCounter).increment();
+            log.info("数据库连接池上限调整: {} -> {}，平均等待 {}ms，平均占用 {}ms，等待线程 {}",
+                    current, target, String.format("%.1f", meanWaitMillis), String.format("%.1f", meanUsageMillis), waiting);
+        }
+        return target;
+    }
+    
+    /**
+     * 根据一个周期的指标增量计算新的连接池上限，不读取也不修改任何状态
+     * @param period 本周期的指标增量
+     * @param waiting 当前等待连接的线程数
+     * @param current 当前连接池上限
+     * @param idlePeriods 此前连续空闲的周期数
+     * @param properties 调整配置
+     * @return 新的上限（已限制在 min-size 与 max-size 之间）和新的连续空闲周期数
+     */
+    static Decision decide(Period period, int waiting, int current, int idlePeriods,
+                           ConnectionPoolProperties properties) {
+        int target = current;
+        // 周期内平均同时被占用的连接数
+        double busyConnections = period.busyMillis() / period.periodMillis();
+        boolean underused = busyConnections < current / 2.0;
+        
+        if (period.meanUsageMillis() > properties.getLatencyCeiling().toMillis()) {
+            target = current - 1;
+            idlePeriods = 0;
+        } else if (waiting > 0 || (period.meanWaitMillis() > properties.getTargetWait().toMillis() && !underused)) {
+            // 连接大多空闲时的等待来自新建物理连接，不是连接数不足
+            target = current + Math.max(1, current / 4);
+            idlePeriods = 0;
+        } else if (underused) {
+            if (++idlePeriods >= properties.getShrinkAfterIdlePeriods()) {
+                target = current - 1;
+                idlePeriods = 0;
+            }
+        } else {
+            idlePeriods = 0;
+        }
+        
+        target = Math.max(properties.getMinSize(), Math.min(properties.getMaxSize(), target));
+        return new Decision(target, idlePeriods);
+    }
+    
+    /**
+     * 一个调整周期内的指标增量
+     * @param periodMillis 周期长度
+     * @param acquired 获取连接次数
+     * @param acquireMillis 获取连接总耗时
+     * @param released 归还连接次数
+     * @param busyMillis 连接占用总时长
+     */
+    record Period(double periodMillis, long acquired, double acquireMillis, long released, double busyMillis) {
+        
+        double meanWaitMillis() {
+            return acquired > 0 ? acquireMillis / acquired : 0;
+        }
+        
+        double meanUsageMillis() {
+            return released > 0 ? busyMillis / released : 0;
+        }
+    }
+    
+    /**
+     * 调整结果
+     * @param target 新的连接池上限
+     * @param idlePeriods 新的连续空闲周期数
+     */
+    record Decision(int target, int idlePeriods) {
+    }
+    
+    private static HikariDataSource unwrapHikari(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.warn("无法获取HikariCP数据源: {}", e.getMessage());
+        }
+        log.info("数据源不是HikariCP，连接池自适应调整不生效");
+        return null;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.LoginCounterProperties;
+import com.example.readerapi.entity.User;
+import com.example.readerapi.service.LoginCounterService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 登录计数服务实现类
+ *
+ * 每个用户一个待写入的增量，在 ConcurrentHashMap.compute 中修改，写入时用 remove 整体取出：
+ * 两者对同一个键互斥，每次登录要么计入已取出的增量，要么留在下一个增量中，不会丢失或重复。
+ * 不同用户落在不同的桶上，登录之间没有共享的锁或计数器。
+ * 写入使用 login_count = login_count + ?，与其他修改用户的语句互不覆盖；
+ * User 实体上这三列不可更新，保存整个实体时不会写回旧值。
+ * 每批在一个事务中写入，失败时整批回滚后把增量放回，不会出现部分行已提交、放回后重复计数。
+ *
+ * JDBC 更新绕过了 Hibernate，二级缓存按 Hibernate 自己更新实体时的方式处理：写入前对每个用户的缓存项加软锁，
+ * 提交后解锁。加锁期间读取直接查库且不回填；解锁后，开始于解锁之前的事务读到的旧行也不能回填，
+ * 不会出现先淘汰、再被并发读取放回旧值的情况。
+ */
+@Slf4j
+@Service
+public class LoginCounterServiceImpl implements LoginCounterService {
+    
+    private static final String UPDATE_SQL =
+            "UPDATE users SET login_count = login_count + ?, last_login_at = ?, last_login_ip = ? WHERE user_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final LoginCounterProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 用户ID -> 尚未写入的登录增量
+     */
+    private final Map<Long, PendingLogins> pending = new ConcurrentHashMap<>();
+    
+    private final Counter recordedCounter;
+    private final Counter writtenCounter;
+    
+    public LoginCounterServiceImpl(JdbcTemplate jdbcTemplate,
+                                   EntityManagerFactory entityManagerFactory,
+                                   LoginCounterProperties properties,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordedCounter = Counter.builder("reader.login_counter.recorded")
+                .description("记录的登录次数")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("reader.login_counter.written")
+                .description("合并后写入数据库的用户行数")
+                .register(meterRegistry);
+        Gauge.builder("reader.login_counter.pending", pending, Map::size)
+                .description("有待写入登录次数的用户数")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void record(Long userId, String loginIp) {
+        LocalDateTime now = LocalDateTime.now();
+        pending.compute(userId, (id, logins) -> {
+            PendingLogins updated = logins == null ? new PendingLogins() : logins;
+            updated.add(1, now, loginIp);
+            return updated;
+        });
+        recordedCounter.increment();
+    }
+    
+    /**
+     * 定时写入累加的登录次数
+     */
+    @Scheduled(initialDelayString = "${reader.login-counter.flush-interval:PT1S}",
+               fixedDelayString = "${reader.login-counter.flush-interval:PT1S}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("写入登录次数失败，保留到下个周期重试", e);
+        }
+    }
+    
+    @Override
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> userIds = new ArrayList<>(pending.keySet());
+        int total = 0;
+        for (int from = 0; from < userIds.size(); from += properties.getBatchSize()) {
+            List<Long> batchIds = userIds.subList(from, Math.min(from + properties.getBatchSize(), userIds.size()));
+            List<Map.Entry<Long, PendingLogins>> batch = new ArrayList<>(batchIds.size());
+            for (Long userId : batchIds) {
+                PendingLogins logins = pending.remove(userId);
+                if (logins != null) {
+                    batch.add(Map.entry(userId, logins));
+                }
+            }
+            try {
+                writeLocked(batch);
+            } catch (RuntimeException e) {
+                // 写入失败的增量放回，与期间新记录的登录合并
+                for (Map.Entry<Long, PendingLogins> entry : batch) {
+                    PendingLogins failed = entry.getValue();
+                    pending.compute(entry.getKey(), (id, logins) -> {
+                        PendingLogins restored = logins == null ? new PendingLogins() : logins;
+                        restored.add(failed.count, failed.lastLoginAt, failed.lastLoginIp);
+                        return restored;
+                    });
+                }
+                throw e;
+            }
+            total += batch.size();
+            writtenCounter.increment(batch.size());
+        }
+        return total;
+    }
+    
+    /**
+     * 在二级缓存软锁的保护下批量更新，整批一个事务，提交后解锁
+     */
+    private void writeLocked(List<Map.Entry<Long, PendingLogins>> batch) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(User.class);
+        EntityDataAccess cache = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        
+        try (SessionImplementor session = sessionFactory.openSession()) {
+            List<Object> keys = new ArrayList<>(batch.size());
+            List<SoftLock> locks = new ArrayList<>(batch.size());
+            try {
+                if (cache != null) {
+                    for (Map.Entry<Long, PendingLogins> entry : batch) {
+                        Object key = cache.generateCacheKey(entry.getKey(), persister, sessionFactory, null);
+                        locks.add(cache.lockItem(session, key, null));
+                        keys.add(key);
+                    }
+                }
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+                            ps.setLong(1, entry.getValue().count);
+                            ps.setTimestamp(2, Timestamp.valueOf(entry.getValue().lastLoginAt));
+                            ps.setString(3, entry.getValue().lastLoginIp);
+                            ps.setLong(4, entry.getKey());
+                        }));
+            } finally {
+                // 失败时同样解锁，缓存项在解锁前后都不会是更新前读到的值
+                for (int i = 0; i < keys.size(); i++) {
+                    cache.unlockItem(session, keys.get(i), locks.get(i));
+                }
+            }
+        }
+    }
+    
+    /**
+     * 停机前写入剩余的登录次数
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            log.info("停机前写入登录次数: {} 个用户", flush());
+        } catch (Exception e) {
+            log.error("停机前写入登录次数失败，丢失 {} 个用户的登录次数", pending.size(), e);
+        }
+    }
+    
+    /**
+     * 一个用户尚未写入的登录增量，只在 ConcurrentHashMap.compute 中修改
+     */
+    private static final class PendingLogins {
+        
+        private long count;
+        private LocalDateTime lastLoginAt;
+        private String lastLoginIp;
+        
+        private void add(long logins, LocalDateTime loginAt, String loginIp) {
+            count += logins;
+            if (lastLoginAt == null || !loginAt.isBefore(lastLoginAt)) {
+                lastLoginAt = loginAt;
+                lastLoginIp = loginIp;
+            }
+        }
+    }
+}
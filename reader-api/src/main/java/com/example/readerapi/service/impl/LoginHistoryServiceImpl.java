@@ -0,0 +1,239 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.LoginHistoryProperties;
+import com.example.readerapi.dto.LoginHistoryDTO;
+import com.example.readerapi.service.LoginHistoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 登录历史服务实现类
+ *
+ * 登录请求只做一次非阻塞入队；后台任务把队列分批取出，用 JDBC batch 写入
+ * （MySQL 连接串开启 rewriteBatchedStatements 后每批合并为一条多行 INSERT）。
+ * 表按 login_at 每月一个分区，保留期外的数据通过 DROP PARTITION 删除，不产生逐行删除的开销。
+ */
+@Slf4j
+@Service
+public class LoginHistoryServiceImpl implements LoginHistoryService {
+    
+    private static final String TABLE = "user_login_history";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final int MAX_USER_AGENT_LENGTH = 255;
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO user_login_history (user_id, login_at, login_ip, user_agent) VALUES (?, ?, ?, ?)";
+    
+    private static final String SELECT_FIRST_PAGE_SQL =
+            "SELECT history_id, user_id, login_at, login_ip, user_agent FROM user_login_history " +
+            "WHERE user_id = ? ORDER BY login_at DESC, history_id DESC LIMIT ?";
+    
+    private static final String SELECT_NEXT_PAGE_SQL =
+            "SELECT history_id, user_id, login_at, login_ip, user_agent FROM user_login_history " +
+            "WHERE user_id = ? AND (login_at < ? OR (login_at = ? AND history_id < ?)) " +
+            "ORDER BY login_at DESC, history_id DESC LIMIT ?";
+    
+    private static final RowMapper<LoginHistoryDTO> ROW_MAPPER = (rs, rowNum) -> new LoginHistoryDTO(
+            rs.getLong("history_id"),
+            rs.getLong("user_id"),
+            rs.getTimestamp("login_at").toLocalDateTime(),
+            rs.getString("login_ip"),
+            rs.getString("user_agent"));
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final LoginHistoryProperties properties;
+    private final BlockingQueue<LoginHistoryDTO> queue;
+    private final Counter droppedCounter;
+    
+    public LoginHistoryServiceImpl(JdbcTemplate jdbcTemplate,
+                                   LoginHistoryProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.droppedCounter = Counter.builder("reader.login_history.dropped")
+                .description("队列已满而被丢弃的登录记录数")
+                .register(meterRegistry);
+        Gauge.builder("reader.login_history.pending", queue, BlockingQueue::size)
+                .description("等待写入的登录记录数")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void record(Long userId, String loginIp, String userAgent) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH) {
+            userAgent = userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+        }
+        LoginHistoryDTO entry = new LoginHistoryDTO(null, userId, LocalDateTime.now(), loginIp, userAgent);
+        if (!queue.offer(entry)) {
+            droppedCounter.increment();
+        }
+    }
+    
+    @Override
+    public List<LoginHistoryDTO> findRecentLogins(Long userId, String cursor, int size) {
+        if (!properties.isEnabled()) {
+            return List.of();
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return jdbcTemplate.query(SELECT_FIRST_PAGE_SQL, ROW_MAPPER, userId, size);
+        }
+        
+        // 游标格式：{loginAt}_{historyId}
+        int separator = cursor.lastIndexOf('_');
+        LocalDateTime loginAt;
+        long historyId;
+        try {
+            loginAt = LocalDateTime.parse(cursor.substring(0, separator));
+            historyId = Long.parseLong(cursor.substring(separator + 1));
+        } catch (DateTimeParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+        Timestamp loginAtTs = Timestamp.valueOf(loginAt);
+        return jdbcTemplate.query(SELECT_NEXT_PAGE_SQL, ROW_MAPPER, userId, loginAtTs, loginAtTs, historyId, size);
+    }
+    
+    @Override
+    public String cursorOf(LoginHistoryDTO last) {
+        return last.getLoginAt() + "_" + last.getHistoryId();
+    }
+    
+    /**
+     * 定时把队列中的登录记录写入数据库
+     */
+    @Scheduled(initialDelayString = "${reader.login-history.flush-interval:PT0.2S}",
+               fixedDelayString = "${reader.login-history.flush-interval:PT0.2S}")
+    public void scheduledFlush() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("写入登录历史失败", e);
+        }
+    }
+    
+    @Override
+    public synchronized int flush() {
+        int total = 0;
+        List<LoginHistoryDTO> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.getUserId());
+                    ps.setTimestamp(2, Timestamp.valueOf(entry.getLoginAt()));
+                    ps.setString(3, entry.getLoginIp());
+                    ps.setString(4, entry.getUserAgent());
+                });
+                total += batch.size();
+            } catch (RuntimeException e) {
+                // 登录历史不影响业务，写入失败的批次记录日志后丢弃，避免队列被反复失败的数据堵住
+                droppedCounter.increment(batch.size());
+                log.error("登录历史批量写入失败，丢弃 {} 条", batch.size(), e);
+            }
+            batch.clear();
+        }
+        return total;
+    }
+    
+    /**
+     * 停机前写完队列中剩余的记录
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (properties.isEnabled() && !queue.isEmpty()) {
+            log.info("停机前写入剩余登录历史: {} 条", flush());
+        }
+    }
+    
+    /**
+     * 启动后（异步，不阻塞就绪）及每天凌晨维护分区
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${reader.login-history.partition-cron:0 10 0 * * *}")
+    public void scheduledMaintainPartitions() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            maintainPartitions();
+        } catch (Exception e) {
+            log.error("维护登录历史分区失败", e);
+        }
+    }
+    
+    @Override
+    public void maintainPartitions() {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION", String.class, TABLE);
+        
+        YearMonth current = YearMonth.now();
+        
+        // 从现有最后一个月分区之后开始，逐月从 pmax 中拆出新分区
+        YearMonth lastMonth = null;
+        for (String partition : partitions) {
+            YearMonth month = parsePartitionMonth(partition);
+            if (month != null && (lastMonth == null || month.isAfter(lastMonth))) {
+                lastMonth = month;
+            }
+        }
+        YearMonth month = lastMonth == null ? current : lastMonth.plusMonths(1);
+        YearMonth until = current.plusMonths(properties.getPremakeMonths());
+        for (; !month.isAfter(until); month = month.plusMonths(1)) {
+            String name = month.format(PARTITION_NAME);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" +
+                    "PARTITION " + name + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                    "PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            log.info("创建登录历史分区: {}", name);
+        }
+        
+        // 删除保留期之前的月分区
+        YearMonth oldestKept = current.minusMonths(properties.getRetentionMonths());
+        List<String> expired = partitions.stream()
+                .filter(partition -> {
+                    YearMonth partitionMonth = parsePartitionMonth(partition);
+                    return partitionMonth != null && partitionMonth.isBefore(oldestKept);
+                })
+                .toList();
+        if (!expired.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+            log.info("删除过期登录历史分区: {}", expired);
+        }
+    }
+    
+    private static YearMonth parsePartitionMonth(String partition) {
+        try {
+            return YearMonth.parse(partition, PARTITION_NAME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
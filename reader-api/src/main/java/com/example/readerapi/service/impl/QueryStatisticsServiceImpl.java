@@ -0,0 +1,116 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.SqlMonitorProperties;
+import com.example.readerapi.jdbc.QueryStatistics;
+import com.example.readerapi.jdbc.SqlFingerprint;
+import com.example.readerapi.service.QueryStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * SQL执行统计服务实现类
+ *
+ * 同一条预编译SQL的字符串反复出现，原始SQL到统计对象的映射单独缓存，
+ * 热路径上只有一次哈希查找和几次原子自增，只有新SQL才计算指纹。
+ * 慢查询与抽样日志只输出指纹（字面量已替换为 ?），不会把参数值写进日志。
+ */
+@Slf4j
+@Service
+public class QueryStatisticsServiceImpl implements QueryStatisticsService {
+    
+    private static final String OTHER_FINGERPRINT = "其他";
+    
+    private final SqlMonitorProperties properties;
+    private final ConcurrentHashMap<String, QueryStatistics> byFingerprint = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, QueryStatistics> bySql = new ConcurrentHashMap<>();
+    private volatile QueryStatistics other = new QueryStatistics(OTHER_FINGERPRINT);
+    
+    public QueryStatisticsServiceImpl(SqlMonitorProperties properties) {
+        this.properties = properties;
+    }
+    
+    @Override
+    public void record(String sql, long nanos) {
+        QueryStatistics statistics = statisticsOf(sql);
+        statistics.record(nanos);
+        
+        if (nanos >= properties.getSlowThreshold().toNanos()) {
+            log.warn("慢SQL {}ms: {}", TimeUnit.NANOSECONDS.toMillis(nanos), statistics.getFingerprint());
+        } else if (properties.getSampleRate() > 0 && log.isInfoEnabled()
+                && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+            log.info("SQL抽样 {}us: {}", TimeUnit.NANOSECONDS.toMicros(nanos), statistics.getFingerprint());
+        }
+    }
+    
+    @Override
+    public List<Map<String, Object>> topQueries(String sort, int limit) {
+        Comparator<QueryStatistics> comparator = switch (sort) {
+            case "total" -> Comparator.comparingLong(QueryStatistics::getTotalNanos);
+            case "count" -> Comparator.comparingLong(QueryStatistics::getCount);
+            case "p99" -> Comparator.comparingLong(statistics -> statistics.percentileNanos(0.99));
+            case "max" -> Comparator.comparingLong(QueryStatistics::getMaxNanos);
+            default -> throw new RuntimeException("不支持的排序字段: " + sort);
+        };
+        
+        return Stream.concat(byFingerprint.values().stream(), Stream.of(other))
+                .filter(statistics -> statistics.getCount() > 0)
+                .sorted(comparator.reversed())
+                .limit(limit)
+                .map(QueryStatisticsServiceImpl::toMap)
+                .toList();
+    }
+    
+    @Override
+    public void reset() {
+        bySql.clear();
+        byFingerprint.clear();
+        other = new QueryStatistics(OTHER_FINGERPRINT);
+    }
+    
+    private QueryStatistics statisticsOf(String sql) {
+        QueryStatistics statistics = bySql.get(sql);
+        if (statistics != null) {
+            return statistics;
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        statistics = byFingerprint.get(fingerprint);
+        if (statistics == null) {
+            if (byFingerprint.size() >= properties.getMaxFingerprints()) {
+                return other;
+            }
+            statistics = byFingerprint.computeIfAbsent(fingerprint, QueryStatistics::new);
+        }
+        // 拼接了字面量的SQL每次都不同，只缓存到指纹数的若干倍
+        if (bySql.size() < properties.getMaxFingerprints() * 4) {
+            bySql.put(sql, statistics);
+        }
+        return statistics;
+    }
+    
+    private static Map<String, Object> toMap(QueryStatistics statistics) {
+        long count = statistics.getCount();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("fingerprint", statistics.getFingerprint());
+        map.put("count", count);
+        map.put("totalMs", toMillis(statistics.getTotalNanos()));
+        map.put("meanMs", toMillis(count > 0 ? statistics.getTotalNanos() / count : 0));
+        map.put("p50Ms", toMillis(statistics.percentileNanos(0.50)));
+        map.put("p95Ms", toMillis(statistics.percentileNanos(0.95)));
+        map.put("p99Ms", toMillis(statistics.percentileNanos(0.99)));
+        map.put("maxMs", toMillis(statistics.getMaxNanos()));
+        return map;
+    }
+    
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.ReadingProgressProperties;
+import com.example.readerapi.entity.ReadingProgress;
+import com.example.readerapi.event.ReadingProgressReportedEvent;
+import com.example.readerapi.event.UserChangeEvent;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.repository.ReadingProgressRepository;
+import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.service.ReadingProgressService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阅读进度服务实现类
+ *
+ * 待写入的进度放在 ConcurrentHashMap 中，同一 (用户, 图书) 只保留最新一次上报；
+ * 定时任务把其中的条目按批 upsert 到数据库，写入成功后移入 Caffeine 缓存供读取。
+ * 每个写入周期对每对 (用户, 图书) 至多写一行，写入量与阅读中的用户数相关，与上报频率无关。
+ * 停机时先写入剩余进度，数据库不可用时写到 spill-file，下次启动读回。
+ *
+ * 上报前检查用户未删除、图书存在，结果缓存 existence-cache-ttl，不存在的ID同样缓存，不会每次查库。
+ * 待写入的条目达到 max-pending 时，新的 (用户, 图书) 先在调用线程提前写入；
+ * 写入失败后 FLUSH_RETRY_NANOS 内直接拒绝新的 (用户, 图书)，内存占用不会随上报无限增长。
+ */
+@Slf4j
+@Service
+public class ReadingProgressServiceImpl implements ReadingProgressService {
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO reading_progress (user_id, book_id, position, percent, updated_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE position = VALUES(position), percent = VALUES(percent), updated_at = VALUES(updated_at)";
+    
+    /**
+     * 提前写入失败后，在此时间内直接拒绝新的 (用户, 图书)，不再排队重试写入
+     */
+    private static final long FLUSH_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadingProgressRepository readingProgressRepository;
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final ReadingProgressProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * 待写入的进度
+     */
+    private final Map<ReadingProgress.Key, ReadingProgress> pending = new ConcurrentHashMap<>();
+    
+    /**
+     * 已写入数据库的进度
+     */
+    private final Cache<ReadingProgress.Key, ReadingProgress> persisted;
+    
+    /**
+     * 用户是否存在且未删除、图书是否存在
+     */
+    private final Cache<Long, Boolean> activeUsers;
+    private final Cache<Long, Boolean> existingBooks;
+    
+    /**
+     * 最近一次提前写入失败的时间（System.nanoTime），0 表示没有失败
+     */
+    private volatile long earlyFlushFailedAt;
+    
+    private final Counter reportCounter;
+    private final Counter writtenCounter;
+    private final Counter earlyFlushCounter;
+    
+    public ReadingProgressServiceImpl(JdbcTemplate jdbcTemplate,
+                                      ReadingProgressRepository readingProgressRepository,
+                                      UserRepository userRepository,
+                                      BookRepository bookRepository,
+                                      ReadingProgressProperties properties,
+                                      ApplicationEventPublisher eventPublisher,
+                                      MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readingProgressRepository = readingProgressRepository;
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.persisted = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .build();
+        this.activeUsers = Caffeine.newBuilder()
+                .maximumSize(properties.getExistenceCacheSize())
+                .expireAfterWrite(properties.getExistenceCacheTtl())
+                .build();
+        this.existingBooks = Caffeine.newBuilder()
+                .maximumSize(properties.getExistenceCacheSize())
+                .expireAfterWrite(properties.getExistenceCacheTtl())
+                .build();
+        this.reportCounter = Counter.builder("reader.reading_progress.reports")
+                .description("收到的阅读进度上报次数")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("reader.reading_progress.written")
+                .description("合并后写入数据库的阅读进度行数")
+                .register(meterRegistry);
+        this.earlyFlushCounter = Counter.builder("reader.reading_progress.early_flushes")
+                .description("待写入条目达到上限时提前写入的次数")
+                .register(meterRegistry);
+        Gauge.builder("reader.reading_progress.pending", pending, Map::size)
+                .description("等待写入的阅读进度条数")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public ReadingProgress report(Long userId, Long bookId, long position, double percent) {
+        if (position < 0) {
+            throw new RuntimeException("阅读位置不能为负数");
+        }
+        if (!(percent >= 0 && percent <= 100)) {
+            throw new RuntimeException("阅读百分比必须在0到100之间");
+        }
+        if (!activeUsers.get(userId, id -> userRepository.existsByUserIdAndDeleted(id, 0))) {
+            throw new RuntimeException("用户不存在或已删除");
+        }
+        if (!existingBooks.get(bookId, bookRepository::existsById)) {
+            throw new RuntimeException("图书不存在");
+        }
+        ReadingProgress.Key key = new ReadingProgress.Key(userId, bookId);
+        if (pending.size() >= properties.getMaxPending() && !pending.containsKey(key)) {
+            flushWhenFull();
+        }
+        ReadingProgress progress = new ReadingProgress(userId, bookId, position, percent, LocalDateTime.now());
+        pending.merge(key, progress, ReadingProgressServiceImpl::newer);
+        reportCounter.increment();
+        eventPublisher.publishEvent(new ReadingProgressReportedEvent(progress));
+        return progress;
+    }
+    
+    /**
+     * 待写入条目达到上限时在调用线程提前写入；并发的调用者排队后重新检查，只有一个真正写入
+     */
+    private void flushWhenFull() {
+        long failedAt = earlyFlushFailedAt;
+        if (failedAt != 0 && System.nanoTime() - failedAt < FLUSH_RETRY_NANOS) {
+            throw new RuntimeException("待写入的阅读进度过多，请稍后重试");
+        }
+        synchronized (this) {
+            if (pending.size() < properties.getMaxPending()) {
+                return;
+            }
+            earlyFlushCounter.increment();
+            try {
+                flush();
+                earlyFlushFailedAt = 0;
+            } catch (RuntimeException e) {
+                earlyFlushFailedAt = System.nanoTime();
+                throw new RuntimeException("待写入的阅读进度过多，请稍后重试", e);
+            }
+        }
+    }
+    
+    /**
+     * 用户变更（删除、恢复等）后重新检查该用户是否存在
+     */
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        activeUsers.invalidate(event.getUserId());
+    }
+    
+    @Override
+    public Optional<ReadingProgress> find(Long userId, Long bookId) {
+        ReadingProgress.Key key = new ReadingProgress.Key(userId, bookId);
+        ReadingProgress progress = pending.get(key);
+        if (progress != null) {
+            return Optional.of(progress);
+        }
+        progress = persisted.getIfPresent(key);
+        if (progress != null) {
+            return Optional.of(progress);
+        }
+        Optional<ReadingProgress> stored = readingProgressRepository.findById(key);
+        stored.ifPresent(value -> persisted.put(key, value));
+        return stored;
+    }
+    
+    @Override
+    public Optional<ReadingProgress> findPending(Long userId, Long bookId) {
+        return Optional.ofNullable(pending.get(new ReadingProgress.Key(userId, bookId)));
+    }
+    
+    /**
+     * 定时写入有变化的进度
+     */
+    @Scheduled(initialDelayString = "${reader.reading-progress.flush-interval:PT5S}",
+               fixedDelayString = "${reader.reading-progress.flush-interval:PT5S}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("写入阅读进度失败，保留到下个周期重试", e);
+        }
+    }
+    
+    @Override
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<ReadingProgress> snapshot = new ArrayList<>(pending.values());
+        int total = 0;
+        for (int from = 0; from < snapshot.size(); from += properties.getBatchSize()) {
+            List<ReadingProgress> batch = snapshot.subList(from, Math.min(from + properties.getBatchSize(), snapshot.size()));
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, progress) -> {
+                ps.setLong(1, progress.getUserId());
+                ps.setLong(2, progress.getBookId());
+                ps.setLong(3, progress.getPosition());
+                ps.setDouble(4, progress.getPercent());
+                ps.setTimestamp(5, Timestamp.valueOf(progress.getUpdatedAt()));
+            });
+            for (ReadingProgress progress : batch) {
+                ReadingProgress.Key key = new ReadingProgress.Key(progress.getUserId(), progress.getBookId());
+                persisted.put(key, progress);
+                // 写入期间又有新的上报时保留新值，下个周期再写
+                pending.remove(key, progress);
+            }
+            total += batch.size();
+            writtenCounter.increment(batch.size());
+        }
+        return total;
+    }
+    
+    /**
+     * 启动时读回上次停机未能写入数据库的进度
+     */
+    @PostConstruct
+    public void loadSpilled() {
+        Path file = Path.of(properties.getSpillFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String[] fields = line.split("\t");
+                if (fields.length != 5) {
+                    continue;
+                }
+                ReadingProgress progress = new ReadingProgress(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Long.parseLong(fields[2]), Double.parseDouble(fields[3]), LocalDateTime.parse(fields[4]));
+                pending.merge(new ReadingProgress.Key(progress.getUserId(), progress.getBookId()), progress,
+                        ReadingProgressServiceImpl::newer);
+            }
+            Files.delete(file);
+            log.info("读回停机时未写入的阅读进度: {} 条", lines.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("读取阅读进度暂存文件失败: {}", file, e);
+        }
+    }
+    
+    /**
+     * 停机前写入剩余进度，数据库不可用时保存到本地文件
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            log.info("停机前写入剩余阅读进度: {} 条", flush());
+        } catch (Exception e) {
+            log.warn("停机前写入阅读进度失败，保存到本地文件: {}", e.getMessage());
+        }
+        if (!pending.isEmpty()) {
+            spill();
+        }
+    }
+    
+    private synchronized void spill() {
+        Path file = Path.of(properties.getSpillFile());
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "pending", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (ReadingProgress progress : pending.values()) {
+                    writer.write(progress.getUserId() + "\t" + progress.getBookId() + "\t" + progress.getPosition()
+                            + "\t" + progress.getPercent() + "\t" + progress.getUpdatedAt());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("阅读进度已保存到 {}: {} 条", file, pending.size());
+        } catch (IOException e) {
+            log.error("保存阅读进度失败，丢失 {} 条", pending.size(), e);
+        }
+    }
+    
+    private static ReadingProgress newer(ReadingProgress current, ReadingProgress candidate) {
+        return candidate.getUpdatedAt().isBefore(current.getUpdatedAt()) ? current : candidate;
+    }
+}
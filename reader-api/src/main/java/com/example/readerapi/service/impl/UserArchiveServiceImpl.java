@@ -0,0 +1,152 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.UserArchiveProperties;
+import com.example.readerapi.entity.User;
+import com.example.readerapi.event.UserEventType;
+import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.service.UserArchiveService;
+import com.example.readerapi.service.UserOutboxService;
+import com.example.readerapi.util.DatabaseErrorUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 用户归档服务实现类
+ * 每批在独立的短事务中完成"复制到归档表 + 从用户表删除"，避免长时间持有行锁
+ */
+@Slf4j
+@Service
+public class UserArchiveServiceImpl implements UserArchiveService {
+    
+    private static final Integer NOT_DELETED = 0;
+    private static final Integer DELETED = 1;
+    
+    private final UserRepository userRepository;
+    private final UserArchiveProperties properties;
+    private final UserOutboxService userOutboxService;
+    private final TransactionTemplate transactionTemplate;
+    
+    public UserArchiveServiceImpl(UserRepository userRepository,
+                                  UserArchiveProperties properties,
+                                  UserOutboxService userOutboxService,
+                                  PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.userOutboxService = userOutboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * 定时归档任务
+     */
+    @Scheduled(initialDelayString = "${reader.archive.initial-delay:PT5M}",
+               fixedDelayString = "${reader.archive.interval:PT1H}")
+    public void scheduledArchive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            archiveDeletedUsers();
+        } catch (Exception e) {
+            log.error("归档软删除用户失败", e);
+        }
+    }
+    
+    @Override
+    public int archiveDeletedUsers() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getRetentionDays());
+        int total = 0;
+        
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            Integer archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+            if (archived < properties.getBatchSize()) {
+                break;
+            }
+            pauseBetweenBatches();
+        }
+        
+        if (total > 0) {
+            log.info("归档软删除用户完成: {} 个, 截止时间: {}", total, cutoff);
+        }
+        return total;
+    }
+    
+    /**
+     * 归档一批用户，在调用方开启的事务中执行
+     */
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> userIds = userRepository.findArchivableUserIds(cutoff, properties.getBatchSize());
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        int copied = userRepository.copyToArchive(userIds);
+        int deleted = userRepository.deleteArchivedUsers(userIds);
+        if (copied != deleted) {
+            // 复制与删除条数不一致说明有并发修改，回滚本批，下次重试
+            throw new IllegalStateException("归档批次行数不一致: copied=" + copied + ", deleted=" + deleted);
+        }
+        return deleted;
+    }
+    
+    private void pauseBetweenBatches() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public boolean restoreUser(Long userId) {
+        log.info("恢复用户: {}", userId);
+        
+        try {
+            Boolean restored = transactionTemplate.execute(status -> {
+                if (userRepository.countArchivedById(userId) > 0) {
+                    userRepository.restoreFromArchive(userId);
+                    userRepository.deleteFromArchive(userId);
+                    userRepository.findById(userId)
+                            .ifPresent(user -> userOutboxService.record(user, UserEventType.RESTORED));
+                    return true;
+                }
+                
+                // 尚未归档的软删除用户，直接清除删除标记
+                Optional<User> userOpt = userRepository.findById(userId);
+                if (userOpt.isEmpty() || !DELETED.equals(userOpt.get().getDeleted())) {
+                    return false;
+                }
+                User user = userOpt.get();
+                user.setDeleted(NOT_DELETED);
+                user.setDeletedAt(null);
+                userRepository.save(user);
+                userOutboxService.record(user, UserEventType.RESTORED);
+                return true;
+            });
+            
+            if (Boolean.TRUE.equals(restored)) {
+                log.info("用户恢复成功: {}", userId);
+                return true;
+            }
+            return false;
+        } catch (DataIntegrityViolationException e) {
+            // 归档后用户名、邮箱、手机号已释放，可能已被新用户注册
+            String key = DatabaseErrorUtils.violatedUniqueKey(e, UserServiceImpl.UNIQUE_KEY_MESSAGES.keySet());
+            if (key == null) {
+                throw e;
+            }
+            throw new RuntimeException(UserServiceImpl.UNIQUE_KEY_MESSAGES.get(key) + "，无法恢复");
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.dto.UserDTO;
+import com.example.readerapi.dto.UserSuggestion;
+import com.example.readerapi.event.UserChangeEvent;
+import com.example.readerapi.event.UserEventType;
+import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.service.UserAutocompleteService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 用户自动补全服务实现类
+ *
+ * 索引分两层：
+ * 1. 基础层：按字典序排好的 key 数组与对应的 userId 数组，不可变，整体替换，查询时二分定位
+ * 2. 增量层：ConcurrentSkipListSet，记录上次合并之后新增或修改产生的 key
+ *
+ * 用户的当前展示数据保存在 suggestions 中，查询时以它为准校验每个命中项，
+ * 因此修改和删除只需更新 suggestions，两层中的过期 key 会被跳过，并在定时合并时清理。
+ * 启动后异步全量加载（不阻塞就绪），之后由发件箱投递的用户变更事件增量更新。
+ */
+@Slf4j
+@Service
+public class UserAutocompleteServiceImpl implements UserAutocompleteService {
+    
+    private static final Snapshot EMPTY = new Snapshot(new String[0], new long[0]);
+    
+    private static final Comparator<IndexEntry> ENTRY_ORDER = Comparator
+            .comparing(IndexEntry::key)
+            .thenComparingLong(IndexEntry::userId)
+            .thenComparingLong(IndexEntry::seq);
+    
+    private final UserRepository userRepository;
+    
+    private final Map<Long, UserSuggestion> suggestions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<IndexEntry> delta = new ConcurrentSkipListSet<>(ENTRY_ORDER);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong changesSinceCompaction = new AtomicLong();
+    
+    private volatile Snapshot snapshot = EMPTY;
+    
+    /**
+     * 全量加载期间被删除的用户，避免加载到的旧数据把它们重新加入索引
+     */
+    private volatile Set<Long> removedWhileLoading;
+    
+    public UserAutocompleteServiceImpl(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+    
+    @Override
+    public List<UserSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized == null || limit <= 0) {
+            return List.of();
+        }
+        
+        Snapshot base = snapshot;
+        int i = base.lowerBound(normalized);
+        Iterator<IndexEntry> deltaIt = delta.tailSet(new IndexEntry(normalized, Long.MIN_VALUE, Long.MIN_VALUE)).iterator();
+        IndexEntry nextDelta = nextMatching(deltaIt, normalized);
+        
+        // 两层各自有序，归并后按 key 字典序输出，同一用户只保留第一次命中
+        Map<Long, UserSuggestion> result = new LinkedHashMap<>();
+        while (result.size() < limit) {
+            boolean baseMatches = i < base.keys.length && base.keys[i].startsWith(normalized);
+            if (!baseMatches && nextDelta == null) {
+                break;
+            }
+            String key;
+            long userId;
+            if (baseMatches && (nextDelta == null || compare(base.keys[i], base.ids[i], nextDelta) <= 0)) {
+                key = base.keys[i];
+                userId = base.ids[i];
+                i++;
+            } else {
+                key = nextDelta.key();
+                userId = nextDelta.userId();
+                nextDelta = nextMatching(deltaIt, normalized);
+            }
+            UserSuggestion suggestion = suggestions.get(userId);
+            if (suggestion != null && keysOf(suggestion).contains(key)) {
+                result.putIfAbsent(userId, suggestion);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+    
+    @Override
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        UserDTO user = event.getUser();
+        if (event.getType() == UserEventType.DELETED || user == null) {
+            removeUser(event.getUserId());
+            return;
+        }
+        indexUser(new UserSuggestion(user.getUserId(), user.getUsername(), user.getNickname(), user.getRealName()));
+    }
+    
+    /**
+     * 新增或更新用户的索引项
+     */
+    private void indexUser(UserSuggestion suggestion) {
+        UserSuggestion previous = suggestions.put(suggestion.getUserId(), suggestion);
+        if (previous != null && keysOf(previous).equals(keysOf(suggestion))) {
+            return;
+        }
+        // 先更新 suggestions 再写增量层，查询看到新 key 时一定能通过校验
+        for (String key : keysOf(suggestion)) {
+            delta.add(new IndexEntry(key, suggestion.getUserId(), sequence.incrementAndGet()));
+        }
+        changesSinceCompaction.incrementAndGet();
+    }
+    
+    private void removeUser(Long userId) {
+        Set<Long> removed = removedWhileLoading;
+        if (removed != null) {
+            removed.add(userId);
+        }
+        if (suggestions.remove(userId) != null) {
+            changesSinceCompaction.incrementAndGet();
+        }
+    }
+    
+    @Override
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        removedWhileLoading = ConcurrentHashMap.newKeySet();
+        int loaded = 0;
+        try (Stream<UserSuggestion> rows = userRepository.streamUserSuggestions()) {
+            Iterator<UserSuggestion> it = rows.iterator();
+            while (it.hasNext()) {
+                UserSuggestion row = it.next();
+                // 加载期间已通过 indexUser 写入的数据更新，不覆盖
+                if (!removedWhileLoading.contains(row.getUserId())) {
+                    suggestions.putIfAbsent(row.getUserId(), row);
+                }
+                loaded++;
+            }
+        } finally {
+            Set<Long> removed = removedWhileLoading;
+            removedWhileLoading = null;
+            removed.forEach(suggestions::remove);
+        }
+        compact();
+        log.info("用户自动补全索引构建完成: {} 个用户, {} 个索引项, 耗时 {} ms",
+                loaded, snapshot.keys.length, (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * 定时把增量层合并进基础层，并清理过期 key
+     */
+    @Scheduled(initialDelayString = "${reader.autocomplete.compact-interval:PT1M}",
+               fixedDelayString = "${reader.autocomplete.compact-interval:PT1M}")
+    public void scheduledCompact() {
+        if (changesSinceCompaction.get() > 0) {
+            compact();
+        }
+    }
+    
+    /**
+     * 由 suggestions 重新生成基础层
+     * 只移除合并开始前已存在的增量项，合并过程中新增的增量项（序号不同）会保留到下一次合并
+     */
+    synchronized void compact() {
+        changesSinceCompaction.set(0);
+        List<IndexEntry> merged = new ArrayList<>(delta);
+        
+        // 昵称、真实姓名重复率高，相同 key 共用一个字符串实例
+        Map<String, String> interned = new HashMap<>();
+        List<IndexEntry> entries = new ArrayList<>(suggestions.size() * 2);
+        for (UserSuggestion suggestion : suggestions.values()) {
+            for (String key : keysOf(suggestion)) {
+                entries.add(new IndexEntry(interned.computeIfAbsent(key, k -> k), suggestion.getUserId(), 0));
+            }
+        }
+        entries.sort(ENTRY_ORDER);
+        
+        String[] keys = new String[entries.size()];
+        long[] ids = new long[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = entries.get(i).key();
+            ids[i] = entries.get(i).userId();
+        }
+        snapshot = new Snapshot(keys, ids);
+        merged.forEach(delta::remove);
+    }
+    
+    /**
+     * 用户可被检索的 key：用户名、昵称、真实姓名的小写形式（去重）
+     */
+    private static List<String> keysOf(UserSuggestion suggestion) {
+        List<String> keys = new ArrayList<>(3);
+        addKey(keys, suggestion.getUsername());
+        addKey(keys, suggestion.getNickname());
+        addKey(keys, suggestion.getRealName());
+        return keys;
+    }
+    
+    private static void addKey(List<String> keys, String value) {
+        String key = normalize(value);
+        if (key != null && !keys.contains(key)) {
+            keys.add(key);
+        }
+    }
+    
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+    
+    private static IndexEntry nextMatching(Iterator<IndexEntry> it, String prefix) {
+        if (it.hasNext()) {
+            IndexEntry entry = it.next();
+            if (entry.key().startsWith(prefix)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+    
+    private static int compare(String key, long userId, IndexEntry entry) {
+        int c = key.compareTo(entry.key());
+        return c != 0 ? c : Long.compare(userId, entry.userId());
+    }
+    
+    /**
+     * 增量层索引项，seq 用于区分同一 key 的多次写入
+     */
+    private record IndexEntry(String key, long userId, long seq) {
+    }
+    
+    /**
+     * 不可变的基础层
+     */
+    private static final class Snapshot {
+        private final String[] keys;
+        private final long[] ids;
+        
+        private Snapshot(String[] keys, long[] ids) {
+            this.keys = keys;
+            this.ids = ids;
+        }
+        
+        /**
+         * 第一个不小于 prefix 的位置
+         */
+        private int lowerBound(String prefix) {
+            int pos = Arrays.binarySearch(keys, prefix);
+            if (pos < 0) {
+                return -pos - 1;
+            }
+            // 相同 key 可能有多个，回退到第一个
+            while (pos > 0 && keys[pos - 1].equals(prefix)) {
+                pos--;
+            }
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.UserOutboxProperties;
+import com.example.readerapi.dto.UserDTO;
+import com.example.readerapi.entity.OutboxLease;
+import com.example.readerapi.entity.User;
+import com.example.readerapi.entity.UserOutboxEvent;
+import com.example.readerapi.event.UserChangeEvent;
+import com.example.readerapi.event.UserEventSink;
+import com.example.readerapi.event.UserEventType;
+import com.example.readerapi.repository.OutboxLeaseRepository;
+import com.example.readerapi.repository.UserOutboxEventRepository;
+import com.example.readerapi.service.UserOutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户变更发件箱服务实现类
+ *
+ * 每个事件有两类接收方，互不影响：
+ * 1. 进程内订阅者（@EventListener）：每个实例都要收到全部事件（如本地的用户名补全索引），
+ *    各实例按自己内存中的游标顺序读取发件箱并发布，不修改事件行
+ * 2. UserEventSink：全局只需投递一次，由持有投递租约（outbox_leases）的单个实例按 event_id 顺序投递，
+ *    成功后标记 dispatched_at；租约每批续期，实例宕机后过期由其他实例接管
+ *
+ * 外部投递语义：
+ * 1. 至少一次：先投递、后标记 dispatched_at，两步之间宕机或租约易主会重复投递
+ * 2. 有序：按 event_id 升序投递；整批失败时逐条重试找出失败的事件，其前面的事件照常标记，
+ *    失败的事件按指数退避重试，达到 max-attempts 后标记 parked_at 搁置，后续事件继续投递
+ * 3. 写入前先 flush，使用户行锁先于事件ID分配获取，同一用户的事件ID顺序与提交顺序一致
+ *
+ * 进程内发布：自增ID的分配顺序与提交顺序不一致，游标越过的ID可能属于尚未提交的事务，
+ * 记为空洞并在 gap-timeout 内补发，超时视为已回滚。补发的事件可能晚于其他用户ID更大的事件，
+ * 同一用户的事件仍按顺序发布。订阅者抛出异常只记录日志，不阻塞后续事件。
+ * 游标在第一次发布时定位到启动前写入的最后一个事件，启动前的变更由订阅者自己从数据库加载；
+ * 启动和就绪过程不访问数据库，发件箱关闭时也不会定位游标。
+ */
+@Slf4j
+@Service
+public class UserOutboxServiceImpl implements UserOutboxService {
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    private static final String LEASE_NAME = "user_outbox_events";
+    
+    /**
+     * 进程内发布游标最多记录的空洞数
+     */
+    private static final int MAX_LOCAL_GAPS = 1000;
+    
+    /**
+     * 定位游标时启动时间往前多取的余量：created_at 为秒精度、各实例时钟有偏差，
+     * 多发布的几个事件按顺序到达，订阅者以最新快照覆盖，不会漏掉启动后的变更
+     */
+    private static final Duration LOCAL_CURSOR_MARGIN = Duration.ofSeconds(2);
+    
+    private final UserOutboxEventRepository outboxRepository;
+    private final OutboxLeaseRepository leaseRepository;
+    private final UserOutboxProperties properties;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<UserEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    
+    /**
+     * 本实例标识，作为投递租约的持有者
+     */
+    private final String instanceId =
+            ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    
+    /**
+     * 外部投递失败后的重试时间（System.nanoTime），backingOff 为 false 时无效
+     */
+    private long retryAtNanos;
+    private boolean backingOff;
+    
+    /**
+     * 服务创建时间，早于订阅者在 ApplicationReadyEvent 时从数据库加载状态
+     */
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    
+    /**
+     * 进程内发布游标：已读到的最大事件ID，以及其间跳过的ID和发现时间（System.nanoTime）
+     */
+    private boolean localCursorReady;
+    private long localCursor;
+    private final Map<Long, Long> localGaps = new HashMap<>();
+    
+    public UserOutboxServiceImpl(UserOutboxEventRepository outboxRepository,
+                                 OutboxLeaseRepository leaseRepository,
+                                 UserOutboxProperties properties,
+                                 EntityManager entityManager,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectProvider<UserEventSink> sinks,
+                                 PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.leaseRepository = leaseRepository;
+        this.properties = properties;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(User user, UserEventType type) {
+        entityManager.flush();
+        
+        UserOutboxEvent event = new UserOutboxEvent();
+        event.setUserId(user.getUserId());
+        event.setEventType(type);
+        event.setPayload(toPayload(user));
+        entityManager.persist(event);
+    }
+    
+    /**
+     * 定时投递任务
+     */
+    @Scheduled(initialDelayString = "${reader.outbox.interval:PT0.5S}",
+               fixedDelayString = "${reader.outbox.interval:PT0.5S}")
+    public void scheduledDispatch() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            publishLocal();
+        } catch (Exception e) {
+            log.error("发布用户变更事件失败", e);
+        }
+        try {
+            dispatchPending();
+        } catch (Exception e) {
+            log.error("投递用户变更事件失败", e);
+        }
+    }
+    
+    @Override
+    public synchronized int publishLocal() {
+        if (!localCursorReady) {
+            localCursor = outboxRepository.findFirstByCreatedAtBeforeOrderByEventIdDesc(startedAt.minus(LOCAL_CURSOR_MARGIN))
+                    .map(UserOutboxEvent::getEventId)
+                    .orElse(0L);
+            localCursorReady = true;
+        }
+        int published = 0;
+        if (!localGaps.isEmpty()) {
+            for (UserOutboxEvent outboxEvent : outboxRepository.findByEventIdInOrderByEventIdAsc(localGaps.keySet())) {
+                localGaps.remove(outboxEvent.getEventId());
+                publish(outboxEvent);
+                published++;
+            }
+            long expiredBefore = System.nanoTime() - properties.getGapTimeout().toNanos();
+            localGaps.values().removeIf(detectedAt -> detectedAt - expiredBefore < 0);
+        }
+        
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            List<UserOutboxEvent> events = outboxRepository.findByEventIdGreaterThanOrderByEventIdAsc(
+                    localCursor, Limit.of(properties.getBatchSize()));
+            long now = System.nanoTime();
+            for (UserOutboxEvent outboxEvent : events) {
+                // 跳号过多（如清理后重启、自增步长大于1）时不记录，视为已回滚
+                if (outboxEvent.getEventId() - localCursor - 1 <= MAX_LOCAL_GAPS - localGaps.size()) {
+                    for (long gap = localCursor + 1; gap < outboxEvent.getEventId(); gap++) {
+                        localGaps.put(gap, now);
+                    }
+                }
+                localCursor = outboxEvent.getEventId();
+                publish(outboxEvent);
+                published++;
+            }
+            if (events.size() < properties.getBatchSize()) {
+                break;
+            }
+        }
+        return published;
+    }
+    
+    /**
+     * 发布给进程内订阅者，失败只记录日志，订阅者自行决定是否重建状态
+     */
+    private void publish(UserOutboxEvent outboxEvent) {
+        try {
+            eventPublisher.publishEvent(toEvent(outboxEvent));
+        } catch (Exception e) {
+            log.error("进程内订阅者处理用户变更事件 {} 失败", outboxEvent.getEventId(), e);
+        }
+    }
+    
+    @Override
+    public synchronized int dispatchPending() {
+        if (backingOff && System.nanoTime() - retryAtNanos < 0) {
+            return 0;
+        }
+        backingOff = false;
+        
+        int total = 0;
+        for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+            // 每批前续期，租约被其他实例接管后立即停止
+            if (!acquireLease()) {
+                break;
+            }
+            List<UserOutboxEvent> pending = outboxRepository.findByDispatchedAtIsNullAndParkedAtIsNullOrderByEventIdAsc(
+                    Limit.of(properties.getBatchSize()));
+            if (pending.isEmpty()) {
+                break;
+            }
+            
+            int delivered = deliverBatch(pending);
+            total += delivered;
+            if (delivered < pending.size() || pending.size() < properties.getBatchSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * 续期或接管投递租约，租约行不存在时插入
+     * @return 本实例是否持有租约
+     */
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(properties.getLeaseDuration());
+        Integer updated = transactionTemplate.execute(status ->
+                leaseRepository.tryAcquire(LEASE_NAME, instanceId, now, leaseUntil));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+        if (leaseRepository.existsById(LEASE_NAME)) {
+            return false;
+        }
+        // 首次投递：并发插入时主键冲突的实例放弃本轮
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(new OutboxLease(LEASE_NAME, instanceId, leaseUntil));
+                entityManager.flush();
+            });
+            return true;
+        } catch (PersistenceException | DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 整批投递并标记；失败时逐条重试，返回按顺序成功（或搁置后越过）之前已标记的事件数
+     */
+    private int deliverBatch(List<UserOutboxEvent> pending) {
+        List<Long> eventIds = new ArrayList<>(pending.size());
+        try {
+            List<UserChangeEvent> events = new ArrayList<>(pending.size());
+            for (UserOutboxEvent outboxEvent : pending) {
+                events.add(toEvent(outboxEvent));
+                eventIds.add(outboxEvent.getEventId());
+            }
+            deliver(events);
+        } catch (Exception e) {
+            log.warn("用户变更事件整批投递失败，逐条重试: {}", e.toString());
+            return deliverEach(pending);
+        }
+        markDispatched(eventIds);
+        return pending.size();
+    }
+    
+    /**
+     * 逐条投递，遇到未达上限的失败即停止，下一轮从该事件重试；达到上限的事件搁置后继续
+     */
+    private int deliverEach(List<UserOutboxEvent> pending) {
+        int delivered = 0;
+        for (UserOutboxEvent outboxEvent : pending) {
+            try {
+                deliver(List.of(toEvent(outboxEvent)));
+            } catch (Exception e) {
+                if (recordFailure(outboxEvent, e)) {
+                    continue;
+                }
+                break;
+            }
+            markDispatched(List.of(outboxEvent.getEventId()));
+            delivered++;
+        }
+        return delivered;
+    }
+    
+    private void deliver(List<UserChangeEvent> events) throws Exception {
+        for (UserEventSink sink : sinks.orderedStream().toList()) {
+            sink.deliver(events);
+        }
+    }
+    
+    private void markDispatched(List<Long> eventIds) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.markDispatched(eventIds, now));
+    }
+    
+    /**
+     * 记录一次失败，达到上限时搁置，否则按失败次数指数退避
+     * @return 是否已搁置
+     */
+    private boolean recordFailure(UserOutboxEvent outboxEvent, Exception e) {
+        int attempts = outboxEvent.getAttempts() + 1;
+        boolean park = attempts >= properties.getMaxAttempts();
+        LocalDateTime parkedAt = park ? LocalDateTime.now() : null;
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.recordFailure(outboxEvent.getEventId(), truncate(e.toString()), parkedAt));
+        
+        if (park) {
+            log.error("用户变更事件 {} 已失败 {} 次，搁置后继续投递后续事件: {}", outboxEvent.getEventId(), attempts, e.toString());
+            return true;
+        }
+        long delay = backoffNanos(attempts);
+        retryAtNanos = System.nanoTime() + delay;
+        backingOff = true;
+        log.warn("用户变更事件 {} 第 {} 次投递失败，{} 毫秒后重试: {}",
+                outboxEvent.getEventId(), attempts, TimeUnit.NANOSECONDS.toMillis(delay), e.toString());
+        return false;
+    }
+    
+    private long backoffNanos(int attempts) {
+        long base = properties.getRetryBackoff().toNanos();
+        long max = properties.getMaxRetryBackoff().toNanos();
+        int shift = Math.min(attempts - 1, 62);
+        return base > (max >> shift) ? max : base << shift;
+    }
+    
+    /**
+     * 定时清理已投递事件
+     */
+    @Scheduled(initialDelayString = "${reader.outbox.purge-interval:PT1H}",
+               fixedDelayString = "${reader.outbox.purge-interval:PT1H}")
+    public void scheduledPurge() {
+        try {
+            purgeDispatched();
+        } catch (Exception e) {
+            log.error("清理已投递用户变更事件失败", e);
+        }
+    }
+    
+    @Override
+    public int purgeDispatched() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+        int total = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> eventIds = outboxRepository.findDispatchedIdsBefore(cutoff, Limit.of(properties.getPurgeBatchSize()));
+                return eventIds.isEmpty() ? 0 : outboxRepository.deleteByEventIds(eventIds);
+            });
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+            total += deleted;
+            if (deleted < properties.getPurgeBatchSize()) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("清理已投递用户变更事件: {} 条, 截止时间: {}", total, cutoff);
+        }
+        return total;
+    }
+    
+    private String toPayload(User user) {
+        UserDTO snapshot = new UserDTO();
+        BeanUtils.copyProperties(user, snapshot);
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("用户变更事件序列化失败", e);
+        }
+    }
+    
+    private UserChangeEvent toEvent(UserOutboxEvent outboxEvent) {
+        UserDTO snapshot = null;
+        if (outboxEvent.getPayload() != null) {
+            try {
+                snapshot = objectMapper.readValue(outboxEvent.getPayload(), UserDTO.class);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("用户变更事件反序列化失败: " + outboxEvent.getEventId(), e);
+            }
+        }
+        return new UserChangeEvent(outboxEvent.getEventId(), outboxEvent.getUserId(),
+                outboxEvent.getEventType(), snapshot, outboxEvent.getCreatedAt());
+    }
+    
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
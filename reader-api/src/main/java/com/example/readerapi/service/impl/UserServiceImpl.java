@@ -1,18 +1,37 @@
 package com.example.readerapi.service.impl;
 
+import com.example.readerapi.audit.AuditEventType;
+import com.example.readerapi.dto.UserFieldSet;
 import com.example.readerapi.entity.User;
+import com.example.readerapi.event.UserEventType;
+import com.example.readerapi.logging.LogEvents;
 import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.service.AuditLogService;
+import com.example.readerapi.service.LoginCounterService;
+import com.example.readerapi.service.LoginHistoryService;
+import com.example.readerapi.service.UserOutboxService;
 import com.example.readerapi.service.UserService;
+import com.example.readerapi.util.DatabaseErrorUtils;
+import com.example.readerapi.util.WebRequestUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * 用户服务实现类
@@ -24,6 +43,11 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
+    private final UserOutboxService userOutboxService;
+    private final AuditLogService auditLogService;
+    private final LoginHistoryService loginHistoryService;
+    private final LoginCounterService loginCounterService;
+    private final TransactionTemplate transactionTemplate;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
     // 删除标记常量
@@ -39,27 +63,33 @@ public class UserServiceImpl implements UserService {
     private static final Integer NOT_VERIFIED = 0;
     private static final Integer VERIFIED = 1;
     
+    /**
+     * 批量查找时每条 IN 查询最多包含的ID数
+     */
+    private static final int MULTI_GET_BATCH_SIZE = 100;
+    
+    // 流式输出每页读取的用户数
+    private static final int STREAM_PAGE_SIZE = 500;
+    
+    // 手机号唯一键（名称与 init_users_table.sql 一致）
+    private static final String UNIQUE_KEY_PHONE = "uk_phone";
+    
+    /**
+     * users 表唯一键 -> 冲突时的提示信息（恢复归档用户时 UserArchiveServiceImpl 也使用）
+     */
+    static final Map<String, String> UNIQUE_KEY_MESSAGES = Map.of(
+            "uk_username", "用户名已存在",
+            "uk_email", "邮箱已存在",
+            UNIQUE_KEY_PHONE, "手机号已存在");
+    
     @Override
-    @Transactional
     public User register(User user) {
-        log.info("开始注册用户: {}", user.getUsername());
-        
-        // 验证用户名是否已存在
-        if (existsByUsername(user.getUsername())) {
-            throw new RuntimeException("用户名已存在");
-        }
-        
-        // 验证邮箱是否已存在
-        if (existsByEmail(user.getEmail())) {
-            throw new RuntimeException("邮箱已存在");
-        }
-        
-        // 验证手机号是否已存在（如果提供了手机号）
-        if (StringUtils.hasText(user.getPhone()) && existsByPhone(user.getPhone())) {
-            throw new RuntimeException("手机号已存在");
+        // 空手机号存为NULL，不占用 uk_phone
+        if (!StringUtils.hasText(user.getPhone())) {
+            user.setPhone(null);
         }
         
-        // 加密密码
+        // 加密密码（BCrypt耗时数十毫秒，在事务外执行，不占用数据库连接）
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         
         // 设置默认值
@@ -70,16 +100,24 @@ public class UserServiceImpl implements UserService {
         user.setPhoneVerified(NOT_VERIFIED);
         user.setDeleted(NOT_DELETED);
         
-        User savedUser = userRepository.save(user);
-        log.info("用户注册成功: {}", savedUser.getUsername());
+        // 用户名、邮箱、手机号的唯一性由唯一键保证，不预先查询：正常注册只有一条 INSERT，并发注册也只有一个成功
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                User inserted = userRepository.saveAndFlush(user);
+                userOutboxService.record(inserted, UserEventType.REGISTERED);
+                return inserted;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateError(e, "手机号已存在");
+        }
+        log.info(LogEvents.USER_REGISTER, "用户注册成功 userId={} username={}", savedUser.getUserId(), savedUser.getUsername());
         return savedUser;
     }
     
     @Override
     @Transactional
     public User login(String username, String password) {
-        log.info("用户尝试登录: {}", username);
-        
         // 根据用户名或邮箱查找用户
         Optional<User> userOpt = findByUsername(username);
         if (userOpt.isEmpty()) {
@@ -87,7 +125,8 @@ public class UserServiceImpl implements UserService {
         }
         
         if (userOpt.isEmpty()) {
-            log.warn("登录失败，用户不存在: {}", username);
+            log.info(LogEvents.USER_LOGIN_FAILURE, "登录失败 username={} reason=not_found", username);
+            auditLogService.record(AuditEventType.LOGIN_FAILURE, null, username, "用户不存在");
             return null;
         }
         
@@ -95,17 +134,21 @@ public class UserServiceImpl implements UserService {
         
         // 检查用户状态
         if (!STATUS_NORMAL.equals(user.getStatus())) {
-            log.warn("登录失败，用户状态异常: {}, 状态: {}", username, user.getStatus());
+            log.info(LogEvents.USER_LOGIN_FAILURE, "登录失败 username={} userId={} reason=status status={}",
+                    username, user.getUserId(), user.getStatus());
+            auditLogService.record(AuditEventType.LOGIN_FAILURE, user.getUserId(), username, "用户状态异常: " + user.getStatus());
             return null;
         }
         
         // 验证密码
         if (!passwordEncoder.matches(password, user.getPassword())) {
-            log.warn("登录失败，密码错误: {}", username);
+            log.info(LogEvents.USER_LOGIN_FAILURE, "登录失败 username={} userId={} reason=bad_password", username, user.getUserId());
+            auditLogService.record(AuditEventType.LOGIN_FAILURE, user.getUserId(), username, "密码错误");
             return null;
         }
         
-        log.info("用户登录成功: {}", username);
+        log.info(LogEvents.USER_LOGIN, "登录成功 username={} userId={}", username, user.getUserId());
+        auditLogService.record(AuditEventType.LOGIN_SUCCESS, user.getUserId(), username, null);
         return user;
     }
     
@@ -115,9 +158,30 @@ public class UserServiceImpl implements UserService {
                 .filter(user -> NOT_DELETED.equals(user.getDeleted()));
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllById(List<Long> userIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        List<User> loaded = userRepository.findAllByIdInOrder(distinctIds, MULTI_GET_BATCH_SIZE);
+        Map<Long, User> found = new HashMap<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            User user = loaded.get(i);
+            if (user != null && NOT_DELETED.equals(user.getDeleted())) {
+                found.put(distinctIds.get(i), user);
+            }
+        }
+        List<User> users = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            users.add(found.get(userId));
+        }
+        return users;
+    }
+    
     @Override
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsernameAndDeleted(username, NOT_DELETED);
+        // 通过自然主键加载，命中缓存时不访问数据库
+        return userRepository.findByNaturalUsername(username)
+                .filter(user -> NOT_DELETED.equals(user.getDeleted()));
     }
     
     @Override
@@ -128,8 +192,6 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User updateUser(User user) {
-        log.info("更新用户信息: {}", user.getUserId());
-        
         Optional<User> existingUserOpt = findById(user.getUserId());
         if (existingUserOpt.isEmpty()) {
             throw new RuntimeException("用户不存在");
@@ -148,11 +210,7 @@ public class UserServiceImpl implements UserService {
             existingUser.setAvatarUrl(user.getAvatarUrl());
         }
         if (StringUtils.hasText(user.getPhone())) {
-            // 检查手机号是否已被其他用户使用
-            Optional<User> phoneUser = userRepository.findByPhoneAndDeleted(user.getPhone(), NOT_DELETED);
-            if (phoneUser.isPresent() && !phoneUser.get().getUserId().equals(user.getUserId())) {
-                throw new RuntimeException("手机号已被其他用户使用");
-            }
+            // 手机号是否已被其他用户使用由 uk_phone 判断
             existingUser.setPhone(user.getPhone());
             existingUser.setPhoneVerified(NOT_VERIFIED); // 重置手机验证状态
         }
@@ -160,16 +218,36 @@ public class UserServiceImpl implements UserService {
             existingUser.setRemark(user.getRemark());
         }
         
-        User updatedUser = userRepository.save(existingUser);
-        log.info("用户信息更新成功: {}", updatedUser.getUserId());
+        User updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(existingUser);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateError(e, "手机号已被其他用户使用");
+        }
+        userOutboxService.record(updatedUser, UserEventType.UPDATED);
+        log.info(LogEvents.USER_CHANGE, "用户信息更新成功 userId={} action=update", updatedUser.getUserId());
         return updatedUser;
     }
     
     @Override
     @Transactional
-    public boolean changePassword(Long userId, String oldPassword, String newPassword) {
-        log.info("用户修改密码: {}", userId);
+    public boolean updateAvatar(Long userId, String avatarUrl) {
+        Optional<User> userOpt = findById(userId);
+        if (userOpt.isEmpty()) {
+            return false;
+        }
         
+        User user = userOpt.get();
+        user.setAvatarUrl(avatarUrl);
+        userRepository.save(user);
+        userOutboxService.record(user, UserEventType.UPDATED);
+        log.info(LogEvents.USER_CHANGE, "用户头像更新成功 userId={} action=avatar", userId);
+        return true;
+    }
+    
+    @Override
+    @Transactional
+    public boolean changePassword(Long userId, String oldPassword, String newPassword) {
         Optional<User> userOpt = findById(userId);
         if (userOpt.isEmpty()) {
             return false;
@@ -179,23 +257,24 @@ public class UserServiceImpl implements UserService {
         
         // 验证旧密码
         if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
-            log.warn("修改密码失败，旧密码错误: {}", userId);
+            log.warn(LogEvents.USER_CHANGE, "修改密码失败 userId={} action=password reason=bad_password", userId);
+            auditLogService.record(AuditEventType.PASSWORD_CHANGE_FAILURE, userId, user.getUsername(), "旧密码错误");
             return false;
         }
         
         // 设置新密码
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userOutboxService.record(user, UserEventType.PASSWORD_CHANGED);
+        auditLogService.record(AuditEventType.PASSWORD_CHANGED, userId, user.getUsername(), null);
         
-        log.info("用户密码修改成功: {}", userId);
+        log.info(LogEvents.USER_CHANGE, "用户密码修改成功 userId={} action=password", userId);
         return true;
     }
     
     @Override
     @Transactional
     public boolean resetPassword(Long userId, String newPassword) {
-        log.info("重置用户密码: {}", userId);
-        
         Optional<User> userOpt = findById(userId);
         if (userOpt.isEmpty()) {
             return false;
@@ -204,49 +283,44 @@ public class UserServiceImpl implements UserService {
         User user = userOpt.get();
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userOutboxService.record(user, UserEventType.PASSWORD_RESET);
+        auditLogService.record(AuditEventType.PASSWORD_RESET, userId, user.getUsername(), null);
         
-        log.info("用户密码重置成功: {}", userId);
+        log.info(LogEvents.USER_CHANGE, "用户密码重置成功 userId={} action=password_reset", userId);
         return true;
     }
     
     @Override
-    @Transactional
     public void updateLastLogin(Long userId, String loginIp) {
-        Optional<User> userOpt = findById(userId);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.setLastLoginAt(LocalDateTime.now());
-            user.setLastLoginIp(loginIp);
-            user.setLoginCount(user.getLoginCount() + 1);
-            userRepository.save(user);
-            log.info("更新用户登录信息: {}, IP: {}", userId, loginIp);
-        }
+        // 只记录到内存，由 LoginCounterService 定期合并写入，登录不读取也不锁定用户行
+        loginCounterService.record(userId, loginIp);
+        loginHistoryService.record(userId, loginIp, WebRequestUtils.currentUserAgent());
+        log.debug("更新用户登录信息: {}, IP: {}", userId, loginIp);
     }
     
     @Override
     @Transactional
     public boolean enableUser(Long userId) {
-        return updateUserStatus(userId, STATUS_NORMAL, "启用");
+        return updateUserStatus(userId, STATUS_NORMAL, UserEventType.ENABLED, AuditEventType.USER_ENABLED, "启用");
     }
     
     @Override
     @Transactional
     public boolean disableUser(Long userId) {
-        return updateUserStatus(userId, STATUS_DISABLED, "禁用");
+        return updateUserStatus(userId, STATUS_DISABLED, UserEventType.DISABLED, AuditEventType.USER_DISABLED, "禁用");
     }
     
     @Override
     @Transactional
     public boolean lockUser(Long userId) {
-        return updateUserStatus(userId, STATUS_LOCKED, "锁定");
+        return updateUserStatus(userId, STATUS_LOCKED, UserEventType.LOCKED, AuditEventType.USER_LOCKED, "锁定");
     }
     
     /**
      * 更新用户状态的通用方法
      */
-    private boolean updateUserStatus(Long userId, Integer status, String operation) {
-        log.info("{}用户: {}", operation, userId);
-        
+    private boolean updateUserStatus(Long userId, Integer status, UserEventType eventType,
+                                     AuditEventType auditType, String operation) {
         Optional<User> userOpt = findById(userId);
         if (userOpt.isEmpty()) {
             return false;
@@ -255,16 +329,16 @@ public class UserServiceImpl implements UserService {
         User user = userOpt.get();
         user.setStatus(status);
         userRepository.save(user);
+        userOutboxService.record(user, eventType);
+        auditLogService.record(auditType, userId, user.getUsername(), null);
         
-        log.info("用户{}成功: {}", operation, userId);
+        log.info(LogEvents.USER_CHANGE, "用户{}成功 userId={} action=status status={}", operation, userId, status);
         return true;
     }
     
     @Override
     @Transactional
     public boolean deleteUser(Long userId) {
-        log.info("软删除用户: {}", userId);
-        
         Optional<User> userOpt = findById(userId);
         if (userOpt.isEmpty()) {
             return false;
@@ -272,9 +346,11 @@ public class UserServiceImpl implements UserService {
         
         User user = userOpt.get();
         user.setDeleted(DELETED);
+        user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        userOutboxService.record(user, UserEventType.DELETED);
         
-        log.info("用户软删除成功: {}", userId);
+        log.info(LogEvents.USER_CHANGE, "用户软删除成功 userId={} action=delete", userId);
         return true;
     }
     
@@ -294,8 +370,6 @@ public class UserServiceImpl implements UserService {
      * 更新验证状态的通用方法
      */
     private boolean updateVerificationStatus(Long userId, String type, String typeName) {
-        log.info("验证用户{}: {}", typeName, userId);
-        
         Optional<User> userOpt = findById(userId);
         if (userOpt.isEmpty()) {
             return false;
@@ -304,15 +378,32 @@ public class UserServiceImpl implements UserService {
         User user = userOpt.get();
         if ("email".equals(type)) {
             user.setEmailVerified(VERIFIED);
+            userRepository.save(user);
+            userOutboxService.record(user, UserEventType.EMAIL_VERIFIED);
         } else if ("phone".equals(type)) {
             user.setPhoneVerified(VERIFIED);
+            userRepository.save(user);
+            userOutboxService.record(user, UserEventType.PHONE_VERIFIED);
         }
-        userRepository.save(user);
         
-        log.info("用户{}验证成功: {}", typeName, userId);
+        log.info(LogEvents.USER_CHANGE, "用户{}验证成功 userId={} action=verify_{}", typeName, userId, type);
         return true;
     }
     
+    /**
+     * 把唯一键冲突转换为提示信息，其他完整性错误原样抛出
+     * @param e 完整性错误
+     * @param phoneMessage 手机号冲突时的提示
+     * @return 带提示信息的异常
+     */
+    private RuntimeException duplicateError(DataIntegrityViolationException e, String phoneMessage) {
+        String key = DatabaseErrorUtils.violatedUniqueKey(e, UNIQUE_KEY_MESSAGES.keySet());
+        if (key == null) {
+            return e;
+        }
+        return new RuntimeException(UNIQUE_KEY_PHONE.equals(key) ? phoneMessage : UNIQUE_KEY_MESSAGES.get(key));
+    }
+    
     @Override
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsernameAndDeleted(username, NOT_DELETED);
@@ -336,6 +427,43 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByDeletedOrderByCreatedAtDesc(NOT_DELETED);
     }
     
+    @Override
+    public List<Map<String, Object>> getAllUsers(UserFieldSet fields) {
+        return userRepository.findActiveProjected(fields);
+    }
+    
+    @Override
+    public void streamAllUsers(Consumer<User> action) {
+        streamPages((createdAt, userId) ->
+                userRepository.findActivePage(createdAt, userId, Limit.of(STREAM_PAGE_SIZE)), action);
+    }
+    
+    @Override
+    public void streamSearchUsers(String keyword, Consumer<User> action) {
+        streamPages((createdAt, userId) ->
+                userRepository.searchPage(keyword, createdAt, userId, Limit.of(STREAM_PAGE_SIZE)), action);
+    }
+    
+    /**
+     * 按键集逐页读取并回调
+     * 每页查询是一个独立的只读事务，查询结束即归还连接；回调（写出到客户端）期间不占用数据库连接，
+     * 慢客户端只拖住自己的输出线程，不会耗尽连接池
+     */
+    private void streamPages(BiFunction<LocalDateTime, Long, List<User>> pageLoader, Consumer<User> action) {
+        LocalDateTime createdAt = UserRepository.STREAM_FIRST_CREATED_AT;
+        long userId = UserRepository.STREAM_FIRST_USER_ID;
+        List<User> page;
+        do {
+            page = pageLoader.apply(createdAt, userId);
+            page.forEach(action);
+            if (!page.isEmpty()) {
+                User last = page.get(page.size() - 1);
+                createdAt = last.getCreatedAt();
+                userId = last.getUserId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+    
     @Override
     public List<User> getUsersByStatus(Integer status) {
         return userRepository.findByStatusAndDeletedOrderByCreatedAtDesc(status, NOT_DELETED);
@@ -351,6 +479,11 @@ public class UserServiceImpl implements UserService {
         return userRepository.searchUsers(keyword);
     }
     
+    @Override
+    public List<Map<String, Object>> searchUsers(String keyword, UserFieldSet fields) {
+        return userRepository.searchProjected(keyword, fields);
+    }
+    
     @Override
     public List<User> getUsersByRegistrationTime(LocalDateTime startTime, LocalDateTime endTime) {
         return userRepository.findByCreatedAtBetween(startTime, endTime);
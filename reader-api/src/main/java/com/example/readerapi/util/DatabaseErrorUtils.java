@@ -0,0 +1,61 @@
+package com.example.readerapi.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * 数据库异常工具类
+ */
+public final class DatabaseErrorUtils {
+    
+    private DatabaseErrorUtils() {
+    }
+    
+    /**
+     * 判断异常是否由获取数据库连接超时引起（连接池耗尽或数据库不可达）
+     * HikariCP 在 connection-timeout 内拿不到连接时抛出 SQLTransientConnectionException，
+     * 经 Hibernate / Spring 层层包装后只能沿 cause 链查找
+     * @param e 异常
+     * @return 是否为获取连接超时
+     */
+    public static boolean isConnectionUnavailable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 找出违反的唯一键
+     * 约束名由 Hibernate 从驱动的错误信息中解析（MySQL 为 "users.uk_username"），解析不到时再匹配原始错误信息
+     * @param e 异常
+     * @param keys 候选的唯一键名（小写）
+     * @return 违反的唯一键名，不是这些唯一键引起的异常时返回 null
+     */
+    public static String violatedUniqueKey(Throwable e, Collection<String> keys) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String text = null;
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                text = violation.getConstraintName();
+            } else if (cause instanceof SQLException) {
+                text = cause.getMessage();
+            }
+            if (text == null) {
+                continue;
+            }
+            String lower = text.toLowerCase(Locale.ROOT);
+            for (String key : keys) {
+                if (lower.contains(key)) {
+                    return key;
+                }
+            }
+        }
+        return null;
+    }
+}
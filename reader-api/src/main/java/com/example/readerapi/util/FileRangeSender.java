@@ -0,0 +1,154 @@
+package com.example.readerapi.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 文件响应输出工具类，支持单段 HTTP Range
+ *
+ * send: 文件内容优先交给 Tomcat 的 sendfile（请求属性 org.apache.tomcat.sendfile.*）：
+ * 处理器返回后由容器用 FileChannel.transferTo 直接从页缓存写入套接字，不经过用户态缓冲区，
+ * 也不占用请求线程。容器不支持时退化为在当前线程 transferTo 到响应输出流。
+ * sendMapped: 在当前线程按段内存映射文件并写出，方法返回时传输已经结束，
+ * 适用于需要在传输结束后释放资源（如并发下载名额）的场景；文件内容不复制到堆上。
+ */
+public final class FileRangeSender {
+    
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    /**
+     * sendMapped 每次映射的长度
+     */
+    private static final long MAPPED_CHUNK_SIZE = 4L * 1024 * 1024;
+    
+    private FileRangeSender() {
+    }
+    
+    /**
+     * 输出文件内容，调用前应设置好 Content-Type、ETag、Cache-Control 等头
+     * @param request HTTP请求
+     * @param response HTTP响应
+     * @param file 文件路径
+     * @param length 文件长度
+     * @param content 已缓存在内存中的文件内容，没有时为null
+     * @throws IOException 写出失败
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response,
+                            Path file, long length, byte[] content) throws IOException {
+        long[] range = resolveRange(request, response, length);
+        if (range == null) {
+            return;
+        }
+        long start = range[0];
+        long end = range[1];
+        
+        if (content != null) {
+            response.getOutputStream().write(content, (int) start, (int) (end - start + 1));
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position <= end) {
+                    position += channel.transferTo(position, end + 1 - position, out);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 在当前线程以内存映射方式输出文件内容，返回时内容已全部写出
+     * 调用前应设置好 Content-Type、ETag、Cache-Control 等头
+     * @param request HTTP请求
+     * @param response HTTP响应
+     * @param file 文件路径
+     * @param length 文件长度
+     * @throws IOException 写出失败（包括客户端断开）
+     */
+    public static void sendMapped(HttpServletRequest request, HttpServletResponse response,
+                                  Path file, long length) throws IOException {
+        long[] range = resolveRange(request, response, length);
+        if (range == null) {
+            return;
+        }
+        long start = range[0];
+        long end = range[1];
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position <= end; position += MAPPED_CHUNK_SIZE) {
+                long size = Math.min(MAPPED_CHUNK_SIZE, end + 1 - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 解析 Range 并写出状态码、Content-Range、Content-Length
+     * @return 要输出的闭区间 [start, end]；没有内容需要输出（HEAD、空文件、416）时返回null
+     */
+    private static long[] resolveRange(HttpServletRequest request, HttpServletResponse response,
+                                       long length) {
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && matchesIfRange(request, response)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // 多段范围按规范可以返回完整内容
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        throw new IllegalArgumentException("Range不可满足: " + rangeHeader);
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                // 不走错误页：响应已设置了文件的 Content-Type
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setContentLength(0);
+                return null;
+            }
+        }
+        
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return null;
+        }
+        return new long[]{start, end};
+    }
+    
+    /**
+     * If-Range 与当前 ETag 不一致时忽略 Range，返回完整内容
+     */
+    private static boolean matchesIfRange(HttpServletRequest request, HttpServletResponse response) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        return ifRange == null || ifRange.equals(response.getHeader(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.readerapi.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Web请求工具类
+ */
+public final class WebRequestUtils {
+    
+    private WebRequestUtils() {
+    }
+    
+    /**
+     * 获取客户端IP地址，优先取反向代理传递的 X-Forwarded-For / X-Real-IP
+     * @param request HTTP请求
+     * @return 客户端IP
+     */
+    public static String getClientIpAddress(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+        
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
+            return xRealIp;
+        }
+        
+        return request.getRemoteAddr();
+    }
+    
+    /**
+     * 获取当前线程所处理请求的客户端IP，供服务层使用
+     * @return 客户端IP，不在请求线程中时返回null
+     */
+    public static String currentClientIpAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return getClientIpAddress(servletAttributes.getRequest());
+        }
+        return null;
+    }
+    
+    /**
+     * 获取当前线程所处理请求的 User-Agent
+     * @return User-Agent，不在请求线程中时返回null
+     */
+    public static String currentUserAgent() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest().getHeader("User-Agent");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+-- 图书表初始化脚本
+-- 适用于MySQL数据库
+
+-- 创建图书表
+-- 列表浏览按 (publication_date DESC, book_id DESC) 键集分页，每种浏览方式一个覆盖索引：
+-- 等值条件列在前，排序列居中，列表投影（BookSummary）所需的其余列在后，浏览查询只扫描索引（EXPLAIN 中为 Using index）
+CREATE TABLE IF NOT EXISTS `books` (
+    `book_id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '图书ID，主键自增',
+    `isbn` VARCHAR(20) DEFAULT NULL COMMENT 'ISBN，唯一',
+    `title` VARCHAR(200) NOT NULL COMMENT '书名',
+    `author` VARCHAR(100) NOT NULL COMMENT '作者',
+    `publisher` VARCHAR(100) DEFAULT NULL COMMENT '出版社',
+    `category` VARCHAR(50) NOT NULL COMMENT '分类',
+    `publication_date` DATE NOT NULL COMMENT '出版日期',
+    `page_count` INT DEFAULT NULL COMMENT '页数',
+    `cover_url` VARCHAR(500) DEFAULT NULL COMMENT '封面URL',
+    `description` TEXT DEFAULT NULL COMMENT '简介，只在详情中读取',
+    `file_hash` CHAR(64) DEFAULT NULL COMMENT '图书文件内容SHA-256，未上传时为空',
+    `file_format` VARCHAR(10) DEFAULT NULL COMMENT '图书文件格式：epub、pdf、txt',
+    `file_size` BIGINT DEFAULT NULL COMMENT '图书文件大小（字节）',
+    `status` INT NOT NULL DEFAULT 1 COMMENT '图书状态：0-下架，1-上架',
+    `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (`book_id`),
+    UNIQUE KEY `uk_isbn` (`isbn`),
+    -- GET /api/books?category=
+    KEY `idx_category_browse` (`category`, `status`, `publication_date`, `book_id`, `title`, `author`, `isbn`),
+    -- GET /api/books?author=
+    KEY `idx_author_browse` (`author`, `status`, `publication_date`, `book_id`, `title`, `category`, `isbn`),
+    -- GET /api/books
+    KEY `idx_published_browse` (`status`, `publication_date`, `book_id`, `title`, `author`, `category`, `isbn`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='图书表';
+
+-- 创建阅读进度表（每个用户每本书一行，由应用在内存中合并上报后定期批量 upsert）
+CREATE TABLE IF NOT EXISTS `reading_progress` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `book_id` BIGINT NOT NULL COMMENT '图书ID',
+    `position` BIGINT NOT NULL COMMENT '阅读位置（客户端定义的偏移量）',
+    `percent` DOUBLE NOT NULL COMMENT '阅读百分比（0-100）',
+    `updated_at` DATETIME NOT NULL COMMENT '上报时间（服务端接收时间）',
+
+    PRIMARY KEY (`user_id`, `book_id`),
+    KEY `idx_user_updated_at` (`user_id`, `updated_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='阅读进度表';
+
+-- 创建书架表（每个用户每本书一行）
+-- 书架列表按 idx_user_last_opened 倒序扫描，与 books、reading_progress 按主键关联，不需要排序（EXPLAIN 中没有 Using filesort）
+CREATE TABLE IF NOT EXISTS `bookshelf` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `book_id` BIGINT NOT NULL COMMENT '图书ID',
+    `status` INT NOT NULL COMMENT '阅读状态：0-想读，1-在读，2-读完',
+    `rating` INT DEFAULT NULL COMMENT '评分（1-5）',
+    `added_at` DATETIME(3) NOT NULL COMMENT '加入书架时间',
+    `last_opened_at` DATETIME(3) NOT NULL COMMENT '最近打开时间，加入时等于加入时间',
+
+    PRIMARY KEY (`user_id`, `book_id`),
+    KEY `idx_user_last_opened` (`user_id`, `last_opened_at`, `book_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='书架表';
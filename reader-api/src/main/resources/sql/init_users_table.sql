@@ -7,7 +7,7 @@ CREATE TABLE IF NOT EXISTS `users` (
     `username` VARCHAR(50) NOT NULL COMMENT '用户名，唯一',
     `password` VARCHAR(255) NOT NULL COMMENT '密码，BCrypt加密存储',
     `email` VARCHAR(100) NOT NULL COMMENT '邮箱，唯一',
-    `phone` VARCHAR(20) DEFAULT NULL COMMENT '手机号',
+    `phone` VARCHAR(20) DEFAULT NULL COMMENT '手机号，唯一（可为空）',
     `real_name` VARCHAR(50) DEFAULT NULL COMMENT '真实姓名',
     `nickname` VARCHAR(50) DEFAULT NULL COMMENT '昵称',
     `avatar_url` VARCHAR(500) DEFAULT NULL COMMENT '头像URL',
@@ -22,18 +22,73 @@ CREATE TABLE IF NOT EXISTS `users` (
     `phone_verified` INT NOT NULL DEFAULT 0 COMMENT '手机验证状态：0-未验证，1-已验证',
     `remark` VARCHAR(500) DEFAULT NULL COMMENT '备注信息',
     `deleted` INT NOT NULL DEFAULT 0 COMMENT '软删除标记：0-未删除，1-已删除',
+    `deleted_at` DATETIME DEFAULT NULL COMMENT '软删除时间，归档任务按此计算保留期',
     
     PRIMARY KEY (`user_id`),
     UNIQUE KEY `uk_username` (`username`),
     UNIQUE KEY `uk_email` (`email`),
-    KEY `idx_phone` (`phone`),
+    UNIQUE KEY `uk_phone` (`phone`),
     KEY `idx_status` (`status`),
     KEY `idx_role` (`role`),
     KEY `idx_created_at` (`created_at`),
     KEY `idx_last_login_at` (`last_login_at`),
-    KEY `idx_deleted` (`deleted`)
+    KEY `idx_deleted_deleted_at` (`deleted`, `deleted_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户表';
 
+-- 创建用户归档表（保存超过保留期的软删除用户，由后台任务从users表分批迁移）
+CREATE TABLE IF NOT EXISTS `users_archive` (
+    `user_id` BIGINT NOT NULL COMMENT '用户ID，与原users表一致',
+    `username` VARCHAR(50) NOT NULL COMMENT '用户名',
+    `password` VARCHAR(255) NOT NULL COMMENT '密码，BCrypt加密存储',
+    `email` VARCHAR(100) NOT NULL COMMENT '邮箱',
+    `phone` VARCHAR(20) DEFAULT NULL COMMENT '手机号',
+    `real_name` VARCHAR(50) DEFAULT NULL COMMENT '真实姓名',
+    `nickname` VARCHAR(50) DEFAULT NULL COMMENT '昵称',
+    `avatar_url` VARCHAR(500) DEFAULT NULL COMMENT '头像URL',
+    `status` INT NOT NULL DEFAULT 1 COMMENT '用户状态：0-禁用，1-正常，2-锁定',
+    `role` INT NOT NULL DEFAULT 0 COMMENT '用户角色：0-普通用户，1-管理员，2-超级管理员',
+    `created_at` DATETIME NOT NULL COMMENT '注册时间',
+    `updated_at` DATETIME NOT NULL COMMENT '更新时间',
+    `last_login_at` DATETIME DEFAULT NULL COMMENT '最后登录时间',
+    `last_login_ip` VARCHAR(45) DEFAULT NULL COMMENT '最后登录IP',
+    `login_count` INT NOT NULL DEFAULT 0 COMMENT '登录次数',
+    `email_verified` INT NOT NULL DEFAULT 0 COMMENT '邮箱验证状态：0-未验证，1-已验证',
+    `phone_verified` INT NOT NULL DEFAULT 0 COMMENT '手机验证状态：0-未验证，1-已验证',
+    `remark` VARCHAR(500) DEFAULT NULL COMMENT '备注信息',
+    `deleted_at` DATETIME DEFAULT NULL COMMENT '软删除时间',
+    `archived_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+    
+    PRIMARY KEY (`user_id`),
+    KEY `idx_username` (`username`),
+    KEY `idx_email` (`email`),
+    KEY `idx_archived_at` (`archived_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户归档表';
+
+-- 创建用户变更发件箱表（与users表的修改同事务写入，由后台任务按event_id顺序投递）
+CREATE TABLE IF NOT EXISTS `user_outbox_events` (
+    `event_id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '事件ID，决定投递顺序',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `event_type` VARCHAR(32) NOT NULL COMMENT '事件类型：REGISTERED、UPDATED、DELETED等',
+    `payload` VARCHAR(4000) DEFAULT NULL COMMENT '变更后的用户快照JSON（不含密码）',
+    `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `dispatched_at` DATETIME DEFAULT NULL COMMENT '投递完成时间，NULL表示待投递',
+    `parked_at` DATETIME DEFAULT NULL COMMENT '搁置时间，失败次数达到上限后不再投递，置为NULL可重新投递',
+    `attempts` INT NOT NULL DEFAULT 0 COMMENT '投递失败次数',
+    `last_error` VARCHAR(500) DEFAULT NULL COMMENT '最近一次投递失败原因',
+    
+    PRIMARY KEY (`event_id`),
+    KEY `idx_dispatched_parked_event_id` (`dispatched_at`, `parked_at`, `event_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户变更发件箱表';
+
+-- 发件箱投递租约：持有未过期租约的实例才向 UserEventSink 投递，其他实例只做进程内发布
+CREATE TABLE IF NOT EXISTS `outbox_leases` (
+    `lease_name` VARCHAR(64) NOT NULL COMMENT '租约名称，如 user_outbox_events',
+    `owner` VARCHAR(128) NOT NULL COMMENT '当前持有者（实例标识）',
+    `lease_until` DATETIME NOT NULL COMMENT '租约到期时间，过期后其他实例可接管',
+    
+    PRIMARY KEY (`lease_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='发件箱投递租约表';
+
 -- 插入默认管理员用户（密码为：admin123，已使用BCrypt加密）
 INSERT INTO `users` (
     `username`, 
@@ -92,6 +147,7 @@ INSERT INTO `users` (
     `nickname` = new_values.`nickname`;
 
 -- 创建用户登录日志表（可选，用于记录详细的登录历史）
+-- 不设到 users 的外键：归档任务会物理删除 users 行，级联删除会丢掉日志，恢复用户后也找不回
 CREATE TABLE IF NOT EXISTS `user_login_logs` (
     `log_id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '日志ID',
     `user_id` BIGINT NOT NULL COMMENT '用户ID',
@@ -105,12 +161,27 @@ CREATE TABLE IF NOT EXISTS `user_login_logs` (
     KEY `idx_user_id` (`user_id`),
     KEY `idx_login_time` (`login_time`),
     KEY `idx_login_ip` (`login_ip`),
-    KEY `idx_login_status` (`login_status`),
-    
-    FOREIGN KEY (`user_id`) REFERENCES `users`(`user_id`) ON DELETE CASCADE
+    KEY `idx_login_status` (`login_status`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户登录日志表';
 
+-- 创建用户登录历史表（按 login_at 每月一个分区，分区键必须包含在主键中，分区表不支持外键）
+-- 应用启动时及每天自动从 pmax 拆出未来月份的分区（pYYYYMM），并 DROP 超过保留期的分区
+CREATE TABLE IF NOT EXISTS `user_login_history` (
+    `history_id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `login_at` DATETIME(3) NOT NULL COMMENT '登录时间（分区键）',
+    `login_ip` VARCHAR(45) DEFAULT NULL COMMENT '登录IP',
+    `user_agent` VARCHAR(255) DEFAULT NULL COMMENT '用户代理信息',
+    
+    PRIMARY KEY (`history_id`, `login_at`),
+    KEY `idx_user_login_at` (`user_id`, `login_at`, `history_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户登录历史表（按月分区）'
+PARTITION BY RANGE COLUMNS (`login_at`) (
+    PARTITION `pmax` VALUES LESS THAN (MAXVALUE)
+);
+
 -- 创建用户会话表（可选，用于管理用户会话）
+-- 与 user_login_logs 相同，不设到 users 的外键，用户归档、恢复时会话记录保持不变
 CREATE TABLE IF NOT EXISTS `user_sessions` (
     `session_id` VARCHAR(128) NOT NULL COMMENT '会话ID',
     `user_id` BIGINT NOT NULL COMMENT '用户ID',
@@ -124,9 +195,7 @@ CREATE TABLE IF NOT EXISTS `user_sessions` (
     PRIMARY KEY (`session_id`),
     KEY `idx_user_id` (`user_id`),
     KEY `idx_expires_at` (`expires_at`),
-    KEY `idx_is_active` (`is_active`),
-    
-    FOREIGN KEY (`user_id`) REFERENCES `users`(`user_id`) ON DELETE CASCADE
+    KEY `idx_is_active` (`is_active`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户会话表';
 
 -- 添加表注释和字段注释的完整性检查（可选，在需要时手动执行）
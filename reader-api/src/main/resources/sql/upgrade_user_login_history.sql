@@ -0,0 +1,18 @@
+-- 用户登录历史升级脚本
+-- 适用于已按旧版 init_users_table.sql 建表的数据库，新库直接执行 init_users_table.sql 即可
+
+-- 与 init_users_table.sql 中的 user_login_history 定义一致，可重复执行
+-- 只需建出 pmax 分区，月分区由应用启动时的分区维护任务创建
+CREATE TABLE IF NOT EXISTS `user_login_history` (
+    `history_id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `login_at` DATETIME(3) NOT NULL COMMENT '登录时间（分区键）',
+    `login_ip` VARCHAR(45) DEFAULT NULL COMMENT '登录IP',
+    `user_agent` VARCHAR(255) DEFAULT NULL COMMENT '用户代理信息',
+    
+    PRIMARY KEY (`history_id`, `login_at`),
+    KEY `idx_user_login_at` (`user_id`, `login_at`, `history_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户登录历史表（按月分区）'
+PARTITION BY RANGE COLUMNS (`login_at`) (
+    PARTITION `pmax` VALUES LESS THAN (MAXVALUE)
+);
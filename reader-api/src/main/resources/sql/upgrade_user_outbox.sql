@@ -0,0 +1,34 @@
+-- 用户变更发件箱升级脚本
+-- 适用于已按旧版 init_users_table.sql 建表的数据库，新库直接执行 init_users_table.sql 即可
+
+-- 1. 与 init_users_table.sql 中的 user_outbox_events、outbox_leases 定义一致，可重复执行
+CREATE TABLE IF NOT EXISTS `user_outbox_events` (
+    `event_id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '事件ID，决定投递顺序',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `event_type` VARCHAR(32) NOT NULL COMMENT '事件类型：REGISTERED、UPDATED、DELETED等',
+    `payload` VARCHAR(4000) DEFAULT NULL COMMENT '变更后的用户快照JSON（不含密码）',
+    `created_at` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `dispatched_at` DATETIME DEFAULT NULL COMMENT '投递完成时间，NULL表示待投递',
+    `parked_at` DATETIME DEFAULT NULL COMMENT '搁置时间，失败次数达到上限后不再投递，置为NULL可重新投递',
+    `attempts` INT NOT NULL DEFAULT 0 COMMENT '投递失败次数',
+    `last_error` VARCHAR(500) DEFAULT NULL COMMENT '最近一次投递失败原因',
+    
+    PRIMARY KEY (`event_id`),
+    KEY `idx_dispatched_parked_event_id` (`dispatched_at`, `parked_at`, `event_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户变更发件箱表';
+
+-- 发件箱投递租约：持有未过期租约的实例才向 UserEventSink 投递，其他实例只做进程内发布
+CREATE TABLE IF NOT EXISTS `outbox_leases` (
+    `lease_name` VARCHAR(64) NOT NULL COMMENT '租约名称，如 user_outbox_events',
+    `owner` VARCHAR(128) NOT NULL COMMENT '当前持有者（实例标识）',
+    `lease_until` DATETIME NOT NULL COMMENT '租约到期时间，过期后其他实例可接管',
+    
+    PRIMARY KEY (`lease_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='发件箱投递租约表';
+
+-- 2. 已按旧版本脚本建出 user_outbox_events 的数据库：增加搁置时间，待投递索引加入 parked_at（第1步新建的表无需执行）
+ALTER TABLE `user_outbox_events`
+    ADD COLUMN `parked_at` DATETIME DEFAULT NULL COMMENT '搁置时间，失败次数达到上限后不再投递，置为NULL可重新投递' AFTER `dispatched_at`,
+    DROP INDEX `idx_dispatched_at_event_id`,
+    ADD KEY `idx_dispatched_parked_event_id` (`dispatched_at`, `parked_at`, `event_id`),
+    ALGORITHM=INPLACE, LOCK=NONE;
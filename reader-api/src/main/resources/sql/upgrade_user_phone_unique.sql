@@ -0,0 +1,19 @@
+-- 手机号唯一键升级脚本
+-- 适用于已按旧版 init_users_table.sql 建表的数据库，新库直接执行 init_users_table.sql 即可
+-- 注册不再预先查询用户名、邮箱、手机号是否已存在，而是由唯一键拒绝重复，应用按唯一键名（uk_username、uk_email、uk_phone）返回提示
+
+-- 1. 检查重复的手机号（含已软删除的用户），须先人工处理，否则第3步失败
+SELECT `phone`, COUNT(*) AS `cnt`, GROUP_CONCAT(`user_id`) AS `user_ids`
+FROM `users`
+WHERE `phone` IS NOT NULL
+GROUP BY `phone`
+HAVING COUNT(*) > 1;
+
+-- 2. 空字符串改为NULL（NULL不参与唯一性判断）
+UPDATE `users` SET `phone` = NULL WHERE `phone` = '';
+
+-- 3. 普通索引替换为唯一键
+ALTER TABLE `users`
+    DROP INDEX `idx_phone`,
+    ADD UNIQUE KEY `uk_phone` (`phone`),
+    ALGORITHM=INPLACE, LOCK=NONE;
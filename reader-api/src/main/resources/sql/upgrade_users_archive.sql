@@ -0,0 +1,28 @@
+-- 用户归档升级脚本
+-- 适用于已按旧版 init_users_table.sql 建表的数据库，新库直接执行 init_users_table.sql 即可
+
+-- 1. 增加软删除时间；软删除标记单列索引区分度极低，替换为归档任务使用的 (deleted, deleted_at) 组合索引
+ALTER TABLE `users`
+    ADD COLUMN `deleted_at` DATETIME DEFAULT NULL COMMENT '软删除时间，归档任务按此计算保留期' AFTER `deleted`,
+    DROP INDEX `idx_deleted`,
+    ADD INDEX `idx_deleted_deleted_at` (`deleted`, `deleted_at`),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- 2. 归档会物理删除 users 行，去掉登录日志、会话表的级联外键，归档和恢复都不影响这两张表的记录
+--    须在启用归档任务（reader.archive.enabled）之前执行；外键名为建表时自动生成，可用 SHOW CREATE TABLE 确认
+ALTER TABLE `user_login_logs`
+    DROP FOREIGN KEY `user_login_logs_ibfk_1`,
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE `user_sessions`
+    DROP FOREIGN KEY `user_sessions_ibfk_1`,
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- 3. 已软删除的用户以 updated_at 近似删除时间；显式赋值 updated_at 避免 ON UPDATE 把它刷新为当前时间
+--    deleted_at 为空的行不会被归档，可在部署新版本后分批执行，重复执行直到影响行数为0
+UPDATE `users`
+SET `deleted_at` = `updated_at`, `updated_at` = `updated_at`
+WHERE `deleted` = 1 AND `deleted_at` IS NULL
+LIMIT 1000;
+
+-- 4. 用户归档表结构见 init_users_table.sql 中的 users_archive（CREATE TABLE IF NOT EXISTS，可重复执行）
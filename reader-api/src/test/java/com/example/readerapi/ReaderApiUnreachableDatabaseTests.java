@@ -0,0 +1,38 @@
+package com.example.readerapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 数据库不可达时的启动测试
+ * 启动和就绪不依赖数据库：任何Bean初始化或 ApplicationReadyEvent 同步监听器访问数据库都会使上下文启动失败
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:tcp://127.0.0.1:1/unreachable",
+        "spring.datasource.hikari.connection-timeout=250",
+        "spring.datasource.hikari.initialization-fail-timeout=-1",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "reader.audit.directory=target/offline/audit",
+        "reader.avatar.directory=target/offline/avatars",
+        "reader.book-file.directory=target/offline/books",
+        "reader.search.directory=target/offline/search",
+        "reader.reading-progress.spill-file=target/offline/reading-progress/pending.tsv"
+})
+@ActiveProfiles("test")
+class ReaderApiUnreachableDatabaseTests {
+
+	@Autowired
+	private ApplicationAvailability availability;
+
+	@Test
+	void contextStartsAndIsReadyWithoutDatabase() {
+		assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+	}
+
+}
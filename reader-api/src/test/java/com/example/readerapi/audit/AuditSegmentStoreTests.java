@@ -0,0 +1,99 @@
+package com.example.readerapi.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计日志段文件与环形队列测试
+ */
+class AuditSegmentStoreTests {
+    
+    private static final int SEGMENT_SIZE = 4096;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recordsRoundTripAndFilterByUserAndTime() {
+        AuditSegmentStore store = new AuditSegmentStore(directory, SEGMENT_SIZE, 10);
+        store.append(new AuditRecord(1_000, 1, AuditEventType.LOGIN_SUCCESS, "10.0.0.1", "alice", null));
+        store.append(new AuditRecord(2_000, 2, AuditEventType.LOGIN_FAILURE, "10.0.0.2", "bob", "密码错误"));
+        store.append(new AuditRecord(3_000, 1, AuditEventType.USER_LOCKED, null, "alice", null));
+        
+        List<AuditRecord> all = store.scan(null, 0, Long.MAX_VALUE, 10);
+        assertThat(all).extracting(AuditRecord::timestamp).containsExactly(3_000L, 2_000L, 1_000L);
+        assertThat(all.get(1)).isEqualTo(new AuditRecord(2_000, 2, AuditEventType.LOGIN_FAILURE, "10.0.0.2", "bob", "密码错误"));
+        
+        assertThat(store.scan(1L, 0, Long.MAX_VALUE, 10)).extracting(AuditRecord::type)
+                .containsExactly(AuditEventType.USER_LOCKED, AuditEventType.LOGIN_SUCCESS);
+        assertThat(store.scan(1L, 1_500, 3_000, 10)).isEmpty();
+        assertThat(store.scan(null, 0, Long.MAX_VALUE, 2)).hasSize(2);
+    }
+    
+    @Test
+    void rotatesSegmentsAndKeepsNewestAfterReopen() {
+        AuditSegmentStore store = new AuditSegmentStore(directory, SEGMENT_SIZE, 3);
+        for (int i = 0; i < 500; i++) {
+            store.append(new AuditRecord(i, i % 5, AuditEventType.LOGIN_SUCCESS, "127.0.0.1", "user" + i, null));
+        }
+        store.close();
+        assertThat(store.segmentCount()).isEqualTo(3);
+        
+        // 重新打开后继续追加到最后一个段，最旧的记录已随段文件删除
+        AuditSegmentStore reopened = new AuditSegmentStore(directory, SEGMENT_SIZE, 3);
+        reopened.append(new AuditRecord(500, 0, AuditEventType.PASSWORD_RESET, null, "user500", null));
+        List<AuditRecord> records = reopened.scan(null, 0, Long.MAX_VALUE, Integer.MAX_VALUE);
+        assertThat(records.get(0).type()).isEqualTo(AuditEventType.PASSWORD_RESET);
+        assertThat(records).extracting(AuditRecord::timestamp).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(records.get(records.size() - 1).timestamp()).isGreaterThan(0);
+    }
+    
+    @Test
+    void ringBufferDeliversEveryRecordFromConcurrentProducers() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            long producerId = p;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    AuditRecord record = new AuditRecord(i, producerId, AuditEventType.LOGIN_SUCCESS, null, null, null);
+                    while (!buffer.offer(record)) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+        }
+        
+        start.countDown();
+        Set<String> seen = new HashSet<>();
+        long[] lastPerProducer = {-1, -1, -1, -1};
+        while (seen.size() < producers * perProducer) {
+            AuditRecord record = buffer.poll();
+            if (record == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // 同一生产者的记录保持放入顺序
+            assertThat(record.timestamp()).isGreaterThan(lastPerProducer[(int) record.userId()]);
+            lastPerProducer[(int) record.userId()] = record.timestamp();
+            seen.add(record.userId() + ":" + record.timestamp());
+        }
+        executor.shutdown();
+        assertThat(buffer.poll()).isNull();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.readerapi.config;
+
+import com.example.readerapi.dto.UserDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户列表响应的 JSON 与 CBOR 编解码开销
+ *
+ * 数据为与 GET /api/users 相同结构的 HashMap 响应，data 中每个用户为一个 UserDTO。
+ * write: 服务端序列化；read: 调用方把响应解析回 UserDTO 列表。
+ * 两种编码使用相同的 Jackson 配置（CborConfig.cborObjectMapper），启动时打印各自的响应大小。
+ * 运行：mvn -Pbenchmark test -DskipTests -Dbenchmark.include=CborSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CborSerializationBenchmark {
+    
+    private static final TypeReference<Envelope> ENVELOPE = new TypeReference<>() {
+    };
+    
+    @Param({"json", "cbor"})
+    public String format;
+    
+    @Param({"1", "100"})
+    public int users;
+    
+    private ObjectMapper mapper;
+    private Map<String, Object> response;
+    private byte[] encoded;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = "cbor".equals(format)
+                ? CborConfig.cborObjectMapper(Jackson2ObjectMapperBuilder.json())
+                : Jackson2ObjectMapperBuilder.json().build();
+        
+        List<UserDTO> data = new ArrayList<>(users);
+        LocalDateTime now = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+        for (int i = 0; i < users; i++) {
+            data.add(new UserDTO(10_000L + i, "reader_" + i, "reader_" + i + "@reader.com", "1380000" + (1000 + i),
+                    "读者" + i, "昵称" + i, "https://cdn.reader.com/avatars/" + i + ".png", 1, 0,
+                    now.minusDays(i), now.minusHours(i), now.minusMinutes(i), "192.168.1." + (i % 255), i,
+                    1, 0, null));
+        }
+        response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        response.put("total", data.size());
+        
+        encoded = mapper.writeValueAsBytes(response);
+        System.out.printf("%n[%s/%d] 响应大小 %d 字节%n", format, users, encoded.length);
+    }
+    
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public Envelope read() throws IOException {
+        return mapper.readValue(encoded, ENVELOPE);
+    }
+    
+    /**
+     * 调用方解析的列表响应
+     */
+    public static class Envelope {
+        public boolean success;
+        public List<UserDTO> data;
+        public int total;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.config.AvatarProperties;
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 头像上传与读取接口测试
+ * 上传时拒绝不支持的格式和超过像素上限的图片，同一张图片只存一份、缩略图只生成一次；
+ * 读取时只接受哈希文件名，支持 If-None-Match、单段 Range 与 If-Range
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AvatarControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AvatarProperties avatarProperties;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private Path directory;
+    private Long aliceId;
+    private Long bobId;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Paths.get(avatarProperties.getDirectory());
+        FileSystemUtils.deleteRecursively(directory);
+        userRepository.deleteAll();
+        aliceId = userRepository.save(user("alice")).getUserId();
+        bobId = userRepository.save(user("bob")).getUserId();
+    }
+    
+    @Test
+    void unsupportedFormatsAreRejected() throws Exception {
+        upload(aliceId, "avatar.txt", "不是图片".getBytes(StandardCharsets.UTF_8))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("不支持的图片格式"));
+        upload(aliceId, "avatar.bmp", image("bmp", 32, 32))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("不支持的图片格式: bmp"));
+        
+        assertThat(userRepository.findById(aliceId).orElseThrow().getAvatarUrl()).isNull();
+        assertThat(storedFiles()).isEmpty();
+    }
+    
+    @Test
+    void imagesOverPixelLimitAreRejected() throws Exception {
+        long maxPixels = avatarProperties.getMaxPixels();
+        avatarProperties.setMaxPixels(40 * 40);
+        try {
+            upload(aliceId, "avatar.png", image("png", 40, 41))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("图片尺寸过大"));
+            upload(aliceId, "avatar.png", image("png", 40, 40))
+                    .andExpect(status().isOk());
+        } finally {
+            avatarProperties.setMaxPixels(maxPixels);
+        }
+    }
+    
+    @Test
+    void sameImageIsStoredOnceAndThumbnailsAreGeneratedOnce() throws Exception {
+        byte[] png = image("png", 300, 200);
+        
+        String aliceUrl = avatarUrl(upload(aliceId, "a.png", png));
+        String name = aliceUrl.substring(aliceUrl.lastIndexOf('/') + 1);
+        String hash = name.substring(0, 32);
+        assertThat(name).isEqualTo(hash + "_" + avatarProperties.getDefaultSize() + ".jpg");
+        assertThat(storedFiles()).containsExactlyInAnyOrder(
+                hash + ".png", hash + "_64.jpg", hash + "_128.jpg", hash + "_256.jpg");
+        BufferedImage thumbnail = ImageIO.read(directory.resolve(hash.substring(0, 2)).resolve(hash + "_64.jpg").toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(64);
+        assertThat(thumbnail.getHeight()).isEqualTo(64);
+        
+        // 回拨修改时间，再次上传同一张图片（不同文件名、不同用户）不应重写任何文件
+        FileTime past = FileTime.fromMillis(1_000_000_000_000L);
+        for (Path file : storedPaths()) {
+            Files.setLastModifiedTime(file, past);
+        }
+        String bobUrl = avatarUrl(upload(bobId, "b.png", png));
+        
+        assertThat(bobUrl).isEqualTo(aliceUrl);
+        assertThat(storedPaths()).hasSize(4).allSatisfy(file -> assertThat(Files.getLastModifiedTime(file)).isEqualTo(past));
+        assertThat(userRepository.findById(bobId).orElseThrow().getAvatarUrl()).isEqualTo(aliceUrl);
+    }
+    
+    @Test
+    void namesOutsideHashPatternAreNotFound() throws Exception {
+        String name = avatarUrl(upload(aliceId, "a.png", image("png", 100, 100)));
+        name = name.substring(name.lastIndexOf('/') + 1);
+        String hash = name.substring(0, 32);
+        
+        mockMvc.perform(get("/api/avatars/{name}", name)).andExpect(status().isOk());
+        for (String invalid : List.of("avatar.jpg", hash.toUpperCase() + "_64.jpg", hash + "_12345.jpg",
+                hash + "_64.bmp", hash.substring(1) + "_64.jpg", "..%2F" + name)) {
+            mockMvc.perform(get("/api/avatars/" + invalid)).andExpect(status().isNotFound());
+        }
+        // 文件名合法但文件不存在
+        mockMvc.perform(get("/api/avatars/{name}", hash + "_32.jpg")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void conditionalAndRangeRequests() throws Exception {
+        byte[] png = image("png", 100, 100);
+        String thumbnail = avatarUrl(upload(aliceId, "a.png", png));
+        String original = thumbnail.substring(0, thumbnail.lastIndexOf('_')) + ".png";
+        
+        // 缩略图从内存缓存输出，原图从文件输出，两条路径行为一致
+        for (String url : List.of(thumbnail, original)) {
+            byte[] body = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                    .andReturn().getResponse().getContentAsByteArray();
+            int length = body.length;
+            String etag = "\"" + url.substring(url.lastIndexOf('/') + 1) + "\"";
+            if (url.equals(original)) {
+                assertThat(body).isEqualTo(png);
+            }
+            
+            mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().bytes(new byte[0]));
+            
+            mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=10-19"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + length))
+                    .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                    .andExpect(content().bytes(Arrays.copyOfRange(body, 10, 20)));
+            mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-5").header(HttpHeaders.IF_RANGE, etag))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(content().bytes(Arrays.copyOfRange(body, length - 5, length)));
+            
+            mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=" + length + "-"))
+                    .andExpect(status().isRequestedRangeNotSatisfiable())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + length))
+                    .andExpect(content().bytes(new byte[0]));
+            
+            // If-Range 与 ETag 不一致时忽略 Range，返回完整内容
+            mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=10-19").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                    .andExpect(content().bytes(body));
+        }
+    }
+    
+    private ResultActions upload(Long userId, String filename, byte[] content) throws Exception {
+        return mockMvc.perform(multipart("/api/users/{userId}/avatar", userId)
+                .file(new MockMultipartFile("file", filename, "application/octet-stream", content)));
+    }
+    
+    private String avatarUrl(ResultActions result) throws Exception {
+        String body = result.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("data").asText();
+    }
+    
+    private List<Path> storedPaths() throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+    
+    private List<String> storedFiles() throws IOException {
+        return storedPaths().stream().map(file -> file.getFileName().toString()).toList();
+    }
+    
+    /**
+     * 生成左右两色的图片，不同尺寸内容不同
+     */
+    private static byte[] image(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.ORANGE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setColor(Color.BLUE);
+            graphics.fillRect(width / 2, 0, width - width / 2, height);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(ImageIO.write(image, format, out)).isTrue();
+        return out.toByteArray();
+    }
+    
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret123");
+        user.setEmail(username + "@reader.com");
+        return user;
+    }
+}
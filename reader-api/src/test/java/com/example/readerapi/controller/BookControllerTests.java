@@ -0,0 +1,188 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.entity.Book;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.service.BookFileService;
+import com.example.readerapi.support.SqlStatementRecorder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 图书浏览与文件下载接口测试
+ * 游标分页需完整、无重复地遍历结果，列表查询不读取简介且不使用 OFFSET；
+ * 文件下载支持 Range 与 ETag，并发下载数超过上限时返回429
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookControllerTests {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BookFileService bookFileService;
+    
+    private final List<Book> fiction = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        bookRepository.deleteAll();
+        fiction.clear();
+        
+        // 每3本共用一个出版日期，验证同一日期内按ID翻页
+        for (int i = 0; i < 23; i++) {
+            Book book = book("小说" + i, "作者" + (i % 2), "fiction", LocalDate.of(2020, 1, 1).plusDays(i / 3));
+            fiction.add(bookRepository.save(book));
+        }
+        for (int i = 0; i < 5; i++) {
+            bookRepository.save(book("历史" + i, "作者0", "history", LocalDate.of(2021, 1, 1)));
+        }
+        Book offShelf = book("下架图书", "作者0", "fiction", LocalDate.of(2022, 1, 1));
+        offShelf.setStatus(0);
+        bookRepository.save(offShelf);
+        
+        SqlStatementRecorder.reset();
+    }
+    
+    @Test
+    void cursorPagesCoverCategoryInOrderWithoutDuplicates() throws Exception {
+        List<Long> expected = fiction.stream()
+                .sorted(Comparator.comparing(Book::getPublicationDate).thenComparing(Book::getBookId).reversed())
+                .map(Book::getBookId)
+                .toList();
+        
+        List<Long> actual = browseAll(() -> get("/api/books").param("category", "fiction").param("size", "4"));
+        
+        assertThat(actual).containsExactlyElementsOf(expected);
+        assertThat(SqlStatementRecorder.statements())
+                .allSatisfy(sql -> assertThat(sql.toLowerCase()).doesNotContain("description").doesNotContain("offset"));
+    }
+    
+    @Test
+    void browseByAuthorAndLatestOnlyReturnOnShelfBooks() throws Exception {
+        assertThat(browseAll(() -> get("/api/books").param("author", "作者0").param("size", "5"))).hasSize(12 + 5);
+        assertThat(browseAll(() -> get("/api/books").param("size", "7"))).hasSize(23 + 5);
+    }
+    
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/books").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/books").param("category", "fiction").param("author", "作者0"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void bookFileSupportsRangeEtagAndConcurrencyLimit() throws Exception {
+        Long bookId = fiction.get(0).getBookId();
+        byte[] text = "第一章 0123456789".getBytes(StandardCharsets.UTF_8);
+        mockMvc.perform(multipart("/api/books/{bookId}/file", bookId)
+                        .file(new MockMultipartFile("file", "book.txt", "text/plain", text)))
+                .andExpect(status().isOk());
+        
+        String etag = mockMvc.perform(get("/api/books/{bookId}/file", bookId))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(text))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/books/{bookId}/file", bookId).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-" + (text.length - 1) + "/" + text.length))
+                .andExpect(content().string("0123456789"));
+        // If-Range 与当前 ETag 不一致说明文件已变化，返回完整内容
+        mockMvc.perform(get("/api/books/{bookId}/file", bookId)
+                        .header(HttpHeaders.RANGE, "bytes=10-").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/{bookId}/file", bookId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        
+        // 占满 127.0.0.1 的下载名额后，换 userId 参数或伪造 X-Forwarded-For 都不能绕过，其他IP不受影响
+        assertThat(bookFileService.tryAcquireDownload("ip:127.0.0.1")).isTrue();
+        assertThat(bookFileService.tryAcquireDownload("ip:127.0.0.1")).isTrue();
+        try {
+            mockMvc.perform(get("/api/books/{bookId}/file", bookId))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+            mockMvc.perform(get("/api/books/{bookId}/file", bookId).param("userId", "8"))
+                    .andExpect(status().isTooManyRequests());
+            mockMvc.perform(get("/api/books/{bookId}/file", bookId).header("X-Forwarded-For", "10.0.0.9"))
+                    .andExpect(status().isTooManyRequests());
+            mockMvc.perform(get("/api/books/{bookId}/file", bookId).with(remoteAddr("10.0.0.8")))
+                    .andExpect(status().isOk());
+        } finally {
+            bookFileService.releaseDownload("ip:127.0.0.1");
+            bookFileService.releaseDownload("ip:127.0.0.1");
+        }
+        mockMvc.perform(get("/api/books/{bookId}/file", bookId))
+                .andExpect(status().isOk());
+    }
+    
+    /**
+     * 从首页开始按 nextCursor 翻页直到结束，返回全部图书ID
+     */
+    private List<Long> browseAll(Supplier<MockHttpServletRequestBuilder> page) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = page.get();
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode json = objectMapper.readTree(body);
+            json.get("data").forEach(item -> ids.add(item.get("bookId").asLong()));
+            cursor = json.get("nextCursor").isNull() ? null : json.get("nextCursor").asText();
+        } while (cursor != null);
+        return ids;
+    }
+    
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+    
+    private static Book book(String title, String author, String category, LocalDate publicationDate) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setCategory(category);
+        book.setPublicationDate(publicationDate);
+        book.setDescription("很长的简介");
+        return book;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 用户接口CBOR编码测试
+ * Accept: application/cbor 时返回与 JSON 结构相同的 CBOR，时间为定长整数数组；其他情况仍返回 JSON
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerCborTests {
+    
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword("secret123");
+        user.setEmail("alice@reader.com");
+        user.setNickname("爱丽丝");
+        userId = userRepository.save(user).getUserId();
+    }
+    
+    @Test
+    void cborResponseHasSameStructureAsJson() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/api/users/{userId}", userId).accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        String json = mockMvc.perform(get("/api/users/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        
+        JsonNode fromCbor = new CBORMapper().readTree(cbor);
+        JsonNode fromJson = objectMapper.readTree(json);
+        assertThat(fromCbor.get("data").get("username").asText()).isEqualTo("alice");
+        assertThat(fromCbor.get("data").get("password").isNull()).isTrue();
+        assertThat(fromCbor.get("data").get("createdAt").size()).isEqualTo(7);
+        assertThat(fromJson.get("data").get("createdAt").isTextual()).isTrue();
+        
+        // 除时间外字段和取值一致
+        for (JsonNode node : new JsonNode[]{fromCbor, fromJson}) {
+            ((ObjectNode) node.get("data")).remove(List.of("createdAt", "updatedAt"));
+        }
+        assertThat(fromCbor).isEqualTo(fromJson);
+    }
+    
+    @Test
+    void listResponseIsCborOnlyWhenRequested() throws Exception {
+        byte[] cbor = mockMvc.perform(get("/api/users").param("fields", "username").accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode list = new CBORMapper().readTree(cbor);
+        assertThat(list.get("total").asInt()).isEqualTo(1);
+        assertThat(list.get("data").get(0).get("username").asText()).isEqualTo("alice");
+        
+        mockMvc.perform(get("/api/users").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
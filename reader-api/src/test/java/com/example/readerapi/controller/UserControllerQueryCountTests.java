@@ -0,0 +1,193 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.support.SqlStatementRecorder;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 用户接口SQL语句数量回归测试
+ * 每个接口调用执行的SQL语句数都有上限，多出一次查询（如N+1、额外的存在性检查）会导致测试失败
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerQueryCountTests {
+    
+    private static final String PASSWORD = "secret123";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        
+        User user = new User();
+        user.setUsername("alice");
+        user.setPassword(new BCryptPasswordEncoder().encode(PASSWORD));
+        user.setEmail("alice@reader.com");
+        user.setNickname("爱丽丝");
+        userId = userRepository.save(user).getUserId();
+        
+        // 从冷缓存开始，保证语句数与缓存状态无关
+        entityManagerFactory.getCache().evictAll();
+        SqlStatementRecorder.reset();
+    }
+    
+    @Test
+    void registerIssuesAtMostTwoStatements() throws Exception {
+        mockMvc.perform(post("/api/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"bob\",\"password\":\"secret123\",\"email\":\"bob@reader.com\"}"))
+                .andExpect(status().isOk());
+        
+        // INSERT + 发件箱 INSERT，唯一性由唯一键保证，不预先查询
+        assertStatementsAtMost(2);
+    }
+    
+    @Test
+    void loginIssuesAtMostOneStatement() throws Exception {
+        mockMvc.perform(post("/api/users/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+        
+        // 只查询用户，登录次数累加在内存中定期写入
+        assertStatementsAtMost(1);
+    }
+    
+    @Test
+    void getByIdIssuesOneStatement() throws Exception {
+        mockMvc.perform(get("/api/users/{userId}", userId))
+                .andExpect(status().isOk());
+        
+        assertStatementsAtMost(1);
+    }
+    
+    @Test
+    void getByIdIsServedFromSecondLevelCache() throws Exception {
+        mockMvc.perform(get("/api/users/{userId}", userId))
+                .andExpect(status().isOk());
+        SqlStatementRecorder.reset();
+        
+        mockMvc.perform(get("/api/users/{userId}", userId))
+                .andExpect(status().isOk());
+        
+        assertStatementsAtMost(0);
+    }
+    
+    @Test
+    void batchGetIssuesOneStatementInRequestOrder() throws Exception {
+        Long bobId = saveUser("bob");
+        entityManagerFactory.getCache().evictAll();
+        SqlStatementRecorder.reset();
+        
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[" + bobId + ",999999," + userId + "," + bobId + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].username").value("bob"))
+                .andExpect(jsonPath("$.data[1]").value(nullValue()))
+                .andExpect(jsonPath("$.data[2].username").value("alice"))
+                .andExpect(jsonPath("$.data[2].password").value(nullValue()))
+                .andExpect(jsonPath("$.data[3].username").value("bob"))
+                .andExpect(jsonPath("$.missing[0]").value(999999))
+                .andExpect(jsonPath("$.total").value(3));
+        
+        assertStatementsAtMost(1);
+    }
+    
+    @Test
+    void batchGetIsServedFromSecondLevelCache() throws Exception {
+        Long bobId = saveUser("bob");
+        String body = "{\"userIds\":[" + userId + "," + bobId + "]}";
+        mockMvc.perform(post("/api/users/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        SqlStatementRecorder.reset();
+        
+        mockMvc.perform(post("/api/users/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2));
+        
+        assertStatementsAtMost(0);
+    }
+    
+    @Test
+    void fieldsRestrictSelectedColumnsAndResponse() throws Exception {
+        mockMvc.perform(get("/api/users").param("fields", "nickname, username,nickname"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].userId").value(userId))
+                .andExpect(jsonPath("$.data[0].username").value("alice"))
+                .andExpect(jsonPath("$.data[0].nickname").value("爱丽丝"))
+                .andExpect(jsonPath("$.data[0].email").doesNotExist())
+                .andExpect(jsonPath("$.data[0].password").doesNotExist());
+        mockMvc.perform(get("/api/users/search").param("keyword", "ali").param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].email").value("alice@reader.com"))
+                .andExpect(jsonPath("$.data[0].username").doesNotExist());
+        
+        // 只查询所选的列
+        assertStatementsAtMost(2);
+        assertThat(SqlStatementRecorder.statements().get(0).toLowerCase())
+                .doesNotContain("email").doesNotContain("password");
+        
+        mockMvc.perform(get("/api/users/{userId}", userId).param("fields", "nickname"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nickname").value("爱丽丝"))
+                .andExpect(jsonPath("$.data.username").doesNotExist());
+        mockMvc.perform(get("/api/users").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void statisticsAreServedFromQueryCache() throws Exception {
+        mockMvc.perform(get("/api/users/statistics"))
+                .andExpect(status().isOk());
+        assertStatementsAtMost(3);
+        SqlStatementRecorder.reset();
+        
+        mockMvc.perform(get("/api/users/statistics"))
+                .andExpect(status().isOk());
+        
+        assertStatementsAtMost(0);
+    }
+    
+    private Long saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(PASSWORD);
+        user.setEmail(username + "@reader.com");
+        return userRepository.save(user).getUserId();
+    }
+    
+    private void assertStatementsAtMost(int max) {
+        assertThat(SqlStatementRecorder.statements())
+                .as("SQL语句数超出上限 %d", max)
+                .hasSizeLessThanOrEqualTo(max);
+    }
+}
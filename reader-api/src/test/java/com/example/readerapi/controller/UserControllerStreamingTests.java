@@ -0,0 +1,147 @@
+package com.example.readerapi.controller;
+
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户列表流式输出与响应压缩测试
+ * 响应压缩由内嵌Tomcat完成，需要真实端口；使用独立的内存库和数据目录，不影响共用上下文的其他测试
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reader-web;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "reader.audit.directory=target/web/audit",
+        "reader.avatar.directory=target/web/avatars",
+        "reader.book-file.directory=target/web/books",
+        "reader.search.directory=target/web/search",
+        "reader.reading-progress.spill-file=target/web/reading-progress/pending.tsv"
+})
+@ActiveProfiles("test")
+class UserControllerStreamingTests {
+    
+    /**
+     * 超过两页（每页500条），覆盖跨页键集
+     */
+    private static final int USER_COUNT = 1050;
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    
+    private Long firstUserId;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        
+        List<User> users = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            User user = new User();
+            user.setUsername("reader_" + i);
+            user.setPassword("secret123");
+            user.setEmail("reader_" + i + "@reader.com");
+            user.setNickname(i % 10 == 0 ? "十位读者" + i : "读者" + i);
+            users.add(user);
+        }
+        firstUserId = userRepository.saveAll(users).get(0).getUserId();
+    }
+    
+    @Test
+    void ndjsonStreamsEveryUserOncePerLineWithoutPassword() throws Exception {
+        List<JsonNode> all = readNdjson(get("/api/users", MediaType.APPLICATION_NDJSON_VALUE));
+        assertThat(all).hasSize(USER_COUNT);
+        assertThat(all).allSatisfy(user -> assertThat(user.hasNonNull("password")).isFalse());
+        Set<Long> ids = new HashSet<>();
+        all.forEach(user -> ids.add(user.get("userId").asLong()));
+        assertThat(ids).hasSize(USER_COUNT);
+        
+        List<JsonNode> matched = readNdjson(get("/api/users/search?keyword=%E5%8D%81%E4%BD%8D",
+                MediaType.APPLICATION_NDJSON_VALUE));
+        assertThat(matched).hasSize(USER_COUNT / 10)
+                .allSatisfy(user -> assertThat(user.get("nickname").asText()).startsWith("十位读者"));
+    }
+    
+    @Test
+    void responsesAreGzippedOnlyAboveThreshold() throws Exception {
+        HttpResponse<byte[]> small = send(get("/api/users/" + firstUserId, MediaType.APPLICATION_JSON_VALUE));
+        assertThat(small.statusCode()).isEqualTo(200);
+        assertThat(small.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(objectMapper.readTree(small.body()).get("data").get("userId").asLong()).isEqualTo(firstUserId);
+        
+        HttpResponse<byte[]> list = send(get("/api/users", MediaType.APPLICATION_JSON_VALUE));
+        assertThat(list.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+        assertThat(objectMapper.readTree(gunzip(list.body())).get("total").asInt()).isEqualTo(USER_COUNT);
+        
+        HttpResponse<byte[]> stream = send(get("/api/users", MediaType.APPLICATION_NDJSON_VALUE));
+        assertThat(stream.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+    }
+    
+    private HttpRequest get(String path, String accept) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.ACCEPT, accept)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build();
+    }
+    
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+    
+    /**
+     * 解压并按行解析NDJSON，每个非空行必须是一个完整的JSON对象
+     */
+    private List<JsonNode> readNdjson(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(request);
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValueSatisfying(
+                type -> assertThat(type).startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+        String body = new String(gunzip(response.body()), StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        
+        List<JsonNode> users = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode user = objectMapper.readTree(line);
+            assertThat(user.isObject()).isTrue();
+            users.add(user);
+        }
+        return users;
+    }
+    
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
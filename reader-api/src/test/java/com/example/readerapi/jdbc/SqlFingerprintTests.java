@@ -0,0 +1,43 @@
+package com.example.readerapi.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL指纹与耗时直方图测试
+ */
+class SqlFingerprintTests {
+    
+    @Test
+    void literalsAreReplacedAndWhitespaceCollapsed() {
+        assertThat(SqlFingerprint.of("SELECT *  FROM users\n  WHERE username = 'o''brien' AND age > 18;"))
+                .isEqualTo("SELECT * FROM users WHERE username = ? AND age > ?");
+        assertThat(SqlFingerprint.of("select u1_0.user_id from users u1_0 where u1_0.email='a\\'b' limit 10"))
+                .isEqualTo("select u1_0.user_id from users u1_0 where u1_0.email=? limit ?");
+    }
+    
+    @Test
+    void inListsOfDifferentLengthShareFingerprint() {
+        String three = SqlFingerprint.of("DELETE FROM users WHERE user_id IN (1, 2, 3) AND deleted = 1");
+        String one = SqlFingerprint.of("DELETE FROM users WHERE user_id IN ( ? ) AND deleted = 1");
+        
+        assertThat(three).isEqualTo("DELETE FROM users WHERE user_id IN (?) AND deleted = ?");
+        assertThat(one).isEqualTo(three);
+        assertThat(SqlFingerprint.of("INSERT INTO t (a, b) VALUES (?,?)")).isEqualTo("INSERT INTO t (a, b) VALUES (?)");
+    }
+    
+    @Test
+    void percentilesStayWithinBucketError() {
+        QueryStatistics statistics = new QueryStatistics("SELECT ?");
+        for (int i = 1; i <= 1000; i++) {
+            statistics.record(i * 1_000_000L);
+        }
+        
+        assertThat(statistics.getCount()).isEqualTo(1000);
+        assertThat(statistics.getMaxNanos()).isEqualTo(1_000_000_000L);
+        assertThat(statistics.percentileNanos(0.50)).isBetween(500_000_000L, 625_000_000L);
+        assertThat(statistics.percentileNanos(0.99)).isBetween(990_000_000L, 1_000_000_000L);
+        assertThat(statistics.percentileNanos(0.0)).isLessThanOrEqualTo(1_250_000L);
+    }
+}
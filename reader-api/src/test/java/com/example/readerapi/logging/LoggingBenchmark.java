@@ -0,0 +1,139 @@
+package com.example.readerapi.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 登录事件日志在请求线程上的开销
+ *
+ * sync: 原来的同步控制台输出，请求线程格式化并写出
+ * async: 有界队列异步输出，请求线程只入队，队列满时丢弃
+ * async_sampled: 异步输出，登录事件按1%抽样
+ *
+ * sink=devnull: 输出写到 /dev/null（没有时写到空输出流），只保留格式化和系统调用的开销；
+ * sink=slow: 每次写出阻塞20微秒，模拟标准输出接到容器日志驱动等管道时的写入耗时。
+ * 运行：mvn -Pbenchmark test -DskipTests -Dbenchmark.include=LoggingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+    
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+    
+    @Param({"sync", "async", "async_sampled"})
+    public String mode;
+    
+    @Param({"devnull", "slow"})
+    public String sink;
+    
+    private LoggerContext context;
+    private Logger logger;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setName("CONSOLE");
+        console.setEncoder(encoder);
+        console.setOutputStream("slow".equals(sink) ? new SlowOutputStream() : devNull());
+        console.start();
+        
+        Appender<ILoggingEvent> appender = console;
+        if (mode.startsWith("async")) {
+            CountingAsyncAppender async = new CountingAsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(console);
+            async.start();
+            appender = async;
+        }
+        if (mode.endsWith("sampled")) {
+            SamplingTurboFilter filter = new SamplingTurboFilter();
+            filter.setContext(context);
+            filter.setRates("user.login:0.01");
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+        
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(appender);
+        logger = context.getLogger("com.example.readerapi.service.impl.UserServiceImpl");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n[%s/%s] dropped=%s sampled_out=%s%n", mode, sink,
+                context.getObject(CountingAsyncAppender.DROPPED_KEY),
+                context.getObject(SamplingTurboFilter.SAMPLED_OUT_KEY));
+        context.stop();
+    }
+    
+    @Benchmark
+    public void loginEvent() {
+        logger.info(LogEvents.USER_LOGIN, "登录成功 username={} userId={}", "reader_01", 10001L);
+    }
+    
+    private static OutputStream devNull() throws FileNotFoundException {
+        File devNull = new File("/dev/null");
+        return devNull.exists() ? new FileOutputStream(devNull) : OutputStream.nullOutputStream();
+    }
+    
+    /**
+     * 每次写出阻塞固定时间的输出流
+     */
+    private static class SlowOutputStream extends OutputStream {
+        
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            LockSupport.parkNanos(20_000);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.readerapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 日志抽样过滤器与异步追加器丢弃计数测试
+ */
+class SamplingTurboFilterTests {
+    
+    private static final Marker DROP_ALL = MarkerFactory.getMarker("test.drop");
+    private static final Marker KEEP_ALL = MarkerFactory.getMarker("test.keep");
+    private static final Marker UNCONFIGURED = MarkerFactory.getMarker("test.other");
+    
+    private LoggerContext context;
+    private SamplingTurboFilter filter;
+    private Logger logger;
+    
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setRates("test.drop:0, test.keep:1, invalid, test.bad:abc");
+        filter.start();
+        logger = context.getLogger(SamplingTurboFilterTests.class);
+    }
+    
+    @Test
+    void rateZeroDeniesAndCountsSampledOut() {
+        assertThat(decide(DROP_ALL, Level.INFO)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(DROP_ALL, Level.DEBUG)).isEqualTo(FilterReply.DENY);
+        
+        assertThat(sampledOut()).isEqualTo(2);
+    }
+    
+    @Test
+    void rateOneAndUnconfiguredMarkersPassThrough() {
+        assertThat(decide(KEEP_ALL, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(UNCONFIGURED, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(MarkerFactory.getMarker("test.bad"), Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(null, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        
+        assertThat(sampledOut()).isZero();
+    }
+    
+    @Test
+    void warnAndAboveAreNeverSampled() {
+        assertThat(decide(DROP_ALL, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(DROP_ALL, Level.ERROR)).isEqualTo(FilterReply.NEUTRAL);
+        
+        assertThat(sampledOut()).isZero();
+    }
+    
+    @Test
+    void sampledOutEventsNeverReachAppenders() {
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+        context.addTurboFilter(filter);
+        
+        logger.info(DROP_ALL, "丢弃 {}", 1);
+        logger.warn(DROP_ALL, "保留 {}", 2);
+        logger.info(KEEP_ALL, "保留 {}", 3);
+        logger.info(UNCONFIGURED, "保留 {}", 4);
+        
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("保留 2", "保留 3", "保留 4");
+        assertThat(sampledOut()).isEqualTo(1);
+    }
+    
+    @Test
+    void asyncAppenderCountsDiscardedAndOverflowedEvents() throws Exception {
+        BlockingAppender target = new BlockingAppender();
+        target.setContext(context);
+        target.start();
+        
+        CountingAsyncAppender async = new CountingAsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(4);
+        async.setDiscardingThreshold(2);
+        async.setNeverBlock(true);
+        async.addAppender(target);
+        async.start();
+        
+        // 后台线程取走第一条后阻塞，队列4个位置全部空出
+        async.doAppend(event(Level.INFO, "first"));
+        assertThat(target.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        // 剩余容量 4、3、2 时放入，剩余 1 低于阈值 2，INFO 被丢弃
+        for (int i = 0; i < 4; i++) {
+            async.doAppend(event(Level.INFO, "info " + i));
+        }
+        // WARN 不受阈值影响占用最后一个位置，队列满后 neverBlock 丢弃所有级别
+        async.doAppend(event(Level.WARN, "warn 0"));
+        async.doAppend(event(Level.WARN, "warn 1"));
+        
+        assertThat(((LongAdder) context.getObject(CountingAsyncAppender.DROPPED_KEY)).sum()).isEqualTo(2);
+        
+        target.release.countDown();
+        async.stop();
+        assertThat(target.received).containsExactly("first", "info 0", "info 1", "info 2", "warn 0");
+    }
+    
+    private FilterReply decide(Marker marker, Level level) {
+        return filter.decide(marker, logger, level, "事件 {}", new Object[]{1}, null);
+    }
+    
+    private long sampledOut() {
+        return ((LongAdder) context.getObject(SamplingTurboFilter.SAMPLED_OUT_KEY)).sum();
+    }
+    
+    private ILoggingEvent event(Level level, String message) {
+        return new LoggingEvent(Logger.FQCN, logger, level, message, null, null);
+    }
+    
+    /**
+     * 第一条事件到达后阻塞，模拟输出跟不上的磁盘
+     */
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+        
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> received = new CopyOnWriteArrayList<>();
+        
+        @Override
+        protected void append(ILoggingEvent event) {
+            received.add(event.getFormattedMessage());
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.readerapi.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 全文索引分词、段写入、合并与查询测试
+ */
+class BookIndexTests {
+    
+    private static final String HASH_A = "a".repeat(64);
+    private static final String HASH_B = "b".repeat(64);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void cjkTextIsSplitIntoBigramsWithTrailingUnigram() {
+        List<String> terms = new ArrayList<>();
+        int length = BookTokenizer.tokenize("红楼梦 Harry Potter！梦", (term, position, offset) -> terms.add(term + "@" + position + ":" + offset));
+        
+        assertThat(terms).containsExactly("红楼@0:0", "楼梦@1:1", "梦@2:2", "harry@2:4", "potter@3:10", "梦@4:17");
+        assertThat(length).isEqualTo(5);
+        assertThat(BookTokenizer.tokenizeQuery("红楼梦")).extracting(BookTokenizer.Token::term).containsExactly("红楼", "楼梦");
+    }
+    
+    @Test
+    void phraseHitsRankFirstAndLocateOffset() throws Exception {
+        BookIndex index = new BookIndex(directory);
+        index.add(List.of(
+                new BookIndex.IndexedBook(1, HASH_A, "宝玉读书。梦中见到了红楼，楼上有人。"),
+                new BookIndex.IndexedBook(2, HASH_A, "第五回 游幻境指迷十二钗 饮仙醪曲演红楼梦。")));
+        
+        List<BookIndex.Hit> hits = index.search("红楼梦", 10, 20);
+        assertThat(hits).extracting(BookIndex.Hit::bookId).containsExactly(2L);
+        assertThat(hits.get(0).offset()).isEqualTo("第五回 游幻境指迷十二钗 饮仙醪曲演".length());
+        assertThat(hits.get(0).snippet()).contains("红楼梦");
+        
+        // 单字查询按前缀匹配，包括段尾的字
+        assertThat(index.search("梦", 10, 20)).extracting(BookIndex.Hit::bookId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("红楼", 10, 20)).hasSize(2);
+        assertThat(index.search("不存在", 10, 20)).isEmpty();
+    }
+    
+    @Test
+    void mergeKeepsOnlyLatestVersionAndSurvivesReopen() throws Exception {
+        BookIndex index = new BookIndex(directory);
+        for (int i = 0; i < 5; i++) {
+            index.add(List.of(new BookIndex.IndexedBook(i, HASH_A, "chapter " + i + " the old version")));
+        }
+        // 重新上传第3本，旧版本失效
+        index.add(List.of(new BookIndex.IndexedBook(3, HASH_B, "chapter 3 the new version")));
+        assertThat(index.search("old", 10, 40)).extracting(BookIndex.Hit::bookId).containsExactlyInAnyOrder(0L, 1L, 2L, 4L);
+        
+        assertThat(index.merge(2, 10, Long.MAX_VALUE)).isTrue();
+        assertThat(index.segmentCount()).isEqualTo(1);
+        assertThat(index.search("old", 10, 40)).hasSize(4);
+        assertThat(index.search("new version", 10, 40)).extracting(BookIndex.Hit::bookId).containsExactly(3L);
+        
+        BookIndex reopened = new BookIndex(directory);
+        assertThat(reopened.documentCount()).isEqualTo(5);
+        assertThat(reopened.indexedHash(3)).isEqualTo(HASH_B);
+        assertThat(reopened.search("chapter", 10, 40)).hasSize(5);
+        assertThat(reopened.search("new version", 10, 40).get(0).snippet()).isEqualTo("3 the new version");
+    }
+    
+    @Test
+    void removedBookStaysRemovedAcrossReopenAndMerge() throws Exception {
+        BookIndex index = new BookIndex(directory);
+        index.add(List.of(new BookIndex.IndexedBook(1, HASH_A, "the lost chapter"),
+                new BookIndex.IndexedBook(2, HASH_A, "the kept chapter")));
+        
+        assertThat(index.remove(List.of(1L, 99L))).isEqualTo(1);
+        assertThat(index.indexedHash(1)).isNull();
+        assertThat(index.search("chapter", 10, 40)).extracting(BookIndex.Hit::bookId).containsExactly(2L);
+        
+        BookIndex reopened = new BookIndex(directory);
+        assertThat(reopened.documentCount()).isEqualTo(1);
+        assertThat(reopened.search("lost", 10, 40)).isEmpty();
+        
+        // 合并清除了旧副本后墓碑随之删除
+        reopened.add(List.of(new BookIndex.IndexedBook(3, HASH_A, "another chapter")));
+        assertThat(reopened.merge(1, 10, Long.MAX_VALUE)).isTrue();
+        assertThat(directory.resolve("tombstones.tsv")).doesNotExist();
+        assertThat(new BookIndex(directory).search("chapter", 10, 40)).extracting(BookIndex.Hit::bookId)
+                .containsExactlyInAnyOrder(2L, 3L);
+        
+        // 重新加入后恢复
+        reopened.add(List.of(new BookIndex.IndexedBook(1, HASH_B, "the found chapter")));
+        assertThat(new BookIndex(directory).indexedHash(1)).isEqualTo(HASH_B);
+    }
+    
+    @Test
+    void supersededCopiesDoNotAffectScores() throws Exception {
+        BookIndex withHistory = new BookIndex(directory.resolve("history"));
+        withHistory.add(List.of(new BookIndex.IndexedBook(1, HASH_A, "apple pie")));
+        withHistory.add(List.of(new BookIndex.IndexedBook(2, HASH_A, "apple tart with many more words")));
+        withHistory.add(List.of(new BookIndex.IndexedBook(2, HASH_B, "plain text")));
+        
+        BookIndex fresh = new BookIndex(directory.resolve("fresh"));
+        fresh.add(List.of(new BookIndex.IndexedBook(1, HASH_A, "apple pie"),
+                new BookIndex.IndexedBook(2, HASH_B, "plain text")));
+        
+        List<BookIndex.Hit> expected = fresh.search("apple", 10, 40);
+        assertThat(withHistory.search("apple", 10, 40)).singleElement()
+                .satisfies(hit -> assertThat(hit.score()).isEqualTo(expected.get(0).score()));
+    }
+}
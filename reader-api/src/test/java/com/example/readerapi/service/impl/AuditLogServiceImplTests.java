@@ -0,0 +1,80 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.audit.AuditEventType;
+import com.example.readerapi.audit.AuditRecord;
+import com.example.readerapi.config.AuditLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 审计日志后台写入线程测试
+ * 空闲时后台线程无限期休眠而不是轮询，放入记录时被唤醒写入，写入后按刷盘间隔定时醒来一次
+ */
+class AuditLogServiceImplTests {
+    
+    @TempDir
+    Path directory;
+    
+    private AuditLogServiceImpl service;
+    private Thread writer;
+    
+    @BeforeEach
+    void setUp() {
+        AuditLogProperties properties = new AuditLogProperties();
+        properties.setDirectory(directory.toString());
+        properties.setBufferCapacity(1024);
+        properties.setFlushInterval(Duration.ofMillis(100));
+        service = new AuditLogServiceImpl(properties, new SimpleMeterRegistry());
+        service.start();
+        writer = (Thread) ReflectionTestUtils.getField(service, "writerThread");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+    
+    @Test
+    void idleWriterParksUntilRecordArrives() throws Exception {
+        awaitTrue(() -> writer.getState() == Thread.State.WAITING);
+        
+        for (int i = 1; i <= 3; i++) {
+            service.record(AuditEventType.LOGIN_FAILURE, (long) i, "user" + i, "密码错误");
+            long userId = i;
+            awaitTrue(() -> service.query(userId, null, null, 10).size() == 1);
+            // 刷盘后回到无限期休眠
+            awaitTrue(() -> writer.getState() == Thread.State.WAITING);
+        }
+        
+        List<AuditRecord> records = service.query(null, null, null, 10);
+        assertThat(records).extracting(AuditRecord::subject).containsExactly("user3", "user2", "user1");
+    }
+    
+    @Test
+    void stopWakesAndTerminatesParkedWriter() throws Exception {
+        awaitTrue(() -> writer.getState() == Thread.State.WAITING);
+        
+        service.stop();
+        
+        assertThat(writer.isAlive()).isFalse();
+    }
+    
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("等待超时").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.BookshelfProperties;
+import com.example.readerapi.dto.BookshelfItem;
+import com.example.readerapi.entity.Book;
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.repository.BookshelfRepository;
+import com.example.readerapi.repository.ReadingProgressRepository;
+import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.support.SqlStatementRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 书架缓存测试
+ * 写操作增量更新后的缓存须与重新从数据库读出的书架一致，读取书架只执行一条查询
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookshelfServiceImplTests {
+    
+    @Autowired
+    private BookshelfServiceImpl bookshelfService;
+    
+    @Autowired
+    private ReadingProgressServiceImpl readingProgressService;
+    
+    @Autowired
+    private BookshelfRepository bookshelfRepository;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ReadingProgressRepository readingProgressRepository;
+    
+    @Autowired
+    private BookshelfProperties properties;
+    
+    private Long userId;
+    
+    private final List<Long> bookIds = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        readingProgressService.flush();
+        readingProgressRepository.deleteAll();
+        bookshelfRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        
+        User user = new User();
+        user.setUsername("shelf_reader");
+        user.setPassword("password");
+        user.setEmail("shelf_reader@reader.com");
+        userId = userRepository.save(user).getUserId();
+        
+        bookIds.clear();
+        for (int i = 0; i < 4; i++) {
+            Book book = new Book();
+            book.setTitle("图书" + i);
+            book.setAuthor("作者");
+            book.setCategory("fiction");
+            book.setPublicationDate(LocalDate.of(2020, 1, 1));
+            bookIds.add(bookRepository.save(book).getBookId());
+        }
+    }
+    
+    @Test
+    void incrementalUpdatesMatchFreshLoad() throws Exception {
+        assertThat(bookshelfService.getShelf(userId)).isEmpty();
+        for (Long bookId : bookIds) {
+            bookshelfService.add(userId, bookId, null);
+        }
+        // 最后加入的在最前
+        assertThat(bookIds(bookshelfService.getShelf(userId))).containsExactlyElementsOf(bookIds.reversed());
+        
+        readingProgressService.report(userId, bookIds.get(1), 500L, 12.5);
+        // 打开时间须晚于加入时间（毫秒精度）
+        Thread.sleep(5);
+        bookshelfService.open(userId, bookIds.get(1));
+        bookshelfService.update(userId, bookIds.get(2), 2, 5);
+        bookshelfService.remove(userId, bookIds.get(3));
+        readingProgressService.flush();
+        readingProgressService.report(userId, bookIds.get(0), 800L, 20.0);
+        
+        List<BookshelfItem> cached = bookshelfService.getShelf(userId);
+        assertThat(bookIds(cached)).containsExactly(bookIds.get(1), bookIds.get(2), bookIds.get(0));
+        assertThat(cached.get(0).getPercent()).isEqualTo(12.5);
+        assertThat(cached.get(1).getRating()).isEqualTo(5);
+        assertThat(cached.get(2).getPosition()).isEqualTo(800L);
+        
+        // 新实例没有缓存，从数据库读出书架并叠加未写入的进度
+        BookshelfServiceImpl fresh = new BookshelfServiceImpl(bookshelfRepository, bookRepository, userRepository,
+                readingProgressService, properties, new SimpleMeterRegistry());
+        SqlStatementRecorder.reset();
+        // 数据库中的上报时间精度低于内存，不比较
+        assertThat(fresh.getShelf(userId))
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("progressUpdatedAt")
+                .containsExactlyElementsOf(cached);
+        assertThat(SqlStatementRecorder.statements()).hasSize(1);
+    }
+    
+    @Test
+    void invalidRequestsAreRejected() {
+        bookshelfService.add(userId, bookIds.get(0), 1);
+        // 重复加入返回已有条目
+        assertThat(bookshelfService.add(userId, bookIds.get(0), 0).getStatus()).isEqualTo(1);
+        assertThat(bookshelfService.update(userId, bookIds.get(1), 2, null)).isEmpty();
+        assertThat(bookshelfService.open(userId, bookIds.get(1))).isFalse();
+        assertThat(bookshelfService.remove(userId, bookIds.get(1))).isFalse();
+        
+        assertThatThrownBy(() -> bookshelfService.add(userId + 1, bookIds.get(1), null))
+                .hasMessage("用户不存在");
+        assertThatThrownBy(() -> bookshelfService.update(userId, bookIds.get(0), null, 6))
+                .hasMessage("评分必须在1到5之间");
+    }
+    
+    private static List<Long> bookIds(List<BookshelfItem> items) {
+        return items.stream().map(BookshelfItem::getBookId).toList();
+    }
+}
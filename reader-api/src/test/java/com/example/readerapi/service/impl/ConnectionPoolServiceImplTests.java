@@ -0,0 +1,88 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.ConnectionPoolProperties;
+import com.example.readerapi.service.impl.ConnectionPoolServiceImpl.Decision;
+import com.example.readerapi.service.impl.ConnectionPoolServiceImpl.Period;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 连接池上限调整决策测试
+ * 默认配置：上限 2~20，目标等待 20ms，占用上限 500ms，连续6个空闲周期收缩
+ */
+class ConnectionPoolServiceImplTests {
+    
+    private static final double PERIOD_MILLIS = 10_000;
+    
+    private final ConnectionPoolProperties properties = new ConnectionPoolProperties();
+    
+    @Test
+    void waitingThreadsGrowByQuarter() {
+        // 等待很短、连接大多空闲，只要有线程在排队就扩容
+        assertThat(decide(period(0, 0), 1, 8, 3)).isEqualTo(new Decision(10, 0));
+        assertThat(decide(period(0, 0), 3, 3, 0)).isEqualTo(new Decision(4, 0));
+    }
+    
+    @Test
+    void slowAcquireGrowsOnlyWhenConnectionsAreBusy() {
+        // 平均等待 50ms，平均 6 个连接同时占用（超过上限 8 的一半）
+        assertThat(decide(period(50, 6), 0, 8, 0)).isEqualTo(new Decision(10, 0));
+        // 平均等待 50ms 但平均只占用 2 个连接：等待来自新建物理连接，按空闲周期计数
+        assertThat(decide(period(50, 2), 0, 8, 0)).isEqualTo(new Decision(8, 1));
+        // 等待不超过目标值时不扩容，连接忙碌则清零空闲计数
+        assertThat(decide(period(20, 6), 0, 8, 4)).isEqualTo(new Decision(8, 0));
+    }
+    
+    @Test
+    void latencyCeilingShrinksEvenWithWaitingThreads() {
+        Period slow = new Period(PERIOD_MILLIS, 100, 100 * 50, 100, 100 * 600);
+        
+        assertThat(decide(slow, 5, 8, 4)).isEqualTo(new Decision(7, 0));
+        // 恰好等于上限不算超过
+        Period atCeiling = new Period(PERIOD_MILLIS, 100, 0, 100, 100 * 500);
+        assertThat(decide(atCeiling, 1, 8, 0)).isEqualTo(new Decision(10, 0));
+    }
+    
+    @Test
+    void shrinksAfterConfiguredUnderusedPeriods() {
+        int idlePeriods = 0;
+        for (int i = 1; i < properties.getShrinkAfterIdlePeriods(); i++) {
+            Decision decision = decide(period(0, 1), 0, 8, idlePeriods);
+            assertThat(decision).isEqualTo(new Decision(8, i));
+            idlePeriods = decision.idlePeriods();
+        }
+        
+        assertThat(decide(period(0, 1), 0, 8, idlePeriods)).isEqualTo(new Decision(7, 0));
+        // 中途出现一个忙碌周期则重新计数
+        assertThat(decide(period(0, 5), 0, 8, idlePeriods)).isEqualTo(new Decision(8, 0));
+        // 没有任何连接被使用的周期同样算空闲
+        assertThat(decide(new Period(PERIOD_MILLIS, 0, 0, 0, 0), 0, 8, idlePeriods)).isEqualTo(new Decision(7, 0));
+    }
+    
+    @Test
+    void targetIsClampedToMinAndMaxSize() {
+        Period slow = new Period(PERIOD_MILLIS, 10, 0, 10, 10 * 1000);
+        
+        assertThat(decide(period(0, 0), 2, 18, 0).target()).isEqualTo(20);
+        assertThat(decide(period(0, 0), 2, 20, 0).target()).isEqualTo(20);
+        assertThat(decide(slow, 0, 2, 0).target()).isEqualTo(2);
+        assertThat(decide(period(0, 0), 0, 2, properties.getShrinkAfterIdlePeriods() - 1)).isEqualTo(new Decision(2, 0));
+        // 初始上限超出范围时第一次调整即拉回
+        assertThat(decide(period(0, 30), 0, 30, 0).target()).isEqualTo(20);
+        assertThat(decide(period(0, 1), 0, 1, 0).target()).isEqualTo(2);
+    }
+    
+    private Decision decide(Period period, int waiting, int current, int idlePeriods) {
+        return ConnectionPoolServiceImpl.decide(period, waiting, current, idlePeriods, properties);
+    }
+    
+    /**
+     * 周期内获取与归还各 10000 次，平均占用时间远低于上限
+     * @param meanWaitMillis 平均获取连接等待时间
+     * @param busyConnections 周期内平均同时占用的连接数
+     */
+    private static Period period(double meanWaitMillis, double busyConnections) {
+        return new Period(PERIOD_MILLIS, 10_000, 10_000 * meanWaitMillis, 10_000, busyConnections * PERIOD_MILLIS);
+    }
+}
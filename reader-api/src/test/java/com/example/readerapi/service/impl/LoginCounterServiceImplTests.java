@@ -0,0 +1,189 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 登录计数并发测试
+ * 并发登录、并发写入、写入中途失败以及同时保存整个用户实体时，login_count 须与登录次数完全一致；
+ * 写入期间开始的读取不能把旧的用户放回二级缓存
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LoginCounterServiceImplTests {
+    
+    private static final int THREADS = 16;
+    private static final int LOGINS_PER_THREAD = 2000;
+    
+    /**
+     * 该IP违反测试中临时添加的检查约束，使包含它的写入批次在中途失败
+     */
+    private static final String FAILING_IP = "0.0.0.0";
+    
+    @Autowired
+    private LoginCounterServiceImpl loginCounterService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final List<Long> userIds = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        loginCounterService.flush();
+        userRepository.deleteAll();
+        userIds.clear();
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setUsername("counter" + i);
+            user.setPassword("password");
+            user.setEmail("counter" + i + "@reader.com");
+            userIds.add(userRepository.save(user).getUserId());
+        }
+    }
+    
+    @Test
+    void concurrentLoginsAreCountedExactly() throws Exception {
+        Long failingUserId = userIds.get(2);
+        jdbcTemplate.execute("ALTER TABLE users ADD CONSTRAINT ck_test_login_ip " +
+                "CHECK (last_login_ip IS NULL OR last_login_ip <> '" + FAILING_IP + "')");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 3);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger failingUserLogins = new AtomicInteger();
+        try {
+            List<Future<?>> logins = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                logins.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < LOGINS_PER_THREAD; i++) {
+                        loginCounterService.record(userIds.get(i % 2), "10.0.0." + i % 256);
+                    }
+                    return null;
+                }));
+            }
+            // 登录期间不断写入，并保存整个用户实体（其中的 loginCount 是旧值）
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (running.get()) {
+                    try {
+                        loginCounterService.flush();
+                    } catch (RuntimeException e) {
+                        // 违反约束的批次，增量已放回，下一轮重试
+                    }
+                }
+                return null;
+            });
+            // 第三个用户的最近登录IP交替违反约束，包含它的批次在其他用户的行已更新后失败
+            Future<?> breaker = executor.submit(() -> {
+                start.await();
+                int round = 0;
+                while (running.get()) {
+                    loginCounterService.record(failingUserId, round++ % 2 == 0 ? FAILING_IP : "10.0.1.1");
+                    failingUserLogins.incrementAndGet();
+                    Thread.sleep(1);
+                }
+                return null;
+            });
+            Future<?> editor = executor.submit(() -> {
+                start.await();
+                int round = 0;
+                while (running.get()) {
+                    User user = userRepository.findById(userIds.get(0)).orElseThrow();
+                    user.setNickname("昵称" + round++);
+                    userRepository.save(user);
+                }
+                return null;
+            });
+            
+            start.countDown();
+            for (Future<?> login : logins) {
+                login.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            flusher.get(60, TimeUnit.SECONDS);
+            editor.get(60, TimeUnit.SECONDS);
+            breaker.get(60, TimeUnit.SECONDS);
+            
+            // 确保至少有一批在中途失败：其他用户的增量与违反约束的行在同一批
+            for (Long userId : userIds) {
+                loginCounterService.record(userId, userId.equals(failingUserId) ? FAILING_IP : "10.0.0.1");
+            }
+            failingUserLogins.incrementAndGet();
+            assertThatThrownBy(loginCounterService::flush).isInstanceOf(RuntimeException.class);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+            jdbcTemplate.execute("ALTER TABLE users DROP CONSTRAINT ck_test_login_ip");
+        }
+        loginCounterService.flush();
+        
+        for (Long userId : userIds.subList(0, 2)) {
+            Integer loginCount = jdbcTemplate.queryForObject(
+                    "SELECT login_count FROM users WHERE user_id = ?", Integer.class, userId);
+            assertThat(loginCount).isEqualTo(THREADS * LOGINS_PER_THREAD / 2 + 1);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT login_count FROM users WHERE user_id = ?", Integer.class,
+                failingUserId)).isEqualTo(failingUserLogins.get());
+        // 写入后淘汰了二级缓存，按ID读取得到新值
+        assertThat(userRepository.findById(userIds.get(1)).orElseThrow().getLoginCount())
+                .isEqualTo(THREADS * LOGINS_PER_THREAD / 2 + 1);
+        assertThat(userRepository.findById(userIds.get(1)).orElseThrow().getLastLoginAt()).isNotNull();
+    }
+    
+    @Test
+    void loadStartedBeforeFlushDoesNotPutStaleUserIntoCache() {
+        Long userId = userIds.get(0);
+        CacheRegionStatistics region = entityManagerFactory.unwrap(SessionFactory.class)
+                .getStatistics().getDomainDataRegionStatistics("user");
+        assertThat(userRepository.findById(userId).orElseThrow().getLoginCount()).isZero();
+        
+        loginCounterService.record(userId, "10.0.0.1");
+        EntityManager before = entityManagerFactory.createEntityManager();
+        try {
+            // 事务在写入之前开始，期间读到的行不能放回缓存
+            before.getTransaction().begin();
+            loginCounterService.flush();
+            long puts = region.getPutCount();
+            assertThat(before.find(User.class, userId).getLoginCount()).isEqualTo(1);
+            assertThat(region.getPutCount()).isEqualTo(puts);
+            before.getTransaction().commit();
+        } finally {
+            before.close();
+        }
+        
+        long hits = region.getHitCount();
+        assertThat(userRepository.findById(userId).orElseThrow().getLoginCount()).isEqualTo(1);
+        assertThat(userRepository.findById(userId).orElseThrow().getLoginCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(hits + 1);
+    }
+}
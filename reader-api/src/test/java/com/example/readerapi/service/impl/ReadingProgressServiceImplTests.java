@@ -0,0 +1,148 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.ReadingProgressProperties;
+import com.example.readerapi.entity.Book;
+import com.example.readerapi.entity.ReadingProgress;
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.BookRepository;
+import com.example.readerapi.repository.ReadingProgressRepository;
+import com.example.readerapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 阅读进度写入合并测试
+ * 上报须校验用户和图书，待写入的条目数受 max-pending 限制
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReadingProgressServiceImplTests {
+    
+    @Autowired
+    private ReadingProgressServiceImpl readingProgressService;
+    
+    @Autowired
+    private ReadingProgressRepository readingProgressRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private BookRepository bookRepository;
+    
+    @Autowired
+    private ReadingProgressProperties properties;
+    
+    private Long userId;
+    
+    private final List<Long> bookIds = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        readingProgressService.flush();
+        readingProgressRepository.deleteAll();
+        
+        User user = new User();
+        user.setUsername("progress_reader_" + System.nanoTime());
+        user.setPassword("password");
+        user.setEmail(user.getUsername() + "@reader.com");
+        userId = userRepository.save(user).getUserId();
+        
+        bookIds.clear();
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setTitle("进度图书" + i);
+            book.setAuthor("作者");
+            book.setCategory("fiction");
+            book.setPublicationDate(LocalDate.of(2020, 1, 1));
+            bookIds.add(bookRepository.save(book).getBookId());
+        }
+    }
+    
+    @Test
+    void repeatedReportsAreCoalescedIntoOneUpsert() {
+        for (int i = 1; i <= 10; i++) {
+            readingProgressService.report(userId, bookIds.get(0), i * 1000L, i * 10.0);
+        }
+        readingProgressService.report(userId, bookIds.get(1), 50L, 1.0);
+        
+        // 写入前从内存读到最新值
+        assertThat(readingProgressService.find(userId, bookIds.get(0))).get()
+                .extracting(ReadingProgress::getPosition).isEqualTo(10_000L);
+        assertThat(readingProgressRepository.count()).isZero();
+        
+        assertThat(readingProgressService.flush()).isEqualTo(2);
+        assertThat(readingProgressService.flush()).isZero();
+        
+        readingProgressService.report(userId, bookIds.get(0), 12_000L, 100.0);
+        assertThat(readingProgressService.flush()).isEqualTo(1);
+        assertThat(readingProgressRepository.findById(new ReadingProgress.Key(userId, bookIds.get(0)))).get()
+                .extracting(ReadingProgress::getPosition).isEqualTo(12_000L);
+    }
+    
+    @Test
+    void spilledProgressIsLoadedAndWritten() throws Exception {
+        Path file = Path.of(properties.getSpillFile());
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, List.of("2\t200\t42\t3.5\t2026-01-01T08:00:00"));
+        
+        readingProgressService.loadSpilled();
+        
+        assertThat(file).doesNotExist();
+        assertThat(readingProgressService.flush()).isEqualTo(1);
+        assertThat(readingProgressRepository.findById(new ReadingProgress.Key(2L, 200L))).get()
+                .extracting(ReadingProgress::getPercent).isEqualTo(3.5);
+    }
+    
+    @Test
+    void reportsForUnknownOrDeletedUsersAndUnknownBooksAreRejected() {
+        assertThatThrownBy(() -> readingProgressService.report(-1L, bookIds.get(0), 1L, 1.0))
+                .hasMessage("用户不存在或已删除");
+        assertThatThrownBy(() -> readingProgressService.report(userId, -1L, 1L, 1.0))
+                .hasMessage("图书不存在");
+        
+        User deleted = new User();
+        deleted.setUsername("progress_deleted_" + System.nanoTime());
+        deleted.setPassword("password");
+        deleted.setEmail(deleted.getUsername() + "@reader.com");
+        deleted.setDeleted(1);
+        Long deletedId = userRepository.save(deleted).getUserId();
+        assertThatThrownBy(() -> readingProgressService.report(deletedId, bookIds.get(0), 1L, 1.0))
+                .hasMessage("用户不存在或已删除");
+        
+        assertThat(readingProgressService.findPending(-1L, bookIds.get(0))).isEmpty();
+        assertThat(readingProgressService.findPending(userId, -1L)).isEmpty();
+    }
+    
+    @Test
+    void newKeysBeyondMaxPendingFlushEarly() {
+        int maxPending = properties.getMaxPending();
+        properties.setMaxPending(2);
+        try {
+            readingProgressService.report(userId, bookIds.get(0), 1L, 1.0);
+            readingProgressService.report(userId, bookIds.get(1), 1L, 1.0);
+            // 已有条目的更新不触发写入
+            readingProgressService.report(userId, bookIds.get(1), 2L, 2.0);
+            assertThat(readingProgressRepository.count()).isZero();
+            
+            readingProgressService.report(userId, bookIds.get(2), 1L, 1.0);
+            assertThat(readingProgressRepository.count()).isEqualTo(2);
+            assertThat(readingProgressService.findPending(userId, bookIds.get(1))).isEmpty();
+            assertThat(readingProgressService.findPending(userId, bookIds.get(2))).isPresent();
+        } finally {
+            properties.setMaxPending(maxPending);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.dto.UserDTO;
+import com.example.readerapi.dto.UserSuggestion;
+import com.example.readerapi.event.UserChangeEvent;
+import com.example.readerapi.event.UserEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户自动补全索引测试
+ * 覆盖增量层与基础层的归并、修改和删除后的过期 key 过滤，以及合并前后结果一致
+ */
+class UserAutocompleteServiceImplTests {
+    
+    private UserAutocompleteServiceImpl index;
+    
+    @BeforeEach
+    void setUp() {
+        // 不触发 rebuild，无需数据库
+        index = new UserAutocompleteServiceImpl(null);
+        index.onUserChange(updated(1L, "alice", "爱丽丝", "Alice Liddell"));
+        index.onUserChange(updated(2L, "albert", null, "阿尔伯特"));
+        index.onUserChange(updated(3L, "bob", "Alf", null));
+    }
+    
+    @Test
+    void matchesAllIndexedFieldsIgnoringCase() {
+        assertThat(ids(index.suggest("AL", 10))).containsExactly(2L, 3L, 1L);
+        assertThat(ids(index.suggest("爱", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("阿尔", 10))).containsExactly(2L);
+        assertThat(index.suggest("zzz", 10)).isEmpty();
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+    
+    @Test
+    void respectsLimitAndReturnsEachUserOnce() {
+        // alice 的用户名和真实姓名都以 al 开头，只返回一次
+        assertThat(ids(index.suggest("al", 10))).doesNotHaveDuplicates();
+        assertThat(index.suggest("al", 2)).hasSize(2);
+    }
+    
+    @Test
+    void updatesAndRemovalsAreVisibleBeforeAndAfterCompaction() {
+        index.onUserChange(updated(3L, "bob", "Bobby", null));
+        index.onUserChange(new UserChangeEvent(null, 2L, UserEventType.DELETED, null, null));
+        assertThat(ids(index.suggest("al", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("bobb", 10))).containsExactly(3L);
+        
+        index.compact();
+        assertThat(ids(index.suggest("al", 10))).containsExactly(1L);
+        assertThat(ids(index.suggest("bobb", 10))).containsExactly(3L);
+        
+        // 合并后新增的用户仍走增量层，与基础层归并输出
+        index.onUserChange(updated(4L, "alan", null, null));
+        assertThat(ids(index.suggest("al", 10))).containsExactly(4L, 1L);
+    }
+    
+    @Test
+    void deleteEventRemovesUser() {
+        index.onUserChange(new UserChangeEvent(null, 1L, UserEventType.DELETED, user(1L, "alice", null, null), null));
+        assertThat(ids(index.suggest("ali", 10))).isEmpty();
+    }
+    
+    private static List<Long> ids(List<UserSuggestion> suggestions) {
+        return suggestions.stream().map(UserSuggestion::getUserId).toList();
+    }
+    
+    private static UserChangeEvent updated(Long userId, String username, String nickname, String realName) {
+        return new UserChangeEvent(null, userId, UserEventType.UPDATED, user(userId, username, nickname, realName), null);
+    }
+    
+    private static UserDTO user(Long userId, String username, String nickname, String realName) {
+        UserDTO user = new UserDTO();
+        user.setUserId(userId);
+        user.setUsername(username);
+        user.setNickname(nickname);
+        user.setRealName(realName);
+        return user;
+    }
+}
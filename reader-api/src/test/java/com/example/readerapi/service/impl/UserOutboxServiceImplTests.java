@@ -0,0 +1,209 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.config.UserOutboxProperties;
+import com.example.readerapi.entity.OutboxLease;
+import com.example.readerapi.entity.UserOutboxEvent;
+import com.example.readerapi.event.UserChangeEvent;
+import com.example.readerapi.event.UserEventSink;
+import com.example.readerapi.event.UserEventType;
+import com.example.readerapi.repository.OutboxLeaseRepository;
+import com.example.readerapi.repository.UserOutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户变更发件箱多实例测试
+ * 用同一数据库上的多个服务实例模拟多实例部署：每个实例都发布全部事件给进程内订阅者，
+ * 外部投递只由租约持有者进行，反复失败的事件搁置后不阻塞后续事件
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserOutboxServiceImplTests {
+    
+    @Autowired
+    private UserOutboxEventRepository outboxRepository;
+    
+    @Autowired
+    private OutboxLeaseRepository leaseRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private UserOutboxProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        leaseRepository.deleteAll();
+        // 实例启动前已有的事件，创建实例后先发布掉
+        outboxRepository.save(event(0L));
+        
+        properties = new UserOutboxProperties();
+        properties.setMaxAttempts(2);
+        properties.setRetryBackoff(Duration.ZERO);
+    }
+    
+    @Test
+    void everyInstancePublishesLocallyButOnlyLeaseHolderDelivers() {
+        Instance a = new Instance(event -> true);
+        Instance b = new Instance(event -> true);
+        List<Long> first = List.of(save(1L), save(2L), save(3L));
+        
+        assertThat(a.service.publishLocal()).isEqualTo(3);
+        assertThat(b.service.publishLocal()).isEqualTo(3);
+        assertThat(a.published).isEqualTo(first);
+        assertThat(b.published).isEqualTo(first);
+        
+        // 首个实例取得租约并投递，包括启动前写入的事件
+        assertThat(a.service.dispatchPending()).isEqualTo(4);
+        Long late = save(4L);
+        assertThat(b.service.dispatchPending()).isZero();
+        assertThat(b.delivered).isEmpty();
+        assertThat(outboxRepository.findById(late).orElseThrow().getDispatchedAt()).isNull();
+        
+        // 租约过期后由另一实例接管，原持有者不再投递
+        OutboxLease lease = leaseRepository.findAll().get(0);
+        lease.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+        leaseRepository.save(lease);
+        assertThat(b.service.dispatchPending()).isEqualTo(1);
+        assertThat(b.delivered).containsExactly(late);
+        assertThat(a.service.dispatchPending()).isZero();
+        
+        // 已投递的事件不影响进程内发布
+        assertThat(a.service.publishLocal()).isEqualTo(1);
+        assertThat(b.service.publishLocal()).isEqualTo(1);
+        assertThat(a.published).endsWith(late);
+    }
+    
+    @Test
+    void eventCommittedAfterCursorPassedItIsPublishedLater() {
+        Instance instance = new Instance(event -> true);
+        Long first = save(1L);
+        Long uncommitted = save(2L);
+        Long third = save(3L);
+        outboxRepository.deleteById(uncommitted);
+        
+        assertThat(instance.service.publishLocal()).isEqualTo(2);
+        assertThat(instance.published).containsExactly(first, third);
+        
+        // 模拟持有该ID的事务此时才提交
+        jdbcTemplate.update("INSERT INTO user_outbox_events (event_id, user_id, event_type, created_at, attempts) " +
+                "VALUES (?, 2, 'UPDATED', CURRENT_TIMESTAMP, 0)", uncommitted);
+        assertThat(instance.service.publishLocal()).isEqualTo(1);
+        assertThat(instance.published).containsExactly(first, third, uncommitted);
+        assertThat(instance.service.publishLocal()).isZero();
+    }
+    
+    @Test
+    void failingEventIsParkedAfterMaxAttemptsWithoutBlockingLaterEvents() {
+        Instance instance = new Instance(event -> event.getUserId() != 2L);
+        outboxRepository.deleteAll();
+        Long first = save(1L);
+        Long poison = save(2L);
+        Long third = save(3L);
+        
+        // 第1次：整批失败，逐条重试时第一条成功，失败的事件之后停止
+        assertThat(instance.service.dispatchPending()).isEqualTo(1);
+        UserOutboxEvent failed = outboxRepository.findById(poison).orElseThrow();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getParkedAt()).isNull();
+        assertThat(failed.getLastError()).contains("投递失败");
+        assertThat(outboxRepository.findById(third).orElseThrow().getDispatchedAt()).isNull();
+        
+        // 第2次：达到上限后搁置，后续事件照常投递
+        assertThat(instance.service.dispatchPending()).isEqualTo(1);
+        UserOutboxEvent parked = outboxRepository.findById(poison).orElseThrow();
+        assertThat(parked.getAttempts()).isEqualTo(2);
+        assertThat(parked.getParkedAt()).isNotNull();
+        assertThat(parked.getDispatchedAt()).isNull();
+        assertThat(outboxRepository.findById(third).orElseThrow().getDispatchedAt()).isNotNull();
+        assertThat(instance.delivered).containsExactly(first, third);
+        
+        assertThat(instance.service.dispatchPending()).isZero();
+    }
+    
+    @Test
+    void cursorIsPositionedOnFirstPublishJustBeforeStartup() {
+        Long old = save(1L);
+        jdbcTemplate.update("UPDATE user_outbox_events SET created_at = ? WHERE event_id = ?",
+                LocalDateTime.now().minusHours(1), old);
+        Long recent = save(2L);
+        
+        // 创建实例不访问发件箱，第一次发布时定位游标：启动前余量内的事件也发布，更早的不发布
+        Instance instance = new Instance(event -> true, false);
+        Long afterStart = save(3L);
+        
+        assertThat(instance.service.publishLocal()).isEqualTo(2);
+        assertThat(instance.published).containsExactly(recent, afterStart);
+    }
+    
+    private Long save(Long userId) {
+        return outboxRepository.save(event(userId)).getEventId();
+    }
+    
+    private static UserOutboxEvent event(Long userId) {
+        UserOutboxEvent event = new UserOutboxEvent();
+        event.setUserId(userId);
+        event.setEventType(UserEventType.UPDATED);
+        return event;
+    }
+    
+    /**
+     * 一个应用实例：独立的服务对象、进程内订阅者和外部投递目标
+     */
+    private class Instance {
+        
+        final List<Long> published = new ArrayList<>();
+        final List<Long> delivered = new ArrayList<>();
+        final UserOutboxServiceImpl service;
+        
+        Instance(Predicate<UserChangeEvent> accepts) {
+            this(accepts, true);
+        }
+        
+        Instance(Predicate<UserChangeEvent> accepts, boolean drainExisting) {
+            UserEventSink sink = events -> {
+                for (UserChangeEvent event : events) {
+                    if (!accepts.test(event)) {
+                        throw new IllegalStateException("投递失败: " + event.getEventId());
+                    }
+                }
+                events.forEach(event -> delivered.add(event.getEventId()));
+            };
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("sink", sink);
+            service = new UserOutboxServiceImpl(outboxRepository, leaseRepository, properties, entityManager,
+                    objectMapper, event -> published.add(((UserChangeEvent) event).getEventId()),
+                    beans.getBeanProvider(UserEventSink.class), transactionManager);
+            if (drainExisting) {
+                service.publishLocal();
+                published.clear();
+            }
+        }
+    }
+}
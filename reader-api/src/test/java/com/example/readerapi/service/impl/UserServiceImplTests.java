@@ -0,0 +1,221 @@
+package com.example.readerapi.service.impl;
+
+import com.example.readerapi.entity.User;
+import com.example.readerapi.repository.UserRepository;
+import com.example.readerapi.service.UserArchiveService;
+import com.example.readerapi.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 注册唯一性与软删除测试
+ * 不预先查询，唯一键冲突须转换为与原来相同的提示，并发注册同一用户名只有一个成功；
+ * 归档保留期按删除时间计算，不受删除后写入的影响
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceImplTests {
+    
+    private static final int THREADS = 8;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UserArchiveService userArchiveService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+    
+    @Test
+    void duplicateKeysAreReportedByConstraint() {
+        userService.register(user("carol", "carol@reader.com", "13800000000"));
+        
+        assertThatThrownBy(() -> userService.register(user("carol", "other@reader.com", null)))
+                .hasMessage("用户名已存在");
+        assertThatThrownBy(() -> userService.register(user("dave", "carol@reader.com", null)))
+                .hasMessage("邮箱已存在");
+        assertThatThrownBy(() -> userService.register(user("dave", "dave@reader.com", "13800000000")))
+                .hasMessage("手机号已存在");
+        // 空手机号不占用唯一键
+        userService.register(user("dave", "dave@reader.com", ""));
+        User erin = userService.register(user("erin", "erin@reader.com", ""));
+        
+        User update = new User();
+        update.setUserId(erin.getUserId());
+        update.setPhone("13800000000");
+        assertThatThrownBy(() -> userService.updateUser(update)).hasMessage("手机号已被其他用户使用");
+        assertThat(userRepository.count()).isEqualTo(3);
+    }
+    
+    @Test
+    void concurrentRegistrationsOfSameUsernameHaveOneWinner() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                String email = "frank" + i + "@reader.com";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        userService.register(user("frank", email, null));
+                        return "ok";
+                    } catch (RuntimeException e) {
+                        return e.getMessage();
+                    }
+                }));
+            }
+            start.countDown();
+            List<String> outcomes = new ArrayList<>();
+            for (Future<String> result : results) {
+                outcomes.add(result.get(60, TimeUnit.SECONDS));
+            }
+            
+            assertThat(outcomes).containsOnlyOnce("ok");
+            assertThat(outcomes).filteredOn(outcome -> !"ok".equals(outcome))
+                    .hasSize(THREADS - 1)
+                    .containsOnly("用户名已存在");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void archiveRetentionCountsFromDeletedAtNotUpdatedAt() {
+        createTablesFromInitScript("users_archive");
+        
+        Long oldDeleted = userService.register(user("grace", "grace@reader.com", null)).getUserId();
+        Long recentDeleted = userService.register(user("heidi", "heidi@reader.com", null)).getUserId();
+        userService.deleteUser(oldDeleted);
+        userService.deleteUser(recentDeleted);
+        assertThat(userRepository.findById(oldDeleted).orElseThrow().getDeletedAt()).isNotNull();
+        
+        // 40天前删除、刚被登录计数之类的写入刷新了 updated_at；另一个刚删除但 updated_at 很旧
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("UPDATE users SET deleted_at = ?, updated_at = ? WHERE user_id = ?",
+                now.minusDays(40), now, oldDeleted);
+        jdbcTemplate.update("UPDATE users SET updated_at = ? WHERE user_id = ?", now.minusDays(40), recentDeleted);
+        
+        assertThat(userArchiveService.archiveDeletedUsers()).isEqualTo(1);
+        assertThat(userRepository.existsById(oldDeleted)).isFalse();
+        assertThat(userRepository.countArchivedById(oldDeleted)).isEqualTo(1);
+        
+        // 从归档表恢复和直接恢复都清空删除时间
+        assertThat(userArchiveService.restoreUser(oldDeleted)).isTrue();
+        assertThat(userArchiveService.restoreUser(recentDeleted)).isTrue();
+        for (Long userId : List.of(oldDeleted, recentDeleted)) {
+            User restored = userRepository.findById(userId).orElseThrow();
+            assertThat(restored.getDeleted()).isZero();
+            assertThat(restored.getDeletedAt()).isNull();
+        }
+    }
+    
+    @Test
+    void archiveAndRestoreKeepLoginLogsAndSessions() {
+        createTablesFromInitScript("users_archive", "user_login_logs", "user_sessions");
+        jdbcTemplate.update("DELETE FROM user_login_logs");
+        jdbcTemplate.update("DELETE FROM user_sessions");
+        
+        Long userId = userService.register(user("ivan", "ivan@reader.com", null)).getUserId();
+        jdbcTemplate.update("INSERT INTO user_login_logs (user_id, login_ip) VALUES (?, '10.0.0.1')", userId);
+        jdbcTemplate.update("INSERT INTO user_sessions (session_id, user_id, expires_at, ip_address) VALUES ('s1', ?, ?, '10.0.0.1')",
+                userId, LocalDateTime.now().plusDays(1));
+        userService.deleteUser(userId);
+        jdbcTemplate.update("UPDATE users SET deleted_at = ? WHERE user_id = ?", LocalDateTime.now().minusDays(40), userId);
+        
+        // 归档物理删除 users 行，登录日志和会话不能被级联删除
+        assertThat(userArchiveService.archiveDeletedUsers()).isEqualTo(1);
+        assertThat(userRepository.existsById(userId)).isFalse();
+        assertThat(countByUser("user_login_logs", userId)).isEqualTo(1);
+        assertThat(countByUser("user_sessions", userId)).isEqualTo(1);
+        
+        assertThat(userArchiveService.restoreUser(userId)).isTrue();
+        assertThat(userRepository.existsById(userId)).isTrue();
+        assertThat(countByUser("user_login_logs", userId)).isEqualTo(1);
+        assertThat(countByUser("user_sessions", userId)).isEqualTo(1);
+    }
+    
+    @Test
+    void restoreReportsWhichReleasedUniqueKeyWasTaken() {
+        createTablesFromInitScript("users_archive");
+        Long archived = userService.register(user("judy", "judy@reader.com", "13900000000")).getUserId();
+        userService.deleteUser(archived);
+        jdbcTemplate.update("UPDATE users SET deleted_at = ? WHERE user_id = ?", LocalDateTime.now().minusDays(40), archived);
+        assertThat(userArchiveService.archiveDeletedUsers()).isEqualTo(1);
+        
+        // 归档后手机号已释放，被新用户占用
+        Long newcomer = userService.register(user("kate", "kate@reader.com", "13900000000")).getUserId();
+        assertThatThrownBy(() -> userArchiveService.restoreUser(archived)).hasMessage("手机号已存在，无法恢复");
+        
+        userRepository.deleteById(newcomer);
+        userService.register(user("judy", "other@reader.com", null));
+        assertThatThrownBy(() -> userArchiveService.restoreUser(archived)).hasMessage("用户名已存在，无法恢复");
+        assertThat(userRepository.countArchivedById(archived)).isEqualTo(1);
+    }
+    
+    /**
+     * 测试库按实体建表，按 init_users_table.sql 中的定义补建指定的表，并清空归档表
+     */
+    private void createTablesFromInitScript(String... tables) {
+        String script;
+        try {
+            script = new ClassPathResource("sql/init_users_table.sql").getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String table : tables) {
+            String statement = Arrays.stream(script.split(";"))
+                    .map(sql -> sql.lines().filter(line -> !line.trim().startsWith("--")).collect(Collectors.joining("\n")).trim())
+                    .filter(sql -> sql.startsWith("CREATE TABLE IF NOT EXISTS `" + table + "`"))
+                    .findFirst()
+                    .orElseThrow();
+            // H2 的索引名在整个库内唯一，加上表名前缀
+            jdbcTemplate.execute(statement.replaceAll("(?<!PRIMARY )KEY `", "KEY `" + table + "_"));
+        }
+        jdbcTemplate.update("DELETE FROM users_archive");
+    }
+    
+    private long countByUser(String table, Long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Long.class, userId);
+    }
+    
+    private static User user(String username, String email, String phone) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret123");
+        user.setEmail(email);
+        user.setPhone(phone);
+        return user;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.readerapi.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录Hibernate执行的SQL语句
+ * 按线程记录，MockMvc请求在测试线程中执行，因此只统计被测请求本身发出的语句
+ */
+public class SqlStatementRecorder implements StatementInspector {
+    
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+    
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+    
+    /**
+     * 清空当前线程已记录的语句
+     */
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+    
+    /**
+     * 当前线程已记录的语句
+     * @return 语句列表副本
+     */
+    public static List<String> statements() {
+        return new ArrayList<>(STATEMENTS.get());
+    }
+    
+    /**
+     * 当前线程已记录的语句数量
+     * @return 语句数量
+     */
+    public static int count() {
+        return STATEMENTS.get().size();
+    }
+}
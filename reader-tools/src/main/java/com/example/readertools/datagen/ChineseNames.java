@@ -0,0 +1,96 @@
+package com.example.readertools.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * 中文姓名、昵称素材
+ * 姓氏按人口占比加权，前几个大姓覆盖约三分之一人口
+ */
+final class ChineseNames {
+    
+    private static final String[] SURNAMES = {
+            "王", "李", "张", "刘", "陈", "杨", "黄", "赵", "吴", "周",
+            "徐", "孙", "马", "朱", "胡", "郭", "何", "林", "罗", "高",
+            "郑", "梁", "谢", "宋", "唐", "许", "韩", "冯", "邓", "曹",
+            "彭", "曾", "肖", "田", "董", "袁", "潘", "于", "蒋", "蔡",
+            "余", "杜", "叶", "程", "苏", "魏", "吕", "丁", "任", "沈",
+            "欧阳", "司马", "诸葛", "上官"
+    };
+    
+    /**
+     * 姓氏权重（千分比），与 SURNAMES 一一对应
+     */
+    private static final int[] SURNAME_WEIGHTS = {
+            74, 72, 70, 54, 46, 32, 24, 23, 21, 18,
+            14, 13, 13, 12, 12, 11, 10, 10, 9, 9,
+            9, 8, 8, 7, 7, 7, 6, 6, 6, 6,
+            5, 5, 5, 5, 5, 4, 4, 4, 4, 4,
+            4, 4, 4, 4, 4, 4, 3, 3, 3, 3,
+            1, 1, 1, 1
+    };
+    
+    private static final int[] SURNAME_CUMULATIVE = cumulative(SURNAME_WEIGHTS);
+    
+    private static final String GIVEN_NAME_CHARS =
+            "伟芳娜秀英敏静丽强磊军洋勇艳杰娟涛明超秀兰霞平刚桂英华玉萍红娥玲芬燕彬鑫宇浩然轩涵梓萱子墨" +
+            "欣怡一诺雨泽博文思远晨阳佳琪嘉怡俊杰子豪梦瑶诗涵雅婷晓峰建国志强海燕丹凯鹏飞慧琳";
+    
+    private static final String[] NICKNAME_ADJECTIVES = {
+            "快乐的", "安静的", "爱读书的", "迷路的", "勇敢的", "慵懒的", "认真的", "午夜", "清晨", "小小"
+    };
+    
+    private static final String[] NICKNAME_NOUNS = {
+            "小猫", "书虫", "鲸鱼", "蜗牛", "旅人", "读者", "星星", "橘子", "熊猫", "月亮"
+    };
+    
+    private static final String[] NICKNAME_PREFIXES = {
+            "书虫", "读书人", "夜读", "booklover", "reader", "墨香"
+    };
+    
+    private ChineseNames() {
+    }
+    
+    /**
+     * 生成真实姓名：加权姓氏 + 1到2个名字用字
+     */
+    static String realName(SplittableRandom random) {
+        String surname = SURNAMES[pickWeighted(SURNAME_CUMULATIVE, random)];
+        int givenLength = random.nextInt(100) < 35 ? 1 : 2;
+        StringBuilder name = new StringBuilder(surname);
+        for (int i = 0; i < givenLength; i++) {
+            name.append(GIVEN_NAME_CHARS.charAt(random.nextInt(GIVEN_NAME_CHARS.length())));
+        }
+        return name.toString();
+    }
+    
+    /**
+     * 生成昵称：形容词 + 名词，或常见前缀 + 数字
+     */
+    static String nickname(SplittableRandom random) {
+        if (random.nextInt(100) < 60) {
+            return NICKNAME_ADJECTIVES[random.nextInt(NICKNAME_ADJECTIVES.length)]
+                    + NICKNAME_NOUNS[random.nextInt(NICKNAME_NOUNS.length)];
+        }
+        return NICKNAME_PREFIXES[random.nextInt(NICKNAME_PREFIXES.length)] + random.nextInt(10_000);
+    }
+    
+    private static int[] cumulative(int[] weights) {
+        int[] cumulative = new int[weights.length];
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+    
+    private static int pickWeighted(int[] cumulative, SplittableRandom random) {
+        int target = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (target < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.readertools.datagen;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户数据批量生成工具
+ * <p>
+ * 按 init_users_table.sql 的表结构直接向 users 表批量写入N个用户，多线程分段并行、每批一个事务。
+ * 密码使用启动时预先计算的少量BCrypt哈希（同一明文、不同盐），避免逐行计算BCrypt，千万级数据可在分钟级完成。
+ * <p>
+ * 用法：java -cp reader-tools.jar com.example.readertools.datagen.DatasetGenerator
+ *       --jdbc-url=jdbc:mysql://localhost:3306/reader --count=10000000 --threads=8
+ */
+public class DatasetGenerator {
+    
+    private static final String INSERT_SQL = "INSERT INTO users (username, password, email, phone, real_name, nickname, " +
+            "avatar_url, status, role, created_at, updated_at, last_login_at, last_login_ip, login_count, " +
+            "email_verified, phone_verified, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final DatasetOptions options;
+    private final AtomicLong inserted = new AtomicLong();
+    
+    public DatasetGenerator(DatasetOptions options) {
+        this.options = options;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        DatasetOptions options = DatasetOptions.parse(args);
+        System.out.printf("生成 %d 个用户（序号 %d 起，前缀 %s），线程数 %d，每批 %d 行%n",
+                options.getCount(), options.getStartIndex(), options.getUsernamePrefix(),
+                options.getThreads(), options.getBatchSize());
+        new DatasetGenerator(options).run();
+    }
+    
+    /**
+     * 执行数据生成
+     */
+    public void run() throws Exception {
+        String[] passwordHashes = precomputePasswordHashes();
+        UserRowFactory factory = new UserRowFactory(options, passwordHashes, LocalDateTime.now());
+        
+        long startNanos = System.nanoTime();
+        long perThread = (options.getCount() + options.getThreads() - 1) / options.getThreads();
+        ExecutorService executor = Executors.newFixedThreadPool(options.getThreads());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < options.getThreads(); t++) {
+            long from = options.getStartIndex() + t * perThread;
+            long to = Math.min(from + perThread, options.getStartIndex() + options.getCount());
+            if (from < to) {
+                futures.add(executor.submit(() -> {
+                    insertRange(factory, from, to);
+                    return null;
+                }));
+            }
+        }
+        executor.shutdown();
+        
+        while (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            printProgress(startNanos);
+        }
+        for (Future<?> future : futures) {
+            // 任一线程失败时抛出异常
+            future.get();
+        }
+        printProgress(startNanos);
+        System.out.printf("完成。登录密码统一为: %s%n", options.getPlainPassword());
+    }
+    
+    /**
+     * 预先计算一组BCrypt哈希：与 reader-api 的 BCryptPasswordEncoder 默认强度(10)一致
+     */
+    private String[] precomputePasswordHashes() {
+        System.out.printf("预计算 %d 个BCrypt密码哈希...%n", options.getPasswordHashes());
+        String[] hashes = new String[options.getPasswordHashes()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = BCrypt.hashpw(options.getPlainPassword(), BCrypt.gensalt(10));
+        }
+        return hashes;
+    }
+    
+    /**
+     * 写入 [from, to) 区间的用户，每批一个事务
+     */
+    private void insertRange(UserRowFactory factory, long from, long to) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(options.effectiveJdbcUrl(), options.getUser(), options.getPassword())) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // 行在生成时已保证唯一，关闭唯一性检查可以减少二级唯一索引的随机读
+                statement.execute("SET SESSION unique_checks = 0");
+            }
+            
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                int pending = 0;
+                for (long index = from; index < to; index++) {
+                    bind(insert, factory.create(index));
+                    insert.addBatch();
+                    if (++pending == options.getBatchSize()) {
+                        flush(connection, insert, pending);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    flush(connection, insert, pending);
+                }
+            }
+        }
+    }
+    
+    private void flush(Connection connection, PreparedStatement insert, int rows) throws SQLException {
+        insert.executeBatch();
+        connection.commit();
+        inserted.addAndGet(rows);
+    }
+    
+    private static void bind(PreparedStatement insert, UserRow row) throws SQLException {
+        insert.setString(1, row.username());
+        insert.setString(2, row.password());
+        insert.setString(3, row.email());
+        setNullableString(insert, 4, row.phone());
+        setNullableString(insert, 5, row.realName());
+        setNullableString(insert, 6, row.nickname());
+        setNullableString(insert, 7, row.avatarUrl());
+        insert.setInt(8, row.status());
+        insert.setInt(9, row.role());
+        insert.setTimestamp(10, Timestamp.valueOf(row.createdAt()));
+        insert.setTimestamp(11, Timestamp.valueOf(row.updatedAt()));
+        if (row.lastLoginAt() != null) {
+            insert.setTimestamp(12, Timestamp.valueOf(row.lastLoginAt()));
+        } else {
+            insert.setNull(12, Types.TIMESTAMP);
+        }
+        setNullableString(insert, 13, row.lastLoginIp());
+        insert.setInt(14, row.loginCount());
+        insert.setInt(15, row.emailVerified());
+        insert.setInt(16, row.phoneVerified());
+        insert.setInt(17, row.deleted());
+    }
+    
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value != null) {
+            statement.setString(index, value);
+        } else {
+            statement.setNull(index, Types.VARCHAR);
+        }
+    }
+    
+    private void printProgress(long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long done = inserted.get();
+        System.out.printf("已写入 %d / %d 行，耗时 %.0fs，%.0f 行/秒%n",
+                done, options.getCount(), seconds, done / Math.max(seconds, 0.001));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.readertools.datagen;
+
+/**
+ * 数据生成参数
+ * 命令行参数格式为 --name=value，未指定的参数使用默认值
+ */
+public class DatasetOptions {
+    
+    private String jdbcUrl = "jdbc:mysql://localhost:3306/reader";
+    private String user = "reader";
+    private String password = "reader";
+    private long count = 100_000;
+    private long startIndex = 0;
+    private String usernamePrefix = "dg";
+    private int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private int batchSize = 1000;
+    private long seed = 20240601L;
+    private double deletedRatio = 0.03;
+    private int years = 3;
+    private String plainPassword = "LoadTest123";
+    private int passwordHashes = 64;
+    
+    /**
+     * 解析命令行参数
+     * @param args 命令行参数
+     * @return 数据生成参数
+     */
+    public static DatasetOptions parse(String[] args) {
+        DatasetOptions options = new DatasetOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --name=value: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "jdbc-url" -> options.jdbcUrl = value;
+                case "user" -> options.user = value;
+                case "password" -> options.password = value;
+                case "count" -> options.count = Long.parseLong(value.replace("_", ""));
+                case "start-index" -> options.startIndex = Long.parseLong(value.replace("_", ""));
+                case "username-prefix" -> options.usernamePrefix = value;
+                case "threads" -> options.threads = Integer.parseInt(value);
+                case "batch-size" -> options.batchSize = Integer.parseInt(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "deleted-ratio" -> options.deletedRatio = Double.parseDouble(value);
+                case "years" -> options.years = Integer.parseInt(value);
+                case "plain-password" -> options.plainPassword = value;
+                case "password-hashes" -> options.passwordHashes = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("未知参数: --" + name);
+            }
+        }
+        // 用户名限制为20位，手机号后8位按序号唯一映射
+        if (options.usernamePrefix.length() + String.valueOf(options.startIndex + options.count).length() > 20) {
+            throw new IllegalArgumentException("用户名前缀过长，用户名不能超过20位");
+        }
+        if (options.startIndex + options.count > UserRowFactory.MAX_USERS) {
+            throw new IllegalArgumentException("最多生成 " + UserRowFactory.MAX_USERS + " 个用户");
+        }
+        return options;
+    }
+    
+    /**
+     * 开启批量语句重写，使 executeBatch 合并为多行 INSERT
+     * @return 实际使用的JDBC地址
+     */
+    public String effectiveJdbcUrl() {
+        if (jdbcUrl.contains("rewriteBatchedStatements")) {
+            return jdbcUrl;
+        }
+        return jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+    
+    public String getUser() {
+        return user;
+    }
+    
+    public String getPassword() {
+        return password;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public long getStartIndex() {
+        return startIndex;
+    }
+    
+    public String getUsernamePrefix() {
+        return usernamePrefix;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public double getDeletedRatio() {
+        return deletedRatio;
+    }
+    
+    public int getYears() {
+        return years;
+    }
+    
+    public String getPlainPassword() {
+        return plainPassword;
+    }
+    
+    public int getPasswordHashes() {
+        return passwordHashes;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.readertools.datagen;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待写入 users 表的一行数据，字段与 init_users_table.sql 一致
+ */
+record UserRow(
+        String username,
+        String password,
+        String email,
+        String phone,
+        String realName,
+        String nickname,
+        String avatarUrl,
+        int status,
+        int role,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime lastLoginAt,
+        String lastLoginIp,
+        int loginCount,
+        int emailVerified,
+        int phoneVerified,
+        int deleted) {
+}
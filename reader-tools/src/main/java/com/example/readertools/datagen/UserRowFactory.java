@@ -0,0 +1,127 @@
+package com.example.readertools.datagen;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+
+/**
+ * 按序号生成用户数据
+ * 每个序号使用独立的随机种子，相同参数下多次运行、任意线程划分都得到相同的数据
+ */
+final class UserRowFactory {
+    
+    /**
+     * 手机号后8位由序号唯一映射，因此最多支持1亿用户
+     */
+    static final long MAX_USERS = 100_000_000L;
+    
+    /**
+     * 与 10^8 互质的乘数，保证序号到手机号后8位是一一映射
+     */
+    private static final long PHONE_MULTIPLIER = 48_271L;
+    
+    /**
+     * 符合 ^1[3-9]\d{9}$ 的常见号段
+     */
+    private static final String[] PHONE_PREFIXES = {
+            "130", "131", "132", "133", "135", "136", "137", "138", "139",
+            "150", "151", "152", "155", "156", "157", "158", "159",
+            "166", "176", "177", "180", "181", "182", "185", "186", "187", "188", "189",
+            "191", "198", "199"
+    };
+    
+    private static final String[] EMAIL_DOMAINS = {
+            "qq.com", "qq.com", "qq.com", "163.com", "163.com", "126.com", "sina.com", "gmail.com", "outlook.com", "foxmail.com"
+    };
+    
+    private final DatasetOptions options;
+    private final String[] passwordHashes;
+    private final LocalDateTime now;
+    private final long spanMinutes;
+    
+    UserRowFactory(DatasetOptions options, String[] passwordHashes, LocalDateTime now) {
+        this.options = options;
+        this.passwordHashes = passwordHashes;
+        this.now = now.truncatedTo(ChronoUnit.SECONDS);
+        this.spanMinutes = ChronoUnit.MINUTES.between(now.minusYears(options.getYears()), now);
+    }
+    
+    /**
+     * 生成第 index 个用户
+     * @param index 用户序号
+     * @return 用户数据
+     */
+    UserRow create(long index) {
+        SplittableRandom random = new SplittableRandom(options.getSeed() * 0x9E3779B97F4A7C15L + index);
+        String username = options.getUsernamePrefix() + index;
+        
+        // 注册时间：近期注册的用户更多（用户规模持续增长）
+        double ageFraction = Math.pow(random.nextDouble(), 2);
+        LocalDateTime createdAt = now.minusMinutes((long) (ageFraction * spanMinutes));
+        long createdAgeMinutes = ChronoUnit.MINUTES.between(createdAt, now);
+        
+        // 最后登录：15%从未登录，其余强烈偏向最近（少数活跃用户贡献大部分登录）
+        LocalDateTime lastLoginAt = null;
+        String lastLoginIp = null;
+        int loginCount = 0;
+        if (random.nextInt(100) >= 15) {
+            lastLoginAt = now.minusMinutes((long) (Math.pow(random.nextDouble(), 4) * createdAgeMinutes));
+            lastLoginIp = randomIp(random);
+            // 登录次数近似对数均匀分布：1 ~ 2000
+            loginCount = (int) Math.exp(random.nextDouble() * Math.log(2000));
+        }
+        
+        boolean hasPhone = random.nextInt(100) < 75;
+        int status = pickStatus(random);
+        int deleted = random.nextDouble() < options.getDeletedRatio() ? 1 : 0;
+        
+        LocalDateTime updatedAt = lastLoginAt != null ? lastLoginAt : createdAt;
+        if (deleted == 1) {
+            // 软删除时间介于最后活动时间与当前时间之间
+            long idleMinutes = ChronoUnit.MINUTES.between(updatedAt, now);
+            updatedAt = updatedAt.plusMinutes((long) (random.nextDouble() * idleMinutes));
+        }
+        
+        return new UserRow(
+                username,
+                passwordHashes[random.nextInt(passwordHashes.length)],
+                username + "@" + EMAIL_DOMAINS[random.nextInt(EMAIL_DOMAINS.length)],
+                hasPhone ? phone(index, random) : null,
+                random.nextInt(100) < 80 ? ChineseNames.realName(random) : null,
+                random.nextInt(100) < 90 ? ChineseNames.nickname(random) : null,
+                random.nextInt(100) < 30 ? "https://cdn.reader.example/avatars/" + Long.toHexString(random.nextLong()) + ".jpg" : null,
+                status,
+                random.nextInt(1000) == 0 ? 1 : 0,
+                createdAt,
+                updatedAt,
+                lastLoginAt,
+                lastLoginIp,
+                loginCount,
+                random.nextInt(100) < 70 ? 1 : 0,
+                hasPhone && random.nextInt(100) < 60 ? 1 : 0,
+                deleted);
+    }
+    
+    /**
+     * 用户状态：95%正常，3%禁用，2%锁定
+     */
+    private static int pickStatus(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 95) {
+            return 1;
+        }
+        return roll < 98 ? 0 : 2;
+    }
+    
+    /**
+     * 手机号：随机号段 + 由序号唯一映射的后8位，保证不重复
+     */
+    private static String phone(long index, SplittableRandom random) {
+        long suffix = (index * PHONE_MULTIPLIER + 12_345L) % MAX_USERS;
+        return PHONE_PREFIXES[random.nextInt(PHONE_PREFIXES.length)] + String.format("%08d", suffix);
+    }
+    
+    private static String randomIp(SplittableRandom random) {
+        return (random.nextInt(223) + 1) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + (random.nextInt(254) + 1);
+    }
+}
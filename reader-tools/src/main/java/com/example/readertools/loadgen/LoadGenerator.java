@@ -0,0 +1,177 @@
+package com.example.readertools.loadgen;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * reader-api 压测工具入口
+ * <p>
+ * 采用开放模型：按固定到达率发出请求，不等待前一个请求完成，每个请求在自己的虚拟线程中执行。
+ * 延迟从"计划发送时间"开始计算，服务端变慢时排队时间会如实计入延迟，而不会像闭环压测那样被掩盖。
+ * <p>
+ * 用法：java -jar reader-tools.jar --base-url=http://localhost:8080 --rate=200 --duration=60s
+ */
+public class LoadGenerator {
+    
+    private final LoadOptions options;
+    private final ReaderApiClient client;
+    private final UserPool userPool = new UserPool();
+    private final Operation[] schedule;
+    
+    public LoadGenerator(LoadOptions options) {
+        this.options = options;
+        this.client = new ReaderApiClient(options.getBaseUrl(), options.getRequestTimeout());
+        this.schedule = buildSchedule(options.getMix());
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        System.out.printf("目标: %s, 到达率: %.1f req/s, 预热: %ds, 持续: %ds, 操作比例: %s%n",
+                options.getBaseUrl(), options.getRate(), options.getWarmup().toSeconds(),
+                options.getDuration().toSeconds(), options.getMix());
+        new LoadGenerator(options).run();
+    }
+    
+    /**
+     * 执行完整的压测流程：准备用户 -> 预热（结果丢弃） -> 正式压测 -> 输出报告
+     */
+    public void run() throws InterruptedException {
+        seedUsers();
+        
+        if (!options.getWarmup().isZero()) {
+            System.out.println("预热中...");
+            runPhase(options.getWarmup().toNanos());
+        }
+        
+        System.out.println("正式压测中...");
+        long startNanos = System.nanoTime();
+        Map<Operation, OperationStats> stats = runPhase(options.getDuration().toNanos());
+        long elapsedNanos = System.nanoTime() - startNanos;
+        
+        LoadReport.print(stats, elapsedNanos);
+    }
+    
+    /**
+     * 预先注册一批用户，供登录、查询等操作使用
+     */
+    private void seedUsers() throws InterruptedException {
+        System.out.printf("注册 %d 个种子用户...%n", options.getSeedUsers());
+        for (int i = 0; i < options.getSeedUsers(); i++) {
+            String username = userPool.nextUsername();
+            try {
+                HttpResponse<String> response = client.register(username, UserPool.PASSWORD);
+                long userId = client.parseUserId(response.body());
+                if (response.statusCode() == 200 && userId > 0) {
+                    userPool.add(username, userId);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("无法连接 " + options.getBaseUrl() + ": " + e.getMessage(), e);
+            }
+        }
+        if (userPool.size() == 0) {
+            throw new IllegalStateException("种子用户注册全部失败，请检查 reader-api 是否正常运行");
+        }
+    }
+    
+    /**
+     * 按固定到达率执行一个阶段
+     * @param phaseNanos 阶段时长
+     * @return 各操作的统计数据
+     */
+    private Map<Operation, OperationStats> runPhase(long phaseNanos) throws InterruptedException {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        
+        Semaphore inFlight = new Semaphore(options.getMaxInFlight());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long startNanos = System.nanoTime();
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long n = 0; ; n++) {
+                long intendedStart = startNanos + (long) (n * intervalNanos);
+                if (intendedStart - startNanos >= phaseNanos) {
+                    break;
+                }
+                long waitNanos = intendedStart - System.nanoTime();
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+                
+                Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                OperationStats operationStats = stats.get(operation);
+                if (!inFlight.tryAcquire()) {
+                    // 并发已达上限仍按计划继续发送后续请求，本次计为丢弃
+                    operationStats.recordDropped();
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        execute(operation, intendedStart, operationStats);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // try-with-resources 关闭时等待所有在途请求完成
+        }
+        return stats;
+    }
+    
+    /**
+     * 执行一次操作并记录结果
+     */
+    private void execute(Operation operation, long intendedStart, OperationStats stats) {
+        int status = OperationStats.NO_RESPONSE;
+        try {
+            HttpResponse<String> response = send(operation);
+            status = response.statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // 超时、连接失败等，记为无响应
+        }
+        stats.record(System.nanoTime() - intendedStart, status, status == operation.expectedStatus());
+    }
+    
+    private HttpResponse<String> send(Operation operation) throws Exception {
+        UserPool.PooledUser user = userPool.random();
+        return switch (operation) {
+            case REGISTER -> {
+                String username = userPool.nextUsername();
+                HttpResponse<String> response = client.register(username, UserPool.PASSWORD);
+                long userId = client.parseUserId(response.body());
+                if (response.statusCode() == 200 && userId > 0) {
+                    userPool.add(username, userId);
+                }
+                yield response;
+            }
+            case LOGIN -> client.login(user.username(), UserPool.PASSWORD);
+            case LOGIN_BAD_PASSWORD -> client.login(user.username(), UserPool.PASSWORD + "x");
+            case PROFILE -> client.getUser(user.userId());
+            case SEARCH -> client.search(user.username());
+            case STATISTICS -> client.statistics();
+        };
+    }
+    
+    /**
+     * 按权重展开为长度100左右的操作表，随机下标即可按比例抽取
+     */
+    private static Operation[] buildSchedule(Map<Operation, Integer> mix) {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        return mix.entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey)
+                        .limit(Math.max(1, Math.round(entry.getValue() * 100.0 / totalWeight))))
+                .toArray(Operation[]::new);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.readertools.loadgen;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 压测参数
+ * 命令行参数格式为 --name=value，未指定的参数使用默认值
+ */
+public class LoadOptions {
+    
+    /**
+     * 默认操作比例：登录为主，少量注册和统计
+     */
+    private static final String DEFAULT_MIX = "register:5,login:40,login-bad:10,profile:25,search:15,statistics:5";
+    
+    private String baseUrl = "http://localhost:8080";
+    private double rate = 100;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private int seedUsers = 100;
+    private int maxInFlight = 1000;
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+    
+    /**
+     * 解析命令行参数
+     * @param args 命令行参数
+     * @return 压测参数
+     */
+    public static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --name=value: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "base-url" -> options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "rate" -> options.rate = Double.parseDouble(value);
+                case "duration" -> options.duration = parseDuration(value);
+                case "warmup" -> options.warmup = parseDuration(value);
+                case "seed-users" -> options.seedUsers = Integer.parseInt(value);
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "timeout" -> options.requestTimeout = parseDuration(value);
+                case "mix" -> options.mix = parseMix(value);
+                default -> throw new IllegalArgumentException("未知参数: --" + name);
+            }
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("--rate 必须大于0");
+        }
+        return options;
+    }
+    
+    /**
+     * 解析时长，支持 500ms、30s、5m 格式
+     */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+    
+    /**
+     * 解析操作比例，格式为 name:weight,name:weight
+     */
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("操作比例格式应为 name:weight: " + part);
+            }
+            int weight = Integer.parseInt(pair[1]);
+            if (weight > 0) {
+                mix.put(Operation.fromKey(pair[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("操作比例不能为空");
+        }
+        return mix;
+    }
+    
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+    
+    public double getRate() {
+        return rate;
+    }
+    
+    public Duration getDuration() {
+        return duration;
+    }
+    
+    public Duration getWarmup() {
+        return warmup;
+    }
+    
+    public int getSeedUsers() {
+        return seedUsers;
+    }
+    
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+    
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+    
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.readertools.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 压测报告输出
+ * 每个操作输出请求数、吞吐量和延迟分位数（毫秒）
+ */
+public final class LoadReport {
+    
+    private static final String HEADER_FORMAT = "%-12s %9s %9s %8s %8s %10s %9s %9s %9s %9s %9s%n";
+    private static final String ROW_FORMAT = "%-12s %9d %9d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n";
+    
+    private LoadReport() {
+    }
+    
+    /**
+     * 打印报告
+     * @param stats 各操作的统计数据
+     * @param elapsedNanos 压测实际耗时
+     */
+    public static void print(Map<Operation, OperationStats> stats, long elapsedNanos) {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        Histogram total = null;
+        long totalOk = 0;
+        long totalFailed = 0;
+        long totalDropped = 0;
+        
+        System.out.println();
+        System.out.printf("压测耗时 %.1fs%n", seconds);
+        System.out.printf(HEADER_FORMAT, "operation", "requests", "ok", "failed", "dropped",
+                "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram histogram = operationStats.takeHistogram();
+            if (histogram.getTotalCount() == 0 && operationStats.getDropped() == 0) {
+                continue;
+            }
+            printRow(entry.getKey().key(), histogram, operationStats.getSucceeded(),
+                    operationStats.getFailed(), operationStats.getDropped(), seconds);
+            
+            if (total == null) {
+                total = histogram.copy();
+            } else {
+                total.add(histogram);
+            }
+            totalOk += operationStats.getSucceeded();
+            totalFailed += operationStats.getFailed();
+            totalDropped += operationStats.getDropped();
+        }
+        
+        if (total != null) {
+            printRow("total", total, totalOk, totalFailed, totalDropped, seconds);
+        }
+        
+        System.out.println();
+        System.out.println("状态码分布（-1 表示无响应）：");
+        stats.forEach((operation, operationStats) -> {
+            if (!operationStats.getStatusCounts().isEmpty()) {
+                System.out.printf("  %-12s %s%n", operation.key(), operationStats.getStatusCounts());
+            }
+        });
+    }
+    
+    private static void printRow(String name, Histogram histogram, long ok, long failed, long dropped, double seconds) {
+        System.out.printf(ROW_FORMAT, name, histogram.getTotalCount(), ok, failed, dropped,
+                histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.readertools.loadgen;
+
+/**
+ * 压测操作类型
+ * 每种操作对应 reader-api 的一个接口，并声明被视为成功的HTTP状态码
+ */
+public enum Operation {
+    
+    /**
+     * 注册新用户：POST /api/users/register
+     */
+    REGISTER("register", 200),
+    
+    /**
+     * 正确密码登录：POST /api/users/login
+     */
+    LOGIN("login", 200),
+    
+    /**
+     * 错误密码登录：POST /api/users/login，预期返回401
+     */
+    LOGIN_BAD_PASSWORD("login-bad", 401),
+    
+    /**
+     * 获取用户信息：GET /api/users/{userId}
+     */
+    PROFILE("profile", 200),
+    
+    /**
+     * 搜索用户：GET /api/users/search?keyword=
+     */
+    SEARCH("search", 200),
+    
+    /**
+     * 用户统计：GET /api/users/statistics
+     */
+    STATISTICS("statistics", 200);
+    
+    private final String key;
+    private final int expectedStatus;
+    
+    Operation(String key, int expectedStatus) {
+        this.key = key;
+        this.expectedStatus = expectedStatus;
+    }
+    
+    public String key() {
+        return key;
+    }
+    
+    public int expectedStatus() {
+        return expectedStatus;
+    }
+    
+    /**
+     * 根据命令行中使用的名称查找操作
+     * @param key 操作名称，如 login-bad
+     * @return 操作类型
+     */
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("未知的操作类型: " + key);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.readertools.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个操作的统计数据
+ * 延迟以微秒记录，从计划发送时间算起（而非实际发送时间），避免协调遗漏（coordinated omission）
+ */
+public class OperationStats {
+    
+    /**
+     * 可记录的最大延迟：60秒
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    
+    /**
+     * 表示请求未得到HTTP响应（超时、连接失败等）的状态码
+     */
+    public static final int NO_RESPONSE = -1;
+    
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    
+    /**
+     * 记录一次完成的请求
+     * @param latencyNanos 从计划发送时间到收到响应的时长
+     * @param status HTTP状态码，无响应时为 NO_RESPONSE
+     * @param success 状态码是否符合预期
+     */
+    public void record(long latencyNanos, int status, boolean success) {
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        (success ? succeeded : failed).increment();
+        statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+    
+    /**
+     * 记录一次因并发上限而未发送的请求
+     */
+    public void recordDropped() {
+        dropped.increment();
+    }
+    
+    /**
+     * 取出并清空当前累积的延迟分布
+     * @return 延迟分布（微秒）
+     */
+    public Histogram takeHistogram() {
+        return recorder.getIntervalHistogram();
+    }
+    
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+    
+    public long getFailed() {
+        return failed.sum();
+    }
+    
+    public long getDropped() {
+        return dropped.sum();
+    }
+    
+    /**
+     * 各状态码出现的次数，按状态码排序
+     * @return 状态码 -> 次数
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
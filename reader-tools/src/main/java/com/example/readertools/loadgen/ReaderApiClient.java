@@ -0,0 +1,110 @@
+package com.example.readertools.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * reader-api 用户接口的HTTP客户端
+ * 方法均为阻塞调用，由压测器在虚拟线程中执行
+ */
+public class ReaderApiClient {
+    
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    
+    public ReaderApiClient(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+    
+    /**
+     * 注册用户
+     * @return HTTP响应
+     */
+    public HttpResponse<String> register(String username, String password) throws IOException, InterruptedException {
+        return postJson("/api/users/register", Map.of(
+                "username", username,
+                "password", password,
+                "email", username + "@loadgen.local",
+                "nickname", "压测" + username));
+    }
+    
+    /**
+     * 登录
+     * @return HTTP响应
+     */
+    public HttpResponse<String> login(String username, String password) throws IOException, InterruptedException {
+        return postJson("/api/users/login", Map.of("username", username, "password", password));
+    }
+    
+    /**
+     * 获取用户信息
+     * @return HTTP响应
+     */
+    public HttpResponse<String> getUser(long userId) throws IOException, InterruptedException {
+        return get("/api/users/" + userId);
+    }
+    
+    /**
+     * 搜索用户
+     * @return HTTP响应
+     */
+    public HttpResponse<String> search(String keyword) throws IOException, InterruptedException {
+        return get("/api/users/search?keyword=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 获取用户统计信息
+     * @return HTTP响应
+     */
+    public HttpResponse<String> statistics() throws IOException, InterruptedException {
+        return get("/api/users/statistics");
+    }
+    
+    /**
+     * 从注册/登录响应中解析用户ID
+     * @param body 响应体
+     * @return 用户ID，解析失败返回-1
+     */
+    public long parseUserId(String body) {
+        try {
+            JsonNode userId = objectMapper.readTree(body).path("data").path("userId");
+            return userId.isNumber() ? userId.asLong() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+    
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private HttpResponse<String> postJson(String path, Map<String, String> body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.readertools.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测过程中已注册的用户
+ * 登录、查询、搜索等操作从中随机选取目标用户
+ */
+public class UserPool {
+    
+    /**
+     * 压测用户的统一密码（满足"至少6位且包含字母和数字"的规则）
+     */
+    public static final String PASSWORD = "LoadTest123";
+    
+    private final List<PooledUser> users = new ArrayList<>();
+    private final String runPrefix;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public UserPool() {
+        // 用户名限制为3-20位字母数字下划线：lg + 4位运行标识 + 序号
+        long runId = ThreadLocalRandom.current().nextLong(36L * 36 * 36 * 36);
+        this.runPrefix = "lg" + Long.toString(runId, 36);
+    }
+    
+    /**
+     * 生成一个本次运行内唯一的用户名
+     * @return 用户名
+     */
+    public String nextUsername() {
+        return runPrefix + "_" + Long.toString(sequence.incrementAndGet(), 36);
+    }
+    
+    /**
+     * 记录注册成功的用户
+     * @param username 用户名
+     * @param userId 用户ID
+     */
+    public synchronized void add(String username, long userId) {
+        users.add(new PooledUser(username, userId));
+    }
+    
+    /**
+     * 随机选取一个用户
+     * @return 用户，池为空时返回null
+     */
+    public synchronized PooledUser random() {
+        if (users.isEmpty()) {
+            return null;
+        }
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+    
+    public synchronized int size() {
+        return users.size();
+    }
+    
+    /**
+     * 已注册的压测用户
+     * @param username 用户名
+     * @param userId 用户ID
+     */
+    public record PooledUser(String username, long userId) {
+    }
+}